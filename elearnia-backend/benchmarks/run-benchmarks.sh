@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Lance les benchmarks JMH et compare les résultats à baseline/results.json.
+#
+#   ./run-benchmarks.sh                      tous les benchmarks
+#   ./run-benchmarks.sh Jwt                  benchmarks dont le nom contient "Jwt" (options JMH acceptées)
+#   ./run-benchmarks.sh --update-baseline    remplace la baseline par les résultats de cette exécution
+#
+# THRESHOLD : dégradation tolérée en % (10 par défaut). Code de sortie 1 en cas de régression.
+set -euo pipefail
+cd "$(dirname "$0")"
+
+UPDATE_BASELINE=false
+if [[ "${1:-}" == "--update-baseline" ]]; then
+    UPDATE_BASELINE=true
+    shift
+fi
+
+# Le module dépend du jar standard du backend
+(cd .. && mvn -B -q install -DskipTests)
+mvn -B -q package
+
+RESULTS=target/jmh-results.json
+java -jar target/benchmarks.jar -rf json -rff "$RESULTS" "$@"
+
+if $UPDATE_BASELINE; then
+    cp "$RESULTS" baseline/results.json
+    echo "Baseline mise à jour : baseline/results.json"
+else
+    java -cp target/benchmarks.jar com.elearnia.benchmarks.BaselineComparator \
+        "$RESULTS" baseline/results.json "${THRESHOLD:-10}"
+fi
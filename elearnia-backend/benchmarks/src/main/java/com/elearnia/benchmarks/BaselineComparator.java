@@ -0,0 +1,105 @@
+package com.elearnia.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compare un résultat JMH (-rf json) à la baseline versionnée et sort en erreur (code 1) si un
+ * benchmark s'est dégradé de plus du seuil : score plus bas en débit (thrpt), plus haut en temps
+ * (avgt, sample, ss). Les benchmarks absents de la baseline sont seulement signalés.
+ *
+ * Usage : BaselineComparator &lt;résultats.json&gt; &lt;baseline.json&gt; [seuil en %, 10 par défaut]
+ */
+public final class BaselineComparator {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    private record Score(String mode, double value, String unit) {
+    }
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <résultats.json> <baseline.json> [seuil %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Score> current = read(new File(args[0]));
+        Map<String, Score> baseline = read(new File(args[1]));
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            String key = entry.getKey();
+            Score now = entry.getValue();
+            Score before = baseline.get(key);
+            if (before == null) {
+                System.out.printf("NOUVEAU     %s : %.3f %s%n", key, now.value(), now.unit());
+                continue;
+            }
+            if (!before.mode().equals(now.mode()) || !before.unit().equals(now.unit()) || before.value() == 0) {
+                System.out.printf("IGNORÉ      %s : mode ou unité différents de la baseline (%s %s / %s %s)%n",
+                        key, before.mode(), before.unit(), now.mode(), now.unit());
+                continue;
+            }
+            // Positif = dégradation, quel que soit le sens du score
+            double change = (now.value() - before.value()) / before.value() * 100.0;
+            double degradation = "thrpt".equals(now.mode()) ? -change : change;
+            String status = degradation > threshold ? "RÉGRESSION" : "OK";
+            System.out.printf("%-11s %s : %.3f -> %.3f %s (%+.1f %%)%n",
+                    status, key, before.value(), now.value(), now.unit(), change);
+            if (degradation > threshold) {
+                regressions.add(key);
+            }
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("ABSENT      %s : présent dans la baseline, non exécuté%n", key);
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.out.printf("%d benchmark(s) dégradé(s) de plus de %.1f %% : %s%n", regressions.size(), threshold, regressions);
+            System.exit(1);
+        }
+        System.out.printf("Aucune dégradation au-delà de %.1f %%%n", threshold);
+    }
+
+    /**
+     * Scores indexés par "benchmark{paramètres}" (les variantes @Param sont comparées séparément).
+     */
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        JsonNode root = new ObjectMapper().readTree(file);
+        if (root == null || !root.isArray()) {
+            return scores;
+        }
+        for (JsonNode result : root) {
+            String key = result.path("benchmark").asText();
+            JsonNode params = result.path("params");
+            if (params.isObject() && params.size() > 0) {
+                Map<String, String> sorted = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    sorted.put(field.getKey(), field.getValue().asText());
+                }
+                key += sorted;
+            }
+            JsonNode metric = result.path("primaryMetric");
+            scores.put(key, new Score(result.path("mode").asText(), metric.path("score").asDouble(),
+                    metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,72 @@
+package com.elearnia.benchmarks;
+
+import com.elearnia.dto.CourseDto;
+import com.elearnia.dto.StudentCourseDto;
+import com.elearnia.model.Role;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation JSON des réponses du catalogue (GET /student/courses, GET /teacher/courses) avec
+ * un ObjectMapper configuré comme celui de Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogSerializationBenchmark {
+
+    @Param({"50", "500"})
+    private int courseCount;
+
+    private ObjectMapper objectMapper;
+    private List<StudentCourseDto> studentCourses;
+    private List<CourseDto> courses;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        studentCourses = new ArrayList<>(courseCount);
+        courses = new ArrayList<>(courseCount);
+        for (int i = 0; i < courseCount; i++) {
+            long id = i + 1;
+            String title = "Cours " + id + " : développement d'applications";
+            String description = "Description du cours " + id + ". ".repeat(20);
+            String imageUrl = "/api/files/images/cours-" + id + ".jpg";
+            studentCourses.add(new StudentCourseDto(id, title, description, "Professeur " + (i % 20),
+                    imageUrl, (i * 7) % 101, i % 5 == 0));
+            courses.add(new CourseDto(id, title, description, imageUrl,
+                    new CourseDto.TeacherDto((long) (i % 20), "Professeur " + (i % 20),
+                            "prof" + (i % 20) + "@elearnia.test", Role.TEACHER),
+                    i % 4 != 0));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeStudentCatalog() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(studentCourses);
+    }
+
+    @Benchmark
+    public byte[] serializeCourses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(courses);
+    }
+}
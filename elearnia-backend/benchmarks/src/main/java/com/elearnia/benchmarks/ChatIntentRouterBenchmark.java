@@ -0,0 +1,76 @@
+package com.elearnia.benchmarks;
+
+import com.elearnia.service.ChatIntentRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classification des messages du chatbot avec la table chatbot/intents.properties du backend,
+ * en messages par seconde, sur des formulations d'étudiants (corpus/chat-messages.txt).
+ * Le @Setup vérifie l'intention attendue de chaque message avant la mesure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatIntentRouterBenchmark {
+
+    // Taille de corpus/chat-messages.txt, vérifiée au @Setup (score en messages/s)
+    private static final int MESSAGES = 27;
+
+    private ChatIntentRouter router;
+    private String[] messages;
+
+    @Setup
+    public void setup() {
+        router = new ChatIntentRouter(new DefaultResourceLoader());
+        BenchmarkSupport.setField(router, "intentsLocation", "classpath:chatbot/intents.properties");
+        BenchmarkSupport.setField(router, "minConfidence", 1.0);
+        router.init();
+
+        List<String> lines = BenchmarkSupport.readLines("corpus/chat-messages.txt");
+        if (lines.size() != MESSAGES) {
+            throw new IllegalStateException("Corpus de " + lines.size() + " messages, " + MESSAGES + " attendus");
+        }
+        messages = new String[lines.size()];
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int separator = line.lastIndexOf('|');
+            messages[i] = line.substring(0, separator);
+            String expected = line.substring(separator + 1).trim();
+            String actual = router.route(messages[i]).getIntent();
+            if (!expected.equals(actual)) {
+                failures.add("\"" + messages[i] + "\" -> " + actual + " (attendu " + expected + ")");
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Intentions inattendues: " + failures);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void routeMessages(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(router.route(message));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.elearnia.benchmarks;
+
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.security.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation du JWT, exécutée par JwtAuthenticationFilter à chaque requête authentifiée :
+ * extraction du sujet puis vérification de la signature et de l'expiration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        BenchmarkSupport.setField(jwtService, "jwtSecret", "benchmark-secret-benchmark-secret-benchmark-secret-0123456789");
+        BenchmarkSupport.setField(jwtService, "jwtExpirationMs", 86_400_000L);
+        user = User.builder()
+                .id(1L)
+                .fullName("Étudiant Benchmark")
+                .email("etudiant@elearnia.test")
+                .password("x")
+                .role(Role.LEARNER)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    // Chemin du filtre : sujet, puis validation complète
+    @Benchmark
+    public boolean validateRequestToken() {
+        String username = jwtService.extractUsername(token);
+        return username != null && jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+}
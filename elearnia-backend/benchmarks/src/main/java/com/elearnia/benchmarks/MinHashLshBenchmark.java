@@ -0,0 +1,64 @@
+package com.elearnia.benchmarks;
+
+import com.elearnia.util.MinHashLsh;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Détection de questions quasi identiques (QuestionSimilarityIndex) avec les paramètres de
+ * application.properties (n-grammes de 4, 32 bandes de 4 lignes) : signature d'une nouvelle
+ * question puis recherche des candidats dans un index déjà rempli.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MinHashLshBenchmark {
+
+    private static final String[] SUBJECTS = {"Java", "Python", "Spring Boot", "Flutter", "React", "SQL", "Angular"};
+    private static final String[] TOPICS = {"les collections", "la gestion des erreurs", "les tests unitaires",
+            "l'injection de dépendances", "les requêtes HTTP", "la programmation asynchrone", "les index"};
+
+    @Param({"1000", "10000"})
+    private int indexedQuestions;
+
+    private MinHashLsh index;
+    private String question;
+
+    @Setup
+    public void setup() {
+        index = new MinHashLsh(4, 32, 4);
+        for (int i = 0; i < indexedQuestions; i++) {
+            index.put(i, index.signature(questionText(i)));
+        }
+        // Reformulation d'une question indexée : doit produire au moins un candidat
+        question = questionText(indexedQuestions / 2).replace("Quelle affirmation", "Quelle proposition");
+        if (index.candidates(index.signature(question)).isEmpty()) {
+            throw new IllegalStateException("Aucun candidat pour une question quasi identique");
+        }
+    }
+
+    @Benchmark
+    public Set<Long> findNearDuplicates() {
+        return index.candidates(index.signature(question));
+    }
+
+    private static String questionText(int i) {
+        return "Quelle affirmation est correcte à propos de " + TOPICS[i % TOPICS.length] + " en "
+                + SUBJECTS[(i / TOPICS.length) % SUBJECTS.length] + " (exercice " + i + ") ?";
+    }
+}
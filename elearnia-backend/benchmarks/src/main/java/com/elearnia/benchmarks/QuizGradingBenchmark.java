@@ -0,0 +1,70 @@
+package com.elearnia.benchmarks;
+
+import com.elearnia.entities.Question;
+import com.elearnia.service.QuizGrader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Correction d'une soumission (QuizController.submitQuiz / submitStandaloneQuiz, hors accès base) :
+ * conversion des réponses reçues puis calcul du score. Une réponse sur trois est fausse, une sur
+ * dix absente, et quelques clés sont invalides comme dans les soumissions réelles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuizGradingBenchmark {
+
+    @Param({"10", "50"})
+    private int questionCount;
+
+    private List<Question> questions;
+    private Map<String, String> submittedAnswers;
+
+    @Setup
+    public void setup() {
+        questions = new ArrayList<>(questionCount);
+        submittedAnswers = new HashMap<>();
+        for (int i = 0; i < questionCount; i++) {
+            long id = 1000L + i;
+            List<String> options = List.of("Option A " + i, "Option B " + i, "Option C " + i, "Option D " + i);
+            questions.add(Question.builder()
+                    .id(id)
+                    .text("Question de benchmark numéro " + i + " ?")
+                    .options(options)
+                    .correctAnswer(options.get(i % 4))
+                    .points(1 + i % 3)
+                    .build());
+            if (i % 10 == 9) {
+                continue;
+            }
+            String answer = i % 3 == 2 ? options.get((i + 1) % 4) : options.get(i % 4).toUpperCase();
+            submittedAnswers.put(Long.toString(id), answer);
+        }
+        submittedAnswers.put("undefined", "Option A");
+        submittedAnswers.put("q-1", "Option B");
+    }
+
+    @Benchmark
+    public double gradeSubmission() {
+        return QuizGrader.score(questions, QuizGrader.parseAnswers(submittedAnswers));
+    }
+}
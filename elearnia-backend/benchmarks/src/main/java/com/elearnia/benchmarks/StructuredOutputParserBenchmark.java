@@ -0,0 +1,104 @@
+package com.elearnia.benchmarks;
+
+import com.elearnia.service.StructuredOutputParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecture des sorties de modèles utilisée par AICourseGeneratorService (parseQuestionsFromAI et
+ * parseLessonsFromAI délèguent à {@link StructuredOutputParser}) sur corpus/ai-outputs.txt :
+ * réponses valides, tronquées, entourées de markdown ou mal formées.
+ *
+ * Le @Setup vérifie d'abord chaque cas du corpus (aucune exception, nombre minimal d'éléments
+ * valides) : une régression de la réparation échoue ici avant toute mesure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructuredOutputParserBenchmark {
+
+    private static final String CASE_HEADER = "=== ";
+
+    private record Case(String name, boolean questions, int minItems, String response) {
+    }
+
+    private StructuredOutputParser parser;
+    private List<Case> cases;
+
+    @Setup
+    public void setup() {
+        parser = new StructuredOutputParser(new SimpleMeterRegistry());
+        cases = readCases(BenchmarkSupport.readResource("corpus/ai-outputs.txt"));
+        List<String> failures = new ArrayList<>();
+        for (Case c : cases) {
+            try {
+                int items = parse(c).getItems().size();
+                if (items < c.minItems()) {
+                    failures.add(c.name() + ": " + items + " élément(s), au moins " + c.minItems() + " attendu(s)");
+                }
+            } catch (RuntimeException e) {
+                failures.add(c.name() + ": " + e);
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Corpus de sorties IA en échec: " + failures);
+        }
+    }
+
+    // Une opération = le corpus entier
+    @Benchmark
+    public void parseCorpus(Blackhole blackhole) {
+        for (Case c : cases) {
+            blackhole.consume(parse(c));
+        }
+    }
+
+    private StructuredOutputParser.Result<?> parse(Case c) {
+        return c.questions() ? parser.parseQuestions(c.response()) : parser.parseLessons(c.response());
+    }
+
+    private static List<Case> readCases(String content) {
+        List<Case> result = new ArrayList<>();
+        String[] header = null;
+        StringBuilder body = new StringBuilder();
+        for (String line : content.split("\n", -1)) {
+            if (line.startsWith(CASE_HEADER)) {
+                if (header != null) {
+                    result.add(toCase(header, body));
+                }
+                header = line.substring(CASE_HEADER.length()).trim().split("\\s+");
+                body.setLength(0);
+            } else if (header != null) {
+                body.append(line).append('\n');
+            }
+        }
+        if (header != null) {
+            result.add(toCase(header, body));
+        }
+        return result;
+    }
+
+    private static Case toCase(String[] header, StringBuilder body) {
+        if (header.length != 3) {
+            throw new IllegalStateException("En-tête de cas invalide: " + String.join(" ", header));
+        }
+        return new Case(header[0], "questions".equals(header[1]), Integer.parseInt(header[2]), body.toString().strip());
+    }
+}
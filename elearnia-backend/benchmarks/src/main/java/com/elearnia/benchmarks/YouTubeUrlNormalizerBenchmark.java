@@ -0,0 +1,45 @@
+package com.elearnia.benchmarks;
+
+import com.elearnia.util.YouTubeUrlNormalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalisation des liens vidéo saisis par les professeurs et présents dans les leçons générées
+ * (corpus/youtube-urls.txt : formats watch, youtu.be, embed, shorts, avec paramètres et invalides).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YouTubeUrlNormalizerBenchmark {
+
+    private List<String> urls;
+
+    @Setup
+    public void setup() {
+        urls = BenchmarkSupport.readLines("corpus/youtube-urls.txt");
+    }
+
+    // Une opération = le corpus entier
+    @Benchmark
+    public void normalizeCorpus(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(YouTubeUrlNormalizer.normalize(url));
+        }
+    }
+}
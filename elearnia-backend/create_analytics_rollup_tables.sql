@@ -0,0 +1,26 @@
+-- Script SQL pour créer les tables d'agrégats quotidiens (analytics des cours)
+-- À exécuter dans MySQL si les tables ne sont pas créées automatiquement
+-- Puis lancer POST /teacher/courses/analytics/backfill (admin) pour l'historique des tentatives
+
+-- Inscriptions et complétions par cours et par jour
+CREATE TABLE IF NOT EXISTS course_daily_stats (
+    course_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL,
+    enrollments INT NOT NULL DEFAULT 0,
+    completions INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (course_id, stat_date),
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Tentatives, réussites et somme des scores par quiz et par jour
+CREATE TABLE IF NOT EXISTS quiz_daily_stats (
+    quiz_id BIGINT NOT NULL,
+    course_id BIGINT,
+    stat_date DATE NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    passed INT NOT NULL DEFAULT 0,
+    score_sum DOUBLE NOT NULL DEFAULT 0,
+    PRIMARY KEY (quiz_id, stat_date),
+    FOREIGN KEY (quiz_id) REFERENCES quizzes(id) ON DELETE CASCADE,
+    INDEX idx_course_date (course_id, stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
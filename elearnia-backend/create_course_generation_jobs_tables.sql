@@ -0,0 +1,29 @@
+-- Script SQL pour créer les tables des générations de cours par lot
+-- À exécuter dans MySQL si les tables ne sont pas créées automatiquement
+
+CREATE TABLE IF NOT EXISTS course_generation_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    teacher_id BIGINT NOT NULL,
+    status VARCHAR(30) NOT NULL,
+    total_items INT NOT NULL,
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME,
+    FOREIGN KEY (teacher_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_teacher_id (teacher_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS course_generation_job_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    job_id BIGINT NOT NULL,
+    position INT NOT NULL,
+    idea VARCHAR(500) NOT NULL,
+    level VARCHAR(50),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    course_id BIGINT,
+    error_message VARCHAR(1000),
+    attempts INT NOT NULL DEFAULT 0,
+    updated_at DATETIME,
+    FOREIGN KEY (job_id) REFERENCES course_generation_jobs(id) ON DELETE CASCADE,
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE SET NULL,
+    INDEX idx_job_status (job_id, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
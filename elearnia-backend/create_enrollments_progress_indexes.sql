@@ -0,0 +1,9 @@
+-- Script SQL pour créer les index de la progression paginée des étudiants
+-- (GET /teacher/courses/{courseId}/students-progress/page)
+-- À exécuter une seule fois dans MySQL
+
+-- Tri par progression, sans filtre
+CREATE INDEX idx_enrollments_course_progress ON enrollments (course_id, progress);
+
+-- Tri par progression, filtré sur terminé / en cours
+CREATE INDEX idx_enrollments_course_completed_progress ON enrollments (course_id, completed, progress);
@@ -0,0 +1,13 @@
+-- Script SQL pour garantir une seule inscription par étudiant et par cours
+-- (inscription en masse en INSERT IGNORE, double-clic sur "S'inscrire")
+-- À exécuter une seule fois dans MySQL
+
+-- Doublons existants : on garde l'inscription la plus avancée (puis la plus ancienne)
+DELETE e FROM enrollments e
+JOIN enrollments keep
+  ON keep.student_id = e.student_id
+ AND keep.course_id = e.course_id
+ AND (keep.progress > e.progress OR (keep.progress = e.progress AND keep.id < e.id));
+
+ALTER TABLE enrollments
+  ADD CONSTRAINT uk_enrollments_student_course UNIQUE (student_id, course_id);
@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# Lance le test de charge de bout en bout (rapport : target/load-report.json par défaut).
+#
+#   ./run-load-test.sh
+#   ./run-load-test.sh --loadtest.scenarios=exam --scenario.exam.users=1000 --fake-ai.latency-ms=2000
+#   ./run-load-test.sh --backend.query-budget.strict=true      (budget de requêtes SQL bloquant)
+#
+# JAVA_OPTS : options de la JVM (backend et générateur de charge partagent la même JVM).
+set -euo pipefail
+cd "$(dirname "$0")"
+
+# Le module dépend du jar standard du backend
+(cd .. && mvn -B -q install -DskipTests)
+mvn -B -q compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+
+exec java ${JAVA_OPTS:--Xmx2g} -cp "target/classes:$(cat target/classpath.txt)" \
+    com.elearnia.loadtest.LoadTestApplication "$@"
@@ -0,0 +1,31 @@
+package com.elearnia.loadtest;
+
+import java.util.List;
+
+/**
+ * Navigation d'un étudiant : catalogue, fiche et avis d'un cours, ses cours, leçons d'un cours suivi.
+ */
+public class CatalogScenario implements Scenario {
+
+    private final List<Long> courseIds;
+
+    public CatalogScenario(SeedData data) {
+        this.courseIds = data.getCourseIds();
+    }
+
+    @Override
+    public String getName() {
+        return "catalog";
+    }
+
+    @Override
+    public void iterate(VirtualUser user) throws InterruptedException {
+        user.get("GET /student/courses", "/student/courses");
+        Long courseId = user.pick(courseIds);
+        user.get("GET /student/courses/{id}", "/student/courses/" + courseId);
+        user.get("GET /student/courses/{id}/reviews", "/student/courses/" + courseId + "/reviews");
+        user.get("GET /student/courses/my", "/student/courses/my");
+        Long followed = user.pick(user.getStudent().getCourseIds());
+        user.get("GET /student/courses/{id}/lessons", "/student/courses/" + followed + "/lessons");
+    }
+}
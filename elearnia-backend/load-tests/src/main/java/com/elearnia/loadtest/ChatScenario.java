@@ -0,0 +1,71 @@
+package com.elearnia.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Conversation avec le chatbot : questions sur les données de l'étudiant (répondues depuis la base)
+ * et questions générales (serveur IA simulé), en réponse simple ou streamée selon stream-ratio.
+ * Pour le flux, le temps jusqu'au premier token est mesuré à part.
+ */
+public class ChatScenario implements Scenario {
+
+    private static final String STREAM_ENDPOINT = "POST /student/chatbot/stream";
+    private static final String FIRST_TOKEN_ENDPOINT = "POST /student/chatbot/stream (premier token)";
+
+    private static final List<String> MESSAGES = List.of(
+            "Quels sont mes cours ?",
+            "Où en est ma progression ?",
+            "Tu peux me recommander un cours ?",
+            "Quelles catégories existent ?",
+            "Comment fonctionne l'injection de dépendances en Spring Boot ?",
+            "C'est quoi une API REST ?",
+            "Explique-moi les streams Java",
+            "J'ai un problème avec mon installation de Flutter"
+    );
+
+    private final double streamRatio;
+
+    public ChatScenario(double streamRatio) {
+        this.streamRatio = streamRatio;
+    }
+
+    @Override
+    public String getName() {
+        return "chat";
+    }
+
+    @Override
+    public void iterate(VirtualUser user) throws InterruptedException {
+        Map<String, String> body = Map.of("message", user.pick(MESSAGES));
+        if (user.getRandom().nextDouble() >= streamRatio) {
+            user.postJson("POST /student/chatbot/message", "/student/chatbot/message", body);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Stream<String>> response = user.openStream(user.jsonPost("/student/chatbot/stream", body)
+                    .header("Accept", "text/event-stream"));
+            boolean firstToken = false;
+            try (Stream<String> lines = response.body()) {
+                Iterator<String> iterator = lines.iterator();
+                while (iterator.hasNext()) {
+                    String line = iterator.next();
+                    if (!firstToken && line.startsWith("event:token")) {
+                        firstToken = true;
+                        user.record(FIRST_TOKEN_ENDPOINT, response.statusCode(), System.nanoTime() - start);
+                    }
+                }
+            }
+            user.record(STREAM_ENDPOINT, response.statusCode(), System.nanoTime() - start);
+        } catch (IOException | UncheckedIOException e) {
+            user.recordFailure(STREAM_ENDPOINT);
+        }
+    }
+}
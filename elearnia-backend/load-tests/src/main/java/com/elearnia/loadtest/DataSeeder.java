@@ -0,0 +1,289 @@
+package com.elearnia.loadtest;
+
+import com.elearnia.entities.Course;
+import com.elearnia.entities.Lesson;
+import com.elearnia.entities.Question;
+import com.elearnia.entities.Quiz;
+import com.elearnia.entities.QuizLevel;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.LessonRepository;
+import com.elearnia.repository.QuizRepository;
+import com.elearnia.repository.UserRepository;
+import com.elearnia.security.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Remplit la base avant les scénarios : professeurs, étudiants, cours avec leçons et quiz, fichier
+ * vidéo de leçon. Les inscriptions passent par l'API d'inscription en masse
+ * (POST /teacher/courses/{id}/enrollments/bulk) : tous les étudiants suivent le cours d'examen.
+ * Une requête supplémentaire inscrit seed.bulk-enrollment.rows comptes dédiés à un même cours
+ * pour mesurer le débit de l'inscription en masse (inscriptions/s).
+ *
+ * Les tirages utilisent loadtest.random-seed : deux exécutions créent les mêmes données.
+ */
+@Slf4j
+public class DataSeeder {
+
+    private static final String PASSWORD = "LoadTest123!";
+    private static final String VIDEO_FILENAME = "lecon-load-test.mp4";
+    private static final int CHUNK_SIZE = 500;
+    private static final String[] SUBJECTS = {"Java", "Python", "Spring Boot", "Flutter", "React", "SQL", "Angular", "Docker"};
+    private static final String[] LEVELS = {"débutant", "intermédiaire", "avancé"};
+
+    private final ApplicationContext context;
+    private final LoadTestSettings settings;
+    private final String baseUrl;
+    private final Path videosDir;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random;
+
+    public DataSeeder(ApplicationContext context, LoadTestSettings settings, String baseUrl, Path videosDir,
+                      HttpClient httpClient) {
+        this.context = context;
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        this.videosDir = videosDir;
+        this.httpClient = httpClient;
+        this.random = new Random(settings.getLong("loadtest.random-seed"));
+    }
+
+    public SeedData seed() throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        JwtService jwtService = context.getBean(JwtService.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        String encodedPassword = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+
+        List<User> teachers = saveUsers(tx, userRepository, Role.TEACHER, "prof", settings.getInt("seed.teachers"), encodedPassword);
+        List<User> students = saveUsers(tx, userRepository, Role.LEARNER, "etudiant", settings.getInt("seed.students"), encodedPassword);
+        log.info("{} professeurs et {} étudiants créés", teachers.size(), students.size());
+
+        List<Course> courses = saveCourses(tx, teachers);
+        log.info("{} cours créés avec leçons et quiz", courses.size());
+        writeVideo();
+
+        // Cours suivis par chaque étudiant : le cours d'examen, puis des cours tirés au hasard
+        int enrollmentsPerStudent = Math.min(settings.getInt("seed.enrollments-per-student"), courses.size());
+        Map<Long, Set<String>> emailsByCourse = new LinkedHashMap<>();
+        List<List<Long>> courseIdsByStudent = new ArrayList<>(students.size());
+        for (User student : students) {
+            Set<Long> followed = new LinkedHashSet<>();
+            followed.add(courses.get(0).getId());
+            while (followed.size() < enrollmentsPerStudent) {
+                followed.add(courses.get(random.nextInt(courses.size())).getId());
+            }
+            for (Long courseId : followed) {
+                emailsByCourse.computeIfAbsent(courseId, k -> new LinkedHashSet<>()).add(student.getEmail());
+            }
+            courseIdsByStudent.add(List.copyOf(followed));
+        }
+
+        Map<Long, String> teacherTokenByCourse = new LinkedHashMap<>();
+        for (Course course : courses) {
+            teacherTokenByCourse.put(course.getId(), jwtService.generateToken(course.getTeacher()));
+        }
+        long bulkStart = System.currentTimeMillis();
+        long examCourseMs = 0;
+        int enrolled = 0;
+        for (Map.Entry<Long, Set<String>> entry : emailsByCourse.entrySet()) {
+            long requestStart = System.currentTimeMillis();
+            enrolled += bulkEnroll(entry.getKey(), entry.getValue(), teacherTokenByCourse.get(entry.getKey()));
+            if (entry.getKey().equals(courses.get(0).getId())) {
+                examCourseMs = System.currentTimeMillis() - requestStart;
+            }
+        }
+        long bulkMs = System.currentTimeMillis() - bulkStart;
+        log.info("{} inscriptions en {} requêtes d'inscription en masse ({} ms, cours d'examen {} ms)",
+                enrolled, emailsByCourse.size(), bulkMs, examCourseMs);
+
+        SeedData.BulkEnrollmentRun bulkRun = measureBulkEnrollment(tx, userRepository, encodedPassword,
+                courses.get(courses.size() - 1), teacherTokenByCourse);
+
+        List<SeedData.Student> seededStudents = new ArrayList<>(students.size());
+        for (int i = 0; i < students.size(); i++) {
+            User student = students.get(i);
+            seededStudents.add(new SeedData.Student(student.getId(), student.getEmail(),
+                    jwtService.generateToken(student), courseIdsByStudent.get(i)));
+        }
+        List<Long> courseIds = courses.stream().map(Course::getId).toList();
+        return new SeedData(seededStudents, courseIds, courses.get(0).getId(), VIDEO_FILENAME,
+                emailsByCourse.size(), enrolled, bulkMs, examCourseMs, bulkRun, System.currentTimeMillis() - start);
+    }
+
+    // ================== Utilisateurs ==================
+
+    private List<User> saveUsers(TransactionTemplate tx, UserRepository userRepository, Role role, String prefix,
+                                 int count, String encodedPassword) {
+        List<User> saved = new ArrayList<>(count);
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = from; i < Math.min(count, from + CHUNK_SIZE); i++) {
+                chunk.add(User.builder()
+                        .fullName(capitalize(prefix) + " " + (i + 1))
+                        .email(prefix + (i + 1) + "@load.elearnia.test")
+                        .password(encodedPassword)
+                        .role(role)
+                        .build());
+            }
+            saved.addAll(tx.execute(status -> userRepository.saveAll(chunk)));
+        }
+        return saved;
+    }
+
+    // ================== Cours ==================
+
+    private List<Course> saveCourses(TransactionTemplate tx, List<User> teachers) {
+        CourseRepository courseRepository = context.getBean(CourseRepository.class);
+        LessonRepository lessonRepository = context.getBean(LessonRepository.class);
+        QuizRepository quizRepository = context.getBean(QuizRepository.class);
+        int courseCount = settings.getInt("seed.courses");
+        int lessonsPerCourse = settings.getInt("seed.lessons-per-course");
+        int questionsPerQuiz = settings.getInt("seed.questions-per-quiz");
+        int examMaxAttempts = settings.getInt("seed.exam.max-attempts");
+
+        List<Course> courses = new ArrayList<>(courseCount);
+        for (int c = 0; c < courseCount; c++) {
+            int index = c;
+            courses.add(tx.execute(status -> {
+                String subject = SUBJECTS[index % SUBJECTS.length];
+                Course course = courseRepository.save(Course.builder()
+                        .title(subject + " " + LEVELS[index % LEVELS.length] + " - session " + (index + 1))
+                        .description("Cours de " + subject + " : notions essentielles, exercices guidés et projet final. "
+                                .repeat(4))
+                        .imageUrl("/api/files/images/cours-" + (index + 1) + ".jpg")
+                        .teacher(teachers.get(index % teachers.size()))
+                        .published(true)
+                        .build());
+
+                List<Lesson> lessons = new ArrayList<>(lessonsPerCourse);
+                for (int l = 0; l < lessonsPerCourse; l++) {
+                    lessons.add(Lesson.builder()
+                            .title("Leçon " + (l + 1) + " : " + subject + " en pratique")
+                            .description("## Objectifs\n- Comprendre la notion " + (l + 1) + "\n\n"
+                                    + "Exemple commenté et exercices.\n".repeat(20))
+                            .videoUrl(baseUrl + "/api/files/videos/" + VIDEO_FILENAME)
+                            .duration(15 + random.nextInt(31))
+                            .orderIndex(l + 1)
+                            .course(course)
+                            .build());
+                }
+                lessonRepository.saveAll(lessons);
+
+                Quiz quiz = Quiz.builder()
+                        .course(course)
+                        .title("Quiz " + subject + " - session " + (index + 1))
+                        .description("Évaluation finale du cours")
+                        .passingScore(60)
+                        .maxAttempts(index == 0 ? examMaxAttempts : 3)
+                        .level(QuizLevel.values()[index % QuizLevel.values().length])
+                        .build();
+                List<Question> questions = new ArrayList<>(questionsPerQuiz);
+                for (int q = 0; q < questionsPerQuiz; q++) {
+                    List<String> options = List.of("Réponse A" + q, "Réponse B" + q, "Réponse C" + q, "Réponse D" + q);
+                    questions.add(Question.builder()
+                            .quiz(quiz)
+                            .text("Question " + (q + 1) + " sur " + subject + " : quelle affirmation est correcte ?")
+                            .options(new ArrayList<>(options))
+                            .correctAnswer(options.get(random.nextInt(options.size())))
+                            .points(1)
+                            .build());
+                }
+                quiz.setQuestions(questions);
+                quizRepository.save(quiz);
+                return course;
+            }));
+        }
+        return courses;
+    }
+
+    private void writeVideo() throws IOException {
+        Files.createDirectories(videosDir);
+        long size = settings.getLong("scenario.video.file-size-mb") * 1024 * 1024;
+        byte[] block = new byte[64 * 1024];
+        try (OutputStream out = Files.newOutputStream(videosDir.resolve(VIDEO_FILENAME))) {
+            for (long written = 0; written < size; written += block.length) {
+                random.nextBytes(block);
+                out.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+    }
+
+    // ================== Inscriptions ==================
+
+    /**
+     * Une seule requête d'inscription en masse de seed.bulk-enrollment.rows comptes créés pour
+     * l'occasion (aucun n'est encore inscrit) : chaque email donne une nouvelle ligne d'inscription.
+     */
+    private SeedData.BulkEnrollmentRun measureBulkEnrollment(TransactionTemplate tx, UserRepository userRepository,
+                                                             String encodedPassword, Course course,
+                                                             Map<Long, String> teacherTokenByCourse)
+            throws IOException, InterruptedException {
+        int rows = settings.getInt("seed.bulk-enrollment.rows");
+        if (rows <= 0) {
+            return null;
+        }
+        Set<String> emails = new LinkedHashSet<>(rows);
+        for (User user : saveUsers(tx, userRepository, Role.LEARNER, "masse", rows, encodedPassword)) {
+            emails.add(user.getEmail());
+        }
+        long requestStart = System.nanoTime();
+        JsonNode result = bulkEnrollRequest(course.getId(), emails, teacherTokenByCourse.get(course.getId()));
+        long elapsedMs = (System.nanoTime() - requestStart) / 1_000_000;
+        int enrolled = result.path("enrolled").asInt();
+        if (enrolled != rows) {
+            throw new IllegalStateException("Inscription en masse de référence incomplète : " + enrolled + "/" + rows);
+        }
+        SeedData.BulkEnrollmentRun run = new SeedData.BulkEnrollmentRun(rows, elapsedMs, result.path("durationMs").asLong());
+        log.info("Inscription en masse de référence : {} inscriptions en {} ms ({} inscriptions/s)",
+                rows, elapsedMs, Math.round(run.getRowsPerSecond()));
+        return run;
+    }
+
+    private int bulkEnroll(Long courseId, Set<String> emails, String teacherToken) throws IOException, InterruptedException {
+        return bulkEnrollRequest(courseId, emails, teacherToken).path("enrolled").asInt();
+    }
+
+    private JsonNode bulkEnrollRequest(Long courseId, Set<String> emails, String teacherToken)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/teacher/courses/" + courseId + "/enrollments/bulk"))
+                .header("Authorization", "Bearer " + teacherToken)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("emails", emails))))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Inscription en masse refusée pour le cours " + courseId
+                    + " (" + response.statusCode() + "): " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
@@ -0,0 +1,53 @@
+package com.elearnia.loadtest;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serveur MariaDB embarqué (binaires fournis par MariaDB4j), sur un port libre et un répertoire
+ * de données temporaire : chaque exécution part d'une base vide.
+ *
+ * MariaDB plutôt qu'une base en mémoire : l'application utilise des requêtes propres à MySQL
+ * (INSERT ... ON DUPLICATE KEY UPDATE, information_schema, ALTER TABLE ... MODIFY).
+ */
+@Slf4j
+public class EmbeddedDatabase implements AutoCloseable {
+
+    private static final String DATABASE = "elearnia_load";
+
+    private DB db;
+    private int port;
+
+    public void start() throws ManagedProcessException {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        if ("root".equals(System.getProperty("user.name"))) {
+            // mariadbd refuse de démarrer en root sans l'indiquer explicitement (conteneurs CI)
+            config.addArg("--user=root");
+        }
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+        // La base est créée par le pilote JDBC (createDatabaseIfNotExist) : DB.createDB passe par le
+        // client en ligne de commande, qui dépend de libncurses absente de nombreuses images.
+        port = db.getConfiguration().getPort();
+        log.info("MariaDB embarquée démarrée sur le port {}", port);
+    }
+
+    /**
+     * URL pour le pilote MySQL de l'application (mêmes options qu'en production).
+     */
+    public String getJdbcUrl() {
+        return "jdbc:mysql://localhost:" + port + "/" + DATABASE
+                + "?createDatabaseIfNotExist=true&useSSL=false&serverTimezone=UTC&rewriteBatchedStatements=true&allowPublicKeyRetrieval=true";
+    }
+
+    @Override
+    public void close() throws ManagedProcessException {
+        if (db != null) {
+            db.stop();
+            db = null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.elearnia.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Examen : tous les utilisateurs ouvrent le quiz du même cours au même moment (montée en charge
+ * nulle par défaut), répondent pendant answer-time-ms (± 50 %) puis soumettent.
+ */
+public class ExamBurstScenario implements Scenario {
+
+    private final Long examCourseId;
+    private final long answerTimeMs;
+
+    public ExamBurstScenario(SeedData data, long answerTimeMs) {
+        this.examCourseId = data.getExamCourseId();
+        this.answerTimeMs = answerTimeMs;
+    }
+
+    @Override
+    public String getName() {
+        return "exam";
+    }
+
+    @Override
+    public void iterate(VirtualUser user) throws InterruptedException {
+        HttpResponse<String> quiz = user.get("GET /student/quizzes/course/{id}", "/student/quizzes/course/" + examCourseId);
+        if (quiz == null || quiz.statusCode() != 200) {
+            return;
+        }
+        Map<String, String> answers = new HashMap<>();
+        try {
+            for (JsonNode question : user.getObjectMapper().readTree(quiz.body()).path("questions")) {
+                JsonNode options = question.path("options");
+                if (options.isArray() && options.size() > 0) {
+                    answers.put(question.path("id").asText(), options.get(user.getRandom().nextInt(options.size())).asText());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            return;
+        }
+        if (answerTimeMs > 0) {
+            Thread.sleep(answerTimeMs / 2 + (long) (user.getRandom().nextDouble() * answerTimeMs));
+        }
+        user.postJson("POST /student/quizzes/course/{id}/submit", "/student/quizzes/course/" + examCourseId + "/submit",
+                Map.of("answers", answers));
+    }
+}
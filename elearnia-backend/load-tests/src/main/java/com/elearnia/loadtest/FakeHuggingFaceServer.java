@@ -0,0 +1,182 @@
+package com.elearnia.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imitation locale de l'Inference API Hugging Face (POST /models/{modèle}) utilisée à la place de
+ * ai.providers.huggingface.base-url.
+ *
+ * Chaque appel attend latency-ms (+ jusqu'à jitter-ms) avant de répondre ; une proportion
+ * failure-rate reçoit un 503 "model loading" comme l'API réelle. Les réponses streamées envoient un
+ * événement SSE par mot, espacés de token-delay-ms. Le contenu suit le prompt : JSON de questions ou
+ * de leçons pour le générateur de cours, phrase en français pour le chatbot.
+ */
+@Slf4j
+public class FakeHuggingFaceServer implements AutoCloseable {
+
+    private static final String CHAT_ANSWER = "Bonne question ! Pour progresser, commencez par les notions de base "
+            + "du cours, faites les exercices de chaque leçon puis validez vos acquis avec le quiz.";
+    private static final String QUESTIONS_JSON = "{\"questions\": [{\"question\": \"Quel est l'objectif principal de ce cours ?\", "
+            + "\"options\": [\"Apprendre les bases\", \"Réviser un examen\", \"Découvrir un outil\", \"Aucun\"], \"answer\": 0}]}";
+    private static final String LESSONS_JSON = "{\"lessons\": [{\"title\": \"Introduction au sujet\", "
+            + "\"description\": \"## Objectifs\\nDécouvrir les notions clés.\", \"duration\": 20}]}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long latencyMs;
+    private final long jitterMs;
+    private final long tokenDelayMs;
+    private final double failureRate;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FakeHuggingFaceServer(long latencyMs, long jitterMs, long tokenDelayMs, double failureRate) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.tokenDelayMs = tokenDelayMs;
+        this.failureRate = failureRate;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // Un thread virtuel par appel : la latence simulée ne limite pas la concurrence
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/models/", this::handle);
+        server.start();
+        log.info("Serveur Hugging Face simulé sur {} (latence {} ms + {} ms, échecs {} %)",
+                getBaseUrl(), latencyMs, jitterMs, failureRate * 100);
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "application/json", "{\"error\":\"Method not allowed\"}");
+                return;
+            }
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sleep(latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0));
+
+            if (random.nextDouble() < failureRate) {
+                failures.incrementAndGet();
+                send(exchange, 503, "application/json",
+                        "{\"error\":\"Model is currently loading\",\"estimated_time\":20.0}");
+                return;
+            }
+            JsonNode inputs = body.path("inputs");
+            if (body.path("stream").asBoolean(false)) {
+                stream(exchange, answerFor(inputs.asText("")));
+            } else if (inputs.isArray()) {
+                // Lot : un tableau [{generated_text}] par entrée
+                ArrayNode response = objectMapper.createArrayNode();
+                for (JsonNode input : inputs) {
+                    response.addArray().addObject().put("generated_text", answerFor(input.asText("")));
+                }
+                send(exchange, 200, "application/json", objectMapper.writeValueAsString(response));
+            } else {
+                ArrayNode response = objectMapper.createArrayNode();
+                response.addObject().put("generated_text", answerFor(inputs.asText("")));
+                send(exchange, 200, "application/json", objectMapper.writeValueAsString(response));
+            }
+        } catch (IOException e) {
+            // Client parti (timeout du backend) : rien à répondre
+            log.debug("Appel IA simulé interrompu: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Format du flux de text-generation-inference : un événement par token, le dernier porte
+     * generated_text.
+     */
+    private void stream(HttpExchange exchange, String answer) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        String[] words = answer.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            ObjectNode event = objectMapper.createObjectNode();
+            event.putObject("token")
+                    .put("text", i == 0 ? words[i] : " " + words[i])
+                    .put("special", false);
+            if (i == words.length - 1) {
+                event.put("generated_text", answer);
+            } else {
+                event.putNull("generated_text");
+            }
+            out.write(("data:" + objectMapper.writeValueAsString(event) + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            if (i < words.length - 1) {
+                sleep(tokenDelayMs);
+            }
+        }
+    }
+
+    private String answerFor(String prompt) {
+        if (prompt.contains("\"questions\"")) {
+            return QUESTIONS_JSON;
+        }
+        if (prompt.contains("\"lessons\"")) {
+            return LESSONS_JSON;
+        }
+        return CHAT_ANSWER;
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+}
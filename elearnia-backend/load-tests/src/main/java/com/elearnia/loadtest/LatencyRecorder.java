@@ -0,0 +1,99 @@
+package com.elearnia.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences et codes de réponse par endpoint ("GET /student/courses/{id}") pour un scénario.
+ * Rien n'est enregistré pendant la montée en charge (warm-up) : voir {@link #startMeasuring()}.
+ */
+public class LatencyRecorder {
+
+    // Jusqu'à 2 minutes, à la microseconde, 3 chiffres significatifs
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final String EXCEPTION = "exception";
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+    private volatile long measureStartNanos;
+    private volatile long measureEndNanos;
+
+    public static final class Endpoint {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder errors = new LongAdder();
+
+        public Histogram getHistogram() {
+            return histogram;
+        }
+
+        public Map<String, Long> getStatuses() {
+            Map<String, Long> result = new TreeMap<>();
+            statuses.forEach((status, count) -> result.put(status, count.sum()));
+            return result;
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getRequests() {
+            return getStatuses().values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    public void startMeasuring() {
+        measureStartNanos = System.nanoTime();
+        measuring = true;
+    }
+
+    public void stopMeasuring() {
+        measuring = false;
+        measureEndNanos = System.nanoTime();
+    }
+
+    public double getMeasuredSeconds() {
+        return (measureEndNanos - measureStartNanos) / 1_000_000_000.0;
+    }
+
+    /**
+     * Réponse reçue : les statuts 4xx / 5xx comptent comme erreurs (latence conservée).
+     */
+    public void record(String endpoint, int status, long durationNanos) {
+        if (!measuring) {
+            return;
+        }
+        Endpoint stats = endpoint(endpoint);
+        stats.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(durationNanos), HIGHEST_TRACKABLE_MICROS));
+        stats.statuses.computeIfAbsent(Integer.toString(status), k -> new LongAdder()).increment();
+        if (status >= 400) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Aucune réponse (connexion refusée, délai dépassé) : compté en erreur, sans latence.
+     */
+    public void recordFailure(String endpoint) {
+        if (!measuring) {
+            return;
+        }
+        Endpoint stats = endpoint(endpoint);
+        stats.statuses.computeIfAbsent(EXCEPTION, k -> new LongAdder()).increment();
+        stats.errors.increment();
+    }
+
+    public Map<String, Endpoint> getEndpoints() {
+        return new TreeMap<>(endpoints);
+    }
+
+    private Endpoint endpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+    }
+}
@@ -0,0 +1,87 @@
+package com.elearnia.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécute un scénario : scenario.&lt;nom&gt;.users utilisateurs simulés (un thread virtuel chacun),
+ * démarrés sur ramp-up-seconds, qui répètent le parcours avec think-time-ms entre deux itérations.
+ * Les mesures ne commencent qu'après warmup-seconds (du scénario, sinon loadtest.warmup-seconds) et
+ * durent loadtest.duration-seconds.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LoadGenerator {
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final SeedData data;
+    private final LoadTestSettings settings;
+
+    public ScenarioResult run(Scenario scenario) throws InterruptedException {
+        String name = scenario.getName();
+        int users = (int) settings.getScenarioLong(name, "users");
+        long rampUpNanos = TimeUnit.SECONDS.toNanos(settings.getScenarioLong(name, "ramp-up-seconds"));
+        long thinkTimeMs = settings.getScenarioLong(name, "think-time-ms");
+        long warmupNanos = TimeUnit.SECONDS.toNanos(settings.getScenarioLongOrDefault(name, "warmup-seconds"));
+        long durationNanos = TimeUnit.SECONDS.toNanos(settings.getLong("loadtest.duration-seconds"));
+        long seed = settings.getLong("loadtest.random-seed");
+        List<SeedData.Student> students = data.getStudents();
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+        log.info("Scénario {} : {} utilisateurs, {} s de mise en route puis {} s de mesure", name, users,
+                TimeUnit.NANOSECONDS.toSeconds(warmupNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+
+        if (warmupNanos == 0) {
+            // Sans mise en route, les toutes premières requêtes comptent (vague initiale)
+            recorder.startMeasuring();
+        }
+        // La fermeture de l'exécuteur attend la fin des itérations en cours
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                VirtualUser user = new VirtualUser(httpClient, baseUrl, recorder, objectMapper,
+                        students.get(i % students.size()), seed + i);
+                long startAt = start + (users > 1 ? rampUpNanos * i / users : 0);
+                executor.submit(() -> {
+                    sleepUntil(startAt);
+                    while (System.nanoTime() < end) {
+                        try {
+                            scenario.iterate(user);
+                        } catch (RuntimeException e) {
+                            log.debug("Itération {} en échec: {}", name, e.toString());
+                        }
+                        if (thinkTimeMs > 0) {
+                            Thread.sleep(thinkTimeMs);
+                        }
+                    }
+                    return null;
+                });
+            }
+            if (warmupNanos > 0) {
+                sleepUntil(measureStart);
+                recorder.startMeasuring();
+            }
+            sleepUntil(end);
+            recorder.stopMeasuring();
+        }
+        return new ScenarioResult(name, users, recorder);
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.elearnia.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rapport JSON d'une exécution : paramètres, mise en place des données, débit de l'inscription en
+ * masse de référence, puis pour chaque scénario
+ * et chaque endpoint le débit (requêtes/s sur la fenêtre de mesure), les erreurs, les codes de
+ * réponse et les latences p50 / p90 / p99 / p999 / max en millisecondes.
+ */
+public final class LoadReport {
+
+    private LoadReport() {
+    }
+
+    public static Map<String, Object> build(Instant startedAt, LoadTestSettings settings, SeedData data,
+                                            FakeHuggingFaceServer ai, List<ScenarioResult> results) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("finishedAt", Instant.now().toString());
+        report.put("settings", settings.asMap());
+
+        Map<String, Object> seed = new LinkedHashMap<>();
+        seed.put("students", data.getStudents().size());
+        seed.put("courses", data.getCourseIds().size());
+        seed.put("bulkEnrollmentRequests", data.getBulkEnrollmentRequests());
+        seed.put("bulkEnrollments", data.getBulkEnrollments());
+        seed.put("bulkEnrollmentMs", data.getBulkEnrollmentMs());
+        seed.put("examCourseBulkEnrollmentMs", data.getExamCourseBulkEnrollmentMs());
+        seed.put("seedMs", data.getSeedMs());
+        report.put("seed", seed);
+
+        SeedData.BulkEnrollmentRun bulkRun = data.getBulkEnrollmentRun();
+        if (bulkRun != null) {
+            Map<String, Object> bulkEnrollment = new LinkedHashMap<>();
+            bulkEnrollment.put("rows", bulkRun.getRows());
+            bulkEnrollment.put("requestMs", bulkRun.getRequestMs());
+            bulkEnrollment.put("serverMs", bulkRun.getServerMs());
+            bulkEnrollment.put("rowsPerSecond", round(bulkRun.getRowsPerSecond()));
+            report.put("bulkEnrollment", bulkEnrollment);
+        }
+
+        Map<String, Object> fakeAi = new LinkedHashMap<>();
+        fakeAi.put("requests", ai.getRequests());
+        fakeAi.put("failures", ai.getFailures());
+        report.put("fakeAi", fakeAi);
+
+        List<Map<String, Object>> scenarios = new ArrayList<>();
+        for (ScenarioResult result : results) {
+            LatencyRecorder recorder = result.getRecorder();
+            double seconds = recorder.getMeasuredSeconds();
+            List<Map<String, Object>> endpoints = new ArrayList<>();
+            recorder.getEndpoints().forEach((name, stats) -> {
+                Map<String, Object> endpoint = new LinkedHashMap<>();
+                endpoint.put("endpoint", name);
+                endpoint.put("requests", stats.getRequests());
+                endpoint.put("errors", stats.getErrors());
+                endpoint.put("throughputPerSecond", round(seconds > 0 ? stats.getRequests() / seconds : 0));
+                endpoint.put("latencyMs", latencies(stats.getHistogram()));
+                endpoint.put("statuses", stats.getStatuses());
+                endpoints.add(endpoint);
+            });
+            Map<String, Object> scenario = new LinkedHashMap<>();
+            scenario.put("name", result.getName());
+            scenario.put("users", result.getUsers());
+            scenario.put("measuredSeconds", round(seconds));
+            scenario.put("endpoints", endpoints);
+            scenarios.add(scenario);
+        }
+        report.put("scenarios", scenarios);
+        return report;
+    }
+
+    public static void write(Path file, Map<String, Object> report, ObjectMapper objectMapper) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    /**
+     * Résumé lisible pour la console (une ligne par endpoint).
+     */
+    public static String summary(SeedData data, List<ScenarioResult> results) {
+        StringBuilder out = new StringBuilder();
+        SeedData.BulkEnrollmentRun bulkRun = data.getBulkEnrollmentRun();
+        if (bulkRun != null) {
+            out.append(String.format("%n== Inscription en masse : %d inscriptions en %d ms (serveur %d ms), %.0f inscriptions/s%n",
+                    bulkRun.getRows(), bulkRun.getRequestMs(), bulkRun.getServerMs(), bulkRun.getRowsPerSecond()));
+        }
+        for (ScenarioResult result : results) {
+            double seconds = result.getRecorder().getMeasuredSeconds();
+            out.append(String.format("%n== %s (%d utilisateurs, %.0f s)%n", result.getName(), result.getUsers(), seconds));
+            out.append(String.format("%-50s %9s %8s %9s %9s %9s %9s%n",
+                    "endpoint", "req/s", "erreurs", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+            result.getRecorder().getEndpoints().forEach((name, stats) -> {
+                Histogram h = stats.getHistogram();
+                out.append(String.format("%-50s %9.1f %8d %9.1f %9.1f %9.1f %9.1f%n", name,
+                        seconds > 0 ? stats.getRequests() / seconds : 0, stats.getErrors(),
+                        millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                        millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue())));
+            });
+        }
+        return out.toString();
+    }
+
+    private static Map<String, Double> latencies(Histogram histogram) {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        if (histogram.getTotalCount() == 0) {
+            return latencies;
+        }
+        latencies.put("mean", round(histogram.getMean() / 1000.0));
+        latencies.put("p50", round(millis(histogram.getValueAtPercentile(50))));
+        latencies.put("p90", round(millis(histogram.getValueAtPercentile(90))));
+        latencies.put("p99", round(millis(histogram.getValueAtPercentile(99))));
+        latencies.put("p999", round(millis(histogram.getValueAtPercentile(99.9))));
+        latencies.put("max", round(millis(histogram.getMaxValue())));
+        return latencies;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,100 @@
+package com.elearnia.loadtest;
+
+import com.elearnia.ElearniaBackendApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Test de charge de bout en bout : démarre MariaDB embarquée et le serveur Hugging Face simulé,
+ * lance le backend dessus (même JVM, port libre), crée les données puis exécute les scénarios
+ * l'un après l'autre et écrit le rapport JSON (loadtest.report).
+ *
+ * Paramètres : load-test.properties, surchargés par --clé=valeur.
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = new LoadTestSettings(args);
+        Instant startedAt = Instant.now();
+        Path workDir = Files.createTempDirectory("elearnia-load-");
+        Path uploadDir = workDir.resolve("uploads");
+        Path videosDir = uploadDir.resolve("videos");
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        try (EmbeddedDatabase database = new EmbeddedDatabase();
+             FakeHuggingFaceServer ai = new FakeHuggingFaceServer(
+                     settings.getLong("fake-ai.latency-ms"), settings.getLong("fake-ai.jitter-ms"),
+                     settings.getLong("fake-ai.token-delay-ms"), settings.getDouble("fake-ai.failure-rate"));
+             ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            database.start();
+            ai.start();
+
+            List<String> backendArgs = new ArrayList<>();
+            settings.backendProperties().forEach((key, value) -> backendArgs.add("--" + key + "=" + value));
+            backendArgs.add("--server.port=0");
+            backendArgs.add("--spring.datasource.url=" + database.getJdbcUrl());
+            backendArgs.add("--spring.datasource.username=root");
+            backendArgs.add("--spring.datasource.password=");
+            backendArgs.add("--ai.providers.huggingface.base-url=" + ai.getBaseUrl());
+            backendArgs.add("--app.upload.dir=" + uploadDir);
+            backendArgs.add("--app.upload.videos.dir=" + videosDir);
+            backendArgs.add("--jfr.recording.dir=" + workDir.resolve("jfr"));
+
+            // Arguments de ligne de commande : ils priment sur l'application.properties du backend
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ElearniaBackendApplication.class)
+                    .run(backendArgs.toArray(String[]::new))) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                new SchemaScripts(context.getBean(JdbcTemplate.class)).run(settings.getList("schema.scripts"));
+
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .executor(clientExecutor)
+                        .build();
+                SeedData data = new DataSeeder(context, settings, baseUrl, videosDir, httpClient).seed();
+
+                LoadGenerator generator = new LoadGenerator(httpClient, baseUrl, objectMapper, data, settings);
+                List<ScenarioResult> results = new ArrayList<>();
+                for (String name : settings.getList("loadtest.scenarios")) {
+                    results.add(generator.run(createScenario(name, data, settings)));
+                }
+
+                Map<String, Object> report = LoadReport.build(startedAt, settings, data, ai, results);
+                Path reportFile = Path.of(settings.get("loadtest.report"));
+                LoadReport.write(reportFile, report, objectMapper);
+                System.out.println(LoadReport.summary(data, results));
+                log.info("Rapport écrit dans {}", reportFile.toAbsolutePath());
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(workDir);
+        }
+    }
+
+    private static Scenario createScenario(String name, SeedData data, LoadTestSettings settings) {
+        return switch (name) {
+            case "catalog" -> new CatalogScenario(data);
+            case "exam" -> new ExamBurstScenario(data, settings.getScenarioLong(name, "answer-time-ms"));
+            case "video" -> new VideoStreamingScenario(data,
+                    settings.getScenarioLong(name, "file-size-mb") * 1024 * 1024,
+                    settings.getScenarioLong(name, "range-bytes"));
+            case "chat" -> new ChatScenario(settings.getDouble("scenario.chat.stream-ratio"));
+            default -> throw new IllegalArgumentException("Scénario inconnu: " + name);
+        };
+    }
+}
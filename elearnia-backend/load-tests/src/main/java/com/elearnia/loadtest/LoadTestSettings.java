@@ -0,0 +1,110 @@
+package com.elearnia.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Paramètres d'une exécution : load-test.properties, surchargé par les arguments --clé=valeur.
+ */
+public class LoadTestSettings {
+
+    private static final String BACKEND_PREFIX = "backend.";
+
+    private final Properties properties = new Properties();
+
+    public LoadTestSettings(String[] args) throws IOException {
+        try (InputStream in = LoadTestSettings.class.getClassLoader().getResourceAsStream("load-test.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("load-test.properties introuvable");
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argument attendu au format --clé=valeur: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            properties.setProperty(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+    }
+
+    public String get(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Paramètre manquant: " + key);
+        }
+        return value.trim();
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(get(key));
+    }
+
+    public long getLong(String key) {
+        return Long.parseLong(get(key));
+    }
+
+    public double getDouble(String key) {
+        return Double.parseDouble(get(key));
+    }
+
+    public List<String> getList(String key) {
+        List<String> values = new ArrayList<>();
+        for (String value : get(key).split(",")) {
+            if (!value.isBlank()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Paramètre d'un scénario (scenario.&lt;nom&gt;.&lt;clé&gt;).
+     */
+    public long getScenarioLong(String scenario, String key) {
+        return getLong("scenario." + scenario + "." + key);
+    }
+
+    /**
+     * Paramètre d'un scénario, ou à défaut le paramètre loadtest.&lt;clé&gt; commun.
+     */
+    public long getScenarioLongOrDefault(String scenario, String key) {
+        String scenarioKey = "scenario." + scenario + "." + key;
+        return properties.containsKey(scenarioKey) ? getLong(scenarioKey) : getLong("loadtest." + key);
+    }
+
+    /**
+     * Propriétés backend.* sans leur préfixe, à transmettre à l'application.
+     */
+    public Map<String, String> backendProperties() {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+            if (key.startsWith(BACKEND_PREFIX)) {
+                result.put(key.substring(BACKEND_PREFIX.length()), properties.getProperty(key).trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tous les paramètres, recopiés dans le rapport.
+     */
+    public Map<String, String> asMap() {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+            result.put(key, properties.getProperty(key).trim());
+        }
+        return result;
+    }
+}
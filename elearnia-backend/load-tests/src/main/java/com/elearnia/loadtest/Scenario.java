@@ -0,0 +1,15 @@
+package com.elearnia.loadtest;
+
+/**
+ * Parcours d'un utilisateur simulé, répété jusqu'à la fin du scénario.
+ */
+public interface Scenario {
+
+    String getName();
+
+    /**
+     * Une itération du parcours ; les temps de réflexion entre itérations sont gérés par
+     * {@link LoadGenerator} (scenario.&lt;nom&gt;.think-time-ms).
+     */
+    void iterate(VirtualUser user) throws InterruptedException;
+}
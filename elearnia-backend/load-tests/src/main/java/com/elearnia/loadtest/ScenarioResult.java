@@ -0,0 +1,12 @@
+package com.elearnia.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ScenarioResult {
+    private final String name;
+    private final int users;
+    private final LatencyRecorder recorder;
+}
@@ -0,0 +1,49 @@
+package com.elearnia.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Exécute les scripts SQL du backend qui ne correspondent à aucune entité JPA (tables d'agrégats,
+ * index), après la création du schéma par Hibernate. Une instruction en échec (index déjà présent)
+ * est signalée sans arrêter le script.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SchemaScripts {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void run(List<String> scripts) throws IOException {
+        for (String script : scripts) {
+            Path path = Path.of(script);
+            StringBuilder sql = new StringBuilder();
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (!line.trim().startsWith("--")) {
+                    sql.append(line).append('\n');
+                }
+            }
+            int executed = 0;
+            for (String statement : sql.toString().split(";")) {
+                if (statement.isBlank()) {
+                    continue;
+                }
+                try {
+                    jdbcTemplate.execute(statement.trim());
+                    executed++;
+                } catch (DataAccessException e) {
+                    log.warn("{} : instruction ignorée ({})", path.getFileName(), e.getMostSpecificCause().getMessage());
+                }
+            }
+            log.info("{} : {} instruction(s) exécutée(s)", path.getFileName(), executed);
+        }
+    }
+}
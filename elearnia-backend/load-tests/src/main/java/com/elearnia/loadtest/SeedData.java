@@ -0,0 +1,51 @@
+package com.elearnia.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Données créées par {@link DataSeeder} et utilisées par les scénarios.
+ */
+@Getter
+@AllArgsConstructor
+public class SeedData {
+
+    @Getter
+    @AllArgsConstructor
+    public static class Student {
+        private final Long id;
+        private final String email;
+        private final String token;
+        private final List<Long> courseIds;      // Cours suivis (le cours d'examen en premier)
+    }
+
+    /**
+     * Requête d'inscription en masse de référence : rows nouveaux comptes inscrits au même cours.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class BulkEnrollmentRun {
+        private final int rows;
+        private final long requestMs;            // Requête HTTP complète, côté client
+        private final long serverMs;             // durationMs renvoyé par l'API
+
+        public double getRowsPerSecond() {
+            return requestMs > 0 ? rows * 1000.0 / requestMs : 0;
+        }
+    }
+
+    private final List<Student> students;
+    private final List<Long> courseIds;
+    private final Long examCourseId;
+    private final String videoFilename;
+
+    // Inscriptions faites par l'API d'inscription en masse (temps de mise en place, rapportés)
+    private final int bulkEnrollmentRequests;
+    private final int bulkEnrollments;
+    private final long bulkEnrollmentMs;
+    private final long examCourseBulkEnrollmentMs;
+    private final BulkEnrollmentRun bulkEnrollmentRun;          // null si seed.bulk-enrollment.rows=0
+    private final long seedMs;
+}
@@ -0,0 +1,39 @@
+package com.elearnia.loadtest;
+
+import java.net.http.HttpResponse;
+
+/**
+ * Lecture d'une vidéo de leçon comme le ferait un lecteur : requêtes Range successives de
+ * range-bytes, en commençant à une position tirée au hasard.
+ */
+public class VideoStreamingScenario implements Scenario {
+
+    private static final int RANGES_PER_ITERATION = 3;
+
+    private final String path;
+    private final long fileSize;
+    private final long rangeBytes;
+
+    public VideoStreamingScenario(SeedData data, long fileSize, long rangeBytes) {
+        this.path = "/api/files/videos/" + data.getVideoFilename();
+        this.fileSize = fileSize;
+        this.rangeBytes = rangeBytes;
+    }
+
+    @Override
+    public String getName() {
+        return "video";
+    }
+
+    @Override
+    public void iterate(VirtualUser user) throws InterruptedException {
+        long position = (long) (user.getRandom().nextDouble() * Math.max(1, fileSize - rangeBytes));
+        for (int i = 0; i < RANGES_PER_ITERATION && position < fileSize; i++) {
+            long end = Math.min(fileSize, position + rangeBytes) - 1;
+            user.send("GET /api/files/videos/{filename}",
+                    user.request(path).header("Range", "bytes=" + position + "-" + end).GET(),
+                    HttpResponse.BodyHandlers.discarding());
+            position = end + 1;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.elearnia.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Un utilisateur simulé : un étudiant authentifié qui enchaîne les itérations d'un scénario.
+ * Chaque requête est mesurée sous un nom d'endpoint stable (identifiants remplacés par {id}).
+ */
+public class VirtualUser {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    private final SeedData.Student student;
+    @Getter
+    private final Random random;
+
+    public VirtualUser(HttpClient httpClient, String baseUrl, LatencyRecorder recorder, ObjectMapper objectMapper,
+                       SeedData.Student student, long seed) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+        this.objectMapper = objectMapper;
+        this.student = student;
+        this.random = new Random(seed);
+    }
+
+    public HttpResponse<String> get(String endpoint, String path) throws InterruptedException {
+        return send(endpoint, request(path).GET(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    public HttpResponse<String> postJson(String endpoint, String path, Object body) throws InterruptedException {
+        return send(endpoint, jsonPost(path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    public HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + student.getToken());
+    }
+
+    public HttpRequest.Builder jsonPost(String path, Object body) {
+        try {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Envoie la requête et enregistre sa durée (jusqu'à la fin du corps). Retourne null si aucune
+     * réponse n'a été reçue.
+     */
+    public <T> HttpResponse<T> send(String endpoint, HttpRequest.Builder request, HttpResponse.BodyHandler<T> handler)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<T> response = httpClient.send(request.build(), handler);
+            recorder.record(endpoint, response.statusCode(), System.nanoTime() - start);
+            return response;
+        } catch (IOException e) {
+            recorder.recordFailure(endpoint);
+            return null;
+        }
+    }
+
+    /**
+     * Réponse lue ligne par ligne au fil de l'eau (Server-Sent Events), sans mesure : l'appelant
+     * enregistre lui-même le premier événement et la fin du flux.
+     */
+    public HttpResponse<Stream<String>> openStream(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+    }
+
+    public void recordFailure(String endpoint) {
+        recorder.recordFailure(endpoint);
+    }
+
+    /**
+     * Mesure libre (ex: temps jusqu'au premier token d'un flux), sous son propre nom d'endpoint.
+     */
+    public void record(String endpoint, int status, long durationNanos) {
+        recorder.record(endpoint, status, durationNanos);
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
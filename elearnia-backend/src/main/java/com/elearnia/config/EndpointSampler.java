@@ -0,0 +1,78 @@
+package com.elearnia.config;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Échantillonnage des traces par endpoint : la décision est prise sur la span racine d'après le
+ * chemin de la requête HTTP en cours (ex: /teacher/courses/generate-and-create à 100 %,
+ * /api/files/** à 1 %), puis suivie par toutes les spans filles.
+ *
+ * Le chemin est posé par un filtre placé avant celui qui ouvre la span serveur (voir
+ * {@link TracingConfig}) ; hors requête (tâches planifiées, lots), le taux par défaut s'applique.
+ * Règles au format "motif=probabilité,motif=probabilité", la première qui correspond gagne.
+ */
+public class EndpointSampler implements Sampler {
+
+    private static final ThreadLocal<String> CURRENT_PATH = new ThreadLocal<>();
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final List<String> patterns = new ArrayList<>();
+    private final List<Sampler> samplers = new ArrayList<>();
+    private final Sampler defaultSampler;
+    private final String description;
+
+    public EndpointSampler(double defaultProbability, String rules) {
+        this.defaultSampler = Sampler.traceIdRatioBased(defaultProbability);
+        if (rules != null) {
+            for (String rule : rules.split(",")) {
+                int separator = rule.lastIndexOf('=');
+                if (separator <= 0) {
+                    continue;
+                }
+                patterns.add(rule.substring(0, separator).trim());
+                samplers.add(Sampler.traceIdRatioBased(Double.parseDouble(rule.substring(separator + 1).trim())));
+            }
+        }
+        this.description = "EndpointSampler{default=" + defaultProbability + ", rules=" + patterns + "}";
+    }
+
+    static void setCurrentPath(String path) {
+        CURRENT_PATH.set(path);
+    }
+
+    static void clearCurrentPath() {
+        CURRENT_PATH.remove();
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        return samplerFor(CURRENT_PATH.get())
+                .shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+    }
+
+    private Sampler samplerFor(String path) {
+        if (path != null) {
+            for (int i = 0; i < patterns.size(); i++) {
+                if (matcher.match(patterns.get(i), path)) {
+                    return samplers.get(i);
+                }
+            }
+        }
+        return defaultSampler;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
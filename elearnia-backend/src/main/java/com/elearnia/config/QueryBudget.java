@@ -0,0 +1,22 @@
+package com.elearnia.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Nombre maximal de requêtes SQL (Hibernate) qu'un endpoint peut exécuter par requête HTTP.
+ *
+ * Un dépassement est journalisé et compté dans /admin/query-stats ; avec
+ * {@code query-budget.strict=true} (tests d'intégration), la requête SQL qui dépasse le budget
+ * échoue, ce qui fait échouer l'appel HTTP.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
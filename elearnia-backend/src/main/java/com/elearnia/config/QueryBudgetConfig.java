@@ -0,0 +1,60 @@
+package com.elearnia.config;
+
+import com.elearnia.service.QueryBudgetTracker;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Branche le compteur de requêtes SQL : inspecteur de requêtes Hibernate d'un côté, intercepteur
+ * MVC de l'autre (début et fin du comptage autour de chaque méthode de contrôleur).
+ */
+@Configuration
+@RequiredArgsConstructor
+public class QueryBudgetConfig implements WebMvcConfigurer {
+
+    private final QueryBudgetTracker queryBudgetTracker;
+
+    @Bean
+    public HibernatePropertiesCustomizer queryBudgetStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryBudgetTracker);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // Le redispatch asynchrone (StreamingResponseBody) n'est pas un nouvel appel
+                if (handler instanceof HandlerMethod method && request.getDispatcherType() != DispatcherType.ASYNC) {
+                    QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+                    queryBudgetTracker.begin(
+                            method.getBeanType().getSimpleName() + "#" + method.getMethod().getName(),
+                            budget != null ? budget.value() : 0);
+                }
+                return true;
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                       Object handler) {
+                queryBudgetTracker.end();
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                queryBudgetTracker.end();
+            }
+        });
+    }
+}
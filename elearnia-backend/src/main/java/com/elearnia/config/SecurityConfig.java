@@ -1,10 +1,13 @@
 package com.elearnia.config;
 
 import com.elearnia.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -20,17 +23,27 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CorsConfigurationSource corsConfigurationSource;
+    private final Environment environment;
 
     public SecurityConfig(
             JwtAuthenticationFilter jwtAuthenticationFilter,
-            @Qualifier("corsConfigurationSource") CorsConfigurationSource corsConfigurationSource
+            @Qualifier("corsConfigurationSource") CorsConfigurationSource corsConfigurationSource,
+            Environment environment
     ) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.corsConfigurationSource = corsConfigurationSource;
+        this.environment = environment;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        // Actuator sur son propre port (management.server.port, lié à l'interface interne) : seule
+        // la collecte Prometheus y est ouverte. Sur le port public, elle reste réservée aux administrateurs.
+        boolean separateManagementPort = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
+        String[] openActuatorEndpoints = separateManagementPort
+                ? new String[]{"/actuator/health", "/actuator/prometheus"}
+                : new String[]{"/actuator/health"};
+
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .csrf(csrf -> csrf.disable())
@@ -38,9 +51,18 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch asynchrone des réponses streamées (SSE) : la requête initiale est déjà autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Auth ouvert
                         .requestMatchers("/auth/**").permitAll()
 
+                        // Sonde de santé, et collecte Prometheus si l'actuator est sur le port de gestion
+                        .requestMatchers(openActuatorEndpoints).permitAll()
+
+                        // Autres endpoints actuator : administrateurs uniquement
+                        .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
+
                         // Images publiques (pour affichage)
                         .requestMatchers("/api/files/images/**").permitAll()
 
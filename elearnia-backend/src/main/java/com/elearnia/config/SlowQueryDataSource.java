@@ -0,0 +1,241 @@
+package com.elearnia.config;
+
+import com.elearnia.service.QueryBudgetTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataSource qui mesure chaque exécution SQL (Hibernate comme JdbcTemplate) et journalise les
+ * requêtes lentes sur une ligne clé=valeur, en remplacement de spring.jpa.show-sql.
+ *
+ * Toutes les exécutions alimentent le timer db.statements et les lentes le compteur
+ * db.statements.slow ; seule une fraction des lentes (db.slow-query.sample-rate) est écrite dans
+ * le journal, pour qu'une dégradation générale ne noie pas les logs. Les paramètres liés ne sont
+ * jamais journalisés. Pour un curseur en streaming, seul le temps jusqu'au premier résultat est
+ * mesuré. La DataSource d'origine (Hikari) reste accessible par unwrap pour ses métriques.
+ *
+ * À l'intérieur d'une trace, chaque exécution ouvre aussi une observation jdbc.statement (span
+ * "db select", "db insert"...) portant le SQL tronqué.
+ */
+@Slf4j
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private static final int MAX_SQL_LENGTH = 1000;
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final ObjectProvider<ObservationRegistry> observationRegistryProvider;
+    private final long thresholdNanos;
+    private final double sampleRate;
+
+    private volatile MeterRegistry meterRegistry;
+    private volatile ObservationRegistry observationRegistry;
+
+    public SlowQueryDataSource(DataSource target, ObjectProvider<MeterRegistry> meterRegistryProvider,
+                               ObjectProvider<ObservationRegistry> observationRegistryProvider,
+                               long thresholdMs, double sampleRate) {
+        super(target);
+        this.meterRegistryProvider = meterRegistryProvider;
+        this.observationRegistryProvider = observationRegistryProvider;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    // ================== Mesure ==================
+
+    private void record(String sql, long nanos) {
+        String type = statementType(sql);
+        MeterRegistry registry = registry();
+        if (registry != null) {
+            Timer.builder("db.statements")
+                    .description("Exécutions SQL")
+                    .tag("type", type)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+        if (nanos < thresholdNanos) {
+            return;
+        }
+        if (registry != null) {
+            registry.counter("db.statements.slow", "type", type).increment();
+        }
+        if (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            String endpoint = QueryBudgetTracker.currentEndpoint();
+            log.warn("slow_query duration_ms={} type={} endpoint={} thread={} sql=\"{}\"",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), type, endpoint != null ? endpoint : "-",
+                    Thread.currentThread().getName(), normalize(sql));
+        }
+    }
+
+    // Résolu au premier appel : la DataSource est créée avant le registre de métriques
+    private MeterRegistry registry() {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            registry = meterRegistryProvider.getIfAvailable();
+            meterRegistry = registry;
+        }
+        return registry;
+    }
+
+    private Observation startObservation(String sql) {
+        ObservationRegistry registry = observationRegistry;
+        if (registry == null) {
+            registry = observationRegistryProvider.getIfAvailable();
+            observationRegistry = registry;
+        }
+        if (registry == null || registry.getCurrentObservation() == null) {
+            return null;
+        }
+        String type = statementType(sql);
+        String statement = sql == null ? "" : sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) : sql;
+        return Observation.createNotStarted("jdbc.statement", registry)
+                .contextualName("db " + type)
+                .lowCardinalityKeyValue("type", type)
+                .highCardinalityKeyValue("db.statement", statement)
+                .start();
+    }
+
+    private static String statementType(String sql) {
+        if (sql == null) {
+            return "batch";
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        switch (keyword) {
+            case "select":
+            case "insert":
+            case "update":
+            case "delete":
+                return keyword;
+            default:
+                return "other";
+        }
+    }
+
+    private static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String compact = sql.replaceAll("\\s+", " ").trim().replace("\"", "'");
+        return compact.length() > MAX_SQL_LENGTH ? compact.substring(0, MAX_SQL_LENGTH) + "..." : compact;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Égalité par identité du proxy : Hibernate range les Statement dans des tables de hachage
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        if (method.getName().equals("equals") && args != null && args.length == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && (args == null || args.length == 0)) {
+            return System.identityHashCode(proxy);
+        }
+        return null;
+    }
+
+    // ================== Proxies JDBC ==================
+
+    /** Enveloppe les Statement créés par la connexion, en retenant le SQL des requêtes préparées. */
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            String name = method.getName();
+            if (name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()}, new StatementHandler(result, sql));
+            }
+            return result;
+        }
+    }
+
+    /** Mesure les méthodes execute* ; le SQL vient de la préparation ou de l'argument d'execute. */
+    private class StatementHandler implements InvocationHandler {
+        private final Object target;
+        private final String preparedSql;
+
+        private StatementHandler(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            if (!method.getName().startsWith("execute")) {
+                return SlowQueryDataSource.invoke(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            Observation observation = startObservation(sql);
+            long start = System.nanoTime();
+            try {
+                return SlowQueryDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                if (observation != null) {
+                    observation.error(e);
+                }
+                throw e;
+            } finally {
+                record(sql, System.nanoTime() - start);
+                if (observation != null) {
+                    observation.stop();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.elearnia.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Enveloppe la DataSource de l'application dans {@link SlowQueryDataSource}
+ * (désactivable par db.slow-query.enabled=false).
+ */
+@Configuration
+public class SlowQueryLogConfig {
+
+    // Statique : un post-processeur ne doit pas forcer la création anticipée de sa configuration
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(Environment environment,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                                                     ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)
+                        && environment.getProperty("db.slow-query.enabled", Boolean.class, true)) {
+                    return new SlowQueryDataSource(dataSource, meterRegistry, observationRegistry,
+                            environment.getProperty("db.slow-query.threshold-ms", Long.class, 200L),
+                            environment.getProperty("db.slow-query.sample-rate", Double.class, 1.0));
+                }
+                return bean;
+            }
+        };
+    }
+}
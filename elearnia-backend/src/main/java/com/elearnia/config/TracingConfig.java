@@ -0,0 +1,95 @@
+package com.elearnia.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Traces OpenTelemetry (via Micrometer Tracing, export OTLP) : les spans des contrôleurs et des
+ * appels WebClient sont fournies par Spring ; on ajoute ici l'échantillonnage par endpoint et une
+ * span par appel de repository Spring Data. Les appels IA, les requêtes JDBC et les lectures /
+ * écritures de fichiers ouvrent leurs propres observations (ai.upstream, jdbc.statement, file.io).
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public Sampler endpointSampler(
+            @Value("${tracing.sampling.default-probability:0.1}") double defaultProbability,
+            @Value("${tracing.sampling.endpoints:}") String endpoints
+    ) {
+        // Les spans filles suivent la décision de leur parent (y compris un parent distant)
+        return Sampler.parentBased(new EndpointSampler(defaultProbability, endpoints));
+    }
+
+    // Avant le filtre d'observation HTTP (HIGHEST_PRECEDENCE + 1) qui crée la span racine
+    @Bean
+    public FilterRegistrationBean<Filter> samplingPathFilter() {
+        Filter filter = (request, response, chain) -> {
+            if (request instanceof HttpServletRequest http) {
+                EndpointSampler.setCurrentPath(http.getRequestURI());
+            }
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                EndpointSampler.clearCurrentPath();
+            }
+        };
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Une span "Repository.méthode" autour de chaque appel de repository, uniquement à l'intérieur
+     * d'une trace existante (pas de trace racine pour les requêtes du démarrage).
+     */
+    @Bean
+    public static BeanPostProcessor repositoryTracingPostProcessor(ObjectProvider<ObservationRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    repositoryInterceptor(information.getRepositoryInterface().getSimpleName(), registry))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor repositoryInterceptor(String repository,
+                                                           ObjectProvider<ObservationRegistry> registryProvider) {
+        return invocation -> {
+            ObservationRegistry registry = registryProvider.getIfAvailable();
+            if (registry == null || registry.getCurrentObservation() == null) {
+                return invocation.proceed();
+            }
+            Observation observation = Observation.createNotStarted("repository.invocation", registry)
+                    .contextualName(repository + "." + invocation.getMethod().getName())
+                    .lowCardinalityKeyValue("repository", repository)
+                    .lowCardinalityKeyValue("method", invocation.getMethod().getName())
+                    .start();
+            try (Observation.Scope scope = observation.openScope()) {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        };
+    }
+}
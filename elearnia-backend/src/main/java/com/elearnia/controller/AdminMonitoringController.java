@@ -0,0 +1,119 @@
+package com.elearnia.controller;
+
+import com.elearnia.dto.JfrRecordingDto;
+import com.elearnia.dto.QueryStatsDto;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.service.AuthService;
+import com.elearnia.service.FlightRecordingService;
+import com.elearnia.service.QueryBudgetTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminMonitoringController {
+
+    private final AuthService authService;
+    private final QueryBudgetTracker queryBudgetTracker;
+    private final FlightRecordingService flightRecordingService;
+
+    // ================== UTILITAIRE ==================
+
+    /** Récupère l'administrateur à partir du header Authorization: Bearer xxx */
+    private User getAdminFromBearer(String bearer) {
+        if (bearer == null || bearer.trim().isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "Token d'authentification manquant"
+            );
+        }
+        String token = bearer.startsWith("Bearer ")
+                ? bearer.substring(7).trim()
+                : bearer.trim();
+        User user = authService.getCurrentUserFromToken(token);
+        if (user.getRole() != Role.ADMIN) {
+            throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN,
+                    "Réservé aux administrateurs"
+            );
+        }
+        return user;
+    }
+
+    // ================== REQUÊTES SQL PAR ENDPOINT ==================
+
+    @GetMapping("/query-stats")
+    public ResponseEntity<List<QueryStatsDto>> queryStats(
+            @RequestHeader("Authorization") String bearer,
+            @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        getAdminFromBearer(bearer);
+        return ResponseEntity.ok(queryBudgetTracker.topOffenders(Math.max(1, limit)));
+    }
+
+    @DeleteMapping("/query-stats")
+    public ResponseEntity<Void> resetQueryStats(
+            @RequestHeader("Authorization") String bearer
+    ) {
+        getAdminFromBearer(bearer);
+        queryBudgetTracker.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    // ================== FLIGHT RECORDER ==================
+
+    // Démarre un enregistrement borné (durée et taille plafonnées par la configuration)
+    @PostMapping("/jfr/start")
+    public ResponseEntity<JfrRecordingDto> startRecording(
+            @RequestHeader("Authorization") String bearer,
+            @RequestParam(value = "durationSeconds", required = false) Long durationSeconds,
+            @RequestParam(value = "maxSizeMb", required = false) Long maxSizeMb,
+            @RequestParam(value = "settings", defaultValue = "default") String settings
+    ) {
+        getAdminFromBearer(bearer);
+        return ResponseEntity.ok(flightRecordingService.start(durationSeconds, maxSizeMb, settings));
+    }
+
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<JfrRecordingDto> stopRecording(
+            @RequestHeader("Authorization") String bearer
+    ) {
+        getAdminFromBearer(bearer);
+        return ResponseEntity.ok(flightRecordingService.stop());
+    }
+
+    @GetMapping("/jfr")
+    public ResponseEntity<JfrRecordingDto> recordingStatus(
+            @RequestHeader("Authorization") String bearer
+    ) {
+        getAdminFromBearer(bearer);
+        return ResponseEntity.ok(flightRecordingService.status());
+    }
+
+    // Fichier .jfr à ouvrir dans JDK Mission Control (copie instantanée si l'enregistrement tourne)
+    @GetMapping("/jfr/download")
+    public ResponseEntity<StreamingResponseBody> downloadRecording(
+            @RequestHeader("Authorization") String bearer
+    ) {
+        getAdminFromBearer(bearer);
+        if (!flightRecordingService.hasRecording()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Aucun enregistrement à télécharger");
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"elearnia-" + System.currentTimeMillis() + ".jfr\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(flightRecordingService::writeRecording);
+    }
+}
@@ -0,0 +1,95 @@
+package com.elearnia.controller;
+
+import com.elearnia.dto.BulkEnrollmentRequest;
+import com.elearnia.dto.BulkEnrollmentResultDto;
+import com.elearnia.model.User;
+import com.elearnia.service.AuthService;
+import com.elearnia.service.BulkEnrollmentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/teacher/courses")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class BulkEnrollmentController {
+
+    private static final Pattern CSV_SEPARATORS = Pattern.compile("[\\r\\n,;\\t]+");
+
+    private final BulkEnrollmentService bulkEnrollmentService;
+    private final AuthService authService;
+
+    // ================== UTILITAIRE ==================
+
+    /** Récupère le prof à partir du header Authorization: Bearer xxx */
+    private User getTeacherFromBearer(String bearer) {
+        if (bearer == null || bearer.trim().isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "Token d'authentification manquant"
+            );
+        }
+        String token = bearer.startsWith("Bearer ")
+                ? bearer.substring(7).trim()
+                : bearer.trim();
+        if (token.isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "Token d'authentification invalide"
+            );
+        }
+        return authService.getCurrentUserFromToken(token);
+    }
+
+    // ================== INSCRIPTION EN MASSE ==================
+
+    // Inscrit une liste d'étudiants (emails) au cours : { "emails": ["a@x.fr", ...] }
+    @PostMapping("/{courseId}/enrollments/bulk")
+    public ResponseEntity<BulkEnrollmentResultDto> bulkEnroll(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("courseId") Long courseId,
+            @RequestBody BulkEnrollmentRequest request
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        return ResponseEntity.ok(bulkEnrollmentService.enroll(teacher, courseId, request.getEmails()));
+    }
+
+    /**
+     * Même chose à partir d'un CSV : un email par ligne (ou séparés par ',' ';' ou tabulation),
+     * ligne d'en-tête "email" ignorée.
+     */
+    @PostMapping(value = "/{courseId}/enrollments/bulk/csv", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<BulkEnrollmentResultDto> bulkEnrollFromCsv(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("courseId") Long courseId,
+            @RequestBody String csv
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        return ResponseEntity.ok(bulkEnrollmentService.enroll(teacher, courseId, parseCsv(csv)));
+    }
+
+    private List<String> parseCsv(String csv) {
+        List<String> emails = new ArrayList<>();
+        if (csv == null) {
+            return emails;
+        }
+        for (String value : CSV_SEPARATORS.split(csv)) {
+            String email = value.trim();
+            if (email.length() >= 2 && email.startsWith("\"") && email.endsWith("\"")) {
+                email = email.substring(1, email.length() - 1).trim();
+            }
+            if (email.isEmpty() || (emails.isEmpty() && email.equalsIgnoreCase("email"))) {
+                continue;
+            }
+            emails.add(email);
+        }
+        return emails;
+    }
+}
@@ -6,8 +6,12 @@ import com.elearnia.security.JwtService;
 import com.elearnia.service.ChatBotService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/student/chatbot")
@@ -31,6 +35,22 @@ public class ChatBotController {
         return ResponseEntity.ok(new ChatBotResponse(response));
     }
 
+    /**
+     * Réponse streamée en Server-Sent Events : un événement "token" par morceau de texte,
+     * puis un événement "done" à la fin.
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamMessage(
+            @RequestHeader("Authorization") String bearer,
+            @RequestBody ChatBotRequest request
+    ) {
+        User student = getUserFromBearer(bearer);
+
+        return chatBotService.streamMessage(request.getMessage(), student)
+                .map(token -> ServerSentEvent.builder(token).event("token").build())
+                .concatWith(Mono.just(ServerSentEvent.builder("").event("done").build()));
+    }
+
     private User getUserFromBearer(String bearer) {
         if (bearer == null || bearer.trim().isEmpty()) {
             throw new RuntimeException("Authorization header manquant");
@@ -0,0 +1,137 @@
+package com.elearnia.controller;
+
+import com.elearnia.dto.CourseBatchJobDto;
+import com.elearnia.dto.CreateCourseBatchRequest;
+import com.elearnia.dto.GenerateCourseRequest;
+import com.elearnia.model.User;
+import com.elearnia.service.AuthService;
+import com.elearnia.service.CourseBatchGenerationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/teacher/courses/batch-jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class CourseBatchController {
+
+    private final CourseBatchGenerationService courseBatchGenerationService;
+    private final AuthService authService;
+
+    // ================== UTILITAIRE ==================
+
+    /** Récupère le prof à partir du header Authorization: Bearer xxx */
+    private User getTeacherFromBearer(String bearer) {
+        if (bearer == null || bearer.trim().isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "Token d'authentification manquant"
+            );
+        }
+        String token = bearer.startsWith("Bearer ")
+                ? bearer.substring(7).trim()
+                : bearer.trim();
+        if (token.isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "Token d'authentification invalide"
+            );
+        }
+        return authService.getCurrentUserFromToken(token);
+    }
+
+    // ================== TÂCHES DE GÉNÉRATION PAR LOT ==================
+
+    @PostMapping
+    public ResponseEntity<CourseBatchJobDto> createJob(
+            @RequestHeader("Authorization") String bearer,
+            @RequestBody CreateCourseBatchRequest request
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        CourseBatchJobDto job = courseBatchGenerationService.createJob(teacher, request.getItems());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * Même chose à partir d'un CSV : une ligne par cours, "idée,niveau" (niveau optionnel,
+     * séparateur ',' ou ';', ligne d'en-tête "idea"/"idée" ignorée).
+     */
+    @PostMapping(value = "/csv", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<CourseBatchJobDto> createJobFromCsv(
+            @RequestHeader("Authorization") String bearer,
+            @RequestBody String csv
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        CourseBatchJobDto job = courseBatchGenerationService.createJob(teacher, parseCsv(csv));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<CourseBatchJobDto>> getJobs(
+            @RequestHeader("Authorization") String bearer
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        return ResponseEntity.ok(courseBatchGenerationService.getJobs(teacher));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<CourseBatchJobDto> getJob(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("jobId") Long jobId
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        return ResponseEntity.ok(courseBatchGenerationService.getJob(teacher, jobId));
+    }
+
+    // Relance les éléments en attente ou en échec (les cours déjà créés ne sont pas régénérés)
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<CourseBatchJobDto> resumeJob(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("jobId") Long jobId
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        return ResponseEntity.ok(courseBatchGenerationService.resume(teacher, jobId));
+    }
+
+    private List<GenerateCourseRequest> parseCsv(String csv) {
+        List<GenerateCourseRequest> requests = new ArrayList<>();
+        if (csv == null) {
+            return requests;
+        }
+        for (String line : csv.split("\\r?\\n")) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            // Le niveau est la dernière colonne : l'idée peut contenir des virgules
+            int separator = Math.max(line.lastIndexOf(','), line.lastIndexOf(';'));
+            String idea = separator > 0 ? line.substring(0, separator) : line;
+            String level = separator > 0 ? line.substring(separator + 1) : null;
+            idea = unquote(idea);
+            level = level != null ? unquote(level) : null;
+
+            if (requests.isEmpty() && (idea.equalsIgnoreCase("idea") || idea.equalsIgnoreCase("idée"))) {
+                continue;
+            }
+            GenerateCourseRequest request = new GenerateCourseRequest();
+            request.setIdea(idea);
+            request.setLevel(level == null || level.isEmpty() ? null : level);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1).replace("\"\"", "\"").trim();
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,122 @@
+package com.elearnia.controller;
+
+import com.elearnia.dto.CourseImportResultDto;
+import com.elearnia.model.User;
+import com.elearnia.service.AuthService;
+import com.elearnia.service.CourseBundleService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/teacher/courses")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class CourseBundleController {
+
+    private final CourseBundleService courseBundleService;
+    private final AuthService authService;
+
+    // ================== UTILITAIRE ==================
+
+    /** Récupère le prof à partir du header Authorization: Bearer xxx */
+    private User getTeacherFromBearer(String bearer) {
+        if (bearer == null || bearer.trim().isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "Token d'authentification manquant"
+            );
+        }
+        String token = bearer.startsWith("Bearer ")
+                ? bearer.substring(7).trim()
+                : bearer.trim();
+        if (token.isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "Token d'authentification invalide"
+            );
+        }
+        return authService.getCurrentUserFromToken(token);
+    }
+
+    // ================== EXPORT ==================
+
+    // Paquet d'un cours : zip (cours + fichiers uploadés) par défaut, ou NDJSON seul avec ?format=ndjson
+    @GetMapping("/{courseId}/export")
+    public ResponseEntity<StreamingResponseBody> exportCourse(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("courseId") Long courseId,
+            @RequestParam(value = "format", defaultValue = CourseBundleService.FORMAT_ZIP) String format
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        courseBundleService.checkOwnership(teacher, courseId);
+        return bundleResponse("course-" + courseId, format,
+                out -> courseBundleService.exportCourse(courseId, format, out));
+    }
+
+    // Tous les cours du professeur, écrits au fil de l'eau
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAllCourses(
+            @RequestHeader("Authorization") String bearer,
+            @RequestParam(value = "format", defaultValue = CourseBundleService.FORMAT_ZIP) String format
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        return bundleResponse("courses-" + teacher.getId(), format,
+                out -> courseBundleService.exportAll(teacher, format, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> bundleResponse(String name, String format, StreamingResponseBody body) {
+        boolean ndjson = CourseBundleService.FORMAT_NDJSON.equalsIgnoreCase(format);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + (ndjson ? ".ndjson" : ".zip") + "\"")
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    // ================== IMPORT ==================
+
+    // Import d'un paquet envoyé en multipart (champ "file"), zip ou NDJSON
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CourseImportResultDto> importBundle(
+            @RequestHeader("Authorization") String bearer,
+            @RequestParam("file") MultipartFile file
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(courseBundleService.importBundle(teacher, in));
+        } catch (IOException e) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Paquet illisible: " + e.getMessage()
+            );
+        }
+    }
+
+    // Même chose avec le paquet brut dans le corps de la requête (lu au fil de l'eau)
+    @PostMapping(value = "/import", consumes = {"application/zip", "application/x-ndjson", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<CourseImportResultDto> importRawBundle(
+            @RequestHeader("Authorization") String bearer,
+            HttpServletRequest request
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        try {
+            return ResponseEntity.ok(courseBundleService.importBundle(teacher, request.getInputStream()));
+        } catch (IOException e) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Paquet illisible: " + e.getMessage()
+            );
+        }
+    }
+}
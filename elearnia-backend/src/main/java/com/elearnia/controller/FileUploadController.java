@@ -1,6 +1,10 @@
 package com.elearnia.controller;
 
 import com.elearnia.service.AuthService;
+import com.elearnia.util.JfrEvents;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
@@ -25,6 +29,8 @@ import java.util.UUID;
 public class FileUploadController {
 
     private final AuthService authService;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
 
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
@@ -93,7 +99,8 @@ public class FileUploadController {
 
             // Sauvegarder le fichier
             Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            fileIo("write", "image").observeChecked(
+                    () -> Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING));
 
             // Construire l'URL en utilisant la configuration de base URL
             String fileUrl = String.format("%s/api/files/images/%s", serverBaseUrl, filename);
@@ -122,7 +129,12 @@ public class FileUploadController {
 
     @GetMapping("/images/{filename:.+}")
     @CrossOrigin(origins = "*", methods = {RequestMethod.GET, RequestMethod.OPTIONS})
-    public ResponseEntity<byte[]> getImage(@PathVariable String filename) {
+    public ResponseEntity<byte[]> getImage(
+            @PathVariable String filename,
+            @RequestHeader(value = "Range", required = false) String range
+    ) {
+        JfrEvents.FileServe serveEvent = new JfrEvents.FileServe();
+        serveEvent.begin();
         try {
             // Logger pour débogage
             System.out.println("Tentative de chargement d'image: " + filename);
@@ -231,7 +243,7 @@ public class FileUploadController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            byte[] imageBytes = Files.readAllBytes(normalizedFilePath);
+            byte[] imageBytes = fileIo("read", "image").observeChecked(() -> Files.readAllBytes(normalizedFilePath));
             
             // Déterminer le Content-Type basé sur l'extension
             String contentType = "image/jpeg"; // par défaut
@@ -258,6 +270,7 @@ public class FileUploadController {
                 }
             }
 
+            recordBytesServed(serveEvent, "image", contentType, imageBytes.length, range);
             return ResponseEntity.ok()
                     .header("Content-Type", contentType)
                     .header("Cache-Control", "public, max-age=31536000")
@@ -360,7 +373,8 @@ public class FileUploadController {
             System.out.println("Début de l'écriture du fichier: " + filePath.toAbsolutePath());
             
             // Utiliser Files.copy avec un buffer pour les gros fichiers
-            long bytesCopied = Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            long bytesCopied = fileIo("write", "video").observeChecked(
+                    () -> Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING));
             System.out.println("Fichier écrit avec succès: " + bytesCopied + " bytes");
 
             // Construire l'URL en utilisant la configuration de base URL
@@ -391,7 +405,12 @@ public class FileUploadController {
 
     @GetMapping("/videos/{filename:.+}")
     @CrossOrigin(origins = "*", methods = {RequestMethod.GET, RequestMethod.OPTIONS})
-    public ResponseEntity<byte[]> getVideo(@PathVariable String filename) {
+    public ResponseEntity<byte[]> getVideo(
+            @PathVariable String filename,
+            @RequestHeader(value = "Range", required = false) String range
+    ) {
+        JfrEvents.FileServe serveEvent = new JfrEvents.FileServe();
+        serveEvent.begin();
         try {
             System.out.println("Tentative de chargement de vidéo: " + filename);
             
@@ -446,7 +465,7 @@ public class FileUploadController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            byte[] videoBytes = Files.readAllBytes(normalizedFilePath);
+            byte[] videoBytes = fileIo("read", "video").observeChecked(() -> Files.readAllBytes(normalizedFilePath));
             
             // Déterminer le Content-Type basé sur l'extension
             String contentType = "video/mp4"; // par défaut
@@ -475,6 +494,7 @@ public class FileUploadController {
                 }
             }
 
+            recordBytesServed(serveEvent, "video", contentType, videoBytes.length, range);
             return ResponseEntity.ok()
                     .header("Content-Type", contentType)
                     .header("Cache-Control", "public, max-age=31536000")
@@ -494,5 +514,25 @@ public class FileUploadController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
 
+    // Span file.io autour d'une lecture / écriture sur le disque
+    private Observation fileIo(String operation, String type) {
+        return Observation.createNotStarted("file.io", observationRegistry)
+                .contextualName("file " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .lowCardinalityKeyValue("type", type);
+    }
+
+    // Octets envoyés par catégorie (image / vidéo) et type MIME
+    // Le fichier est lu entièrement en mémoire et envoyé en entier : pas de zéro copie, Range ignoré
+    private void recordBytesServed(JfrEvents.FileServe event, String type, String contentType, long bytes,
+                                   String range) {
+        meterRegistry.counter("files.served.bytes", "type", type, "content_type", contentType).increment(bytes);
+        event.type = type;
+        event.contentType = contentType;
+        event.bytes = bytes;
+        event.range = range;
+        event.zeroCopy = false;
+        event.commit();
+    }
+}
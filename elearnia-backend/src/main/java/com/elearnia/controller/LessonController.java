@@ -1,12 +1,16 @@
 package com.elearnia.controller;
 
 import com.elearnia.dto.CreateLessonRequest;
+import com.elearnia.dto.LessonDto;
+import com.elearnia.dto.TeacherQuizDto;
 import com.elearnia.entities.Course;
 import com.elearnia.entities.Lesson;
+import com.elearnia.entities.Question;
 import com.elearnia.entities.Quiz;
 import com.elearnia.model.User;
 import com.elearnia.repository.CourseRepository;
 import com.elearnia.repository.LessonRepository;
+import com.elearnia.repository.QuestionRepository;
 import com.elearnia.repository.QuizRepository;
 import com.elearnia.service.AuthService;
 import jakarta.validation.Valid;
@@ -14,7 +18,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/teacher/courses/{courseId}/lessons")
@@ -25,6 +31,7 @@ public class LessonController {
     private final LessonRepository lessonRepository;
     private final CourseRepository courseRepository;
     private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
     private final AuthService authService;
 
     private User getTeacherFromBearer(String bearer) {
@@ -84,7 +91,7 @@ public class LessonController {
 
     // Récupérer toutes les leçons d'un cours (pour le prof)
     @GetMapping
-    public ResponseEntity<List<Lesson>> getLessons(
+    public ResponseEntity<List<LessonDto>> getLessons(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId
     ) {
@@ -104,7 +111,16 @@ public class LessonController {
             throw new RuntimeException("Vous n'êtes pas autorisé à voir ce cours");
         }
 
-        List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId);
+        List<LessonDto> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId).stream()
+                .map(lesson -> new LessonDto(
+                        lesson.getId(),
+                        lesson.getTitle(),
+                        lesson.getDescription(),
+                        lesson.getVideoUrl(),
+                        lesson.getDuration(),
+                        lesson.getOrderIndex()
+                ))
+                .collect(Collectors.toList());
         return ResponseEntity.ok(lessons);
     }
 
@@ -274,7 +290,7 @@ public class LessonController {
 
     // Récupérer le quiz d'une leçon
     @GetMapping("/{lessonId}/quiz")
-    public ResponseEntity<Quiz> getLessonQuiz(
+    public ResponseEntity<TeacherQuizDto> getLessonQuiz(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId,
             @PathVariable("lessonId") Long lessonId
@@ -307,7 +323,29 @@ public class LessonController {
             return ResponseEntity.noContent().build();
         }
 
-        return ResponseEntity.ok(quiz);
+        // Questions et options chargées explicitement (pas de chargement paresseux à la sérialisation)
+        List<TeacherQuizDto.QuestionDetails> questions = new ArrayList<>();
+        for (Question q : questionRepository.findByQuizIdInWithOptions(List.of(quiz.getId()))) {
+            questions.add(new TeacherQuizDto.QuestionDetails(
+                    q.getId(),
+                    q.getText(),
+                    q.getCorrectAnswer(),
+                    q.getOptions() != null ? new ArrayList<>(q.getOptions()) : new ArrayList<>(),
+                    q.getPoints()
+            ));
+        }
+
+        return ResponseEntity.ok(new TeacherQuizDto(
+                quiz.getId(),
+                quiz.getTitle(),
+                quiz.getDescription(),
+                quiz.getPassingScore(),
+                quiz.getMaxAttempts(),
+                quiz.getLevel(),
+                courseId,
+                lessonId,
+                questions
+        ));
     }
 }
 
@@ -1,19 +1,29 @@
 package com.elearnia.controller;
 
+import com.elearnia.config.QueryBudget;
 import com.elearnia.dto.*;
 import com.elearnia.entities.*;
 import com.elearnia.model.User;
 import com.elearnia.repository.*;
 import com.elearnia.security.JwtService;
+import com.elearnia.service.ItemAnalysisService;
+import com.elearnia.service.LearningAnalyticsService;
+import com.elearnia.service.QuizGrader;
+import com.elearnia.service.StudentContextCache;
+import com.elearnia.util.JfrEvents;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,10 +34,15 @@ public class QuizController {
 
     private final QuizRepository quizRepository;
     private final QuizAttemptRepository quizAttemptRepository;
+    private final QuestionRepository questionRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final LessonRepository lessonRepository;
     private final UserRepository userRepository;
     private final JwtService jwtService;
+    private final StudentContextCache studentContextCache;
+    private final LearningAnalyticsService learningAnalyticsService;
+    private final ItemAnalysisService itemAnalysisService;
+    private final MeterRegistry meterRegistry;
 
     private User getUserFromBearer(String bearer) {
         if (bearer == null || bearer.trim().isEmpty()) {
@@ -48,6 +63,7 @@ public class QuizController {
 
     // Récupérer le quiz d'un cours
     @GetMapping("/course/{courseId}")
+    @QueryBudget(6)
     public ResponseEntity<QuizDto> getQuizByCourse(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId
@@ -107,29 +123,12 @@ public class QuizController {
         }
 
         // Calculer le score
-        int totalPoints = 0;
-        int earnedPoints = 0;
-
-        // Convertir Map<String, String> en Map<Long, String>
-        Map<Long, String> answersMap = new HashMap<>();
-        for (java.util.Map.Entry<String, String> entry : request.getAnswers().entrySet()) {
-            try {
-                Long questionId = Long.parseLong(entry.getKey());
-                answersMap.put(questionId, entry.getValue());
-            } catch (NumberFormatException e) {
-                // Ignorer les clés invalides
-            }
-        }
-
-        for (Question question : quiz.getQuestions()) {
-            totalPoints += question.getPoints();
-            String studentAnswer = answersMap.get(question.getId());
-            if (studentAnswer != null && studentAnswer.equalsIgnoreCase(question.getCorrectAnswer())) {
-                earnedPoints += question.getPoints();
-            }
-        }
-
-        double score = totalPoints > 0 ? (earnedPoints * 100.0 / totalPoints) : 0;
+        long gradingStart = System.nanoTime();
+        JfrEvents.QuizGrading gradingEvent = new JfrEvents.QuizGrading();
+        gradingEvent.begin();
+        Map<Long, String> answersMap = QuizGrader.parseAnswers(request.getAnswers());
+        // Questions chargées explicitement (une requête, sans les options inutiles à la correction)
+        double score = QuizGrader.score(questionRepository.findByQuizId(quiz.getId()), answersMap);
         boolean passed = score >= quiz.getPassingScore();
         int attemptNumber = attemptCount + 1;
 
@@ -144,6 +143,9 @@ public class QuizController {
                 .build();
 
         quizAttemptRepository.save(attempt);
+        learningAnalyticsService.recordAttempt(quiz, score, passed);
+        itemAnalysisService.recordAttempt(quiz, score, answersMap);
+        recordGrading(gradingEvent, "course", quiz.getId(), answersMap.size(), score, passed, gradingStart);
 
         // Vérifier si tous les quizzes du cours sont réussis
         boolean courseCompleted = false;
@@ -154,6 +156,8 @@ public class QuizController {
                 enrollment.setCompleted(true);
                 enrollment.setProgress(100.0);
                 enrollmentRepository.save(enrollment);
+                studentContextCache.invalidate(student.getId());
+                learningAnalyticsService.recordCompletion(courseId);
                 courseCompleted = true;
             }
         }
@@ -171,33 +175,34 @@ public class QuizController {
 
     // Méthode pour vérifier si tous les quizzes d'un cours sont complétés avec succès
     private boolean checkAllQuizzesPassed(Long studentId, Long courseId) {
-        // Récupérer toutes les leçons du cours
-        List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId);
-        
-        if (lessons.isEmpty()) {
+        if (!lessonRepository.existsByCourseId(courseId)) {
             return false; // Pas de leçons = pas de quizzes à compléter
         }
         
-        // Vérifier que chaque leçon a un quiz et que l'étudiant l'a réussi
-        for (Lesson lesson : lessons) {
-            Quiz quiz = quizRepository.findByLessonId(lesson.getId()).orElse(null);
-            if (quiz == null) {
-                continue; // Si une leçon n'a pas de quiz, on continue
-            }
-            
-            // Vérifier si l'étudiant a réussi ce quiz
-            boolean passed = quizAttemptRepository.hasPassedQuiz(studentId, quiz.getId());
-            if (!passed) {
-                return false; // Au moins un quiz n'est pas réussi
-            }
-        }
-        
-        return true; // Tous les quizzes sont réussis
+        // Les leçons sans quiz ne comptent pas ; une seule requête pour tous les quizzes des leçons
+        return quizRepository.countUnpassedLessonQuizzes(studentId, courseId) == 0;
+    }
+
+    // Correction d'une soumission : score, enregistrement de la tentative et agrégats
+    private void recordGrading(JfrEvents.QuizGrading event, String kind, Long quizId, int answers,
+                               double score, boolean passed, long startNanos) {
+        Timer.builder("quiz.gradings")
+                .description("Soumissions de quiz corrigées")
+                .tag("kind", kind)
+                .tag("outcome", passed ? "passed" : "failed")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        event.quizId = quizId;
+        event.kind = kind;
+        event.answers = answers;
+        event.score = score;
+        event.passed = passed;
+        event.commit();
     }
 
     // Récupérer les tentatives d'un étudiant pour un quiz
     @GetMapping("/course/{courseId}/attempts")
-    public ResponseEntity<List<QuizAttempt>> getAttempts(
+    public ResponseEntity<List<QuizAttemptHistoryDto>> getAttempts(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId
     ) {
@@ -209,14 +214,24 @@ public class QuizController {
                         "Aucun quiz disponible pour ce cours"
                 ));
 
-        List<QuizAttempt> attempts = quizAttemptRepository
-                .findByUserIdAndQuizIdOrderByAttemptNumberDesc(student.getId(), quiz.getId());
+        List<QuizAttemptHistoryDto> attempts = quizAttemptRepository
+                .findWithAnswersByUserIdAndQuizIdOrderByAttemptNumberDesc(student.getId(), quiz.getId()).stream()
+                .map(attempt -> new QuizAttemptHistoryDto(
+                        attempt.getId(),
+                        attempt.getAttemptNumber(),
+                        attempt.getScore(),
+                        attempt.isPassed(),
+                        attempt.getAnswers() != null ? new HashMap<>(attempt.getAnswers()) : new HashMap<>(),
+                        attempt.getCompletedAt()
+                ))
+                .collect(Collectors.toList());
 
         return ResponseEntity.ok(attempts);
     }
 
     // Récupérer tous les quizzes disponibles (standalone)
     @GetMapping("/available")
+    @QueryBudget(4)
     public ResponseEntity<List<QuizSummaryDto>> getAvailableQuizzes(
             @RequestHeader(value = "Authorization", required = false) String bearer,
             @RequestParam(required = false) String level
@@ -230,61 +245,51 @@ public class QuizController {
             }
             User student = getUserFromBearer(bearer);
 
-        List<Quiz> quizzes;
+        QuizLevel quizLevel = null;
         if (level != null && !level.isEmpty() && !level.equalsIgnoreCase("ALL")) {
             try {
-                com.elearnia.entities.QuizLevel quizLevel = com.elearnia.entities.QuizLevel.valueOf(level.toUpperCase());
-                quizzes = quizRepository.findByCourseIdIsNullAndLevel(quizLevel);
+                quizLevel = QuizLevel.valueOf(level.toUpperCase());
             } catch (IllegalArgumentException e) {
                 // Si le niveau n'est pas valide, retourner tous les quizzes standalone
-                quizzes = quizRepository.findByCourseIdIsNull();
+                quizLevel = null;
             }
-        } else {
-            quizzes = quizRepository.findByCourseIdIsNull();
         }
 
-        List<QuizSummaryDto> dtos = quizzes.stream()
-                .filter(quiz -> quiz != null && quiz.getId() != null) // Filtrer les quizzes null ou invalides
-                .map(quiz -> {
-                    try {
-                        // Calculer les tentatives restantes pour cet étudiant
-                        int attemptCount = quizAttemptRepository.countByUserIdAndQuizId(student.getId(), quiz.getId());
-                        int remainingAttempts = Math.max(0, quiz.getMaxAttempts() - attemptCount);
-                        
-                        // Gérer les cas où level ou questions pourraient être null
-                        String levelName = "BEGINNER";
-                        if (quiz.getLevel() != null) {
-                            try {
-                                levelName = quiz.getLevel().name();
-                            } catch (Exception e) {
-                                levelName = "BEGINNER";
-                            }
-                        }
-                        
-                        int questionCount = 0;
-                        if (quiz.getQuestions() != null) {
-                            questionCount = quiz.getQuestions().size();
-                        }
-                        
-                        return new QuizSummaryDto(
-                                quiz.getId(),
-                                quiz.getTitle() != null ? quiz.getTitle() : "Sans titre",
-                                quiz.getDescription() != null ? quiz.getDescription() : "",
-                                quiz.getPassingScore(),
-                                quiz.getMaxAttempts(),
-                                remainingAttempts,
-                                levelName,
-                                questionCount
-                        );
-                    } catch (Exception e) {
-                        // Logger l'erreur et retourner null pour filtrer ce quiz
-                        System.err.println("Erreur lors de la conversion du quiz " + quiz.getId() + ": " + e.getMessage());
-                        e.printStackTrace();
-                        return null;
-                    }
-                })
-                .filter(dto -> dto != null) // Filtrer les DTOs null
-                .collect(Collectors.toList());
+        // Deux requêtes quel que soit le nombre de quizzes : les quizzes avec leur nombre de questions,
+        // puis les tentatives de l'étudiant regroupées par quiz
+        List<Object[]> quizRows = quizRepository.findStandaloneWithQuestionCount(quizLevel);
+        if (quizRows.isEmpty()) {
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+        List<Long> quizIds = quizRows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        Map<Long, Object[]> attemptStats = new HashMap<>();
+        for (Object[] row : quizAttemptRepository.findAttemptStatsByUserIdAndQuizIdIn(student.getId(), quizIds)) {
+            attemptStats.put((Long) row[0], row);
+        }
+
+        List<QuizSummaryDto> dtos = new ArrayList<>(quizRows.size());
+        for (Object[] row : quizRows) {
+            Long quizId = (Long) row[0];
+            int maxAttempts = (Integer) row[4];
+            Object[] stats = attemptStats.get(quizId);
+            int attemptCount = stats != null ? ((Long) stats[1]).intValue() : 0;
+            // Calculer les tentatives restantes pour cet étudiant
+            int remainingAttempts = Math.max(0, maxAttempts - attemptCount);
+            QuizLevel quizLevelValue = (QuizLevel) row[5];
+
+            dtos.add(new QuizSummaryDto(
+                    quizId,
+                    row[1] != null ? (String) row[1] : "Sans titre",
+                    row[2] != null ? (String) row[2] : "",
+                    (Integer) row[3],
+                    maxAttempts,
+                    remainingAttempts,
+                    quizLevelValue != null ? quizLevelValue.name() : "BEGINNER",
+                    ((Long) row[6]).intValue(),
+                    stats != null ? (Double) stats[2] : null,
+                    stats != null && ((Number) stats[3]).intValue() == 1
+            ));
+        }
 
             return ResponseEntity.ok(dtos);
         } catch (RuntimeException e) {
@@ -353,28 +358,12 @@ public class QuizController {
         }
 
         // Calculer le score
-        int totalPoints = 0;
-        int earnedPoints = 0;
-
-        Map<Long, String> answersMap = new HashMap<>();
-        for (java.util.Map.Entry<String, String> entry : request.getAnswers().entrySet()) {
-            try {
-                Long questionId = Long.parseLong(entry.getKey());
-                answersMap.put(questionId, entry.getValue());
-            } catch (NumberFormatException e) {
-                // Ignorer les clés invalides
-            }
-        }
-
-        for (Question question : quiz.getQuestions()) {
-            totalPoints += question.getPoints();
-            String studentAnswer = answersMap.get(question.getId());
-            if (studentAnswer != null && studentAnswer.equalsIgnoreCase(question.getCorrectAnswer())) {
-                earnedPoints += question.getPoints();
-            }
-        }
-
-        double score = totalPoints > 0 ? (earnedPoints * 100.0 / totalPoints) : 0;
+        long gradingStart = System.nanoTime();
+        JfrEvents.QuizGrading gradingEvent = new JfrEvents.QuizGrading();
+        gradingEvent.begin();
+        Map<Long, String> answersMap = QuizGrader.parseAnswers(request.getAnswers());
+        // Questions chargées explicitement (une requête, sans les options inutiles à la correction)
+        double score = QuizGrader.score(questionRepository.findByQuizId(quiz.getId()), answersMap);
         boolean passed = score >= quiz.getPassingScore();
         int attemptNumber = attemptCount + 1;
 
@@ -389,6 +378,9 @@ public class QuizController {
                 .build();
 
         quizAttemptRepository.save(attempt);
+        learningAnalyticsService.recordAttempt(quiz, score, passed);
+        itemAnalysisService.recordAttempt(quiz, score, answersMap);
+        recordGrading(gradingEvent, "standalone", quiz.getId(), answersMap.size(), score, passed, gradingStart);
 
         QuizResultDto result = new QuizResultDto(
                 score,
@@ -402,7 +394,7 @@ public class QuizController {
     }
 
     private QuizDto convertToDto(Quiz quiz, int remainingAttempts) {
-        List<QuestionDto> questionDtos = quiz.getQuestions().stream()
+        List<QuestionDto> questionDtos = questionRepository.findByQuizIdInWithOptions(List.of(quiz.getId())).stream()
                 .map(q -> new QuestionDto(
                         q.getId(),
                         q.getText(),
@@ -1,5 +1,7 @@
 package com.elearnia.controller;
 
+import com.elearnia.config.QueryBudget;
+import com.elearnia.dto.CourseDto;
 import com.elearnia.dto.CreateReviewRequest;
 import com.elearnia.dto.EnrollmentResponseDto;
 import com.elearnia.dto.ReviewDto;
@@ -7,26 +9,28 @@ import com.elearnia.dto.StudentCourseDto;
 import com.elearnia.dto.UpdateCourseProgressRequest;
 import com.elearnia.entities.Course;
 import com.elearnia.entities.Enrollment;
-import com.elearnia.entities.Lesson;
-import com.elearnia.entities.Quiz;
 import com.elearnia.entities.Review;
 import com.elearnia.model.User;
 import com.elearnia.repository.CourseRepository;
 import com.elearnia.repository.EnrollmentRepository;
 import com.elearnia.repository.LessonRepository;
-import com.elearnia.repository.QuizAttemptRepository;
 import com.elearnia.repository.QuizRepository;
 import com.elearnia.repository.ReviewRepository;
 import com.elearnia.repository.UserRepository;
 import com.elearnia.security.JwtService;
+import com.elearnia.service.LearningAnalyticsService;
 import com.elearnia.service.NotificationService;
+import com.elearnia.service.StudentContextCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -40,10 +44,11 @@ public class StudentCourseController {
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final QuizRepository quizRepository;
-    private final QuizAttemptRepository quizAttemptRepository;
     private final LessonRepository lessonRepository;
     private final JwtService jwtService;
     private final NotificationService notificationService;
+    private final StudentContextCache studentContextCache;
+    private final LearningAnalyticsService learningAnalyticsService;
 
     // ============================================================
     // Helper : récupérer l'utilisateur courant à partir du header
@@ -74,17 +79,21 @@ public class StudentCourseController {
     // ============================================================
 
     @GetMapping("/courses")
+    @QueryBudget(4)
     public List<StudentCourseDto> listAllCourses(
             @RequestHeader("Authorization") String bearer
     ) {
         User student = getUserFromBearer(bearer);
-        List<Course> allCourses = courseRepository.findAll();
+        List<Course> allCourses = courseRepository.findAllWithTeacher();
+        
+        // Inscriptions de l'étudiant en une requête, indexées par cours
+        Map<Long, Enrollment> enrollmentsByCourse = new HashMap<>();
+        for (Enrollment e : enrollmentRepository.findByStudentId(student.getId())) {
+            enrollmentsByCourse.put(e.getCourse().getId(), e);
+        }
         
         return allCourses.stream().map(course -> {
-            // Chercher l'enrollment de l'étudiant pour ce cours
-            Enrollment enrollment = enrollmentRepository
-                    .findByStudentIdAndCourseId(student.getId(), course.getId())
-                    .orElse(null);
+            Enrollment enrollment = enrollmentsByCourse.get(course.getId());
             
             double progress = 0.0;
             boolean completed = false;
@@ -112,7 +121,7 @@ public class StudentCourseController {
     // ============================================================
 
     @GetMapping("/courses/{courseId}")
-    public ResponseEntity<Course> getCourseDetails(
+    public ResponseEntity<CourseDto> getCourseDetails(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId
     ) {
@@ -139,7 +148,17 @@ public class StudentCourseController {
             }
         }
         
-        return ResponseEntity.ok(course);
+        User teacher = course.getTeacher();
+        return ResponseEntity.ok(new CourseDto(
+                course.getId(),
+                course.getTitle(),
+                course.getDescription(),
+                course.getImageUrl(),
+                teacher != null
+                        ? new CourseDto.TeacherDto(teacher.getId(), teacher.getFullName(), teacher.getEmail(), teacher.getRole())
+                        : null,
+                course.isPublished()
+        ));
     }
 
     // ============================================================
@@ -174,7 +193,17 @@ public class StudentCourseController {
         enrollment.setCompleted(false);
         enrollment.setRating(null);
 
-        Enrollment saved = enrollmentRepository.save(enrollment);
+        Enrollment saved;
+        try {
+            saved = enrollmentRepository.save(enrollment);
+        } catch (DataIntegrityViolationException e) {
+            // Inscription créée entre-temps (double-clic, contrainte unique étudiant / cours)
+            return enrollmentRepository.findByStudentIdAndCourseId(student.getId(), courseId)
+                    .map(ResponseEntity::ok)
+                    .orElseThrow(() -> e);
+        }
+        studentContextCache.invalidate(student.getId());
+        learningAnalyticsService.recordEnrollments(courseId, 1);
         
         // Envoyer une notification au professeur
         try {
@@ -197,11 +226,14 @@ public class StudentCourseController {
     // ============================================================
 
     @GetMapping("/courses/my")
-    public List<Enrollment> myCourses(
+    @QueryBudget(3)
+    public List<EnrollmentResponseDto> myCourses(
             @RequestHeader("Authorization") String bearer
     ) {
         User student = getUserFromBearer(bearer);
-        return enrollmentRepository.findByStudentId(student.getId());
+        return enrollmentRepository.findByStudentId(student.getId()).stream()
+                .map(e -> new EnrollmentResponseDto(e.getId(), e.getProgress(), e.isCompleted(), e.getRating()))
+                .collect(Collectors.toList());
     }
 
     // ============================================================
@@ -242,14 +274,21 @@ public class StudentCourseController {
         }
 
         Enrollment saved = enrollmentRepository.save(enrollment);
+        studentContextCache.invalidate(student.getId());
+        if (saved.isCompleted() && !wasCompleted) {
+            learningAnalyticsService.recordCompletion(courseId);
+        }
         
         // Envoyer une notification au professeur si le cours vient d'être complété
         if (request.getCompleted() != null && request.getCompleted() && !wasCompleted) {
             try {
+                // Cours rechargé : la référence de l'inscription n'est plus initialisable hors session
+                Course course = courseRepository.findById(courseId)
+                        .orElseThrow(() -> new RuntimeException("Cours introuvable"));
                 notificationService.sendCompletionNotification(
-                        saved.getCourse().getTeacher(),
+                        course.getTeacher(),
                         student,
-                        saved.getCourse()
+                        course
                 );
             } catch (Exception e) {
                 // Ne pas faire échouer la mise à jour si la notification échoue
@@ -270,28 +309,12 @@ public class StudentCourseController {
 
     // Méthode pour vérifier si tous les quizzes d'un cours sont complétés avec succès
     private boolean checkAllQuizzesPassed(Long studentId, Long courseId) {
-        // Récupérer toutes les leçons du cours
-        List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId);
-        
-        if (lessons.isEmpty()) {
+        if (!lessonRepository.existsByCourseId(courseId)) {
             return false; // Pas de leçons = pas de quizzes à compléter
         }
         
-        // Vérifier que chaque leçon a un quiz et que l'étudiant l'a réussi
-        for (Lesson lesson : lessons) {
-            Quiz quiz = quizRepository.findByLessonId(lesson.getId()).orElse(null);
-            if (quiz == null) {
-                continue; // Si une leçon n'a pas de quiz, on continue
-            }
-            
-            // Vérifier si l'étudiant a réussi ce quiz
-            boolean passed = quizAttemptRepository.hasPassedQuiz(studentId, quiz.getId());
-            if (!passed) {
-                return false; // Au moins un quiz n'est pas réussi
-            }
-        }
-        
-        return true; // Tous les quizzes sont réussis
+        // Les leçons sans quiz ne comptent pas ; une seule requête pour tous les quizzes des leçons
+        return quizRepository.countUnpassedLessonQuizzes(studentId, courseId) == 0;
     }
 
     // ============================================================
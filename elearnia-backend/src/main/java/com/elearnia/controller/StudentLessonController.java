@@ -1,10 +1,15 @@
 package com.elearnia.controller;
 
+import com.elearnia.dto.LessonDto;
+import com.elearnia.dto.QuestionDto;
+import com.elearnia.dto.QuizDto;
 import com.elearnia.entities.Lesson;
 import com.elearnia.entities.Quiz;
 import com.elearnia.model.User;
 import com.elearnia.repository.EnrollmentRepository;
 import com.elearnia.repository.LessonRepository;
+import com.elearnia.repository.QuestionRepository;
+import com.elearnia.repository.QuizAttemptRepository;
 import com.elearnia.repository.QuizRepository;
 import com.elearnia.repository.UserRepository;
 import com.elearnia.security.JwtService;
@@ -15,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/student/courses/{courseId}/lessons")
@@ -26,6 +32,8 @@ public class StudentLessonController {
     private final EnrollmentRepository enrollmentRepository;
     private final UserRepository userRepository;
     private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
+    private final QuizAttemptRepository quizAttemptRepository;
     private final JwtService jwtService;
 
     private User getUserFromBearer(String bearer) {
@@ -44,7 +52,7 @@ public class StudentLessonController {
 
     // Récupérer toutes les leçons d'un cours (pour l'étudiant)
     @GetMapping
-    public ResponseEntity<List<Lesson>> getLessons(
+    public ResponseEntity<List<LessonDto>> getLessons(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId
     ) {
@@ -57,13 +65,22 @@ public class StudentLessonController {
                         "Vous n'êtes pas inscrit à ce cours"
                 ));
 
-        List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId);
+        List<LessonDto> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId).stream()
+                .map(lesson -> new LessonDto(
+                        lesson.getId(),
+                        lesson.getTitle(),
+                        lesson.getDescription(),
+                        lesson.getVideoUrl(),
+                        lesson.getDuration(),
+                        lesson.getOrderIndex()
+                ))
+                .collect(Collectors.toList());
         return ResponseEntity.ok(lessons);
     }
 
     // Récupérer le quiz d'une leçon spécifique
     @GetMapping("/{lessonId}/quiz")
-    public ResponseEntity<Quiz> getLessonQuiz(
+    public ResponseEntity<QuizDto> getLessonQuiz(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId,
             @PathVariable("lessonId") Long lessonId
@@ -98,7 +115,23 @@ public class StudentLessonController {
                         "Aucun quiz disponible pour cette leçon"
                 ));
 
-        return ResponseEntity.ok(quiz);
+        // Questions sans la bonne réponse, options chargées dans la même requête
+        List<QuestionDto> questions = questionRepository.findByQuizIdInWithOptions(List.of(quiz.getId())).stream()
+                .map(q -> new QuestionDto(q.getId(), q.getText(), q.getOptions(), q.getPoints()))
+                .collect(Collectors.toList());
+        int attemptCount = quizAttemptRepository.countByUserIdAndQuizId(student.getId(), quiz.getId());
+
+        return ResponseEntity.ok(new QuizDto(
+                quiz.getId(),
+                quiz.getTitle(),
+                quiz.getDescription(),
+                quiz.getPassingScore(),
+                quiz.getMaxAttempts(),
+                Math.max(0, quiz.getMaxAttempts() - attemptCount),
+                quiz.getLevel(),
+                courseId,
+                questions
+        ));
     }
 }
 
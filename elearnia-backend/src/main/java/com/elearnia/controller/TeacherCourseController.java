@@ -1,20 +1,38 @@
 package com.elearnia.controller;
 
+import com.elearnia.config.QueryBudget;
 import com.elearnia.dto.*;
 import com.elearnia.entities.*;
+import com.elearnia.model.Role;
 import com.elearnia.model.User;
 import com.elearnia.repository.*;
 import com.elearnia.service.AuthService;
 import com.elearnia.service.AICourseGeneratorService;
+import com.elearnia.service.CourseCatalogService;
+import com.elearnia.service.CourseDraftPool;
+import com.elearnia.service.CourseSubtreeWriter;
+import com.elearnia.service.GradebookExportService;
+import com.elearnia.service.ItemAnalysisService;
+import com.elearnia.service.LearningAnalyticsService;
+import com.elearnia.service.QuestionSimilarityIndex;
+import com.elearnia.service.StudentContextCache;
+import com.elearnia.service.StudentProgressQueryService;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,6 +51,15 @@ public class TeacherCourseController {
     private final QuizAttemptRepository quizAttemptRepository;
     private final AuthService authService;
     private final AICourseGeneratorService aiCourseGeneratorService;
+    private final CourseCatalogService courseCatalogService;
+    private final CourseDraftPool courseDraftPool;
+    private final CourseSubtreeWriter courseSubtreeWriter;
+    private final StudentContextCache studentContextCache;
+    private final QuestionSimilarityIndex questionSimilarityIndex;
+    private final LearningAnalyticsService learningAnalyticsService;
+    private final ItemAnalysisService itemAnalysisService;
+    private final GradebookExportService gradebookExportService;
+    private final StudentProgressQueryService studentProgressQueryService;
 
     // ================== UTILITAIRE ==================
 
@@ -57,10 +84,49 @@ public class TeacherCourseController {
         return authService.getCurrentUserFromToken(token);
     }
 
+    // Les entités ne sont jamais renvoyées telles quelles : sans open-in-view, leur sérialisation
+    // déclencherait des chargements paresseux hors session
+    private CourseDto toCourseDto(Course course, User teacher) {
+        return new CourseDto(
+                course.getId(),
+                course.getTitle(),
+                course.getDescription(),
+                course.getImageUrl(),
+                new CourseDto.TeacherDto(teacher.getId(), teacher.getFullName(), teacher.getEmail(), teacher.getRole()),
+                course.isPublished()
+        );
+    }
+
+    private TeacherQuizDto toTeacherQuizDto(Quiz quiz, List<Question> questions) {
+        List<TeacherQuizDto.QuestionDetails> questionDtos = new ArrayList<>();
+        if (questions != null) {
+            for (Question q : questions) {
+                questionDtos.add(new TeacherQuizDto.QuestionDetails(
+                        q.getId(),
+                        q.getText(),
+                        q.getCorrectAnswer(),
+                        q.getOptions() != null ? new ArrayList<>(q.getOptions()) : new ArrayList<>(),
+                        q.getPoints()
+                ));
+            }
+        }
+        return new TeacherQuizDto(
+                quiz.getId(),
+                quiz.getTitle(),
+                quiz.getDescription(),
+                quiz.getPassingScore(),
+                quiz.getMaxAttempts(),
+                quiz.getLevel(),
+                quiz.getCourse() != null ? quiz.getCourse().getId() : null,
+                quiz.getLesson() != null ? quiz.getLesson().getId() : null,
+                questionDtos
+        );
+    }
+
     // ================== CRÉATION DE COURS ==================
 
     @PostMapping
-    public ResponseEntity<Course> createCourse(
+    public ResponseEntity<CourseDto> createCourse(
             @RequestHeader("Authorization") String bearer,
             @RequestBody CreateCourseRequest request
     ) {
@@ -74,7 +140,8 @@ public class TeacherCourseController {
                 .build();
 
         Course saved = courseRepository.save(course);
-        return ResponseEntity.ok(saved);
+        courseCatalogService.invalidate();
+        return ResponseEntity.ok(toCourseDto(saved, teacher));
     }
 
     // ================== GÉNÉRATION DE COURS AVEC IA ==================
@@ -93,8 +160,8 @@ public class TeacherCourseController {
             );
         }
 
-        // Générer le cours avec l'IA
-        GeneratedCourseDto generatedCourse = aiCourseGeneratorService.generateCourse(
+        // Générer le cours avec l'IA (ou servir un brouillon pré-généré pour les sujets populaires)
+        GeneratedCourseDto generatedCourse = courseDraftPool.generateCourse(
                 request.getIdea(),
                 request.getLevel()
         );
@@ -103,8 +170,7 @@ public class TeacherCourseController {
     }
 
     @PostMapping("/generate-and-create")
-    @Transactional
-    public ResponseEntity<Course> generateAndCreateCourse(
+    public ResponseEntity<CourseDto> generateAndCreateCourse(
             @RequestHeader("Authorization") String bearer,
             @RequestBody GenerateCourseRequest request
     ) {
@@ -117,80 +183,34 @@ public class TeacherCourseController {
             );
         }
 
-        // Générer le cours avec l'IA
-        GeneratedCourseDto generated = aiCourseGeneratorService.generateCourse(
+        // Générer le cours avec l'IA (ou servir un brouillon pré-généré pour les sujets populaires)
+        GeneratedCourseDto generated = courseDraftPool.generateCourse(
                 request.getIdea(),
                 request.getLevel()
         );
 
-        // Créer le cours
-        Course course = Course.builder()
-                .title(generated.getTitle())
-                .description(generated.getDescription())
-                .imageUrl(generated.getImageUrl()) // Ajouter la miniature générée
-                .teacher(teacher)
-                .published(false) // Non publié par défaut, l'enseignant peut le publier après
-                .build();
-
-        Course savedCourse = courseRepository.save(course);
-
-        // Créer les leçons
-        if (generated.getLessons() != null) {
-            for (GeneratedLessonDto lessonDto : generated.getLessons()) {
-                Lesson lesson = Lesson.builder()
-                        .title(lessonDto.getTitle())
-                        .description(lessonDto.getDescription())
-                        .orderIndex(lessonDto.getOrderIndex())
-                        .duration(lessonDto.getEstimatedDuration())
-                        .videoUrl(lessonDto.getVideoUrl() != null ? lessonDto.getVideoUrl() : "")
-                        .course(savedCourse)
-                        .build();
-                lessonRepository.save(lesson);
-            }
-        }
+        // Créer le cours, ses leçons et son quiz en une transaction courte (hors génération)
+        Course savedCourse = courseSubtreeWriter.write(teacher, generated);
 
-        // Créer le quiz
-        if (generated.getQuiz() != null && generated.getQuiz().getQuestions() != null && !generated.getQuiz().getQuestions().isEmpty()) {
-            Quiz quiz = Quiz.builder()
-                    .course(savedCourse)
-                    .title(generated.getQuiz().getTitle())
-                    .description(generated.getQuiz().getDescription())
-                    .passingScore(75)
-                    .maxAttempts(3)
-                    .level(com.elearnia.entities.QuizLevel.BEGINNER)
-                    .build();
-
-            // Créer les questions
-            List<Question> questions = generated.getQuiz().getQuestions().stream()
-                    .map(qDto -> Question.builder()
-                            .quiz(quiz)
-                            .text(qDto.getText())
-                            .correctAnswer(qDto.getCorrectAnswer())
-                            .options(qDto.getOptions())
-                            .points(qDto.getPoints() != null ? qDto.getPoints() : 1)
-                            .build())
-                    .collect(Collectors.toList());
-
-            quiz.setQuestions(questions);
-            quizRepository.save(quiz);
-        }
-
-        return ResponseEntity.ok(savedCourse);
+        return ResponseEntity.ok(toCourseDto(savedCourse, teacher));
     }
 
     // ================== MES COURS ==================
 
     @GetMapping("/my")
-    public ResponseEntity<List<Course>> getMyCourses(
+    @QueryBudget(3)
+    public ResponseEntity<List<CourseDto>> getMyCourses(
             @RequestHeader("Authorization") String bearer
     ) {
         User teacher = getTeacherFromBearer(bearer);
-        List<Course> courses = courseRepository.findByTeacher(teacher);
+        List<CourseDto> courses = courseRepository.findByTeacher(teacher).stream()
+                .map(course -> toCourseDto(course, teacher))
+                .collect(Collectors.toList());
         return ResponseEntity.ok(courses);
     }
 
     @GetMapping("/{courseId}")
-    public ResponseEntity<Course> getCourseById(
+    public ResponseEntity<CourseDto> getCourseById(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId
     ) {
@@ -203,13 +223,13 @@ public class TeacherCourseController {
             throw new RuntimeException("Vous n'êtes pas autorisé à accéder à ce cours");
         }
 
-        return ResponseEntity.ok(course);
+        return ResponseEntity.ok(toCourseDto(course, teacher));
     }
 
     // ================== MODIFICATION DE COURS ==================
 
     @PutMapping("/{courseId}")
-    public ResponseEntity<Course> updateCourse(
+    public ResponseEntity<CourseDto> updateCourse(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId,
             @RequestBody UpdateCourseRequest request
@@ -238,7 +258,9 @@ public class TeacherCourseController {
         }
 
         Course saved = courseRepository.save(course);
-        return ResponseEntity.ok(saved);
+        courseCatalogService.invalidate();
+        studentContextCache.invalidateAll(); // Le titre apparaît dans les contextes des étudiants
+        return ResponseEntity.ok(toCourseDto(saved, teacher));
     }
 
     // ================== SUPPRESSION DE COURS ==================
@@ -274,6 +296,8 @@ public class TeacherCourseController {
             quizAttemptRepository.deleteByQuizId(quiz.getId());
             // Supprimer toutes les questions du quiz
             questionRepository.deleteByQuizId(quiz.getId());
+            questionSimilarityIndex.removeQuiz(quiz.getId());
+            itemAnalysisService.invalidate(quiz.getId());
         }
         
         // 3. Supprimer tous les quizzes associés au cours
@@ -287,6 +311,8 @@ public class TeacherCourseController {
         
         // 6. Enfin, supprimer le cours
         courseRepository.delete(course);
+        courseCatalogService.invalidate();
+        studentContextCache.invalidateAll();
         
         return ResponseEntity.noContent().build();
     }
@@ -313,79 +339,104 @@ public class TeacherCourseController {
             );
         }
 
-        List<Enrollment> enrollments = enrollmentRepository.findByCourseId(courseId);
-
-        // ✅ StudentProgressDto(Long studentId, String fullName, String email, double progress, boolean completed, Double rating)
-        List<StudentProgressDto> result = enrollments.stream()
-                .map(e -> new StudentProgressDto(
-                        e.getStudent().getId(),           // studentId
-                        e.getStudent().getFullName(),     // fullName
-                        e.getStudent().getEmail(),        // email
-                        e.getProgress(),                  // progress
-                        e.isCompleted(),                  // completed
-                        e.getRating()                     // rating
-                ))
-                .collect(Collectors.toList());
+        // Une seule requête jointe aux utilisateurs (pas de chargement paresseux par étudiant)
+        List<StudentProgressDto> result = enrollmentRepository.findProgressByCourseId(courseId);
 
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Version paginée par curseur : ?sort=progress|name&direction=asc|desc&status=all|completed|in-progress
+     * &limit=50&cursor=... (curseur renvoyé par la page précédente dans nextCursor).
+     */
+    @GetMapping("/{courseId}/students-progress/page")
+    public ResponseEntity<StudentProgressPageDto> studentProgressPage(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("courseId") Long courseId,
+            @RequestParam(value = "sort", defaultValue = StudentProgressQueryService.SORT_PROGRESS) String sort,
+            @RequestParam(value = "direction", required = false) String direction,
+            @RequestParam(value = "status", defaultValue = StudentProgressQueryService.STATUS_ALL) String status,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Cours introuvable"
+                ));
+
+        if (!course.getTeacher().getId().equals(teacher.getId())) {
+            throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN,
+                    "Vous n'êtes pas autorisé à voir la progression de ce cours"
+            );
+        }
+
+        return ResponseEntity.ok(studentProgressQueryService.findPage(courseId, sort, direction, status, limit, cursor));
+    }
+
     // ================== GESTION DES QUIZZES ==================
 
     // Récupérer tous les quizzes du professeur (standalone, ceux de ses cours, et ceux de ses leçons)
+    // Deux requêtes quel que soit le nombre de quizzes : les quizzes, puis leurs questions avec options
     @GetMapping("/quizzes")
+    @QueryBudget(4)
     public ResponseEntity<List<QuizDto>> getTeacherQuizzes(
             @RequestHeader("Authorization") String bearer
     ) {
         User teacher = getTeacherFromBearer(bearer);
 
-        // Récupérer tous les quizzes standalone
-        List<Quiz> standaloneQuizzes = quizRepository.findByCourseIdIsNull();
+        List<Quiz> quizzes = quizRepository.findTeacherInventory(teacher.getId());
+        if (quizzes.isEmpty()) {
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+
+        // Questions et options de tous les quizzes en une requête, regroupées par quiz
+        List<Long> quizIds = quizzes.stream().map(Quiz::getId).collect(Collectors.toList());
+        Map<Long, List<QuestionDto>> questionsByQuiz = questionRepository.findByQuizIdInWithOptions(quizIds).stream()
+                .collect(Collectors.groupingBy(
+                        q -> q.getQuiz().getId(),
+                        Collectors.mapping(
+                                q -> new QuestionDto(q.getId(), q.getText(), q.getOptions(), q.getPoints()),
+                                Collectors.toList())
+                ));
 
-        // Récupérer tous les quizzes des cours du professeur (y compris ceux liés aux leçons)
-        List<Course> teacherCourses = courseRepository.findByTeacher(teacher);
-        List<Quiz> courseQuizzes = new ArrayList<>();
-        for (Course course : teacherCourses) {
-            List<Quiz> quizzes = quizRepository.findAllByCourseId(course.getId());
-            courseQuizzes.addAll(quizzes);
+        // Quizzes standalone d'abord, puis ceux des cours (ordre historique de la page)
+        List<QuizDto> standaloneDtos = new ArrayList<>();
+        List<QuizDto> courseDtos = new ArrayList<>();
+        for (Quiz quiz : quizzes) {
+            QuizDto dto = new QuizDto();
+            dto.setId(quiz.getId());
+            dto.setTitle(quiz.getTitle());
+            dto.setDescription(quiz.getDescription());
+            dto.setPassingScore(quiz.getPassingScore());
+            dto.setMaxAttempts(quiz.getMaxAttempts());
+            dto.setRemainingAttempts(quiz.getMaxAttempts()); // Par défaut, toutes les tentatives sont disponibles
+            dto.setLevel(quiz.getLevel());
+            // Inclure le courseId si le quiz est lié à un cours (identifiant du proxy, sans requête)
+            dto.setCourseId(quiz.getCourse() != null ? quiz.getCourse().getId() : null);
+            dto.setQuestions(questionsByQuiz.getOrDefault(quiz.getId(), new ArrayList<>()));
+            (dto.getCourseId() == null ? standaloneDtos : courseDtos).add(dto);
         }
+        standaloneDtos.addAll(courseDtos);
 
-        // Combiner les deux listes
-        List<Quiz> allQuizzes = new ArrayList<>();
-        allQuizzes.addAll(standaloneQuizzes);
-        allQuizzes.addAll(courseQuizzes);
+        return ResponseEntity.ok(standaloneDtos);
+    }
 
-        // Convertir en QuizDto avec courseId
-        List<QuizDto> quizDtos = allQuizzes.stream()
-                .map(quiz -> {
-                    QuizDto dto = new QuizDto();
-                    dto.setId(quiz.getId());
-                    dto.setTitle(quiz.getTitle());
-                    dto.setDescription(quiz.getDescription());
-                    dto.setPassingScore(quiz.getPassingScore());
-                    dto.setMaxAttempts(quiz.getMaxAttempts());
-                    dto.setRemainingAttempts(quiz.getMaxAttempts()); // Par défaut, toutes les tentatives sont disponibles
-                    dto.setLevel(quiz.getLevel());
-                    // Inclure le courseId si le quiz est lié à un cours
-                    dto.setCourseId(quiz.getCourse() != null ? quiz.getCourse().getId() : null);
-                    // Convertir les questions en QuestionDto
-                    if (quiz.getQuestions() != null) {
-                        dto.setQuestions(quiz.getQuestions().stream()
-                                .map(q -> new QuestionDto(
-                                        q.getId(),
-                                        q.getText(),
-                                        q.getOptions(),
-                                        q.getPoints()
-                                ))
-                                .collect(Collectors.toList()));
-                    } else {
-                        dto.setQuestions(new ArrayList<>());
-                    }
-                    return dto;
-                })
-                .collect(Collectors.toList());
+    // Inventaire résumé : champs des quizzes et nombre de questions, en une seule requête
+    @GetMapping("/quizzes/summary")
+    @QueryBudget(3)
+    public ResponseEntity<List<TeacherQuizSummaryDto>> getTeacherQuizzesSummary(
+            @RequestHeader("Authorization") String bearer
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
 
-        return ResponseEntity.ok(quizDtos);
+        List<TeacherQuizSummaryDto> summaries = quizRepository.findTeacherInventorySummary(teacher.getId());
+        List<TeacherQuizSummaryDto> ordered = new ArrayList<>(summaries.size());
+        summaries.stream().filter(s -> s.getCourseId() == null).forEach(ordered::add);
+        summaries.stream().filter(s -> s.getCourseId() != null).forEach(ordered::add);
+        return ResponseEntity.ok(ordered);
     }
 
     // ================== ANALYTICS GLOBALES DU PROF ==================
@@ -412,11 +463,54 @@ public class TeacherCourseController {
         return ResponseEntity.ok(dto);
     }
 
+    // Séries quotidiennes d'un cours (inscriptions, complétions, score moyen et taux de réussite
+    // par quiz), lues dans les agrégats : ?from=2025-01-01&to=2025-01-31 (30 derniers jours par défaut)
+    @GetMapping("/{courseId}/analytics/timeseries")
+    public ResponseEntity<CourseTimeseriesDto> analyticsTimeseries(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("courseId") Long courseId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Cours introuvable"
+                ));
+        if (!course.getTeacher().getId().equals(teacher.getId())) {
+            throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN,
+                    "Vous n'êtes pas autorisé à consulter les statistiques de ce cours"
+            );
+        }
+
+        return ResponseEntity.ok(learningAnalyticsService.getCourseTimeseries(courseId, from, to));
+    }
+
+    // Reconstruit les agrégats de tentatives des N derniers jours (admin, à lancer après création des tables)
+    @PostMapping("/analytics/backfill")
+    public ResponseEntity<Map<String, Object>> backfillAnalytics(
+            @RequestHeader("Authorization") String bearer,
+            @RequestParam(value = "days", defaultValue = "365") int days
+    ) {
+        User user = getTeacherFromBearer(bearer);
+        if (user.getRole() != Role.ADMIN) {
+            throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN,
+                    "Réservé aux administrateurs"
+            );
+        }
+        int rows = learningAnalyticsService.backfillAttempts(days);
+        return ResponseEntity.ok(Map.of("days", days, "rows", rows));
+    }
+
     // ================== GESTION DES QUIZ ==================
 
     @PostMapping("/{courseId}/quiz")
     @Transactional
-    public ResponseEntity<Quiz> createQuiz(
+    public ResponseEntity<TeacherQuizDto> createQuiz(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId,
             @RequestBody CreateQuizRequest request
@@ -470,11 +564,13 @@ public class TeacherCourseController {
         }
 
         Quiz saved = quizRepository.save(quiz);
-        return ResponseEntity.ok(saved);
+        questionSimilarityIndex.indexQuiz(saved);
+        itemAnalysisService.invalidate(saved.getId());
+        return ResponseEntity.ok(toTeacherQuizDto(saved, saved.getQuestions()));
     }
 
     @GetMapping("/{courseId}/quiz")
-    public ResponseEntity<Quiz> getQuiz(
+    public ResponseEntity<TeacherQuizDto> getQuiz(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId
     ) {
@@ -500,12 +596,12 @@ public class TeacherCourseController {
                         "Aucun quiz trouvé pour ce cours"
                 ));
 
-        return ResponseEntity.ok(quiz);
+        return ResponseEntity.ok(toTeacherQuizDto(quiz, questionRepository.findByQuizIdInWithOptions(List.of(quiz.getId()))));
     }
 
     @PutMapping("/{courseId}/quiz")
     @Transactional
-    public ResponseEntity<Quiz> updateQuiz(
+    public ResponseEntity<TeacherQuizDto> updateQuiz(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("courseId") Long courseId,
             @RequestBody CreateQuizRequest request
@@ -565,7 +661,9 @@ public class TeacherCourseController {
         }
 
         Quiz saved = quizRepository.save(quiz);
-        return ResponseEntity.ok(saved);
+        questionSimilarityIndex.indexQuiz(saved);
+        itemAnalysisService.invalidate(saved.getId());
+        return ResponseEntity.ok(toTeacherQuizDto(saved, saved.getQuestions()));
     }
 
     @DeleteMapping("/{courseId}/quiz")
@@ -604,6 +702,8 @@ public class TeacherCourseController {
         
         // Enfin, supprimer le quiz
         quizRepository.delete(quiz);
+        questionSimilarityIndex.removeQuiz(quiz.getId());
+        itemAnalysisService.invalidate(quiz.getId());
         return ResponseEntity.noContent().build();
     }
 
@@ -644,7 +744,7 @@ public class TeacherCourseController {
     ) {
         User teacher = getTeacherFromBearer(bearer);
 
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithStudentAndCourseById(reviewId)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Avis introuvable"
@@ -659,9 +759,10 @@ public class TeacherCourseController {
         }
 
         review.setStatus(Review.ReviewStatus.APPROVED);
-        Review saved = reviewRepository.save(review);
+        reviewRepository.save(review);
 
-        return ResponseEntity.ok(ReviewDto.fromEntity(saved));
+        // L'avis chargé avec son étudiant (la copie renvoyée par save ne l'a pas forcément chargé)
+        return ResponseEntity.ok(ReviewDto.fromEntity(review));
     }
 
     @PutMapping("/reviews/{reviewId}/reject")
@@ -671,7 +772,7 @@ public class TeacherCourseController {
     ) {
         User teacher = getTeacherFromBearer(bearer);
 
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithStudentAndCourseById(reviewId)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Avis introuvable"
@@ -686,16 +787,17 @@ public class TeacherCourseController {
         }
 
         review.setStatus(Review.ReviewStatus.REJECTED);
-        Review saved = reviewRepository.save(review);
+        reviewRepository.save(review);
 
-        return ResponseEntity.ok(ReviewDto.fromEntity(saved));
+        // L'avis chargé avec son étudiant (la copie renvoyée par save ne l'a pas forcément chargé)
+        return ResponseEntity.ok(ReviewDto.fromEntity(review));
     }
 
     // ================== GESTION DES QUIZ STANDALONE ==================
 
     @PostMapping("/quiz/generate")
     @Transactional
-    public ResponseEntity<Quiz> generateQuizWithAI(
+    public ResponseEntity<TeacherQuizDto> generateQuizWithAI(
             @RequestHeader("Authorization") String bearer,
             @RequestBody GenerateQuizRequest request
     ) {
@@ -740,12 +842,14 @@ public class TeacherCourseController {
         }
 
         Quiz saved = quizRepository.save(quiz);
-        return ResponseEntity.ok(saved);
+        questionSimilarityIndex.indexQuiz(saved);
+        itemAnalysisService.invalidate(saved.getId());
+        return ResponseEntity.ok(toTeacherQuizDto(saved, saved.getQuestions()));
     }
 
     @PostMapping("/quiz")
     @Transactional
-    public ResponseEntity<Quiz> createStandaloneQuiz(
+    public ResponseEntity<TeacherQuizDto> createStandaloneQuiz(
             @RequestHeader("Authorization") String bearer,
             @RequestBody CreateQuizRequest request
     ) {
@@ -775,18 +879,20 @@ public class TeacherCourseController {
         }
 
         Quiz saved = quizRepository.save(quiz);
-        return ResponseEntity.ok(saved);
+        questionSimilarityIndex.indexQuiz(saved);
+        itemAnalysisService.invalidate(saved.getId());
+        return ResponseEntity.ok(toTeacherQuizDto(saved, saved.getQuestions()));
     }
 
     // Récupérer un quiz standalone par ID
     @GetMapping("/quiz/{quizId}")
-    public ResponseEntity<Quiz> getStandaloneQuiz(
+    public ResponseEntity<TeacherQuizDto> getStandaloneQuiz(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("quizId") Long quizId
     ) {
         User teacher = getTeacherFromBearer(bearer);
 
-        Quiz quiz = quizRepository.findById(quizId)
+        Quiz quiz = quizRepository.findWithCourseById(quizId)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Quiz introuvable"
@@ -800,13 +906,13 @@ public class TeacherCourseController {
             );
         }
 
-        return ResponseEntity.ok(quiz);
+        return ResponseEntity.ok(toTeacherQuizDto(quiz, questionRepository.findByQuizIdInWithOptions(List.of(quiz.getId()))));
     }
 
     // Mettre à jour un quiz standalone
     @PutMapping("/quiz/{quizId}")
     @Transactional
-    public ResponseEntity<Quiz> updateStandaloneQuiz(
+    public ResponseEntity<TeacherQuizDto> updateStandaloneQuiz(
             @RequestHeader("Authorization") String bearer,
             @PathVariable("quizId") Long quizId,
             @RequestBody CreateQuizRequest request
@@ -860,7 +966,9 @@ public class TeacherCourseController {
         }
 
         Quiz saved = quizRepository.save(quiz);
-        return ResponseEntity.ok(saved);
+        questionSimilarityIndex.indexQuiz(saved);
+        itemAnalysisService.invalidate(saved.getId());
+        return ResponseEntity.ok(toTeacherQuizDto(saved, saved.getQuestions()));
     }
 
     // Supprimer un quiz standalone
@@ -894,9 +1002,36 @@ public class TeacherCourseController {
         
         // Enfin, supprimer le quiz
         quizRepository.delete(quiz);
+        questionSimilarityIndex.removeQuiz(quiz.getId());
+        itemAnalysisService.invalidate(quiz.getId());
         return ResponseEntity.noContent().build();
     }
 
+    // ================== QUESTIONS SIMILAIRES ==================
+
+    // Questions existantes quasi identiques à un texte (avant d'ajouter une question à un quiz).
+    // Texte des questions renvoyé seulement pour les quizzes du professeur (ses cours et les
+    // quizzes standalone) ; pour les autres, identifiants et similarité uniquement.
+    @GetMapping("/questions/similar")
+    public ResponseEntity<List<SimilarQuestionDto>> findSimilarQuestions(
+            @RequestHeader("Authorization") String bearer,
+            @RequestParam("text") String text,
+            @RequestParam(value = "excludeQuizId", required = false) Long excludeQuizId,
+            @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+
+        if (text == null || text.trim().isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Le texte de la question est requis"
+            );
+        }
+
+        return ResponseEntity.ok(questionSimilarityIndex.findSimilar(text, excludeQuizId, teacher.getId(),
+                Math.max(1, Math.min(limit, 50))));
+    }
+
     // ================== GESTION DES TENTATIVES DE QUIZ ==================
 
     @GetMapping("/{courseId}/students/{studentId}/quiz-attempts")
@@ -927,7 +1062,7 @@ public class TeacherCourseController {
                 ));
 
         List<QuizAttempt> attempts = quizAttemptRepository
-                .findByUserIdAndQuizIdOrderByAttemptNumberDesc(studentId, quiz.getId());
+                .findWithUserByUserIdAndQuizIdOrderByAttemptNumberDesc(studentId, quiz.getId());
 
         List<QuizAttemptDto> dtos = attempts.stream()
                 .map(attempt -> new QuizAttemptDto(
@@ -975,6 +1110,7 @@ public class TeacherCourseController {
         List<QuizAttempt> attempts = quizAttemptRepository
                 .findByUserIdAndQuizIdOrderByAttemptNumberDesc(studentId, quiz.getId());
         quizAttemptRepository.deleteAll(attempts);
+        itemAnalysisService.invalidate(quiz.getId());
 
         return ResponseEntity.noContent().build();
     }
@@ -1041,12 +1177,79 @@ public class TeacherCourseController {
         enrollment.setProgress(0.0);
         enrollment.setCompleted(false);
         enrollmentRepository.save(enrollment);
+        studentContextCache.invalidate(studentId);
 
         return ResponseEntity.noContent().build();
     }
 
     // ================== CONSULTATION DES SCORES DES ÉTUDIANTS ==================
 
+    // Carnet de notes CSV d'un cours (toutes les tentatives de ses quizzes), écrit au fil de la lecture
+    @GetMapping("/{courseId}/gradebook.csv")
+    public ResponseEntity<StreamingResponseBody> courseGradebook(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("courseId") Long courseId
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Cours introuvable"
+                ));
+        if (!course.getTeacher().getId().equals(teacher.getId())) {
+            throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN,
+                    "Vous n'êtes pas autorisé à voir les scores de ce cours"
+            );
+        }
+
+        return csvResponse("gradebook-course-" + courseId + ".csv",
+                out -> gradebookExportService.exportCourse(courseId, out));
+    }
+
+    // Carnet de notes CSV d'un quiz
+    @GetMapping("/quiz/{quizId}/gradebook.csv")
+    public ResponseEntity<StreamingResponseBody> quizGradebook(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("quizId") Long quizId
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+
+        Quiz quiz = quizRepository.findWithCourseById(quizId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Quiz introuvable"
+                ));
+        if (quiz.getCourse() != null && !quiz.getCourse().getTeacher().getId().equals(teacher.getId())) {
+            throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN,
+                    "Vous n'êtes pas autorisé à voir les scores de ce quiz"
+            );
+        }
+
+        return csvResponse("gradebook-quiz-" + quizId + ".csv",
+                out -> gradebookExportService.exportQuiz(quizId, out));
+    }
+
+    // Carnet de notes CSV de tous les quizzes du prof (et des quizzes standalone)
+    @GetMapping("/quizzes/gradebook.csv")
+    public ResponseEntity<StreamingResponseBody> allQuizzesGradebook(
+            @RequestHeader("Authorization") String bearer
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+        Long teacherId = teacher.getId();
+        return csvResponse("gradebook-teacher-" + teacherId + ".csv",
+                out -> gradebookExportService.exportTeacher(teacherId, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> csvResponse(String filename, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
     @GetMapping("/quiz/{quizId}/scores")
     public ResponseEntity<List<StudentQuizScoreDto>> getQuizScores(
             @RequestHeader("Authorization") String bearer,
@@ -1054,7 +1257,7 @@ public class TeacherCourseController {
     ) {
         User teacher = getTeacherFromBearer(bearer);
 
-        Quiz quiz = quizRepository.findById(quizId)
+        Quiz quiz = quizRepository.findWithCourseById(quizId)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Quiz introuvable"
@@ -1070,7 +1273,7 @@ public class TeacherCourseController {
 
         // Récupérer toutes les tentatives pour ce quiz
         List<QuizAttempt> attempts = quizAttemptRepository
-                .findByQuizIdOrderByCompletedAtDesc(quizId);
+                .findWithUserByQuizIdOrderByCompletedAtDesc(quizId);
 
         List<StudentQuizScoreDto> scores = attempts.stream()
                 .map(attempt -> new StudentQuizScoreDto(
@@ -1088,25 +1291,55 @@ public class TeacherCourseController {
         return ResponseEntity.ok(scores);
     }
 
+    // ================== ANALYSE DES QUESTIONS ==================
+
+    // Difficulté, discrimination et fréquence des options de chaque question du quiz
+    @GetMapping("/quiz/{quizId}/item-analysis")
+    public ResponseEntity<ItemAnalysisDto> getItemAnalysis(
+            @RequestHeader("Authorization") String bearer,
+            @PathVariable("quizId") Long quizId
+    ) {
+        User teacher = getTeacherFromBearer(bearer);
+
+        Quiz quiz = quizRepository.findWithCourseById(quizId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Quiz introuvable"
+                ));
+
+        // Si le quiz est lié à un cours, vérifier que le prof est propriétaire
+        if (quiz.getCourse() != null && !quiz.getCourse().getTeacher().getId().equals(teacher.getId())) {
+            throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN,
+                    "Vous n'êtes pas autorisé à voir l'analyse de ce quiz"
+            );
+        }
+
+        return ResponseEntity.ok(itemAnalysisService.analyze(quizId));
+    }
+
     @GetMapping("/quizzes/scores")
+    @QueryBudget(4)
     public ResponseEntity<List<AllQuizzesScoresDto>> getAllQuizzesScores(
             @RequestHeader("Authorization") String bearer
     ) {
         User teacher = getTeacherFromBearer(bearer);
 
-        // Récupérer tous les quizzes (standalone et liés aux cours du prof)
-        List<Quiz> allQuizzes = quizRepository.findAll();
-        
-        // Filtrer pour ne garder que les quizzes du prof ou standalone
-        List<Quiz> teacherQuizzes = allQuizzes.stream()
-                .filter(quiz -> quiz.getCourse() == null || 
-                        quiz.getCourse().getTeacher().getId().equals(teacher.getId()))
-                .collect(Collectors.toList());
+        // Récupérer les quizzes du prof et les quizzes standalone (cours chargés)
+        List<Quiz> teacherQuizzes = quizRepository.findTeacherInventory(teacher.getId());
+        if (teacherQuizzes.isEmpty()) {
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+
+        // Tentatives de tous ces quizzes (étudiants chargés) en une requête, regroupées par quiz
+        List<Long> quizIds = teacherQuizzes.stream().map(Quiz::getId).collect(Collectors.toList());
+        Map<Long, List<QuizAttempt>> attemptsByQuiz = quizAttemptRepository
+                .findWithUserByQuizIdInOrderByCompletedAtDesc(quizIds).stream()
+                .collect(Collectors.groupingBy(attempt -> attempt.getQuiz().getId()));
 
         List<AllQuizzesScoresDto> result = teacherQuizzes.stream()
                 .map(quiz -> {
-                    List<QuizAttempt> attempts = quizAttemptRepository
-                            .findByQuizIdOrderByCompletedAtDesc(quiz.getId());
+                    List<QuizAttempt> attempts = attemptsByQuiz.getOrDefault(quiz.getId(), new ArrayList<>());
                     
                     List<StudentQuizScoreDto> scores = attempts.stream()
                             .map(attempt -> new StudentQuizScoreDto(
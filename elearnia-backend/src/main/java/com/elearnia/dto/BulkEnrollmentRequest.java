@@ -0,0 +1,10 @@
+package com.elearnia.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkEnrollmentRequest {
+    private List<String> emails;
+}
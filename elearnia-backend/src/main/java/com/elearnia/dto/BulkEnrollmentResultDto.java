@@ -0,0 +1,22 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEnrollmentResultDto {
+    private Long courseId;
+    private int requested;         // Emails distincts reçus
+    private int enrolled;          // Nouvelles inscriptions créées
+    private int alreadyEnrolled;   // Étudiants déjà inscrits, ignorés
+    private List<String> notFound = new ArrayList<>();     // Aucun compte avec cet email
+    private List<String> notLearners = new ArrayList<>();  // Compte professeur ou admin
+    private List<String> invalid = new ArrayList<>();      // Email mal formé
+    private long durationMs;
+}
@@ -0,0 +1,18 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseBatchItemDto {
+    private int position;
+    private String idea;
+    private String level;
+    private String status; // PENDING, RUNNING, SUCCEEDED, FAILED
+    private Long courseId; // Cours créé (si succès)
+    private String errorMessage;
+    private int attempts;
+}
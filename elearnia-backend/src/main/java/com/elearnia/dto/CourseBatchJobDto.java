@@ -0,0 +1,25 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseBatchJobDto {
+    private Long id;
+    private String status; // RUNNING, COMPLETED, COMPLETED_WITH_ERRORS
+    private int totalItems;
+    private long pending;
+    private long running;
+    private long succeeded;
+    private long failed;
+    private int progress; // Pourcentage d'éléments terminés (réussis ou en échec)
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<CourseBatchItemDto> items; // Absent dans la liste des tâches
+}
@@ -0,0 +1,61 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Une ligne du fichier courses.ndjson d'un export : un cours avec ses leçons, ses quizzes et
+ * leurs questions. Les identifiants sont ceux de la base d'origine ; ils ne servent qu'à relier
+ * un quiz à sa leçon et sont remplacés à l'import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseBundleRecord {
+    private Long id;
+    private String title;
+    private String description;
+    private String imageUrl;
+    private boolean published;
+    private List<LessonRecord> lessons;
+    private List<QuizRecord> quizzes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LessonRecord {
+        private Long id;
+        private String title;
+        private String description;
+        private String videoUrl;
+        private Integer duration;
+        private Integer orderIndex;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuizRecord {
+        private Long id;
+        private Long lessonId; // null si le quiz n'est pas lié à une leçon
+        private String title;
+        private String description;
+        private int passingScore;
+        private int maxAttempts;
+        private String level;
+        private List<QuestionRecord> questions;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuestionRecord {
+        private String text;
+        private String correctAnswer;
+        private int points;
+        private List<String> options;
+    }
+}
@@ -0,0 +1,32 @@
+package com.elearnia.dto;
+
+import com.elearnia.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cours renvoyé au client, avec le professeur réduit à ses informations publiques.
+ * Même forme JSON que l'entité Course sérialisée auparavant.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseDto {
+    private Long id;
+    private String title;
+    private String description;
+    private String imageUrl;
+    private TeacherDto teacher;
+    private boolean published;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TeacherDto {
+        private Long id;
+        private String fullName;
+        private String email;
+        private Role role;
+    }
+}
@@ -0,0 +1,23 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseImportResultDto {
+    private int courses;
+    private int lessons;
+    private int quizzes;
+    private int questions;
+    private int files;
+    private Map<Long, Long> courseIds = new LinkedHashMap<>(); // identifiant d'origine -> nouvel identifiant
+    private List<String> errors = new ArrayList<>();
+}
@@ -0,0 +1,54 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Séries quotidiennes d'un cours, lues uniquement dans les tables d'agrégats.
+ * Un jour sans activité est présent avec des compteurs à zéro.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseTimeseriesDto {
+    private Long courseId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<DayPoint> days;        // Cours entier (tous quizzes confondus)
+    private List<QuizSeries> quizzes;   // Une série par quiz du cours
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayPoint {
+        private LocalDate date;
+        private int enrollments;
+        private int completions;
+        private int attempts;
+        private Double avgScore;  // null si aucune tentative ce jour-là
+        private Double passRate;  // Pourcentage de tentatives réussies, null si aucune tentative
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuizSeries {
+        private Long quizId;
+        private String title;
+        private List<QuizPoint> days;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuizPoint {
+        private LocalDate date;
+        private int attempts;
+        private Double avgScore;
+        private Double passRate;
+    }
+}
@@ -0,0 +1,10 @@
+package com.elearnia.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CreateCourseBatchRequest {
+    private List<GenerateCourseRequest> items; // Sujets à générer (idée + niveau optionnel)
+}
@@ -10,6 +10,13 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class GeneratedCourseDto {
+
+    /**
+     * Origine du contenu : entièrement généré par le modèle, ou en partie issu des templates
+     * (IA désactivée, appel refusé par la couche de résilience, réponse inexploitable).
+     */
+    public enum Source { AI, TEMPLATE }
+
     private String title; // Titre du cours généré
     private String description; // Description complète
     private String summary; // Résumé du cours
@@ -17,5 +24,6 @@ public class GeneratedCourseDto {
     private List<String> objectives; // Objectifs d'apprentissage
     private List<GeneratedLessonDto> lessons; // Plan du cours (leçons)
     private GeneratedQuizDto quiz; // Quiz généré
+    private Source source; // Origine du contenu
 }
 
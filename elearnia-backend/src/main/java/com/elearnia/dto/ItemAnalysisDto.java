@@ -0,0 +1,48 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Analyse des questions d'un quiz (théorie classique des tests) à partir de toutes les tentatives.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAnalysisDto {
+    private Long quizId;
+    private long attempts;
+    private Double meanScore;
+    private Double scoreStdDev;
+    private LocalDateTime computedAt;   // Date du dernier calcul complet (mis à jour ensuite à chaque soumission)
+    private List<ItemStats> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemStats {
+        private Long questionId;
+        private String text;
+        private String correctAnswer;
+        private Double difficulty;       // Indice p : proportion de bonnes réponses (0 à 1)
+        private Double discrimination;   // Corrélation point-bisériale corrigée (question / reste du score), -1 à 1
+        private List<OptionStats> options;
+        private long otherAnswers;       // Réponses qui ne correspondent à aucune option
+        private long unanswered;
+        private List<String> flags;      // TOO_EASY, TOO_HARD, LOW_DISCRIMINATION, NEGATIVE_DISCRIMINATION
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OptionStats {
+        private String option;
+        private boolean correct;
+        private long count;
+        private Double frequency;        // Proportion des tentatives ayant choisi cette option
+    }
+}
@@ -0,0 +1,24 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * État de l'enregistrement Flight Recorder déclenché par un administrateur.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JfrRecordingDto {
+    private Long id;                  // null si aucun enregistrement n'a été démarré
+    private String state;             // NONE, RUNNING, STOPPED
+    private String settings;          // default ou profile
+    private Instant startedAt;
+    private Instant stoppedAt;
+    private long durationSeconds;     // Arrêt automatique après cette durée
+    private long maxSizeBytes;
+    private long sizeBytes;           // Taille du fichier .jfr une fois arrêté
+}
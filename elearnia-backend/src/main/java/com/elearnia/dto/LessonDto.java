@@ -0,0 +1,17 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonDto {
+    private Long id;
+    private String title;
+    private String description;
+    private String videoUrl;
+    private Integer duration; // Durée en minutes
+    private Integer orderIndex; // Ordre d'affichage dans le cours
+}
@@ -0,0 +1,22 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Requêtes SQL exécutées par un endpoint depuis le démarrage (ou la dernière remise à zéro).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryStatsDto {
+    private String endpoint;          // Contrôleur#méthode
+    private int budget;               // 0 si l'endpoint n'a pas de @QueryBudget
+    private long requests;
+    private double avgStatements;
+    private long maxStatements;
+    private long overBudget;          // Appels ayant dépassé le budget
+    private String repeatedSql;       // Requête la plus répétée au sein d'un même appel (N+1 probable)
+    private long repeatedCount;
+}
@@ -0,0 +1,23 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Tentative d'un étudiant sur un quiz, avec ses réponses (historique côté étudiant).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizAttemptHistoryDto {
+    private Long id;
+    private int attemptNumber;
+    private double score;
+    private boolean passed;
+    private Map<Long, String> answers; // questionId -> réponse
+    private LocalDateTime completedAt;
+}
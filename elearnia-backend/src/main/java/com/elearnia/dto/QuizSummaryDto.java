@@ -16,6 +16,8 @@ public class QuizSummaryDto {
     private int remainingAttempts;
     private String level; // BEGINNER, INTERMEDIATE, ADVANCED
     private int questionCount; // Nombre de questions
+    private Double bestScore; // Meilleur score de l'étudiant, null s'il n'a pas tenté le quiz
+    private boolean passed; // true si l'étudiant a réussi au moins une tentative
 }
 
 
@@ -0,0 +1,15 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarQuestionDto {
+    private Long questionId;
+    private Long quizId;
+    private String text;          // null si la question appartient au quiz d'un autre professeur
+    private double similarity; // Similarité de Jaccard estimée (0 à 1)
+}
@@ -0,0 +1,16 @@
+package com.elearnia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentProgressPageDto {
+    private List<StudentProgressDto> items;
+    private String nextCursor; // null sur la dernière page ; à renvoyer tel quel dans ?cursor=
+    private int limit;
+}
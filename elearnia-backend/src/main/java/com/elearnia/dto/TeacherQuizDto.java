@@ -0,0 +1,38 @@
+package com.elearnia.dto;
+
+import com.elearnia.entities.QuizLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Quiz complet pour l'édition côté professeur : contrairement à {@link QuizDto}, les questions
+ * incluent la bonne réponse.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeacherQuizDto {
+    private Long id;
+    private String title;
+    private String description;
+    private int passingScore;
+    private int maxAttempts;
+    private QuizLevel level;
+    private Long courseId; // ID du cours si lié à un cours, null sinon
+    private Long lessonId; // ID de la leçon si lié à une leçon, null sinon
+    private List<QuestionDetails> questions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuestionDetails {
+        private Long id;
+        private String text;
+        private String correctAnswer;
+        private List<String> options;
+        private int points;
+    }
+}
@@ -0,0 +1,24 @@
+package com.elearnia.dto;
+
+import com.elearnia.entities.QuizLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ligne de l'inventaire des quizzes du professeur en mode résumé : les champs du quiz et le
+ * nombre de questions, sans les questions elles-mêmes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeacherQuizSummaryDto {
+    private Long id;
+    private String title;
+    private String description;
+    private Integer passingScore;
+    private Integer maxAttempts;
+    private QuizLevel level;
+    private Long courseId; // ID du cours si lié à un cours, null sinon
+    private Long questionCount;
+}
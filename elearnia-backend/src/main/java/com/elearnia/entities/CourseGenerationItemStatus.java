@@ -0,0 +1,8 @@
+package com.elearnia.entities;
+
+public enum CourseGenerationItemStatus {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,51 @@
+package com.elearnia.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "course_generation_job_items")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "job"})
+public class CourseGenerationJobItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", nullable = false)
+    private CourseGenerationJob job;
+
+    @Column(nullable = false)
+    private int position; // Rang dans la liste soumise
+
+    @Column(nullable = false, length = 500)
+    private String idea;
+
+    @Column(length = 50)
+    private String level;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private CourseGenerationItemStatus status = CourseGenerationItemStatus.PENDING;
+
+    private Long courseId; // Cours créé (si succès)
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    private LocalDateTime updatedAt;
+}
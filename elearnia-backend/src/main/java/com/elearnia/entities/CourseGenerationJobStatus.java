@@ -0,0 +1,7 @@
+package com.elearnia.entities;
+
+public enum CourseGenerationJobStatus {
+    RUNNING,
+    COMPLETED,
+    COMPLETED_WITH_ERRORS
+}
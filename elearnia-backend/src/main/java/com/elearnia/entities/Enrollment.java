@@ -8,7 +8,9 @@ import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
-@Table(name = "enrollments")
+// Une seule inscription par étudiant et par cours (script create_enrollments_unique_constraint.sql)
+@Table(name = "enrollments", uniqueConstraints = @UniqueConstraint(
+        name = "uk_enrollments_student_course", columnNames = {"student_id", "course_id"}))
 @Getter
 @Setter
 @NoArgsConstructor
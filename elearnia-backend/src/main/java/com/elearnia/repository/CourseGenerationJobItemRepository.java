@@ -0,0 +1,52 @@
+package com.elearnia.repository;
+
+import com.elearnia.entities.CourseGenerationItemStatus;
+import com.elearnia.entities.CourseGenerationJobItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CourseGenerationJobItemRepository extends JpaRepository<CourseGenerationJobItem, Long> {
+    List<CourseGenerationJobItem> findByJobIdOrderByPosition(Long jobId);
+
+    @Query("SELECT i.id FROM CourseGenerationJobItem i WHERE i.job.id = :jobId AND i.status IN :statuses ORDER BY i.position")
+    List<Long> findIdsByJobIdAndStatusIn(@Param("jobId") Long jobId,
+                                         @Param("statuses") Collection<CourseGenerationItemStatus> statuses);
+
+    // Nombre d'éléments par statut : [statut, nombre]
+    @Query("SELECT i.status, COUNT(i) FROM CourseGenerationJobItem i WHERE i.job.id = :jobId GROUP BY i.status")
+    List<Object[]> countByStatus(@Param("jobId") Long jobId);
+
+    // Réserve un élément pour exécution : 0 si un autre worker l'a déjà pris ou s'il est terminé
+    @Modifying
+    @Transactional
+    @Query("UPDATE CourseGenerationJobItem i SET i.status = com.elearnia.entities.CourseGenerationItemStatus.RUNNING, " +
+           "i.attempts = i.attempts + 1, i.updatedAt = :now WHERE i.id = :itemId AND i.status IN " +
+           "(com.elearnia.entities.CourseGenerationItemStatus.PENDING, com.elearnia.entities.CourseGenerationItemStatus.FAILED)")
+    int claim(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CourseGenerationJobItem i SET i.status = com.elearnia.entities.CourseGenerationItemStatus.SUCCEEDED, " +
+           "i.courseId = :courseId, i.errorMessage = NULL, i.updatedAt = :now WHERE i.id = :itemId")
+    void markSucceeded(@Param("itemId") Long itemId, @Param("courseId") Long courseId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CourseGenerationJobItem i SET i.status = com.elearnia.entities.CourseGenerationItemStatus.FAILED, " +
+           "i.errorMessage = :error, i.updatedAt = :now WHERE i.id = :itemId")
+    void markFailed(@Param("itemId") Long itemId, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    // Après un redémarrage, les éléments interrompus redeviennent exécutables
+    @Modifying
+    @Transactional
+    @Query("UPDATE CourseGenerationJobItem i SET i.status = com.elearnia.entities.CourseGenerationItemStatus.PENDING " +
+           "WHERE i.status = com.elearnia.entities.CourseGenerationItemStatus.RUNNING")
+    int resetInterrupted();
+}
@@ -0,0 +1,25 @@
+package com.elearnia.repository;
+
+import com.elearnia.entities.CourseGenerationJob;
+import com.elearnia.entities.CourseGenerationJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CourseGenerationJobRepository extends JpaRepository<CourseGenerationJob, Long> {
+    List<CourseGenerationJob> findByTeacherIdOrderByCreatedAtDesc(Long teacherId);
+
+    List<CourseGenerationJob> findByStatus(CourseGenerationJobStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CourseGenerationJob j SET j.status = :status, j.updatedAt = :now WHERE j.id = :jobId")
+    void updateStatus(@Param("jobId") Long jobId,
+                      @Param("status") CourseGenerationJobStatus status,
+                      @Param("now") LocalDateTime now);
+}
@@ -2,6 +2,7 @@ package com.elearnia.repository;
 
 import com.elearnia.entities.Course;
 import com.elearnia.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,4 +18,12 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
 
     @Query("SELECT c FROM Course c LEFT JOIN FETCH c.teacher WHERE c.id = :id")
     Optional<Course> findByIdWithTeacher(@Param("id") Long id);
+
+    // Tout le catalogue avec les professeurs chargés (une seule requête)
+    @Query("SELECT c FROM Course c LEFT JOIN FETCH c.teacher")
+    List<Course> findAllWithTeacher();
+
+    // Parcours par curseur (id croissant) des cours d'un professeur, par pages de taille fixe
+    @Query("SELECT c FROM Course c WHERE c.teacher.id = :teacherId AND c.id > :afterId ORDER BY c.id")
+    List<Course> findNextByTeacherId(@Param("teacherId") Long teacherId, @Param("afterId") Long afterId, Pageable page);
 }
@@ -1,11 +1,13 @@
 package com.elearnia.repository;
 
+import com.elearnia.dto.StudentProgressDto;
 import com.elearnia.entities.Enrollment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +17,11 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
 
     List<Enrollment> findByCourseId(Long courseId);
 
+    // Progression des étudiants du cours, projetée directement en DTO (une seule requête jointe)
+    @Query("SELECT new com.elearnia.dto.StudentProgressDto(u.id, u.fullName, u.email, e.progress, e.completed, e.rating) " +
+            "FROM Enrollment e JOIN e.student u WHERE e.course.id = :courseId")
+    List<StudentProgressDto> findProgressByCourseId(@Param("courseId") Long courseId);
+
     @Query(
             "SELECT COUNT(DISTINCT e.student.id) " +
                     "FROM Enrollment e " +
@@ -34,8 +41,16 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     // Tous les cours où l’étudiant est inscrit
     List<Enrollment> findByStudentId(Long studentId);
 
+    // Inscriptions de l'étudiant avec les cours chargés (une seule requête)
+    @Query("SELECT e FROM Enrollment e JOIN FETCH e.course WHERE e.student.id = :studentId")
+    List<Enrollment> findByStudentIdWithCourse(@Param("studentId") Long studentId);
+
     // Une seule inscription pour (student, course)
     Optional<Enrollment> findByStudentIdAndCourseId(Long studentId, Long courseId);
+
+    // Parmi ces étudiants, ceux déjà inscrits au cours (vérification ensembliste)
+    @Query("SELECT e.student.id FROM Enrollment e WHERE e.course.id = :courseId AND e.student.id IN :studentIds")
+    List<Long> findEnrolledStudentIds(@Param("courseId") Long courseId, @Param("studentIds") Collection<Long> studentIds);
     
     // Supprimer toutes les inscriptions d'un cours
     @Modifying
@@ -12,6 +12,11 @@ import java.util.List;
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
     List<Lesson> findByCourseIdOrderByOrderIndexAsc(Long courseId);
     List<Lesson> findByCourse(Course course);
+    boolean existsByCourseId(Long courseId);
+
+    // Leçons de plusieurs cours en une requête
+    @Query("SELECT l FROM Lesson l WHERE l.course.id IN :courseIds ORDER BY l.course.id, l.orderIndex")
+    List<Lesson> findByCourseIdIn(@Param("courseIds") List<Long> courseIds);
     
     @Modifying
     @Query("DELETE FROM Lesson l WHERE l.course.id = :courseId")
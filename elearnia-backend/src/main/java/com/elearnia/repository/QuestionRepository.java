@@ -14,6 +14,15 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     @Query("SELECT q FROM Question q WHERE q.quiz.id = :quizId")
     List<Question> findByQuizId(@Param("quizId") Long quizId);
     
+    // Identifiant, quiz, texte et professeur du cours (null si quiz standalone) de toutes les
+    // questions (sans charger les options)
+    @Query("SELECT q.id, z.id, q.text, c.teacher.id FROM Question q JOIN q.quiz z LEFT JOIN z.course c")
+    List<Object[]> findAllTexts();
+    
+    // Questions de plusieurs quizzes avec leurs options (une seule requête)
+    @Query("SELECT DISTINCT q FROM Question q LEFT JOIN FETCH q.options WHERE q.quiz.id IN :quizIds ORDER BY q.id")
+    List<Question> findByQuizIdInWithOptions(@Param("quizIds") List<Long> quizIds);
+    
     // Supprimer toutes les questions d'un quiz (cascade supprime automatiquement les options)
     @Modifying
     @Transactional
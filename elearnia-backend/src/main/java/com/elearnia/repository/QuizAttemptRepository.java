@@ -1,6 +1,7 @@
 package com.elearnia.repository;
 
 import com.elearnia.entities.QuizAttempt;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -18,6 +19,25 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
     
     List<QuizAttempt> findByQuizIdOrderByCompletedAtDesc(Long quizId);
     
+    // Mêmes listes avec les étudiants chargés (noms et emails affichés)
+    @EntityGraph(attributePaths = "user")
+    List<QuizAttempt> findWithUserByQuizIdOrderByCompletedAtDesc(Long quizId);
+    
+    @EntityGraph(attributePaths = "user")
+    List<QuizAttempt> findWithUserByQuizIdInOrderByCompletedAtDesc(List<Long> quizIds);
+    
+    @EntityGraph(attributePaths = "user")
+    List<QuizAttempt> findWithUserByUserIdAndQuizIdOrderByAttemptNumberDesc(Long userId, Long quizId);
+    
+    // Tentatives d'un étudiant avec leurs réponses chargées
+    @EntityGraph(attributePaths = "answers")
+    List<QuizAttempt> findWithAnswersByUserIdAndQuizIdOrderByAttemptNumberDesc(Long userId, Long quizId);
+    
+    // Tentatives d'un étudiant regroupées par quiz : id du quiz, nombre, meilleur score, réussi (0/1)
+    @Query("SELECT qa.quiz.id, COUNT(qa), MAX(qa.score), MAX(CASE WHEN qa.passed = true THEN 1 ELSE 0 END) " +
+           "FROM QuizAttempt qa WHERE qa.user.id = :userId AND qa.quiz.id IN :quizIds GROUP BY qa.quiz.id")
+    List<Object[]> findAttemptStatsByUserIdAndQuizIdIn(@Param("userId") Long userId, @Param("quizIds") List<Long> quizIds);
+    
     // Supprimer toutes les tentatives d'un quiz
     @Modifying
     @Query("DELETE FROM QuizAttempt qa WHERE qa.quiz.id = :quizId")
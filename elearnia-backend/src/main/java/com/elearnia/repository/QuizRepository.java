@@ -1,7 +1,9 @@
 package com.elearnia.repository;
 
+import com.elearnia.dto.TeacherQuizSummaryDto;
 import com.elearnia.entities.Quiz;
 import com.elearnia.entities.QuizLevel;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -25,6 +27,14 @@ public interface QuizRepository extends JpaRepository<Quiz, Long> {
     @Query("SELECT DISTINCT q FROM Quiz q LEFT JOIN FETCH q.questions WHERE q.course IS NULL AND q.level = :level")
     List<Quiz> findByCourseIdIsNullAndLevel(@Param("level") QuizLevel level);
     
+    // Quizzes standalone (niveau optionnel) avec leur nombre de questions, sans charger les questions :
+    // id, titre, description, score de réussite, tentatives max, niveau, nombre de questions
+    @Query("SELECT q.id, q.title, q.description, q.passingScore, q.maxAttempts, q.level, COUNT(qs.id) " +
+           "FROM Quiz q LEFT JOIN q.questions qs " +
+           "WHERE q.course IS NULL AND (:level IS NULL OR q.level = :level) " +
+           "GROUP BY q.id, q.title, q.description, q.passingScore, q.maxAttempts, q.level ORDER BY q.id")
+    List<Object[]> findStandaloneWithQuestionCount(@Param("level") QuizLevel level);
+    
     // Récupérer tous les quizzes (standalone et liés à des cours)
     List<Quiz> findAll();
     
@@ -32,11 +42,36 @@ public interface QuizRepository extends JpaRepository<Quiz, Long> {
     @Query("SELECT q FROM Quiz q WHERE q.course.id = :courseId")
     List<Quiz> findAllByCourseId(@Param("courseId") Long courseId);
     
+    // Quizzes de plusieurs cours en une requête
+    @Query("SELECT q FROM Quiz q WHERE q.course.id IN :courseIds ORDER BY q.id")
+    List<Quiz> findAllByCourseIdIn(@Param("courseIds") List<Long> courseIds);
+    
+    // Inventaire du professeur : quizzes standalone et quizzes de ses cours (cours chargés), en une requête
+    @Query("SELECT q FROM Quiz q LEFT JOIN FETCH q.course c WHERE q.course IS NULL OR c.teacher.id = :teacherId ORDER BY q.id")
+    List<Quiz> findTeacherInventory(@Param("teacherId") Long teacherId);
+    
+    // Même inventaire, résumé : nombre de questions compté en base sans charger les questions
+    @Query("SELECT new com.elearnia.dto.TeacherQuizSummaryDto(q.id, q.title, q.description, q.passingScore, " +
+           "q.maxAttempts, q.level, c.id, COUNT(qs.id)) " +
+           "FROM Quiz q LEFT JOIN q.course c LEFT JOIN q.questions qs " +
+           "WHERE q.course IS NULL OR c.teacher.id = :teacherId " +
+           "GROUP BY q.id, q.title, q.description, q.passingScore, q.maxAttempts, q.level, c.id ORDER BY q.id")
+    List<TeacherQuizSummaryDto> findTeacherInventorySummary(@Param("teacherId") Long teacherId);
+    
     // Supprimer tous les quizzes d'un cours
     @Modifying
     @Query("DELETE FROM Quiz q WHERE q.course.id = :courseId")
     void deleteByCourseId(@Param("courseId") Long courseId);
     
+    // Quiz avec son cours chargé (vérification du propriétaire sans session ouverte)
+    @EntityGraph(attributePaths = "course")
+    Optional<Quiz> findWithCourseById(Long id);
+    
+    // Nombre de quizzes des leçons d'un cours que l'étudiant n'a pas encore réussis
+    @Query("SELECT COUNT(q) FROM Quiz q WHERE q.lesson.course.id = :courseId AND NOT EXISTS " +
+           "(SELECT qa.id FROM QuizAttempt qa WHERE qa.quiz = q AND qa.user.id = :userId AND qa.passed = true)")
+    long countUnpassedLessonQuizzes(@Param("userId") Long userId, @Param("courseId") Long courseId);
+    
     // Récupérer le quiz d'une leçon
     Optional<Quiz> findByLessonId(Long lessonId);
 }
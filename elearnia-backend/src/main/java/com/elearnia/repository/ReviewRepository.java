@@ -1,16 +1,25 @@
 package com.elearnia.repository;
 
 import com.elearnia.entities.Review;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+    // Étudiants chargés dans la même requête (nom affiché dans chaque avis)
+    @EntityGraph(attributePaths = "student")
     List<Review> findByCourseId(Long courseId);
+    @EntityGraph(attributePaths = "student")
     List<Review> findByCourseIdAndStatus(Long courseId, Review.ReviewStatus status);
+    
+    // Avis avec son étudiant et son cours chargés (modération par le professeur)
+    @EntityGraph(attributePaths = {"student", "course"})
+    Optional<Review> findWithStudentAndCourseById(Long id);
     List<Review> findByStudentIdAndCourseId(Long studentId, Long courseId);
     
     // Supprimer toutes les reviews d'un cours
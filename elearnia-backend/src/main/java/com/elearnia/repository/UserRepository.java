@@ -2,10 +2,18 @@ package com.elearnia.repository;
 
 import com.elearnia.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Identifiant, email et rôle d'un lot d'utilisateurs (sans charger les entités)
+    @Query("SELECT u.id, u.email, u.role FROM User u WHERE u.email IN :emails")
+    List<Object[]> findIdsByEmailIn(@Param("emails") Collection<String> emails);
 }
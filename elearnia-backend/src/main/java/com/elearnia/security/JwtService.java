@@ -1,6 +1,8 @@
 package com.elearnia.security;
 
+import com.elearnia.util.JfrEvents;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -81,10 +83,23 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        JfrEvents.JwtValidation event = new JfrEvents.JwtValidation();
+        event.begin();
+        String outcome = "invalid";
+        try {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            outcome = "valid";
+            return claims;
+        } catch (ExpiredJwtException e) {
+            outcome = "expired";
+            throw e;
+        } finally {
+            event.outcome = outcome;
+            event.commit();
+        }
     }
 }
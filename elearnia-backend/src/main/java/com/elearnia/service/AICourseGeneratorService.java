@@ -8,18 +8,26 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.util.retry.Retry;
 
-import java.time.Duration;
 import java.util.*;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AICourseGeneratorService {
 
-    private final WebClient webClient;
+    private final AiProviderRegistry aiProviderRegistry;
+    private final AiResilienceGuard aiResilienceGuard;
+    private final GenerationCoalescer generationCoalescer;
+    private final StructuredOutputParser structuredOutputParser;
+    private final QuestionSimilarityIndex questionSimilarityIndex;
+
+    private static final Pattern MARKDOWN_HEADINGS = Pattern.compile("#+");
+    private static final Pattern MARKDOWN_EMPHASIS = Pattern.compile("\\*\\*|\\*");
+    private static final Pattern MARKDOWN_CODE_BLOCKS = Pattern.compile("```[\\s\\S]*?```");
+    private static final Pattern MARKDOWN_INLINE_CODE = Pattern.compile("`[^`]+`");
+    private static final Pattern MARKDOWN_LINKS = Pattern.compile("\\[.*?\\]\\(.*?\\)");
 
     @Value("${course.generator.ai.enabled:true}")
     private boolean aiEnabled;
@@ -28,13 +36,20 @@ public class AICourseGeneratorService {
     private String aiProvider;
 
     @Value("${course.generator.ai.huggingface.model:mistralai/Mistral-7B-Instruct-v0.2}")
-    private String huggingFaceModel;
+    private String huggingFaceModel; // Utilisé seulement avec le fournisseur Hugging Face
 
-    @Value("${course.generator.ai.huggingface.api.key:}")
-    private String huggingFaceApiKey;
+    /**
+     * État d'une génération : identité de limitation de débit de l'appelant, et recours éventuel
+     * aux templates pour une partie du contenu (appel IA refusé, en échec ou inexploitable).
+     */
+    private static final class GenerationContext {
+        private final AiResilienceGuard.RateLimit rateLimit;
+        private boolean templateUsed;
 
-    @Value("${course.generator.ai.timeout:30}")
-    private int aiTimeout;
+        private GenerationContext(AiResilienceGuard.RateLimit rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+    }
 
     /**
      * Génère un quiz standalone par IA basé sur un sujet et un niveau de difficulté
@@ -43,26 +58,51 @@ public class AICourseGeneratorService {
         // Normaliser le niveau
         String normalizedLevel = normalizeLevel(difficulty);
         
+        // Les demandes identiques simultanées partagent une seule génération
+        GenerationContext context = new GenerationContext(aiResilienceGuard.currentUser());
+        return generationCoalescer.execute("quiz", topic, normalizedLevel,
+                () -> doGenerateStandaloneQuiz(topic, normalizedLevel, context));
+    }
+
+    private GeneratedQuizDto doGenerateStandaloneQuiz(String topic, String normalizedLevel, GenerationContext context) {
         // Générer le titre et la description du quiz
         String quizTitle = generateQuizTitle(topic, normalizedLevel);
         String quizDescription = generateQuizDescription(topic, normalizedLevel);
         
         // Générer les questions
-        List<GeneratedQuestionDto> questions = generateRealQuestions(topic, normalizedLevel);
+        List<GeneratedQuestionDto> questions = generateRealQuestions(topic, normalizedLevel, context);
         
         return new GeneratedQuizDto(quizTitle, quizDescription, questions);
     }
 
     public GeneratedCourseDto generateCourse(String idea, String level) {
+        return generateCourse(idea, level, aiResilienceGuard.currentUser());
+    }
+
+    /**
+     * Génère un cours en imputant les appels IA à l'identité donnée (traitements de fond sans
+     * utilisateur authentifié). {@link GeneratedCourseDto#getSource()} indique si le contenu vient
+     * entièrement du modèle ou en partie des templates.
+     */
+    public GeneratedCourseDto generateCourse(String idea, String level, AiResilienceGuard.RateLimit rateLimit) {
         // Normaliser le niveau
         String normalizedLevel = normalizeLevel(level);
         
+        // Les demandes identiques simultanées partagent une seule génération
+        GenerationContext context = new GenerationContext(rateLimit);
+        return generationCoalescer.execute("course", idea, normalizedLevel,
+                () -> doGenerateCourse(idea, normalizedLevel, context));
+    }
+
+    private GeneratedCourseDto doGenerateCourse(String idea, String normalizedLevel, GenerationContext context) {
         // Essayer de générer avec IA si activée
         if (aiEnabled) {
             try {
-                GeneratedCourseDto aiGenerated = generateCourseWithAI(idea, normalizedLevel);
+                GeneratedCourseDto aiGenerated = generateCourseWithAI(idea, normalizedLevel, context);
                 if (aiGenerated != null) {
-                    log.info("Cours généré avec succès via IA pour: {}", idea);
+                    aiGenerated.setSource(context.templateUsed
+                            ? GeneratedCourseDto.Source.TEMPLATE : GeneratedCourseDto.Source.AI);
+                    log.info("Cours généré via IA pour: {} (source {})", idea, aiGenerated.getSource());
                     return aiGenerated;
                 }
             } catch (Exception e) {
@@ -72,10 +112,10 @@ public class AICourseGeneratorService {
         
         // Fallback vers la logique actuelle si IA désactivée ou en cas d'erreur
         log.info("Utilisation de la génération par template pour: {}", idea);
-        return generateCourseWithTemplates(idea, normalizedLevel);
+        return generateCourseWithTemplates(idea, normalizedLevel, context);
     }
     
-    private GeneratedCourseDto generateCourseWithTemplates(String idea, String normalizedLevel) {
+    private GeneratedCourseDto generateCourseWithTemplates(String idea, String normalizedLevel, GenerationContext context) {
         // Générer le titre et la description
         String title = generateTitle(idea, normalizedLevel);
         String description = generateDescription(idea, normalizedLevel);
@@ -91,7 +131,7 @@ public class AICourseGeneratorService {
         List<GeneratedLessonDto> lessons = generateLessons(idea, normalizedLevel);
         
         // Générer le quiz
-        GeneratedQuizDto quiz = generateQuiz(idea, normalizedLevel, lessons);
+        GeneratedQuizDto quiz = generateQuiz(idea, normalizedLevel, lessons, context);
         
         return new GeneratedCourseDto(
                 title,
@@ -100,44 +140,61 @@ public class AICourseGeneratorService {
                 imageUrl,
                 objectives,
                 lessons,
-                quiz
+                quiz,
+                GeneratedCourseDto.Source.TEMPLATE
         );
     }
     
-    private GeneratedCourseDto generateCourseWithAI(String idea, String normalizedLevel) {
+    private GeneratedCourseDto generateCourseWithAI(String idea, String normalizedLevel, GenerationContext context) {
         try {
-            // Générer le titre avec IA
-            String title = generateTitleWithAI(idea, normalizedLevel);
+            // Lot 1 : titre, résumé et objectifs sont indépendants (un seul appel si le fournisseur groupe les prompts)
+            List<String> firstBatch = callAIBatch(context, List.of(
+                    AiRequest.of(buildTitlePrompt(idea, normalizedLevel), 100),
+                    AiRequest.of(buildSummaryPrompt(idea, normalizedLevel), 200),
+                    AiRequest.of(buildObjectivesPrompt(idea, normalizedLevel), 300)
+            ));
+
+            String title = parseTitle(firstBatch.get(0));
             if (title == null || title.trim().isEmpty()) {
                 title = generateTitle(idea, normalizedLevel);
+                context.templateUsed = true;
             }
-            
-            // Générer la description avec IA
-            String description = generateDescriptionWithAI(idea, normalizedLevel, title);
-            if (description == null || description.trim().isEmpty()) {
-                description = generateDescription(idea, normalizedLevel);
-            }
-            
-            // Générer le résumé avec IA
-            String summary = generateSummaryWithAI(idea, normalizedLevel, description);
+
+            String summary = parseSummary(firstBatch.get(1));
             if (summary == null || summary.trim().isEmpty()) {
                 summary = generateSummary(idea, normalizedLevel);
+                context.templateUsed = true;
             }
-            
-            // Générer les objectifs avec IA
-            List<String> objectives = generateObjectivesWithAI(idea, normalizedLevel);
+
+            List<String> objectives = parseObjectives(firstBatch.get(2));
             if (objectives == null || objectives.isEmpty()) {
                 objectives = generateObjectives(idea, normalizedLevel);
+                context.templateUsed = true;
             }
-            
-            // Générer les leçons avec IA
-            List<GeneratedLessonDto> lessons = generateLessonsWithAI(idea, normalizedLevel, objectives);
+
+            // Lot 2 : la description dépend du titre, les leçons dépendent des objectifs
+            List<String> secondBatch = callAIBatch(context, List.of(
+                    AiRequest.of(buildDescriptionPrompt(idea, normalizedLevel, title), 500),
+                    AiRequest.of(buildLessonsPrompt(idea, normalizedLevel, objectives), 1200)
+            ));
+
+            String description = parseDescription(secondBatch.get(0));
+            if (description == null || description.trim().isEmpty()) {
+                description = generateDescription(idea, normalizedLevel);
+                context.templateUsed = true;
+            }
+
+            String lessonsResponse = secondBatch.get(1);
+            List<GeneratedLessonDto> lessons = lessonsResponse != null && !lessonsResponse.trim().isEmpty()
+                    ? parseLessonsFromAI(lessonsResponse, idea, normalizedLevel)
+                    : null;
             if (lessons == null || lessons.isEmpty()) {
                 lessons = generateLessons(idea, normalizedLevel);
+                context.templateUsed = true;
             }
             
             // Générer le quiz (utiliser la logique actuelle car elle est déjà bonne)
-            GeneratedQuizDto quiz = generateQuiz(idea, normalizedLevel, lessons);
+            GeneratedQuizDto quiz = generateQuiz(idea, normalizedLevel, lessons, context);
             
             // Générer l'URL de la miniature
             String imageUrl = generateThumbnailUrl(idea, normalizedLevel);
@@ -149,7 +206,8 @@ public class AICourseGeneratorService {
                     imageUrl,
                     objectives,
                     lessons,
-                    quiz
+                    quiz,
+                    null // Renseignée par l'appelant selon context.templateUsed
             );
         } catch (Exception e) {
             log.error("Erreur lors de la génération avec IA: {}", e.getMessage(), e);
@@ -182,7 +240,7 @@ public class AICourseGeneratorService {
         }
     }
 
-    private String normalizeLevel(String level) {
+    public String normalizeLevel(String level) {
         if (level == null || level.trim().isEmpty()) {
             return "intermédiaire";
         }
@@ -341,21 +399,22 @@ public class AICourseGeneratorService {
         return lessons;
     }
 
-    private GeneratedQuizDto generateQuiz(String idea, String level, List<GeneratedLessonDto> lessons) {
+    private GeneratedQuizDto generateQuiz(String idea, String level, List<GeneratedLessonDto> lessons,
+                                          GenerationContext context) {
         String quizTitle = "Quiz final - " + idea;
         String quizDescription = "Ce quiz vous permettra de valider vos connaissances sur " + idea + 
             ". Vous avez 3 tentatives pour obtenir un score minimum de 75%.";
         
-        List<GeneratedQuestionDto> questions = generateRealQuestions(idea, level);
+        List<GeneratedQuestionDto> questions = generateRealQuestions(idea, level, context);
         
         return new GeneratedQuizDto(quizTitle, quizDescription, questions);
     }
     
-    private List<GeneratedQuestionDto> generateRealQuestions(String idea, String level) {
+    private List<GeneratedQuestionDto> generateRealQuestions(String idea, String level, GenerationContext context) {
         // Essayer de générer avec IA si activée
         if (aiEnabled) {
             try {
-                List<GeneratedQuestionDto> aiQuestions = generateQuestionsWithAI(idea, level);
+                List<GeneratedQuestionDto> aiQuestions = generateQuestionsWithAI(idea, level, context);
                 if (aiQuestions != null && !aiQuestions.isEmpty() && aiQuestions.size() >= 3) {
                     log.info("Questions générées avec succès via IA pour: {}", idea);
                     return aiQuestions;
@@ -367,13 +426,14 @@ public class AICourseGeneratorService {
         
         // Fallback vers la base de connaissances
         log.info("Utilisation de la base de connaissances pour les questions sur: {}", idea);
+        context.templateUsed = true;
         return generateQuestionsFromKnowledgeBase(idea, level);
     }
     
     /**
      * Génère des questions de quiz avec IA (amélioré)
      */
-    private List<GeneratedQuestionDto> generateQuestionsWithAI(String idea, String level) {
+    private List<GeneratedQuestionDto> generateQuestionsWithAI(String idea, String level, GenerationContext context) {
         int numberOfQuestions = level.equals("débutant") ? 5 : level.equals("avancé") ? 8 : 6;
         
         // Construire un prompt plus détaillé et structuré
@@ -396,26 +456,20 @@ public class AICourseGeneratorService {
             "- Sujet : %s\n" +
             "- Niveau : %s\n" +
             "- %s\n\n" +
-            "FORMAT STRICT (une question par ligne, séparée par |||) :\n" +
-            "Question|Option1|Option2|Option3|Option4|BonneRéponse\n\n" +
-            "EXEMPLES :\n" +
-            "Qu'est-ce que Spring Boot ?|Un framework Java qui simplifie le développement|Un langage de programmation|Une base de données|Un système d'exploitation|Un framework Java qui simplifie le développement\n" +
-            "Quel est l'avantage principal de Spring Boot ?|Configuration automatique et démarrage rapide|Meilleure performance que tous les autres frameworks|Gratuit uniquement|Support uniquement pour Java 8|Configuration automatique et démarrage rapide\n\n" +
+            QUESTIONS_JSON_FORMAT +
             "RÈGLES STRICTES :\n" +
             "1. Chaque question doit avoir EXACTEMENT 4 options\n" +
-            "2. Une seule option est correcte\n" +
+            "2. Une seule option est correcte : \"answer\" est son indice (0 à 3)\n" +
             "3. Les questions doivent être en français\n" +
             "4. Les options doivent être claires, distinctes et de longueur similaire\n" +
-            "5. La bonne réponse doit être EXACTEMENT identique à l'une des 4 options\n" +
-            "6. Varier les types de questions : définitions, avantages, cas d'usage, techniques\n" +
-            "7. Adapter la difficulté au niveau '%s'\n" +
-            "8. Les questions doivent être pertinentes et éducatives\n\n" +
-            "IMPORTANT : Réponds UNIQUEMENT avec les questions au format demandé, une par ligne, séparées par |||. " +
-            "Pas d'explication, pas de texte supplémentaire, juste les questions.",
+            "5. Varier les types de questions : définitions, avantages, cas d'usage, techniques\n" +
+            "6. Adapter la difficulté au niveau '%s'\n" +
+            "7. Les questions doivent être pertinentes et éducatives\n\n" +
+            "IMPORTANT : Réponds UNIQUEMENT avec l'objet JSON, sans explication ni texte autour.",
             numberOfQuestions, idea, level, idea, level, levelInstructions, level
         );
         
-        String response = callHuggingFaceAPI(prompt, 1200);
+        String response = callAI(context, prompt, 1200);
         if (response != null && !response.trim().isEmpty()) {
             List<GeneratedQuestionDto> parsedQuestions = parseQuestionsFromAI(response, idea, level);
             
@@ -428,17 +482,21 @@ public class AICourseGeneratorService {
                 // Générer des questions complémentaires
                 int remaining = minQuestions - parsedQuestions.size();
                 String complementPrompt = String.format(
-                    "Génère %d questions supplémentaires de quiz QCM sur '%s' de niveau '%s'. " +
-                    "Format: Question|Option1|Option2|Option3|Option4|BonneRéponse (une par ligne, séparée par |||). " +
-                    "Les questions doivent être différentes des précédentes et adaptées au niveau %s.",
+                    "Génère %d questions supplémentaires de quiz QCM sur '%s' de niveau '%s'.\n\n" +
+                    QUESTIONS_JSON_FORMAT +
+                    "Les questions doivent être différentes des précédentes et adaptées au niveau %s. " +
+                    "Réponds UNIQUEMENT avec l'objet JSON.",
                     remaining, idea, level, level
                 );
                 
-                String complementResponse = callHuggingFaceAPI(complementPrompt, 600);
+                String complementResponse = callAI(context, complementPrompt, 600);
                 if (complementResponse != null && !complementResponse.trim().isEmpty()) {
                     List<GeneratedQuestionDto> complementQuestions = parseQuestionsFromAI(complementResponse, idea, level);
                     if (complementQuestions != null && !complementQuestions.isEmpty()) {
                         parsedQuestions.addAll(complementQuestions);
+                        // Le complément peut reformuler des questions du premier lot
+                        parsedQuestions = questionSimilarityIndex.removeNearDuplicates(
+                                parsedQuestions, GeneratedQuestionDto::getText, null);
                     }
                 }
             }
@@ -449,170 +507,31 @@ public class AICourseGeneratorService {
     }
     
     /**
-     * Parse les questions générées par l'IA (amélioré avec meilleure validation)
+     * Format JSON demandé pour les questions (prompt principal et complément)
+     */
+    private static final String QUESTIONS_JSON_FORMAT =
+        "FORMAT STRICT (JSON) :\n" +
+        "{\"questions\": [{\"question\": \"...\", \"options\": [\"...\", \"...\", \"...\", \"...\"], \"answer\": 0}]}\n\n" +
+        "EXEMPLE :\n" +
+        "{\"questions\": [{\"question\": \"Qu'est-ce que Spring Boot ?\", \"options\": [\"Un framework Java qui simplifie le développement\", " +
+        "\"Un langage de programmation\", \"Une base de données\", \"Un système d'exploitation\"], \"answer\": 0}]}\n\n";
+
+    /**
+     * Parse les questions générées par l'IA (JSON validé, réparé si la réponse est tronquée)
      */
     private List<GeneratedQuestionDto> parseQuestionsFromAI(String aiResponse, String idea, String level) {
-        List<GeneratedQuestionDto> questions = new ArrayList<>();
-        
-        // Nettoyer la réponse
-        aiResponse = aiResponse.trim()
-            .replaceAll("^```[\\w]*\\n?", "") // Enlever code blocks
-            .replaceAll("\\n?```$", "")
-            .trim();
-        
-        // Séparer par ||| ou par lignes
-        String[] questionParts = aiResponse.split("\\|\\|\\|");
-        if (questionParts.length == 1) {
-            // Essayer de séparer par lignes
-            questionParts = aiResponse.split("\n");
+        StructuredOutputParser.Result<GeneratedQuestionDto> parsed = structuredOutputParser.parseQuestions(aiResponse);
+        if (!parsed.isJsonFound()) {
+            log.warn("Aucun JSON dans la réponse IA pour les questions sur '{}'", idea);
         }
-        
-        for (String part : questionParts) {
-            part = part.trim();
-            if (part.isEmpty() || part.length() < 20) continue; // Ignorer les lignes trop courtes
-            
-            // Ignorer les lignes qui sont clairement des explications
-            if (part.toLowerCase().startsWith("exemple") || 
-                part.toLowerCase().startsWith("format") ||
-                part.toLowerCase().startsWith("règle") ||
-                part.toLowerCase().startsWith("note") ||
-                part.matches("^\\d+\\.\\s+.*")) { // Ignorer les listes numérotées
-                continue;
-            }
-            
-            // Format: Question|Option1|Option2|Option3|Option4|BonneRéponse
-            String[] fields = part.split("\\|");
-            
-            if (fields.length >= 6) {
-                String questionText = fields[0].trim()
-                    .replaceAll("^[\"']|[\"']$", "")
-                    .replaceAll("^\\d+[\\.\\)]\\s*", "") // Enlever numérotation
-                    .trim();
-                
-                List<String> options = new ArrayList<>();
-                for (int i = 1; i <= 4; i++) {
-                    if (i < fields.length) {
-                        String option = fields[i].trim()
-                            .replaceAll("^[\"']|[\"']$", "")
-                            .replaceAll("^[a-zA-Z][\\.\\)]\\s*", "") // Enlever lettres a), b), etc.
-                            .trim();
-                        if (!option.isEmpty()) {
-                            options.add(option);
-                        }
-                    }
-                }
-                
-                String correctAnswer = fields.length > 5 ? fields[5].trim()
-                    .replaceAll("^[\"']|[\"']$", "")
-                    .trim() : "";
-                
-                // Valider que nous avons au moins 4 options
-                if (questionText.length() > 15 && options.size() >= 4 && !correctAnswer.isEmpty()) {
-                    // Nettoyer et valider les options (enlever doublons, options trop courtes)
-                    List<String> validOptions = new ArrayList<>();
-                    Set<String> seenOptions = new HashSet<>();
-                    for (String option : options) {
-                        String cleaned = option.trim();
-                        if (cleaned.length() > 3 && !seenOptions.contains(cleaned.toLowerCase())) {
-                            validOptions.add(cleaned);
-                            seenOptions.add(cleaned.toLowerCase());
-                        }
-                    }
-                    
-                    // S'assurer d'avoir au moins 4 options valides
-                    if (validOptions.size() < 4) {
-                        // Compléter avec des options génériques si nécessaire
-                        while (validOptions.size() < 4) {
-                            validOptions.add("Option " + (validOptions.size() + 1));
-                        }
-                    }
-                    
-                    // Vérifier que la bonne réponse correspond à une des options
-                    String matchedCorrectAnswer = null;
-                    String correctAnswerLower = correctAnswer.toLowerCase().trim();
-                    
-                    for (String option : validOptions) {
-                        String optionLower = option.toLowerCase().trim();
-                        // Correspondance exacte ou partielle
-                        if (optionLower.equals(correctAnswerLower) || 
-                            optionLower.contains(correctAnswerLower) || 
-                            correctAnswerLower.contains(optionLower) ||
-                            // Correspondance par similarité (au moins 80% des mots)
-                            calculateSimilarity(optionLower, correctAnswerLower) > 0.8) {
-                            matchedCorrectAnswer = option;
-                            break;
-                        }
-                    }
-                    
-                    // Si la bonne réponse n'est pas trouvée, utiliser la première option
-                    if (matchedCorrectAnswer == null && !validOptions.isEmpty()) {
-                        log.warn("Bonne réponse non trouvée dans les options pour: '{}', utilisation de la première option", questionText);
-                        matchedCorrectAnswer = validOptions.get(0);
-                    }
-                    
-                    // Mélanger les options pour éviter un pattern prévisible
-                    List<String> shuffledOptions = new ArrayList<>(validOptions);
-                    Collections.shuffle(shuffledOptions);
-                    
-                    // Trouver la bonne réponse après mélange
-                    final String finalMatchedAnswer = matchedCorrectAnswer;
-                    final String finalCorrectAnswer = shuffledOptions.stream()
-                        .filter(opt -> opt.equals(finalMatchedAnswer))
-                        .findFirst()
-                        .orElse(shuffledOptions.get(0));
-                    
-                    questions.add(new GeneratedQuestionDto(
-                        questionText,
-                        shuffledOptions,
-                        finalCorrectAnswer,
-                        1
-                    ));
-                }
-            } else if (fields.length >= 3) {
-                // Format alternatif: Question|Option1,Option2,Option3,Option4|BonneRéponse
-                String questionText = fields[0].trim()
-                    .replaceAll("^[\"']|[\"']$", "")
-                    .replaceAll("^\\d+[\\.\\)]\\s*", "")
-                    .trim();
-                
-                String[] optionsArray = fields[1].split(",");
-                List<String> options = new ArrayList<>();
-                for (String opt : optionsArray) {
-                    String cleaned = opt.trim()
-                        .replaceAll("^[\"']|[\"']$", "")
-                        .replaceAll("^[a-zA-Z][\\.\\)]\\s*", "")
-                        .trim();
-                    if (!cleaned.isEmpty()) {
-                        options.add(cleaned);
-                    }
-                }
-                
-                String correctAnswer = fields.length > 2 ? fields[2].trim()
-                    .replaceAll("^[\"']|[\"']$", "")
-                    .trim() : "";
-                
-                if (questionText.length() > 10 && options.size() >= 4 && !correctAnswer.isEmpty()) {
-                    // Trouver la bonne réponse
-                    String matchedAnswer = options.stream()
-                        .filter(opt -> opt.equals(correctAnswer) || opt.contains(correctAnswer) || correctAnswer.contains(opt))
-                        .findFirst()
-                        .orElse(options.get(0));
-                    
-                    // Mélanger
-                    Collections.shuffle(options);
-                    final String finalCorrectAnswer = options.stream()
-                        .filter(opt -> opt.equals(matchedAnswer))
-                        .findFirst()
-                        .orElse(options.get(0));
-                    
-                    questions.add(new GeneratedQuestionDto(
-                        questionText,
-                        options,
-                        finalCorrectAnswer,
-                        1
-                    ));
-                }
-            }
+        // Écarter les questions quasi identiques entre elles ou à des questions existantes
+        // (les questions générées vont toujours dans un nouveau quiz : aucun quiz à exclure)
+        List<GeneratedQuestionDto> questions = questionSimilarityIndex.removeNearDuplicates(
+                parsed.getItems(), GeneratedQuestionDto::getText, null);
+        
+        // Mélanger les options pour éviter un pattern prévisible (la bonne réponse est souvent la première)
+        for (GeneratedQuestionDto question : questions) {
+            Collections.shuffle(question.getOptions());
         }
         
         // Valider le nombre minimum de questions
@@ -631,31 +550,6 @@ public class AICourseGeneratorService {
         return questions;
     }
     
-    /**
-     * Calcule la similarité entre deux chaînes (simple)
-     */
-    private double calculateSimilarity(String str1, String str2) {
-        if (str1 == null || str2 == null) return 0.0;
-        if (str1.equals(str2)) return 1.0;
-        
-        // Calcul simple basé sur les mots communs
-        String[] words1 = str1.split("\\s+");
-        String[] words2 = str2.split("\\s+");
-        
-        int commonWords = 0;
-        for (String word1 : words1) {
-            for (String word2 : words2) {
-                if (word1.equals(word2) && word1.length() > 2) {
-                    commonWords++;
-                    break;
-                }
-            }
-        }
-        
-        int totalWords = Math.max(words1.length, words2.length);
-        return totalWords > 0 ? (double) commonWords / totalWords : 0.0;
-    }
-    
     /**
      * Génère des questions depuis la base de connaissances (fallback)
      */
@@ -1529,17 +1423,18 @@ public class AICourseGeneratorService {
     // ==================== MÉTHODES DE GÉNÉRATION AVEC IA ====================
     
     /**
-     * Génère un titre de cours avec IA
+     * Prompt du titre de cours
      */
-    private String generateTitleWithAI(String idea, String level) {
-        String prompt = String.format(
+    private String buildTitlePrompt(String idea, String level) {
+        return String.format(
             "Génère un titre accrocheur et professionnel pour un cours en ligne sur '%s' de niveau '%s'. " +
             "Le titre doit être en français, concis (maximum 60 caractères), et inclure le niveau si pertinent. " +
             "Réponds UNIQUEMENT avec le titre, sans explication ni formatage.",
             idea, level
         );
-        
-        String response = callHuggingFaceAPI(prompt, 100);
+    }
+
+    private String parseTitle(String response) {
         if (response != null && !response.trim().isEmpty()) {
             // Nettoyer la réponse
             String cleaned = response.trim()
@@ -1558,10 +1453,10 @@ public class AICourseGeneratorService {
     }
     
     /**
-     * Génère une description de cours avec IA
+     * Prompt de la description de cours
      */
-    private String generateDescriptionWithAI(String idea, String normalizedLevel, String title) {
-        String prompt = String.format(
+    private String buildDescriptionPrompt(String idea, String normalizedLevel, String title) {
+        return String.format(
             "Écris une description détaillée et engageante pour un cours en ligne intitulé '%s' sur le sujet '%s' de niveau '%s'. " +
             "La description doit être en français, entre 200 et 400 mots, et inclure : " +
             "- Une introduction accrocheante sur l'importance du sujet\n" +
@@ -1572,8 +1467,9 @@ public class AICourseGeneratorService {
             "Réponds UNIQUEMENT avec la description, sans titre ni formatage supplémentaire.",
             title, idea, normalizedLevel, normalizedLevel
         );
-        
-        String response = callHuggingFaceAPI(prompt, 500);
+    }
+
+    private String parseDescription(String response) {
         if (response != null && !response.trim().isEmpty()) {
             // Nettoyer la réponse
             String cleaned = response.trim()
@@ -1587,17 +1483,18 @@ public class AICourseGeneratorService {
     }
     
     /**
-     * Génère un résumé de cours avec IA
+     * Prompt du résumé de cours
      */
-    private String generateSummaryWithAI(String idea, String normalizedLevel, String description) {
-        String prompt = String.format(
+    private String buildSummaryPrompt(String idea, String normalizedLevel) {
+        return String.format(
             "Écris un résumé concis (100-150 mots) en français pour un cours sur '%s' de niveau '%s'. " +
             "Le résumé doit donner un aperçu rapide du cours et inciter à s'inscrire. " +
             "Réponds UNIQUEMENT avec le résumé, sans titre ni formatage.",
             idea, normalizedLevel
         );
-        
-        String response = callHuggingFaceAPI(prompt, 200);
+    }
+
+    private String parseSummary(String response) {
         if (response != null && !response.trim().isEmpty()) {
             String cleaned = response.trim()
                 .replaceAll("^Résumé[:\\s]*", "")
@@ -1610,17 +1507,18 @@ public class AICourseGeneratorService {
     }
     
     /**
-     * Génère les objectifs d'apprentissage avec IA
+     * Prompt des objectifs d'apprentissage
      */
-    private List<String> generateObjectivesWithAI(String idea, String normalizedLevel) {
-        String prompt = String.format(
+    private String buildObjectivesPrompt(String idea, String normalizedLevel) {
+        return String.format(
             "Génère 4 à 6 objectifs d'apprentissage spécifiques et mesurables pour un cours sur '%s' de niveau '%s'. " +
             "Chaque objectif doit commencer par un verbe d'action (Comprendre, Maîtriser, Créer, etc.). " +
             "Réponds UNIQUEMENT avec la liste des objectifs, un par ligne, sans numérotation ni puces, en français.",
             idea, normalizedLevel
         );
-        
-        String response = callHuggingFaceAPI(prompt, 300);
+    }
+
+    private List<String> parseObjectives(String response) {
         if (response != null && !response.trim().isEmpty()) {
             // Parser la réponse en liste
             String[] lines = response.split("\n");
@@ -1646,15 +1544,15 @@ public class AICourseGeneratorService {
     }
     
     /**
-     * Génère les leçons du cours avec IA (avec descriptions en markdown)
+     * Prompt du plan de cours (leçons avec descriptions en markdown)
      */
-    private List<GeneratedLessonDto> generateLessonsWithAI(String idea, String normalizedLevel, List<String> objectives) {
+    private String buildLessonsPrompt(String idea, String normalizedLevel, List<String> objectives) {
         int numberOfLessons = normalizedLevel.equals("débutant") ? 5 : 
                              normalizedLevel.equals("avancé") ? 8 : 6;
         
         String objectivesText = objectives != null ? String.join(", ", objectives) : "";
         
-        String prompt = String.format(
+        return String.format(
             "Génère un plan de cours structuré avec %d leçons pour un cours sur '%s' de niveau '%s'. " +
             "Les objectifs du cours sont : %s\n\n" +
             "Pour chaque leçon, fournis :\n" +
@@ -1667,122 +1565,32 @@ public class AICourseGeneratorService {
             "  * Des tableaux si nécessaire (|col1|col2|)\n" +
             "  * Du texte en **gras** et *italique* pour l'emphase\n" +
             "- Une durée estimée en minutes (entre 15 et 45 minutes selon la complexité)\n\n" +
-            "Format de réponse (une leçon par ligne, séparée par |||) :\n" +
-            "Titre|Description_MARKDOWN|Durée\n\n" +
+            "Format de réponse (JSON, retours à la ligne échappés en \\n dans les descriptions) :\n" +
+            "{\"lessons\": [{\"title\": \"...\", \"description\": \"markdown\", \"duration\": 20}]}\n\n" +
             "Exemple :\n" +
-            "Introduction à Spring Boot|## Vue d'ensemble\\n\\nDans cette première leçon, nous découvrirons **Spring Boot** et son importance dans le développement Java moderne.\\n\\n## Objectifs de la leçon\\n\\n- Comprendre ce qu'est Spring Boot\\n- Connaître ses avantages principaux\\n- Installer l'environnement de développement\\n\\n## Concepts clés\\n\\nSpring Boot simplifie la création d'applications Java en fournissant :\\n\\n- Configuration automatique\\n- Serveur embarqué\\n- Production-ready features|20\n\n" +
-            "Réponds UNIQUEMENT avec les leçons au format demandé, en utilisant du markdown valide pour les descriptions.",
+            "{\"lessons\": [{\"title\": \"Introduction à Spring Boot\", \"description\": \"## Vue d'ensemble\\n\\nDans cette première leçon, nous découvrirons **Spring Boot** et son importance dans le développement Java moderne.\\n\\n## Objectifs de la leçon\\n\\n- Comprendre ce qu'est Spring Boot\\n- Connaître ses avantages principaux\\n- Installer l'environnement de développement\", \"duration\": 20}]}\n\n" +
+            "Réponds UNIQUEMENT avec l'objet JSON, en utilisant du markdown valide pour les descriptions.",
             numberOfLessons, idea, normalizedLevel, objectivesText
         );
-        
-        String response = callHuggingFaceAPI(prompt, 1200);
-        if (response != null && !response.trim().isEmpty()) {
-            return parseLessonsFromAI(response, idea, normalizedLevel);
-        }
-        return null;
     }
     
     /**
-     * Parse les leçons générées par l'IA (avec support markdown)
+     * Parse les leçons générées par l'IA (JSON validé, avec support markdown)
      */
     private List<GeneratedLessonDto> parseLessonsFromAI(String aiResponse, String idea, String normalizedLevel) {
-        List<GeneratedLessonDto> lessons = new ArrayList<>();
-        
-        // Séparer par ||| ou par lignes
-        String[] lessonParts = aiResponse.split("\\|\\|\\|");
-        if (lessonParts.length == 1) {
-            // Essayer de séparer par lignes
-            lessonParts = aiResponse.split("\n");
+        StructuredOutputParser.Result<GeneratedLessonDto> parsed = structuredOutputParser.parseLessons(aiResponse);
+        if (!parsed.isJsonFound()) {
+            log.warn("Aucun JSON dans la réponse IA pour le plan de cours sur '{}'", idea);
         }
         
+        List<GeneratedLessonDto> lessons = parsed.getItems();
         int lessonIndex = 1;
-        for (String part : lessonParts) {
-            // Utiliser un séparateur plus robuste pour gérer le markdown dans la description
-            // Format: Titre|Description_MARKDOWN|Durée
-            int firstPipe = part.indexOf('|');
-            int lastPipe = part.lastIndexOf('|');
-            
-            if (firstPipe > 0 && lastPipe > firstPipe) {
-                String title = part.substring(0, firstPipe).trim()
-                    .replaceAll("^Leçon\\s+\\d+[:\\s]*", "")
-                    .replaceAll("^[\"']|[\"']$", "")
-                    .trim();
-                
-                // La description est entre le premier et dernier pipe (peut contenir des | dans le markdown)
-                String description = part.substring(firstPipe + 1, lastPipe).trim()
-                    .replaceAll("^[\"']|[\"']$", "")
-                    .trim();
-                
-                // La durée est après le dernier pipe
-                String durationStr = part.substring(lastPipe + 1).trim().replaceAll("[^0-9]", "");
-                int duration = 20; // Par défaut
-                if (!durationStr.isEmpty()) {
-                    try {
-                        duration = Integer.parseInt(durationStr);
-                        // Limiter entre 15 et 45 minutes
-                        duration = Math.max(15, Math.min(45, duration));
-                    } catch (NumberFormatException e) {
-                        // Utiliser la durée par défaut
-                    }
-                }
-                
-                if (!title.isEmpty() && title.length() > 5) {
-                    // Nettoyer et valider le markdown
-                    description = cleanMarkdownDescription(description, idea);
-                    
-                    // Générer URL vidéo
-                    String videoUrl = generateYouTubeVideoUrl(idea, title, lessonIndex - 1, normalizedLevel);
-                    
-                    lessons.add(new GeneratedLessonDto(
-                        title,
-                        description,
-                        lessonIndex,
-                        duration,
-                        videoUrl
-                    ));
-                    lessonIndex++;
-                }
-            } else {
-                // Fallback : essayer l'ancien format avec split simple
-                String[] fields = part.split("\\|");
-                if (fields.length >= 2) {
-                    String title = fields[0].trim()
-                        .replaceAll("^Leçon\\s+\\d+[:\\s]*", "")
-                        .replaceAll("^[\"']|[\"']$", "")
-                        .trim();
-                    
-                    String description = fields.length > 1 ? fields[1].trim()
-                        .replaceAll("^[\"']|[\"']$", "")
-                        .trim() : "";
-                    
-                    int duration = 20;
-                    if (fields.length > 2) {
-                        try {
-                            String durationStr = fields[2].trim().replaceAll("[^0-9]", "");
-                            if (!durationStr.isEmpty()) {
-                                duration = Integer.parseInt(durationStr);
-                                duration = Math.max(15, Math.min(45, duration));
-                            }
-                        } catch (NumberFormatException e) {
-                            // Utiliser la durée par défaut
-                        }
-                    }
-                    
-                    if (!title.isEmpty() && title.length() > 5) {
-                        description = cleanMarkdownDescription(description, idea);
-                        String videoUrl = generateYouTubeVideoUrl(idea, title, lessonIndex - 1, normalizedLevel);
-                        
-                        lessons.add(new GeneratedLessonDto(
-                            title,
-                            description,
-                            lessonIndex,
-                            duration,
-                            videoUrl
-                        ));
-                        lessonIndex++;
-                    }
-                }
-            }
+        for (GeneratedLessonDto lesson : lessons) {
+            // Nettoyer et valider le markdown, puis générer l'URL vidéo
+            lesson.setDescription(cleanMarkdownDescription(lesson.getDescription(), idea));
+            lesson.setOrderIndex(lessonIndex);
+            lesson.setVideoUrl(generateYouTubeVideoUrl(idea, lesson.getTitle(), lessonIndex - 1, normalizedLevel));
+            lessonIndex++;
         }
         
         // S'assurer d'avoir au moins le nombre minimum de leçons
@@ -1810,12 +1618,11 @@ public class AICourseGeneratorService {
         
         // S'assurer que le markdown est valide
         // Vérifier qu'il y a au moins un peu de contenu
-        String plainText = description.replaceAll("#+", "")
-            .replaceAll("\\*\\*|\\*", "")
-            .replaceAll("```[\\s\\S]*?```", "")
-            .replaceAll("`[^`]+`", "")
-            .replaceAll("\\[.*?\\]\\(.*?\\)", "")
-            .trim();
+        String plainText = MARKDOWN_HEADINGS.matcher(description).replaceAll("");
+        plainText = MARKDOWN_EMPHASIS.matcher(plainText).replaceAll("");
+        plainText = MARKDOWN_CODE_BLOCKS.matcher(plainText).replaceAll("");
+        plainText = MARKDOWN_INLINE_CODE.matcher(plainText).replaceAll("");
+        plainText = MARKDOWN_LINKS.matcher(plainText).replaceAll("").trim();
         
         if (plainText.length() < 50) {
             // Si le contenu est trop court, utiliser le fallback
@@ -1843,90 +1650,40 @@ public class AICourseGeneratorService {
     }
     
     /**
-     * Appelle l'API Hugging Face pour générer du texte
+     * Appelle le fournisseur IA configuré (course.generator.ai.provider) pour générer du texte
      */
-    private String callHuggingFaceAPI(String prompt, int maxTokens) {
-        if (!aiEnabled || huggingFaceModel == null || huggingFaceModel.isEmpty()) {
-            return null;
-        }
-        
-        try {
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("inputs", prompt);
-            
-            Map<String, Object> parameters = new HashMap<>();
-            parameters.put("max_new_tokens", maxTokens);
-            parameters.put("temperature", 0.7);
-            parameters.put("return_full_text", false);
-            parameters.put("top_p", 0.9);
-            requestBody.put("parameters", parameters);
-            
-            // Construire l'URL avec le modèle
-            String apiUrl = "/models/" + huggingFaceModel;
-            
-            // Ajouter le header d'authentification si une clé est fournie
-            WebClient.RequestHeadersSpec<?> requestSpec = webClient.post()
-                    .uri(apiUrl)
-                    .bodyValue(requestBody);
-            
-            if (huggingFaceApiKey != null && !huggingFaceApiKey.trim().isEmpty()) {
-                requestSpec = requestSpec.header("Authorization", "Bearer " + huggingFaceApiKey);
-            }
-            
-            Object response = requestSpec
-                    .retrieve()
-                    .bodyToMono(Object.class)
-                    .timeout(Duration.ofSeconds(aiTimeout))
-                    .retryWhen(Retry.fixedDelay(2, Duration.ofSeconds(2))
-                            .filter(throwable -> throwable instanceof java.util.concurrent.TimeoutException))
-                    .block();
-            
-            if (response != null) {
-                return parseHuggingFaceResponse(response);
-            }
-        } catch (Exception e) {
-            log.warn("Erreur lors de l'appel à Hugging Face API: {}", e.getMessage());
-        }
-        
-        return null;
+    private String callAI(GenerationContext context, String prompt, int maxTokens) {
+        return callAIBatch(context, List.of(AiRequest.of(prompt, maxTokens))).get(0);
     }
-    
+
     /**
-     * Parse la réponse de Hugging Face
+     * Génère plusieurs prompts indépendants, en un seul appel amont si le fournisseur le permet.
+     * Retourne toujours une liste de la taille demandée (null pour une réponse absente).
      */
-    @SuppressWarnings("unchecked")
-    private String parseHuggingFaceResponse(Object response) {
-        try {
-            if (response instanceof List) {
-                List<?> list = (List<?>) response;
-                if (!list.isEmpty()) {
-                    Object firstItem = list.get(0);
-                    if (firstItem instanceof Map) {
-                        Map<String, Object> map = (Map<String, Object>) firstItem;
-                        Object generatedText = map.get("generated_text");
-                        if (generatedText != null) {
-                            String text = generatedText.toString().trim();
-                            // Nettoyer la réponse
-                            text = text.replaceAll("^\\s*[\"']|[\"']\\s*$", "");
-                            return text;
-                        }
-                    } else if (firstItem instanceof String) {
-                        return ((String) firstItem).trim();
-                    }
-                }
-            } else if (response instanceof Map) {
-                Map<String, Object> map = (Map<String, Object>) response;
-                Object generatedText = map.get("generated_text");
-                if (generatedText != null) {
-                    return generatedText.toString().trim();
-                }
-            } else if (response instanceof String) {
-                return ((String) response).trim();
-            }
-        } catch (Exception e) {
-            log.debug("Erreur parsing réponse Hugging Face: {}", e.getMessage());
+    private List<String> callAIBatch(GenerationContext context, List<AiRequest> requests) {
+        List<String> empty = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        if (!aiEnabled) {
+            return empty;
         }
-        return null;
+
+        AiProvider provider = aiProviderRegistry.get(aiProvider);
+        String model = HuggingFaceAiProvider.NAME.equals(provider.getName()) ? huggingFaceModel : null;
+        List<AiRequest> modelRequests = new ArrayList<>(requests.size());
+        for (AiRequest request : requests) {
+            modelRequests.add(request.withModel(model));
+        }
+
+        // Pas de retry ici : le disjoncteur décide, et un échec bascule directement sur les templates
+        List<String> responses = aiResilienceGuard.call("course-generator", provider.getName(), context.rateLimit,
+                () -> provider.generateBatch(modelRequests), () -> empty);
+
+        List<String> cleaned = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String text = responses != null && i < responses.size() ? responses.get(i) : null;
+            // Nettoyer la réponse (guillemets englobants)
+            cleaned.add(text != null ? text.trim().replaceAll("^\\s*[\"']|[\"']\\s*$", "") : null);
+        }
+        return cleaned;
     }
 }
 
@@ -0,0 +1,44 @@
+package com.elearnia.service;
+
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fournisseur de génération de texte (Hugging Face, serveur compatible OpenAI, stub hors ligne...).
+ * Le fournisseur utilisé par chaque fonctionnalité est choisi par configuration ({@code ai.provider.*}).
+ * Les implémentations lèvent une exception en cas d'échec : la couche de résilience décide du fallback.
+ */
+public interface AiProvider {
+
+    /**
+     * Nom utilisé dans la configuration et les métriques.
+     */
+    String getName();
+
+    String generate(AiRequest request);
+
+    /**
+     * Génère le texte d'un flux de tokens, au fur et à mesure.
+     */
+    Flux<String> stream(AiRequest request);
+
+    /**
+     * Indique si {@link #generateBatch} envoie les prompts en un seul appel amont.
+     */
+    default boolean supportsBatching() {
+        return false;
+    }
+
+    /**
+     * Génère plusieurs prompts indépendants ; la réponse i correspond au prompt i (null si vide).
+     */
+    default List<String> generateBatch(List<AiRequest> requests) {
+        List<String> responses = new ArrayList<>(requests.size());
+        for (AiRequest request : requests) {
+            responses.add(generate(request));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,33 @@
+package com.elearnia.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Accès aux fournisseurs IA par nom (valeurs des propriétés {@code ai.provider.*}).
+ */
+@Slf4j
+@Service
+public class AiProviderRegistry {
+
+    private final Map<String, AiProvider> providers;
+
+    public AiProviderRegistry(List<AiProvider> providers) {
+        this.providers = providers.stream()
+                .collect(Collectors.toMap(AiProvider::getName, Function.identity()));
+        log.info("Fournisseurs IA disponibles: {}", this.providers.keySet());
+    }
+
+    public AiProvider get(String name) {
+        AiProvider provider = providers.get(name != null ? name.trim().toLowerCase() : null);
+        if (provider == null) {
+            throw new IllegalStateException("Fournisseur IA inconnu: " + name + " (disponibles: " + providers.keySet() + ")");
+        }
+        return provider;
+    }
+}
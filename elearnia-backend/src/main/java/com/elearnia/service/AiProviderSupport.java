@@ -0,0 +1,158 @@
+package com.elearnia.service;
+
+import com.elearnia.util.JfrEvents;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.netty.channel.ChannelOption;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Outils communs aux fournisseurs IA HTTP : un client (et un pool de connexions) dédié par
+ * fournisseur, et les métriques par appel.
+ *
+ * Chaque appel ouvre une observation ai.upstream (span "fournisseur mode") dont la requête HTTP du
+ * WebClient est la fille, y compris pour les flux où le parent est passé par le contexte Reactor.
+ */
+@Component
+@RequiredArgsConstructor
+public class AiProviderSupport {
+
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * Crée un WebClient avec son propre pool : un fournisseur lent ne peut pas épuiser
+     * les connexions d'un autre.
+     */
+    public WebClient createClient(String provider, String baseUrl, String apiKey,
+                                  int maxConnections, int connectTimeoutMs, int responseTimeoutSeconds) {
+        ConnectionProvider pool = ConnectionProvider.builder("ai-" + provider)
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofSeconds(responseTimeoutSeconds))
+                .maxIdleTime(Duration.ofSeconds(60))
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofSeconds(responseTimeoutSeconds));
+
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .observationRegistry(observationRegistry)
+                .baseUrl(baseUrl)
+                .defaultHeader("Content-Type", "application/json")
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024)); // 10MB
+        if (apiKey != null && !apiKey.trim().isEmpty()) {
+            builder.defaultHeader("Authorization", "Bearer " + apiKey.trim());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Mesure un appel bloquant : durée par fournisseur / mode / issue, et nombre de prompts envoyés.
+     */
+    public <T> T timed(String provider, String mode, List<AiRequest> requests, Supplier<T> call) {
+        JfrEvents.AiCall event = new JfrEvents.AiCall();
+        event.begin();
+        Observation observation = observation(provider, mode, requests, null).start();
+        long start = System.nanoTime();
+        String outcome = "success";
+        try (Observation.Scope scope = observation.openScope()) {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+            record(provider, mode, outcome, requests.size(), System.nanoTime() - start);
+            commit(event, provider, mode, requests, outcome);
+        }
+    }
+
+    /**
+     * Mesure un appel streamé, de l'abonnement à la fin du flux.
+     */
+    public <T> Flux<T> timedStream(String provider, AiRequest request, Flux<T> stream) {
+        // Parent capturé à l'assemblage : l'abonnement peut se faire sur un autre thread
+        Observation parent = observationRegistry.getCurrentObservation();
+        return Flux.defer(() -> {
+            JfrEvents.AiCall event = new JfrEvents.AiCall();
+            event.begin();
+            Observation observation = observation(provider, "stream", List.of(request), parent).start();
+            long start = System.nanoTime();
+            return stream
+                    .doOnError(observation::error)
+                    .doFinally(signal -> {
+                        String outcome = signal.name().toLowerCase();
+                        observation.stop();
+                        record(provider, "stream", outcome, 1, System.nanoTime() - start);
+                        commit(event, provider, "stream", List.of(request), outcome);
+                    })
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    private Observation observation(String provider, String mode, List<AiRequest> requests, Observation parent) {
+        long chars = 0;
+        for (AiRequest request : requests) {
+            chars += request.getPrompt() != null ? request.getPrompt().length() : 0;
+        }
+        Observation observation = Observation.createNotStarted("ai.upstream", observationRegistry)
+                .contextualName(provider + " " + mode)
+                .lowCardinalityKeyValue("provider", provider)
+                .lowCardinalityKeyValue("mode", mode)
+                .highCardinalityKeyValue("ai.prompts", String.valueOf(requests.size()))
+                .highCardinalityKeyValue("ai.prompt.chars", String.valueOf(chars));
+        // Sans parent explicite, l'observation courante du thread est reprise à la création
+        return parent != null ? observation.parentObservation(parent) : observation;
+    }
+
+    private void commit(JfrEvents.AiCall event, String provider, String mode, List<AiRequest> requests,
+                        String outcome) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        long chars = 0;
+        for (AiRequest request : requests) {
+            chars += request.getPrompt() != null ? request.getPrompt().length() : 0;
+        }
+        event.provider = provider;
+        event.mode = mode;
+        event.prompts = requests.size();
+        event.promptChars = chars;
+        event.outcome = outcome;
+        event.commit();
+    }
+
+    private void record(String provider, String mode, String outcome, int prompts, long nanos) {
+        Timer.builder("ai.provider.calls")
+                .description("Appels aux fournisseurs IA")
+                .tag("provider", provider)
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        Counter.builder("ai.provider.prompts")
+                .description("Prompts envoyés aux fournisseurs IA")
+                .tag("provider", provider)
+                .register(meterRegistry)
+                .increment(prompts);
+    }
+}
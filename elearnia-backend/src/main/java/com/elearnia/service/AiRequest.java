@@ -0,0 +1,25 @@
+package com.elearnia.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Requête de génération de texte, indépendante du fournisseur IA.
+ */
+@Getter
+@AllArgsConstructor
+public class AiRequest {
+
+    private final String prompt;
+    private final int maxTokens;
+    private final double temperature;
+    private final String model; // null = modèle par défaut du fournisseur
+
+    public static AiRequest of(String prompt, int maxTokens) {
+        return new AiRequest(prompt, maxTokens, 0.7, null);
+    }
+
+    public AiRequest withModel(String model) {
+        return new AiRequest(prompt, maxTokens, temperature, model);
+    }
+}
@@ -0,0 +1,402 @@
+package com.elearnia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Couche de résilience partagée par tous les appels aux backends IA (chatbot, génération de cours).
+ * Dans l'ordre : disjoncteur, limitation de débit (par appelant puis globale), cloison de concurrence.
+ * Toute réjection bascule immédiatement sur le fallback fourni par l'appelant (templates, réponse locale).
+ *
+ * L'appelant est identifié par un {@link RateLimit} : l'utilisateur authentifié pour les requêtes
+ * HTTP, une clé explicite et un budget propre pour les traitements de fond (tâches planifiées,
+ * générations par lot), qui n'ont pas de contexte de sécurité.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AiResilienceGuard {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Identité de limitation de débit : un seau par clé, de capacité {@code perMinute}.
+     * Les appels admis consomment aussi le budget global.
+     */
+    public record RateLimit(String key, int perMinute) {
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    // Disjoncteur
+    @Value("${ai.resilience.circuit.window-size:20}")
+    private int windowSize;
+
+    @Value("${ai.resilience.circuit.minimum-calls:5}")
+    private int minimumCalls;
+
+    @Value("${ai.resilience.circuit.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${ai.resilience.circuit.slow-call-ms:10000}")
+    private long slowCallMs;
+
+    @Value("${ai.resilience.circuit.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${ai.resilience.circuit.half-open-calls:2}")
+    private int halfOpenCalls;
+
+    // Cloison
+    @Value("${ai.resilience.bulkhead.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${ai.resilience.bulkhead.max-wait-ms:200}")
+    private long maxWaitMs;
+
+    // Limitation de débit (seaux à jetons)
+    @Value("${ai.resilience.rate.global-per-minute:120}")
+    private int globalPerMinute;
+
+    @Value("${ai.resilience.rate.user-per-minute:30}")
+    private int userPerMinute;
+
+    private Semaphore bulkhead;
+    private TokenBucket globalBucket;
+    private static final int MAX_RATE_BUCKETS = 10_000;
+    private final ConcurrentHashMap<String, TokenBucket> rateBuckets = new ConcurrentHashMap<>();
+
+    // État du disjoncteur (fenêtre glissante circulaire des derniers appels)
+    private final Object circuitLock = new Object();
+    private State state = State.CLOSED;
+    private boolean[] outcomes;     // true = échec (erreur ou appel lent)
+    private int outcomeIndex;
+    private int outcomeCount;
+    private int failureCount;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+
+    @PostConstruct
+    public void init() {
+        bulkhead = new Semaphore(maxConcurrent);
+        globalBucket = new TokenBucket(globalPerMinute);
+        outcomes = new boolean[windowSize];
+        Gauge.builder("ai.circuit.state", this, guard -> guard.getState().ordinal())
+                .description("État du disjoncteur IA (0=fermé, 1=ouvert, 2=semi-ouvert)")
+                .register(meterRegistry);
+        Gauge.builder("ai.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Places libres dans la cloison des appels IA")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exécute un appel IA bloquant sous protection. Une exception de l'appel compte comme un échec
+     * et renvoie le fallback ; elle n'est jamais propagée à l'appelant.
+     * L'opération et le fournisseur servent uniquement d'étiquettes aux métriques.
+     */
+    public <T> T call(String operation, String provider, Supplier<T> action, Supplier<T> fallback) {
+        return call(operation, provider, currentUser(), action, fallback);
+    }
+
+    /**
+     * Comme {@link #call(String, String, Supplier, Supplier)}, pour une identité de limitation explicite
+     * (traitements sans utilisateur authentifié).
+     */
+    public <T> T call(String operation, String provider, RateLimit rateLimit, Supplier<T> action, Supplier<T> fallback) {
+        String rejection = admit(rateLimit);
+        if (rejection != null) {
+            reject(operation, provider, rejection);
+            return fallback.get();
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            releaseHalfOpenPermit();
+            reject(operation, provider, "bulkhead");
+            return fallback.get();
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            recordOutcome(System.nanoTime() - start, false);
+            recordCall(operation, provider, "success", System.nanoTime() - start);
+            return result;
+        } catch (Exception e) {
+            recordOutcome(System.nanoTime() - start, true);
+            recordCall(operation, provider, "error", System.nanoTime() - start);
+            log.warn("Appel IA {} en échec: {}", operation, e.getMessage());
+            return fallback.get();
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Variante réactive (flux streamés) : les contrôles sont faits à l'abonnement, sans attente
+     * sur la cloison ; l'issue est enregistrée à la fin du flux.
+     */
+    public <T> Flux<T> stream(String operation, String provider, Flux<T> action, Flux<T> fallback) {
+        // Identité lue à l'appel : le contexte de sécurité n'est plus disponible à l'abonnement
+        RateLimit rateLimit = currentUser();
+        return Flux.defer(() -> {
+            String rejection = admit(rateLimit);
+            if (rejection == null && !bulkhead.tryAcquire()) {
+                releaseHalfOpenPermit();
+                rejection = "bulkhead";
+            }
+            if (rejection != null) {
+                reject(operation, provider, rejection);
+                return fallback;
+            }
+            long start = System.nanoTime();
+            AtomicBoolean done = new AtomicBoolean(false);
+            return action
+                    .doOnComplete(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            recordOutcome(System.nanoTime() - start, false);
+                            recordCall(operation, provider, "success", System.nanoTime() - start);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (done.compareAndSet(false, true)) {
+                            recordOutcome(System.nanoTime() - start, true);
+                            recordCall(operation, provider, "error", System.nanoTime() - start);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        // Annulation (ex: timeout du premier token) : comptée comme un échec
+                        if (done.compareAndSet(false, true)) {
+                            recordOutcome(System.nanoTime() - start, true);
+                            recordCall(operation, provider, "cancelled", System.nanoTime() - start);
+                        }
+                        bulkhead.release();
+                    });
+        });
+    }
+
+    public State getState() {
+        synchronized (circuitLock) {
+            return state;
+        }
+    }
+
+    /**
+     * Identité de l'utilisateur authentifié du thread courant, au débit par utilisateur.
+     */
+    public RateLimit currentUser() {
+        return new RateLimit(currentUserKey(), userPerMinute);
+    }
+
+    /**
+     * Retourne la raison du refus, ou null si l'appel est autorisé.
+     * Le disjoncteur est vérifié avant les seaux : un appel refusé ne consomme aucun jeton.
+     */
+    private String admit(RateLimit rateLimit) {
+        String circuitRejection = acquireCircuit();
+        if (circuitRejection != null) {
+            return circuitRejection;
+        }
+        if (rateBuckets.size() > MAX_RATE_BUCKETS) {
+            // Un seau plein équivaut à un seau neuf : on peut l'oublier sans effet
+            rateBuckets.values().removeIf(TokenBucket::isFull);
+        }
+        TokenBucket callerBucket = rateBuckets.computeIfAbsent(rateLimit.key(), k -> new TokenBucket(rateLimit.perMinute()));
+        if (!callerBucket.tryConsume()) {
+            releaseHalfOpenPermit();
+            return "rate_limit_user";
+        }
+        if (!globalBucket.tryConsume()) {
+            callerBucket.refund();
+            releaseHalfOpenPermit();
+            return "rate_limit_global";
+        }
+        return null;
+    }
+
+    private String acquireCircuit() {
+        synchronized (circuitLock) {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < TimeUnit.SECONDS.toNanos(openSeconds)) {
+                    return "circuit_open";
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenInFlight >= halfOpenCalls) {
+                    return "circuit_half_open";
+                }
+                halfOpenInFlight++;
+            }
+        }
+        return null;
+    }
+
+    private void releaseHalfOpenPermit() {
+        synchronized (circuitLock) {
+            if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+                halfOpenInFlight--;
+            }
+        }
+    }
+
+    private void recordOutcome(long durationNanos, boolean error) {
+        boolean failure = error || durationNanos > TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        synchronized (circuitLock) {
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+                if (failure) {
+                    transitionTo(State.OPEN);
+                } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                return; // Appel démarré avant l'ouverture
+            }
+
+            if (outcomeCount == windowSize) {
+                if (outcomes[outcomeIndex]) failureCount--;
+            } else {
+                outcomeCount++;
+            }
+            outcomes[outcomeIndex] = failure;
+            if (failure) failureCount++;
+            outcomeIndex = (outcomeIndex + 1) % windowSize;
+
+            if (outcomeCount >= minimumCalls && (double) failureCount / outcomeCount >= failureRateThreshold) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    // Appelé sous circuitLock
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        if (next == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+        if (next != State.HALF_OPEN || previous != State.HALF_OPEN) {
+            halfOpenInFlight = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (next == State.CLOSED) {
+            outcomeIndex = 0;
+            outcomeCount = 0;
+            failureCount = 0;
+        }
+        log.info("Disjoncteur IA: {} -> {}", previous, next);
+        Counter.builder("ai.circuit.transitions")
+                .description("Transitions d'état du disjoncteur IA")
+                .tag("from", previous.name())
+                .tag("to", next.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void reject(String operation, String provider, String reason) {
+        log.debug("Appel IA {} refusé: {}", operation, reason);
+        Counter.builder("ai.resilience.rejected")
+                .description("Appels IA refusés et servis par le fallback")
+                .tag("operation", operation)
+                .tag("provider", provider)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        countFailure(operation, provider, reason);
+    }
+
+    /**
+     * Latence de bout en bout d'un appel admis (histogramme pour les percentiles Prometheus),
+     * par opération et fournisseur ; les appels en échec sont aussi comptés dans ai.calls.failures.
+     */
+    private void recordCall(String operation, String provider, String outcome, long nanos) {
+        Timer.builder("ai.calls")
+                .description("Appels IA admis par la couche de résilience")
+                .tag("operation", operation)
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (!"success".equals(outcome)) {
+            countFailure(operation, provider, outcome);
+        }
+    }
+
+    private void countFailure(String operation, String provider, String reason) {
+        Counter.builder("ai.calls.failures")
+                .description("Appels IA en échec ou refusés, servis par le fallback")
+                .tag("operation", operation)
+                .tag("provider", provider)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String currentUserKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getName() != null ? authentication.getName() : "anonymous";
+    }
+
+    /**
+     * Seau à jetons : capacité = débit par minute, rechargé en continu.
+     */
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int perMinute) {
+            this.capacity = perMinute;
+            this.refillPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.tokens = perMinute;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized boolean tryConsume() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1.0);
+        }
+
+        synchronized boolean isFull() {
+            return tokens + (System.nanoTime() - lastRefill) * refillPerNano >= capacity;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.BulkEnrollmentResultDto;
+import com.elearnia.entities.Course;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.EnrollmentRepository;
+import com.elearnia.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Inscription en masse d'étudiants à un cours à partir de leurs emails.
+ *
+ * Les comptes sont résolus par lots ({@code enrollment.bulk.lookup-batch-size} emails par
+ * requête), les inscriptions existantes sont écartées par une requête ensembliste par lot, puis
+ * les nouvelles inscriptions sont insérées par INSERT IGNORE multi-lignes : une inscription créée
+ * entre-temps (contrainte unique étudiant / cours) est ignorée et comptée comme déjà inscrite,
+ * d'après le nombre de lignes réellement insérées. Une seule notification récapitulative est
+ * envoyée au professeur du cours.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkEnrollmentService {
+
+    private static final String INSERT_ENROLLMENTS =
+            "INSERT IGNORE INTO enrollments (student_id, course_id, progress, completed) VALUES ";
+    private static final String ENROLLMENT_ROW = "(?, ?, 0, false)";
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationService notificationService;
+    private final StudentContextCache studentContextCache;
+    private final LearningAnalyticsService learningAnalyticsService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${enrollment.bulk.max-emails:20000}")
+    private int maxEmails;
+
+    @Value("${enrollment.bulk.lookup-batch-size:1000}")
+    private int lookupBatchSize;
+
+    @Value("${enrollment.bulk.insert-batch-size:500}")
+    private int insertBatchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Les inscriptions sont créées dans une seule transaction ; la notification récapitulative
+     * est envoyée après le commit, son échec n'annule pas les inscriptions.
+     */
+    public BulkEnrollmentResultDto enroll(User teacher, Long courseId, List<String> emails) {
+        long start = System.currentTimeMillis();
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cours introuvable"));
+        if (teacher.getRole() != Role.ADMIN && !course.getTeacher().getId().equals(teacher.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Ce cours ne vous appartient pas");
+        }
+        if (emails == null || emails.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Aucun email fourni");
+        }
+
+        BulkEnrollmentResultDto result = new BulkEnrollmentResultDto();
+        result.setCourseId(courseId);
+
+        // Emails normalisés et dédoublonnés (ordre d'origine conservé)
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String email : emails) {
+            if (email == null || email.isBlank()) {
+                continue;
+            }
+            String value = email.trim().toLowerCase(Locale.ROOT);
+            if (EMAIL.matcher(value).matches()) {
+                normalized.add(value);
+            } else {
+                result.getInvalid().add(email.trim());
+            }
+        }
+        if (normalized.size() > maxEmails) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Trop d'emails (" + normalized.size() + "), maximum " + maxEmails);
+        }
+        result.setRequested(normalized.size());
+
+        List<String> pending = new ArrayList<>(normalized);
+        List<Long> newStudentIds = new ArrayList<>();
+        int inserted = transactionTemplate.execute(status -> {
+            for (int from = 0; from < pending.size(); from += lookupBatchSize) {
+                List<String> batch = pending.subList(from, Math.min(pending.size(), from + lookupBatchSize));
+                enrollBatch(courseId, batch, result, newStudentIds);
+            }
+            int rows = insertEnrollments(courseId, newStudentIds);
+            if (rows > 0) {
+                learningAnalyticsService.recordEnrollments(courseId, rows);
+            }
+            return rows;
+        });
+        // Inscrits par une autre requête entre la vérification et l'insertion
+        result.setAlreadyEnrolled(result.getAlreadyEnrolled() + newStudentIds.size() - inserted);
+
+        if (!newStudentIds.isEmpty()) {
+            // Après le commit : une lecture concurrente ne remet pas en cache l'état d'avant
+            studentContextCache.invalidate(newStudentIds);
+        }
+        if (inserted > 0) {
+            try {
+                notificationService.sendBulkEnrollmentNotification(course.getTeacher(), course, inserted);
+            } catch (Exception e) {
+                // Ne pas faire échouer l'inscription si la notification échoue
+                log.warn("Erreur lors de l'envoi de la notification d'inscription en masse: {}", e.getMessage());
+            }
+        }
+        result.setEnrolled(inserted);
+        result.setDurationMs(System.currentTimeMillis() - start);
+        log.info("Inscription en masse au cours {}: {} email(s), {} inscrit(s), {} déjà inscrit(s), {} introuvable(s) en {} ms",
+                courseId, result.getRequested(), result.getEnrolled(), result.getAlreadyEnrolled(),
+                result.getNotFound().size(), result.getDurationMs());
+        return result;
+    }
+
+    /**
+     * Insère les inscriptions par lots de {@code insertBatchSize} lignes et renvoie le nombre de
+     * lignes réellement insérées (les doublons ignorés comptent 0). Une requête multi-lignes par
+     * lot : avec rewriteBatchedStatements, un batch JDBC ne donne pas le compte par ligne.
+     */
+    private int insertEnrollments(Long courseId, List<Long> studentIds) {
+        int inserted = 0;
+        for (int from = 0; from < studentIds.size(); from += insertBatchSize) {
+            List<Long> batch = studentIds.subList(from, Math.min(studentIds.size(), from + insertBatchSize));
+            Object[] args = new Object[batch.size() * 2];
+            for (int i = 0; i < batch.size(); i++) {
+                args[2 * i] = batch.get(i);
+                args[2 * i + 1] = courseId;
+            }
+            String sql = INSERT_ENROLLMENTS + String.join(", ", Collections.nCopies(batch.size(), ENROLLMENT_ROW));
+            inserted += jdbcTemplate.update(sql, args);
+        }
+        return inserted;
+    }
+
+    /**
+     * Résout un lot d'emails et ajoute à {@code newStudentIds} les étudiants pas encore inscrits.
+     */
+    private void enrollBatch(Long courseId, List<String> emails, BulkEnrollmentResultDto result, List<Long> newStudentIds) {
+        Map<String, Long> learnerIds = new HashMap<>();
+        Set<String> found = new HashSet<>();
+        for (Object[] row : userRepository.findIdsByEmailIn(emails)) {
+            String email = ((String) row[1]).toLowerCase(Locale.ROOT);
+            found.add(email);
+            if (row[2] == Role.LEARNER) {
+                learnerIds.put(email, (Long) row[0]);
+            }
+        }
+
+        Set<Long> enrolled = learnerIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(enrollmentRepository.findEnrolledStudentIds(courseId, learnerIds.values()));
+
+        for (String email : emails) {
+            Long studentId = learnerIds.get(email);
+            if (studentId == null) {
+                (found.contains(email) ? result.getNotLearners() : result.getNotFound()).add(email);
+            } else if (enrolled.contains(studentId)) {
+                result.setAlreadyEnrolled(result.getAlreadyEnrolled() + 1);
+            } else {
+                newStudentIds.add(studentId);
+            }
+        }
+    }
+}
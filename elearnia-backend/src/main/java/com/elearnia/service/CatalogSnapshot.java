@@ -0,0 +1,144 @@
+package com.elearnia.service;
+
+import com.elearnia.entities.Course;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Photographie immuable du catalogue de cours.
+ * Construite une seule fois à chaque modification des cours, puis partagée par tous les lecteurs
+ * (chatbot, etc.) sans aucun accès à la base.
+ */
+@Getter
+public final class CatalogSnapshot {
+
+    private final List<CourseEntry> courses;
+    private final Map<Long, CourseEntry> coursesById;
+    private final Set<String> categories; // Catégories précalculées à partir des titres/descriptions
+    private final String contextSummary;  // Partie "catalogue" du contexte envoyé à l'IA
+
+    private CatalogSnapshot(List<CourseEntry> courses, Set<String> categories) {
+        this.courses = Collections.unmodifiableList(courses);
+        Map<Long, CourseEntry> byId = new HashMap<>();
+        for (CourseEntry course : courses) {
+            byId.put(course.getId(), course);
+        }
+        this.coursesById = Collections.unmodifiableMap(byId);
+        this.categories = Collections.unmodifiableSet(categories);
+        this.contextSummary = buildContextSummary(this.courses, this.categories);
+    }
+
+    /**
+     * Construit la photographie à partir des entités (le professeur doit être chargé).
+     */
+    public static CatalogSnapshot of(List<Course> courses) {
+        List<CourseEntry> entries = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            entries.add(new CourseEntry(
+                    course.getId(),
+                    course.getTitle(),
+                    course.getDescription(),
+                    course.getTeacher() != null ? course.getTeacher().getFullName() : null,
+                    course.getImageUrl(),
+                    course.isPublished()
+            ));
+        }
+        return new CatalogSnapshot(entries, extractCategories(entries));
+    }
+
+    public boolean isEmpty() {
+        return courses.isEmpty();
+    }
+
+    public int size() {
+        return courses.size();
+    }
+
+    private static Set<String> extractCategories(List<CourseEntry> courses) {
+        Set<String> categories = new LinkedHashSet<>();
+        for (CourseEntry course : courses) {
+            String title = course.getTitle() != null ? course.getTitle().toLowerCase() : "";
+            String description = course.getDescription() != null ? course.getDescription().toLowerCase() : "";
+
+            // Détecter les catégories basées sur les mots-clés
+            if (title.contains("flutter") || title.contains("dart") || description.contains("flutter")) {
+                categories.add("Développement Mobile");
+            }
+            if (title.contains("spring") || title.contains("java") || description.contains("spring boot")) {
+                categories.add("Développement Backend");
+            }
+            if (title.contains("react") || title.contains("javascript") || title.contains("frontend")) {
+                categories.add("Développement Frontend");
+            }
+            if (title.contains("python") || description.contains("python")) {
+                categories.add("Programmation Python");
+            }
+            if (title.contains("web") || description.contains("web development")) {
+                categories.add("Développement Web");
+            }
+            if (title.contains("design") || title.contains("ui") || title.contains("ux")) {
+                categories.add("Design");
+            }
+            if (title.contains("business") || title.contains("marketing")) {
+                categories.add("Business");
+            }
+            if (title.contains("data") || title.contains("analytics")) {
+                categories.add("Data Science");
+            }
+        }
+        if (categories.isEmpty()) {
+            categories.add("Développement");
+            categories.add("Design");
+            categories.add("Business");
+            categories.add("Data Science");
+        }
+        return categories;
+    }
+
+    private static String buildContextSummary(List<CourseEntry> courses, Set<String> categories) {
+        StringBuilder context = new StringBuilder();
+
+        // Ajouter les catégories disponibles
+        if (!categories.isEmpty()) {
+            context.append("Catégories de cours disponibles sur la plateforme: ");
+            int index = 0;
+            for (String category : categories) {
+                if (index == 10) break;
+                if (index > 0) context.append(", ");
+                context.append(category);
+                index++;
+            }
+            context.append(". ");
+        }
+
+        // Ajouter la liste des cours disponibles
+        if (!courses.isEmpty()) {
+            context.append("Cours disponibles sur la plateforme: ");
+            for (int i = 0; i < Math.min(courses.size(), 10); i++) {
+                if (i > 0) context.append(", ");
+                context.append(courses.get(i).getTitle());
+            }
+            context.append(". ");
+        }
+        return context.toString();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class CourseEntry {
+        private final Long id;
+        private final String title;
+        private final String description;
+        private final String teacherName;
+        private final String imageUrl;
+        private final boolean published;
+    }
+}
@@ -1,21 +1,25 @@
 package com.elearnia.service;
 
-import com.elearnia.entities.Course;
-import com.elearnia.entities.Enrollment;
 import com.elearnia.model.User;
-import com.elearnia.repository.CourseRepository;
-import com.elearnia.repository.EnrollmentRepository;
+import com.elearnia.service.CatalogSnapshot.CourseEntry;
+import com.elearnia.service.ChatIntentRouter.IntentMatch;
+import com.elearnia.service.StudentContextCache.EnrollmentEntry;
+import com.elearnia.service.StudentContextCache.StudentContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -23,35 +27,48 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ChatBotService {
 
-    private final EnrollmentRepository enrollmentRepository;
-    private final CourseRepository courseRepository;
-    private final WebClient webClient;
+    private final CourseCatalogService courseCatalogService;
+    private final StudentContextCache studentContextCache;
+    private final ChatIntentRouter chatIntentRouter;
+    private final AiProviderRegistry aiProviderRegistry;
+    private final MeterRegistry meterRegistry;
+    private final AiResilienceGuard aiResilienceGuard;
 
     @Value("${chatbot.ai.enabled:true}")
     private boolean aiEnabled;
 
-    @Value("${chatbot.ai.api.key:}")
-    private String aiApiKey;
+    @Value("${ai.provider.chatbot:huggingface}")
+    private String chatbotProvider;
+
+    @Value("${chatbot.ai.model:microsoft/DialoGPT-medium}")
+    private String chatModel; // Utilisé seulement avec le fournisseur Hugging Face
+
+    @Value("${chatbot.stream.first-token-timeout-ms:3000}")
+    private long firstTokenTimeoutMs;
+
+    @Value("${chatbot.stream.idle-timeout-ms:10000}")
+    private long idleTimeoutMs;
 
     public String processMessage(String message, User student) {
-        String lowerMessage = message.toLowerCase().trim();
+        // Classifier le message en un seul passage (table d'intentions compilée)
+        IntentMatch intent = chatIntentRouter.route(message);
 
-        // Récupérer les données de l'étudiant pour le contexte
-        List<Enrollment> enrollments = enrollmentRepository.findByStudentId(student.getId());
-        List<Course> allCourses = courseRepository.findAll();
+        // Récupérer les données de l'étudiant pour le contexte (caches, pas de lecture complète des tables)
+        StudentContext studentContext = studentContextCache.get(student.getId());
+        CatalogSnapshot catalog = courseCatalogService.getSnapshot();
 
         // Construire le contexte de l'étudiant
-        String context = buildStudentContext(student, enrollments, allCourses);
+        String context = buildStudentContext(student, studentContext, catalog);
 
         // Vérifier si c'est une question spécifique qui nécessite des données contextuelles
-        String contextualResponse = handleContextualQueries(lowerMessage, student, enrollments, allCourses);
+        String contextualResponse = handleContextualQueries(intent, student, studentContext, catalog);
         if (contextualResponse != null) {
             return contextualResponse;
         }
 
         // Pour toutes les autres questions, utiliser l'IA
         try {
-            String aiResponse = callAIAPI(message, context);
+            String aiResponse = callAIAPI(message, context, intent);
             if (aiResponse != null && !aiResponse.trim().isEmpty()) {
                 return aiResponse;
             }
@@ -60,31 +77,109 @@ public class ChatBotService {
         }
 
         // Fallback si l'IA ne répond pas
-        return generateDefaultResponse(student, enrollments);
+        return generateDefaultResponse(student, studentContext);
+    }
+
+    /**
+     * Version streaming de {@link #processMessage} : les tokens du modèle sont relayés au fur et à mesure.
+     * Si le modèle ne produit pas de premier token à temps (ou échoue avant), la réponse locale
+     * ({@code generateIntelligentResponse}) est envoyée à la place. Aucun thread n'est bloqué
+     * pendant l'attente du modèle.
+     */
+    public Flux<String> streamMessage(String message, User student) {
+        long start = System.nanoTime();
+        IntentMatch intent = chatIntentRouter.route(message);
+        StudentContext studentContext = studentContextCache.get(student.getId());
+        CatalogSnapshot catalog = courseCatalogService.getSnapshot();
+        String context = buildStudentContext(student, studentContext, catalog);
+
+        String contextualResponse = handleContextualQueries(intent, student, studentContext, catalog);
+        if (contextualResponse != null) {
+            return instrumentStream(chunk(contextualResponse), new AtomicReference<>("contextual"), start);
+        }
+
+        Flux<String> fallback = Flux.defer(() -> chunk(generateIntelligentResponse(intent, context)));
+        if (!aiEnabled) {
+            return instrumentStream(fallback, new AtomicReference<>("fallback"), start);
+        }
+
+        AtomicBoolean started = new AtomicBoolean(false);
+        AtomicReference<String> source = new AtomicReference<>("model");
+        AiProvider provider = aiProviderRegistry.get(chatbotProvider);
+        Flux<String> upstream = provider.stream(buildChatRequest(provider, message, context));
+        Flux<String> tokens = aiResilienceGuard.stream("chatbot-stream", provider.getName(), upstream, Flux.empty())
+                .timeout(Mono.delay(Duration.ofMillis(firstTokenTimeoutMs)),
+                        token -> Mono.delay(Duration.ofMillis(idleTimeoutMs)))
+                .doOnNext(token -> started.set(true))
+                .onErrorResume(e -> {
+                    if (started.get()) {
+                        // Réponse déjà partiellement envoyée : on s'arrête proprement
+                        log.debug("Flux du modèle interrompu: {}", e.getMessage());
+                        return Flux.empty();
+                    }
+                    log.debug("Modèle trop lent ou indisponible, réponse locale: {}", e.getMessage());
+                    source.set("fallback");
+                    return fallback;
+                })
+                .switchIfEmpty(Flux.defer(() -> {
+                    source.set("fallback");
+                    return fallback;
+                }));
+        return instrumentStream(tokens, source, start);
+    }
+
+    /**
+     * Découpe une réponse locale en morceaux (mots) pour la diffuser comme un flux de tokens.
+     */
+    private Flux<String> chunk(String text) {
+        return Flux.fromArray(text.split("(?<=\\s)"));
     }
 
-    private String buildStudentContext(User student, List<Enrollment> enrollments, List<Course> allCourses) {
+    /**
+     * Mesure le temps jusqu'au premier token et la durée totale, par source (model, fallback, contextual).
+     */
+    private Flux<String> instrumentStream(Flux<String> tokens, AtomicReference<String> source, long start) {
+        AtomicBoolean firstToken = new AtomicBoolean(true);
+        return tokens
+                .doOnNext(token -> {
+                    if (firstToken.compareAndSet(true, false)) {
+                        Timer.builder("chatbot.stream.ttft")
+                                .description("Temps jusqu'au premier token envoyé à l'étudiant")
+                                .tag("source", source.get())
+                                .register(meterRegistry)
+                                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                })
+                .doFinally(signal -> Timer.builder("chatbot.stream.duration")
+                        .description("Durée totale d'une réponse streamée")
+                        .tag("source", source.get())
+                        .tag("outcome", signal.name().toLowerCase())
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private String buildStudentContext(User student, StudentContext studentContext, CatalogSnapshot catalog) {
         StringBuilder context = new StringBuilder();
         context.append("Tu es un assistant virtuel intelligent pour une plateforme d'apprentissage en ligne appelée E-LearnIA. ");
         context.append("L'étudiant s'appelle ").append(student.getFullName()).append(". ");
         
-        if (!enrollments.isEmpty()) {
-            long completedCount = enrollments.stream().filter(Enrollment::isCompleted).count();
-            context.append("L'étudiant est inscrit à ").append(enrollments.size()).append(" cours");
+        if (!studentContext.isEmpty()) {
+            long completedCount = studentContext.getCompletedCount();
+            context.append("L'étudiant est inscrit à ").append(studentContext.size()).append(" cours");
             if (completedCount > 0) {
                 context.append(", dont ").append(completedCount).append(" terminés");
             }
             context.append(". ");
             
             // Ajouter les cours en cours
-            List<Enrollment> inProgress = enrollments.stream()
+            List<EnrollmentEntry> inProgress = studentContext.getEnrollments().stream()
                     .filter(e -> !e.isCompleted())
                     .collect(Collectors.toList());
             if (!inProgress.isEmpty()) {
                 context.append("Cours en cours: ");
                 for (int i = 0; i < Math.min(inProgress.size(), 3); i++) {
                     if (i > 0) context.append(", ");
-                    context.append(inProgress.get(i).getCourse().getTitle())
+                    context.append(inProgress.get(i).getCourseTitle())
                             .append(" (").append(String.format("%.0f", inProgress.get(i).getProgress())).append("%)");
                 }
                 context.append(". ");
@@ -93,23 +188,8 @@ public class ChatBotService {
             context.append("L'étudiant n'est pas encore inscrit à un cours. ");
         }
         
-        // Ajouter les catégories disponibles
-        Set<String> categories = extractCategories(allCourses);
-        if (!categories.isEmpty()) {
-            context.append("Catégories de cours disponibles sur la plateforme: ");
-            context.append(String.join(", ", categories.stream().limit(10).collect(Collectors.toList())));
-            context.append(". ");
-        }
-        
-        // Ajouter la liste des cours disponibles
-        if (!allCourses.isEmpty()) {
-            context.append("Cours disponibles sur la plateforme: ");
-            for (int i = 0; i < Math.min(allCourses.size(), 10); i++) {
-                if (i > 0) context.append(", ");
-                context.append(allCourses.get(i).getTitle());
-            }
-            context.append(". ");
-        }
+        // Catégories et cours disponibles (précalculés dans la photographie du catalogue)
+        context.append(catalog.getContextSummary());
         
         // Ajouter toutes les fonctionnalités de l'application
         context.append("\n\nFONCTIONNALITÉS DE LA PLATEFORME:\n");
@@ -140,179 +220,83 @@ public class ChatBotService {
         return context.toString();
     }
     
-    private Set<String> extractCategories(List<Course> courses) {
-        Set<String> categories = new HashSet<>();
-        for (Course course : courses) {
-            String title = course.getTitle().toLowerCase();
-            String description = course.getDescription() != null ? course.getDescription().toLowerCase() : "";
-            
-            // Détecter les catégories basées sur les mots-clés
-            if (title.contains("flutter") || title.contains("dart") || description.contains("flutter")) {
-                categories.add("Développement Mobile");
-            }
-            if (title.contains("spring") || title.contains("java") || description.contains("spring boot")) {
-                categories.add("Développement Backend");
-            }
-            if (title.contains("react") || title.contains("javascript") || title.contains("frontend")) {
-                categories.add("Développement Frontend");
-            }
-            if (title.contains("python") || description.contains("python")) {
-                categories.add("Programmation Python");
-            }
-            if (title.contains("web") || description.contains("web development")) {
-                categories.add("Développement Web");
-            }
-            if (title.contains("design") || title.contains("ui") || title.contains("ux")) {
-                categories.add("Design");
-            }
-            if (title.contains("business") || title.contains("marketing")) {
-                categories.add("Business");
-            }
-            if (title.contains("data") || title.contains("analytics")) {
-                categories.add("Data Science");
-            }
-        }
-        if (categories.isEmpty()) {
-            categories.add("Développement");
-            categories.add("Design");
-            categories.add("Business");
-            categories.add("Data Science");
-        }
-        return categories;
-    }
-
-    private String handleContextualQueries(String lowerMessage, User student, List<Enrollment> enrollments, List<Course> allCourses) {
-        // Questions qui nécessitent des données spécifiques de l'étudiant
-        if (lowerMessage.contains("recommand") || lowerMessage.contains("sugg") || lowerMessage.contains("conseil")) {
-            return generateRecommendations(student, enrollments, allCourses);
-        }
-
-        if (lowerMessage.contains("progress") || lowerMessage.contains("progression") || lowerMessage.contains("avancement")) {
-            return generateProgressInfo(enrollments);
-        }
-
-        if ((lowerMessage.contains("mes cours") || lowerMessage.contains("mon cours")) && 
-            (lowerMessage.contains("liste") || lowerMessage.contains("quels") || lowerMessage.contains("quelles"))) {
-            return generateCourseInfo(enrollments, allCourses);
-        }
-
-        // Questions sur les catégories disponibles
-        if (lowerMessage.contains("catégor") || lowerMessage.contains("categorie") || 
-            (lowerMessage.contains("quels") && lowerMessage.contains("disponible"))) {
-            return generateCategoriesInfo(allCourses);
+    private String handleContextualQueries(IntentMatch intent, User student, StudentContext studentContext, CatalogSnapshot catalog) {
+        // Questions qui nécessitent des données spécifiques de l'étudiant ou du catalogue
+        switch (intent.getIntent()) {
+            case ChatIntentRouter.RECOMMENDATIONS:
+                return generateRecommendations(student, studentContext, catalog);
+            case ChatIntentRouter.PROGRESS:
+                return generateProgressInfo(studentContext);
+            case ChatIntentRouter.MY_COURSES:
+                return generateCourseInfo(studentContext, catalog);
+            case ChatIntentRouter.CATEGORIES:
+                return generateCategoriesInfo(catalog);
+            case ChatIntentRouter.AVAILABLE_COURSES:
+                return generateAvailableCoursesInfo(catalog);
+            case ChatIntentRouter.QUIZ_LEVELS:
+                return generateQuizLevelsInfo();
+            default:
+                return null; // Pas de réponse contextuelle, utiliser l'IA
         }
-
-        // Questions sur les cours disponibles
-        if ((lowerMessage.contains("cours disponible") || lowerMessage.contains("liste des cours")) &&
-            !lowerMessage.contains("mes cours")) {
-            return generateAvailableCoursesInfo(allCourses);
-        }
-
-        // Questions sur les niveaux de quiz
-        if (lowerMessage.contains("niveau") && lowerMessage.contains("quiz")) {
-            return generateQuizLevelsInfo();
-        }
-
-        return null; // Pas de réponse contextuelle, utiliser l'IA
     }
 
-    private String callAIAPI(String message, String context) {
-        // Utiliser Hugging Face Inference API (gratuite, pas besoin de clé pour les modèles publics)
-        // Modèle: microsoft/DialoGPT-medium ou un modèle de conversation français
+    private String callAIAPI(String message, String context, IntentMatch intent) {
+        // Fournisseur configuré (ai.provider.chatbot), sous disjoncteur / cloison / limite de débit
         try {
-            // Construire le prompt avec le contexte
-            String prompt = context + "\n\nÉtudiant: " + message + "\nAssistant:";
-            
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("inputs", prompt);
-            Map<String, Object> parameters = new HashMap<>();
-            parameters.put("max_new_tokens", 200);
-            parameters.put("temperature", 0.7);
-            parameters.put("return_full_text", false);
-            requestBody.put("parameters", parameters);
-
-            // Essayer Hugging Face Inference API (gratuite)
-            try {
-                Object response = webClient.post()
-                        .uri("/models/microsoft/DialoGPT-medium")
-                        .bodyValue(requestBody)
-                        .retrieve()
-                        .bodyToMono(Object.class)
-                        .timeout(Duration.ofSeconds(15))
-                        .block();
-
-                if (response != null) {
-                    // Parser la réponse de Hugging Face
-                    String aiResponse = parseHuggingFaceResponse(response);
-                    if (aiResponse != null && !aiResponse.trim().isEmpty()) {
-                        return aiResponse.trim();
-                    }
+            AiProvider provider = aiProviderRegistry.get(chatbotProvider);
+            AiRequest request = buildChatRequest(provider, message, context);
+            String response = aiResilienceGuard.call("chatbot", provider.getName(), () -> provider.generate(request), () -> null);
+
+            if (response != null) {
+                // Nettoyer la réponse (enlever le prompt si présent)
+                if (response.contains("Assistant:")) {
+                    response = response.substring(response.indexOf("Assistant:") + "Assistant:".length());
+                }
+                if (!response.trim().isEmpty()) {
+                    return response.trim();
                 }
-            } catch (Exception e) {
-                log.debug("Hugging Face API non disponible, utilisation de la logique intelligente: {}", e.getMessage());
             }
 
-            // Si Hugging Face ne fonctionne pas, utiliser la logique intelligente améliorée
-            return generateIntelligentResponse(message, context);
+            // Si le modèle ne répond pas, utiliser la logique intelligente améliorée
+            return generateIntelligentResponse(intent, context);
             
         } catch (Exception e) {
             log.warn("Erreur lors de l'appel à l'API IA: {}", e.getMessage());
-            return generateIntelligentResponse(message, context);
+            return generateIntelligentResponse(intent, context);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private String parseHuggingFaceResponse(Object response) {
-        try {
-            if (response instanceof List) {
-                List<?> list = (List<?>) response;
-                if (!list.isEmpty()) {
-                    Object firstItem = list.get(0);
-                    if (firstItem instanceof Map) {
-                        Map<String, Object> map = (Map<String, Object>) firstItem;
-                        Object generatedText = map.get("generated_text");
-                        if (generatedText != null) {
-                            String text = generatedText.toString();
-                            // Nettoyer la réponse (enlever le prompt si présent)
-                            if (text.contains("Assistant:")) {
-                                text = text.substring(text.indexOf("Assistant:") + "Assistant:".length()).trim();
-                            }
-                            return text;
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.debug("Erreur parsing réponse Hugging Face: {}", e.getMessage());
-        }
-        return null;
+    private AiRequest buildChatRequest(AiProvider provider, String message, String context) {
+        // Construire le prompt avec le contexte
+        String prompt = context + "\n\nÉtudiant: " + message + "\nAssistant:";
+        // Le modèle Hugging Face (ex: microsoft/DialoGPT-medium) ne concerne que ce fournisseur
+        String model = HuggingFaceAiProvider.NAME.equals(provider.getName()) ? chatModel : null;
+        return new AiRequest(prompt, 200, 0.7, model);
     }
 
-    private String generateIntelligentResponse(String message, String context) {
-        // Analyser le message et générer une réponse intelligente basée sur le contexte
-        String lowerMessage = message.toLowerCase();
-        
-        // Détecter le type de question
-        if (lowerMessage.contains("comment") || lowerMessage.contains("pourquoi") || lowerMessage.contains("explique")) {
-            return generateExplanationResponse(message, context);
+    private String generateIntelligentResponse(IntentMatch intent, String context) {
+        // Générer une réponse intelligente selon le type de question détecté par le routeur
+        switch (intent.getIntent()) {
+            case ChatIntentRouter.EXPLANATION:
+                return generateExplanationResponse(intent, context);
+            case ChatIntentRouter.FACTUAL:
+                return generateFactualResponse(context);
+            case ChatIntentRouter.HELP:
+                return generateHelpResponse();
+            case ChatIntentRouter.DEFINITION:
+                return generateTechnicalDefinition(intent);
+            case ChatIntentRouter.FEATURE:
+                return generateFeatureExplanation();
+            default:
+                // Réponse générale intelligente
+                return generateGeneralResponse(context);
         }
-        
-        if (lowerMessage.contains("quand") || lowerMessage.contains("où") || lowerMessage.contains("qui")) {
-            return generateFactualResponse(message, context);
-        }
-        
-        if (lowerMessage.contains("aide") || lowerMessage.contains("problème") || lowerMessage.contains("difficulté")) {
-            return generateHelpResponse(message, context);
-        }
-        
-        // Réponse générale intelligente
-        return generateGeneralResponse(message, context);
     }
 
-    private String generateExplanationResponse(String message, String context) {
+    private String generateExplanationResponse(IntentMatch intent, String context) {
         StringBuilder response = new StringBuilder();
         
-        if (message.toLowerCase().contains("quiz")) {
+        if (intent.hasTopic("QUIZ")) {
             response.append("Voici comment fonctionnent les quiz sur notre plateforme :\n\n");
             response.append("• Les quiz sont disponibles à la fin de chaque cours\n");
             response.append("• Vous avez 3 tentatives par quiz\n");
@@ -320,7 +304,7 @@ public class ChatBotService {
             response.append("• Si vous réussissez, le cours est marqué comme complété\n");
             response.append("• Vous pouvez également accéder à des quiz standalone dans l'onglet 'Quizzes'\n\n");
             response.append("Les quiz sont un excellent moyen de valider vos connaissances ! 💪");
-        } else if (message.toLowerCase().contains("cours") || message.toLowerCase().contains("formation")) {
+        } else if (intent.hasTopic("COURSE")) {
             response.append("Sur notre plateforme, vous pouvez :\n\n");
             response.append("• Explorer une variété de cours dans différentes catégories\n");
             response.append("• Vous inscrire aux cours qui vous intéressent\n");
@@ -339,7 +323,7 @@ public class ChatBotService {
         return response.toString();
     }
 
-    private String generateFactualResponse(String message, String context) {
+    private String generateFactualResponse(String context) {
         StringBuilder response = new StringBuilder();
         response.append("D'après votre profil, ");
         
@@ -355,7 +339,7 @@ public class ChatBotService {
         return response.toString();
     }
 
-    private String generateHelpResponse(String message, String context) {
+    private String generateHelpResponse() {
         StringBuilder response = new StringBuilder();
         response.append("Je suis là pour vous aider ! 😊\n\n");
         response.append("Voici ce que je peux faire pour vous :\n\n");
@@ -368,22 +352,8 @@ public class ChatBotService {
         return response.toString();
     }
 
-    private String generateGeneralResponse(String message, String context) {
+    private String generateGeneralResponse(String context) {
         StringBuilder response = new StringBuilder();
-        String lowerMessage = message.toLowerCase();
-        
-        // Détecter les questions techniques (définitions)
-        if (lowerMessage.contains("définition") || lowerMessage.contains("definition") || 
-            lowerMessage.contains("c'est quoi") || lowerMessage.contains("qu'est-ce que")) {
-            return generateTechnicalDefinition(message, context);
-        }
-        
-        // Détecter les questions sur les fonctionnalités
-        if (lowerMessage.contains("fonctionnalité") || lowerMessage.contains("fonction") || 
-            lowerMessage.contains("peut") || lowerMessage.contains("comment utiliser")) {
-            return generateFeatureExplanation(message, context);
-        }
-        
         response.append("Merci pour votre question ! ");
         
         // Analyser le contexte et donner une réponse pertinente
@@ -405,12 +375,11 @@ public class ChatBotService {
         return response.toString();
     }
     
-    private String generateTechnicalDefinition(String message, String context) {
-        String lowerMessage = message.toLowerCase();
+    private String generateTechnicalDefinition(IntentMatch intent) {
         StringBuilder response = new StringBuilder();
         
         // Détecter les technologies mentionnées
-        if (lowerMessage.contains("spring boot") || lowerMessage.contains("springboot")) {
+        if (intent.hasTopic("SPRING_BOOT")) {
             response.append("**Spring Boot** est un framework Java open-source qui simplifie le développement d'applications Java. ");
             response.append("Il permet de créer rapidement des applications web et des microservices avec une configuration minimale.\n\n");
             response.append("**Caractéristiques principales :**\n");
@@ -419,7 +388,7 @@ public class ChatBotService {
             response.append("• Production-ready (métriques, health checks)\n");
             response.append("• Écosystème riche (Spring Data, Spring Security, etc.)\n\n");
             response.append("Sur notre plateforme, vous pouvez trouver des cours sur Spring Boot pour apprendre à développer des applications backend modernes ! 🚀");
-        } else if (lowerMessage.contains("flutter")) {
+        } else if (intent.hasTopic("FLUTTER")) {
             response.append("**Flutter** est un framework de développement mobile open-source créé par Google. ");
             response.append("Il permet de créer des applications natives pour iOS et Android avec un seul codebase.\n\n");
             response.append("**Caractéristiques principales :**\n");
@@ -429,7 +398,7 @@ public class ChatBotService {
             response.append("• Hot reload pour un développement rapide\n");
             response.append("• Widgets personnalisables\n\n");
             response.append("Sur notre plateforme, vous pouvez trouver des cours sur Flutter pour devenir développeur mobile ! 📱");
-        } else if (lowerMessage.contains("react")) {
+        } else if (intent.hasTopic("REACT")) {
             response.append("**React** est une bibliothèque JavaScript open-source développée par Facebook pour créer des interfaces utilisateur. ");
             response.append("Elle est particulièrement utilisée pour le développement web frontend.\n\n");
             response.append("**Caractéristiques principales :**\n");
@@ -438,7 +407,7 @@ public class ChatBotService {
             response.append("• Écosystème riche (React Router, Redux, etc.)\n");
             response.append("• Large communauté et ressources\n\n");
             response.append("Sur notre plateforme, vous pouvez trouver des cours sur React pour maîtriser le développement frontend moderne ! ⚛️");
-        } else if (lowerMessage.contains("java")) {
+        } else if (intent.hasTopic("JAVA")) {
             response.append("**Java** est un langage de programmation orienté objet, multiplateforme et très populaire. ");
             response.append("Il est largement utilisé pour le développement d'applications backend, web et mobiles.\n\n");
             response.append("**Caractéristiques principales :**\n");
@@ -447,7 +416,7 @@ public class ChatBotService {
             response.append("• Sécurisé et robuste\n");
             response.append("• Grande communauté et écosystème\n\n");
             response.append("Sur notre plateforme, vous pouvez trouver des cours sur Java et Spring Boot ! ☕");
-        } else if (lowerMessage.contains("python")) {
+        } else if (intent.hasTopic("PYTHON")) {
             response.append("**Python** est un langage de programmation interprété, haut niveau et polyvalent. ");
             response.append("Il est très populaire pour le développement web, la data science, l'IA et l'automatisation.\n\n");
             response.append("**Caractéristiques principales :**\n");
@@ -471,7 +440,7 @@ public class ChatBotService {
         return response.toString();
     }
     
-    private String generateFeatureExplanation(String message, String context) {
+    private String generateFeatureExplanation() {
         StringBuilder response = new StringBuilder();
         response.append("Voici les principales fonctionnalités de notre plateforme E-LearnIA :\n\n");
         response.append("**📚 Gestion des cours :**\n");
@@ -498,8 +467,8 @@ public class ChatBotService {
         return response.toString();
     }
     
-    private String generateCategoriesInfo(List<Course> allCourses) {
-        Set<String> categories = extractCategories(allCourses);
+    private String generateCategoriesInfo(CatalogSnapshot catalog) {
+        Set<String> categories = catalog.getCategories();
         StringBuilder response = new StringBuilder();
         response.append("📂 **Catégories disponibles sur la plateforme :**\n\n");
         
@@ -527,7 +496,8 @@ public class ChatBotService {
         return response.toString();
     }
     
-    private String generateAvailableCoursesInfo(List<Course> allCourses) {
+    private String generateAvailableCoursesInfo(CatalogSnapshot catalog) {
+        List<CourseEntry> allCourses = catalog.getCourses();
         StringBuilder response = new StringBuilder();
         response.append("📚 **Cours disponibles sur la plateforme :**\n\n");
         
@@ -537,7 +507,7 @@ public class ChatBotService {
         } else {
             int maxCourses = Math.min(allCourses.size(), 10);
             for (int i = 0; i < maxCourses; i++) {
-                Course course = allCourses.get(i);
+                CourseEntry course = allCourses.get(i);
                 response.append((i + 1)).append(". ").append(course.getTitle());
                 if (course.getDescription() != null && !course.getDescription().isEmpty()) {
                     String desc = course.getDescription();
@@ -578,37 +548,14 @@ public class ChatBotService {
         return response.toString();
     }
 
-    private String generateGreeting(User student, List<Enrollment> enrollments) {
-        StringBuilder response = new StringBuilder();
-        response.append("Bonjour ").append(student.getFullName()).append(" ! 👋\n\n");
-        response.append("Je suis votre assistant virtuel. Je peux vous aider à :\n");
-        response.append("• Voir votre progression\n");
-        response.append("• Obtenir des recommandations de cours\n");
-        response.append("• Répondre à vos questions\n\n");
-        
-        if (!enrollments.isEmpty()) {
-            long completedCount = enrollments.stream().filter(Enrollment::isCompleted).count();
-            response.append("Vous êtes actuellement inscrit à ").append(enrollments.size()).append(" cours");
-            if (completedCount > 0) {
-                response.append(" et vous en avez terminé ").append(completedCount);
-            }
-            response.append(".\n\n");
-        }
-        
-        response.append("Comment puis-je vous aider aujourd'hui ?");
-        return response.toString();
-    }
-
-    private String generateRecommendations(User student, List<Enrollment> enrollments, List<Course> allCourses) {
+    private String generateRecommendations(User student, StudentContext studentContext, CatalogSnapshot catalog) {
         StringBuilder response = new StringBuilder();
         response.append("📚 Recommandations de cours pour vous :\n\n");
 
         // Trouver les cours non inscrits
-        List<Long> enrolledCourseIds = enrollments.stream()
-                .map(e -> e.getCourse().getId())
-                .collect(Collectors.toList());
+        Set<Long> enrolledCourseIds = studentContext.getEnrolledCourseIds();
 
-        List<Course> availableCourses = allCourses.stream()
+        List<CourseEntry> availableCourses = catalog.getCourses().stream()
                 .filter(c -> !enrolledCourseIds.contains(c.getId()))
                 .limit(5)
                 .collect(Collectors.toList());
@@ -619,7 +566,7 @@ public class ChatBotService {
         } else {
             response.append("Voici ").append(availableCourses.size()).append(" cours qui pourraient vous intéresser :\n\n");
             for (int i = 0; i < availableCourses.size(); i++) {
-                Course course = availableCourses.get(i);
+                CourseEntry course = availableCourses.get(i);
                 response.append((i + 1)).append(". ").append(course.getTitle()).append("\n");
                 if (course.getDescription() != null && !course.getDescription().isEmpty()) {
                     String desc = course.getDescription();
@@ -636,29 +583,29 @@ public class ChatBotService {
         return response.toString();
     }
 
-    private String generateProgressInfo(List<Enrollment> enrollments) {
-        if (enrollments.isEmpty()) {
+    private String generateProgressInfo(StudentContext studentContext) {
+        if (studentContext.isEmpty()) {
             return "Vous n'êtes pas encore inscrit à un cours.\n\nJe vous recommande de parcourir les cours disponibles et de vous inscrire à ceux qui vous intéressent !";
         }
 
         StringBuilder response = new StringBuilder();
         response.append("📊 Votre progression :\n\n");
 
-        long completedCount = enrollments.stream().filter(Enrollment::isCompleted).count();
-        long inProgressCount = enrollments.size() - completedCount;
+        long completedCount = studentContext.getCompletedCount();
+        long inProgressCount = studentContext.size() - completedCount;
 
         response.append("• Cours terminés : ").append(completedCount).append("\n");
         response.append("• Cours en cours : ").append(inProgressCount).append("\n\n");
 
         // Afficher les cours en cours avec leur progression
-        List<Enrollment> inProgress = enrollments.stream()
+        List<EnrollmentEntry> inProgress = studentContext.getEnrollments().stream()
                 .filter(e -> !e.isCompleted())
                 .collect(Collectors.toList());
 
         if (!inProgress.isEmpty()) {
             response.append("Cours en cours :\n");
-            for (Enrollment enrollment : inProgress) {
-                response.append("• ").append(enrollment.getCourse().getTitle())
+            for (EnrollmentEntry enrollment : inProgress) {
+                response.append("• ").append(enrollment.getCourseTitle())
                         .append(" : ").append(String.format("%.1f", enrollment.getProgress())).append("%\n");
             }
             response.append("\n");
@@ -672,22 +619,21 @@ public class ChatBotService {
         return response.toString();
     }
 
-    private String generateCourseInfo(List<Enrollment> enrollments, List<Course> allCourses) {
+    private String generateCourseInfo(StudentContext studentContext, CatalogSnapshot catalog) {
         StringBuilder response = new StringBuilder();
         
-        if (enrollments.isEmpty()) {
+        if (studentContext.isEmpty()) {
             response.append("Vous n'êtes pas encore inscrit à un cours.\n\n");
             response.append("Voici les cours disponibles :\n\n");
-            List<Course> courses = allCourses.stream().limit(5).collect(Collectors.toList());
+            List<CourseEntry> courses = catalog.getCourses().stream().limit(5).collect(Collectors.toList());
             for (int i = 0; i < courses.size(); i++) {
                 response.append((i + 1)).append(". ").append(courses.get(i).getTitle()).append("\n");
             }
             response.append("\nExplorez ces cours et inscrivez-vous à ceux qui vous intéressent !");
         } else {
             response.append("📖 Vos cours :\n\n");
-            for (Enrollment enrollment : enrollments) {
-                Course course = enrollment.getCourse();
-                response.append("• ").append(course.getTitle());
+            for (EnrollmentEntry enrollment : studentContext.getEnrollments()) {
+                response.append("• ").append(enrollment.getCourseTitle());
                 if (enrollment.isCompleted()) {
                     response.append(" ✅ (Terminé)");
                 } else {
@@ -701,37 +647,17 @@ public class ChatBotService {
         return response.toString();
     }
 
-    private String generateQuizInfo() {
-        return "📝 Informations sur les quiz :\n\n" +
-                "• Les quiz sont disponibles à la fin de chaque cours\n" +
-                "• Vous avez 3 tentatives par quiz\n" +
-                "• Un score de 75% ou plus est requis pour réussir\n" +
-                "• Les quiz standalone sont également disponibles dans l'onglet 'Quizzes'\n\n" +
-                "Bonne chance pour vos quiz ! 🎯";
-    }
-
-    private String generateHelpMessage() {
-        return "🤖 Je suis votre assistant virtuel !\n\n" +
-                "Voici ce que je peux faire pour vous :\n\n" +
-                "• 📊 Voir votre progression dans vos cours\n" +
-                "• 📚 Vous recommander des cours adaptés\n" +
-                "• 📖 Vous informer sur vos cours\n" +
-                "• 📝 Vous expliquer le système de quiz\n" +
-                "• 💡 Répondre à vos questions\n\n" +
-                "N'hésitez pas à me poser des questions ! Je suis là pour vous aider. 😊";
-    }
-
-    private String generateDefaultResponse(User student, List<Enrollment> enrollments) {
+    private String generateDefaultResponse(User student, StudentContext studentContext) {
         StringBuilder response = new StringBuilder();
         response.append("Je comprends votre question. Laissez-moi vous aider ! 😊\n\n");
         
-        if (enrollments.isEmpty()) {
+        if (studentContext.isEmpty()) {
             response.append("Je remarque que vous n'êtes pas encore inscrit à un cours.\n");
             response.append("Souhaitez-vous que je vous recommande des cours ?\n\n");
         } else {
-            long completedCount = enrollments.stream().filter(Enrollment::isCompleted).count();
-            if (completedCount < enrollments.size()) {
-                response.append("Vous avez ").append(enrollments.size() - completedCount)
+            long completedCount = studentContext.getCompletedCount();
+            if (completedCount < studentContext.size()) {
+                response.append("Vous avez ").append(studentContext.size() - completedCount)
                         .append(" cours en cours. Continuez vos efforts ! 💪\n\n");
             }
         }
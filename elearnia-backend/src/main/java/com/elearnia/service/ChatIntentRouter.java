@@ -0,0 +1,236 @@
+package com.elearnia.service;
+
+import com.elearnia.util.KeywordAutomaton;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Classifie les messages du chatbot à partir d'une table d'intentions déclarative
+ * (par défaut {@code classpath:chatbot/intents.properties}).
+ * Tous les mots-clés sont compilés au démarrage dans un seul automate : un message
+ * est analysé en un seul passage, quel que soit le nombre d'intentions.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatIntentRouter {
+
+    // Intentions connues du ChatBotService (la table peut en déclarer d'autres)
+    public static final String RECOMMENDATIONS = "RECOMMENDATIONS";
+    public static final String PROGRESS = "PROGRESS";
+    public static final String MY_COURSES = "MY_COURSES";
+    public static final String CATEGORIES = "CATEGORIES";
+    public static final String AVAILABLE_COURSES = "AVAILABLE_COURSES";
+    public static final String QUIZ_LEVELS = "QUIZ_LEVELS";
+    public static final String EXPLANATION = "EXPLANATION";
+    public static final String FACTUAL = "FACTUAL";
+    public static final String HELP = "HELP";
+    public static final String DEFINITION = "DEFINITION";
+    public static final String FEATURE = "FEATURE";
+    public static final String NONE = "NONE";
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${chatbot.intents.location:classpath:chatbot/intents.properties}")
+    private String intentsLocation;
+
+    @Value("${chatbot.intents.min-confidence:1.0}")
+    private double minConfidence;
+
+    private volatile IntentTable table;
+
+    @PostConstruct
+    public void init() {
+        Resource resource = resourceLoader.getResource(intentsLocation);
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            table = IntentTable.compile(properties);
+            log.info("Table des intentions chargée depuis {}: {} intentions, {} mots-clés",
+                    intentsLocation, table.intents.size(), table.automaton.getKeywordCount());
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossible de charger la table des intentions: " + intentsLocation, e);
+        }
+    }
+
+    /**
+     * Retourne la meilleure intention pour le message (ou {@link #NONE} si aucune
+     * n'atteint le seuil de confiance), ainsi que les sujets détectés.
+     */
+    public IntentMatch route(String message) {
+        return table.match(message, minConfidence);
+    }
+
+    /**
+     * Clause d'une règle : une clause positive est satisfaite par au moins une de ses alternatives ;
+     * une clause d'exclusion invalide la règle dès qu'une de ses alternatives est trouvée.
+     */
+    private record Clause(int[] keywordIds, boolean exclusion) {
+        boolean matches(BitSet found) {
+            for (int id : keywordIds) {
+                if (found.get(id)) return true;
+            }
+            return false;
+        }
+    }
+
+    private record Rule(List<Clause> clauses) {
+        double score(BitSet found) {
+            int positives = 0;
+            int satisfied = 0;
+            for (Clause clause : clauses) {
+                boolean hit = clause.matches(found);
+                if (clause.exclusion()) {
+                    if (hit) return 0.0;
+                } else {
+                    positives++;
+                    if (hit) satisfied++;
+                }
+            }
+            return positives == 0 ? 0.0 : (double) satisfied / positives;
+        }
+    }
+
+    private record Intent(String name, int priority, List<Rule> rules) {
+        double score(BitSet found) {
+            double best = 0.0;
+            for (Rule rule : rules) {
+                best = Math.max(best, rule.score(found));
+            }
+            return best;
+        }
+    }
+
+    private static final class IntentTable {
+        private final KeywordAutomaton automaton;
+        private final List<Intent> intents;           // Triées par priorité
+        private final Map<String, int[]> topics;
+
+        private IntentTable(KeywordAutomaton automaton, List<Intent> intents, Map<String, int[]> topics) {
+            this.automaton = automaton;
+            this.intents = intents;
+            this.topics = topics;
+        }
+
+        static IntentTable compile(Properties properties) {
+            Map<String, Integer> keywordIds = new LinkedHashMap<>();
+            List<Intent> intents = new ArrayList<>();
+            Map<String, int[]> topics = new HashMap<>();
+
+            Set<String> names = new TreeSet<>(properties.stringPropertyNames());
+            for (String key : names) {
+                String[] parts = key.split("\\.");
+                if (parts.length == 3 && parts[0].equals("intent") && parts[2].equals("rules")) {
+                    String name = parts[1];
+                    int priority = Integer.parseInt(
+                            properties.getProperty("intent." + name + ".priority", "1000").trim());
+                    List<Rule> rules = new ArrayList<>();
+                    for (String ruleSpec : properties.getProperty(key).split(";")) {
+                        if (ruleSpec.isBlank()) continue;
+                        List<Clause> clauses = new ArrayList<>();
+                        for (String clauseSpec : ruleSpec.split("&")) {
+                            String spec = clauseSpec.trim();
+                            boolean exclusion = spec.startsWith("!");
+                            if (exclusion) spec = spec.substring(1);
+                            clauses.add(new Clause(register(spec, keywordIds), exclusion));
+                        }
+                        rules.add(new Rule(List.copyOf(clauses)));
+                    }
+                    intents.add(new Intent(name, priority, List.copyOf(rules)));
+                } else if (parts.length == 2 && parts[0].equals("topic")) {
+                    topics.put(parts[1], register(properties.getProperty(key), keywordIds));
+                }
+            }
+            intents.sort(Comparator.comparingInt(Intent::priority));
+
+            KeywordAutomaton automaton = KeywordAutomaton.compile(new ArrayList<>(keywordIds.keySet()));
+            return new IntentTable(automaton, List.copyOf(intents), Collections.unmodifiableMap(topics));
+        }
+
+        private static int[] register(String alternatives, Map<String, Integer> keywordIds) {
+            List<Integer> ids = new ArrayList<>();
+            for (String alternative : alternatives.split("\\|")) {
+                String keyword = alternative.trim().toLowerCase();
+                if (keyword.isEmpty()) continue;
+                ids.add(keywordIds.computeIfAbsent(keyword, k -> keywordIds.size()));
+            }
+            return ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        IntentMatch match(String message, double minConfidence) {
+            BitSet found = automaton.scan(message);
+
+            String bestIntent = NONE;
+            double bestScore = 0.0;
+            for (Intent intent : intents) {
+                double score = intent.score(found);
+                // À score égal, la première intention (priorité la plus forte) l'emporte
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestIntent = intent.name();
+                }
+            }
+            if (bestScore < minConfidence) {
+                bestIntent = NONE;
+            }
+            return new IntentMatch(bestIntent, bestScore, found, topics);
+        }
+    }
+
+    /**
+     * Résultat de la classification d'un message.
+     */
+    public static final class IntentMatch {
+        @Getter
+        private final String intent;
+        @Getter
+        private final double confidence;
+        private final BitSet found;
+        private final Map<String, int[]> topics;
+
+        private IntentMatch(String intent, double confidence, BitSet found, Map<String, int[]> topics) {
+            this.intent = intent;
+            this.confidence = confidence;
+            this.found = found;
+            this.topics = topics;
+        }
+
+        public boolean is(String name) {
+            return intent.equals(name);
+        }
+
+        /**
+         * Indique si un des mots-clés du sujet (ex: QUIZ, FLUTTER) apparaît dans le message.
+         */
+        public boolean hasTopic(String topic) {
+            int[] ids = topics.get(topic);
+            if (ids == null) return false;
+            for (int id : ids) {
+                if (found.get(id)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.CourseBatchItemDto;
+import com.elearnia.dto.CourseBatchJobDto;
+import com.elearnia.dto.GenerateCourseRequest;
+import com.elearnia.dto.GeneratedCourseDto;
+import com.elearnia.entities.Course;
+import com.elearnia.entities.CourseGenerationItemStatus;
+import com.elearnia.entities.CourseGenerationJob;
+import com.elearnia.entities.CourseGenerationJobItem;
+import com.elearnia.entities.CourseGenerationJobStatus;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseGenerationJobItemRepository;
+import com.elearnia.repository.CourseGenerationJobRepository;
+import com.elearnia.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Génération de cours par lot à partir d'une liste de sujets.
+ *
+ * Chaque élément est généré par un pool borné ({@code course.batch.concurrency} générations en
+ * parallèle, toutes tâches confondues), puis son arbre (cours, leçons, quiz) est enregistré par
+ * {@link CourseSubtreeWriter}. L'état de chaque élément est persisté : un élément réussi n'est
+ * jamais régénéré, la reprise ne relance que les éléments en attente ou en échec, et les tâches
+ * interrompues par un redémarrage reprennent automatiquement.
+ *
+ * Un élément n'est réussi que si le cours a été entièrement généré par le modèle : un résultat
+ * issu en partie des templates n'est pas enregistré et l'élément passe en échec, pour être
+ * relancé à la reprise. Les appels IA d'une tâche sont imputés à l'enseignant, avec un budget
+ * propre aux lots ({@code course.batch.ai-calls-per-minute}).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseBatchGenerationService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final String TEMPLATE_FALLBACK_ERROR =
+            "IA indisponible : contenu issu des templates, non enregistré (relancer la tâche)";
+
+    private final CourseGenerationJobRepository jobRepository;
+    private final CourseGenerationJobItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final AICourseGeneratorService aiCourseGeneratorService;
+    private final CourseSubtreeWriter courseSubtreeWriter;
+    private final AiResilienceGuard aiResilienceGuard;
+
+    @Value("${course.batch.concurrency:4}")
+    private int concurrency;
+
+    @Value("${course.batch.max-items:500}")
+    private int maxItems;
+
+    @Value("${course.batch.ai-calls-per-minute:30}")
+    private int aiCallsPerMinute;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "course-batch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reprend les tâches interrompues par un arrêt de l'application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        int interrupted = itemRepository.resetInterrupted();
+        for (CourseGenerationJob job : jobRepository.findByStatus(CourseGenerationJobStatus.RUNNING)) {
+            submitItems(job.getId(), EnumSet.of(CourseGenerationItemStatus.PENDING));
+        }
+        if (interrupted > 0) {
+            log.info("{} génération(s) de cours interrompue(s) remise(s) en file", interrupted);
+        }
+    }
+
+    // ================== Tâches ==================
+
+    @Transactional
+    public CourseBatchJobDto createJob(User teacher, List<GenerateCourseRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La liste des sujets est vide");
+        }
+        if (requests.size() > maxItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Trop de sujets dans le lot (maximum " + maxItems + ")");
+        }
+
+        CourseGenerationJob job = jobRepository.save(CourseGenerationJob.builder()
+                .teacher(teacher)
+                .totalItems(requests.size())
+                .build());
+
+        List<CourseGenerationJobItem> items = new ArrayList<>(requests.size());
+        int position = 0;
+        for (GenerateCourseRequest request : requests) {
+            if (request.getIdea() == null || request.getIdea().trim().isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "L'idée du cours est requise (ligne " + (position + 1) + ")");
+            }
+            items.add(CourseGenerationJobItem.builder()
+                    .job(job)
+                    .position(position++)
+                    .idea(request.getIdea().trim())
+                    .level(request.getLevel())
+                    .build());
+        }
+        itemRepository.saveAll(items);
+
+        Long jobId = job.getId();
+        afterCommit(() -> submitItems(jobId, EnumSet.of(CourseGenerationItemStatus.PENDING)));
+        return toDto(job, items);
+    }
+
+    /**
+     * Relance les éléments en attente ou en échec ; les éléments réussis ne sont pas régénérés.
+     */
+    public CourseBatchJobDto resume(User teacher, Long jobId) {
+        CourseGenerationJob job = getOwnedJob(teacher, jobId);
+        jobRepository.updateStatus(jobId, CourseGenerationJobStatus.RUNNING, LocalDateTime.now());
+        job.setStatus(CourseGenerationJobStatus.RUNNING);
+        submitItems(jobId, EnumSet.of(CourseGenerationItemStatus.PENDING, CourseGenerationItemStatus.FAILED));
+        return toDto(job, itemRepository.findByJobIdOrderByPosition(jobId));
+    }
+
+    public CourseBatchJobDto getJob(User teacher, Long jobId) {
+        CourseGenerationJob job = getOwnedJob(teacher, jobId);
+        return toDto(job, itemRepository.findByJobIdOrderByPosition(jobId));
+    }
+
+    public List<CourseBatchJobDto> getJobs(User teacher) {
+        return jobRepository.findByTeacherIdOrderByCreatedAtDesc(teacher.getId()).stream()
+                .map(job -> toSummaryDto(job, itemRepository.countByStatus(job.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private CourseGenerationJob getOwnedJob(User teacher, Long jobId) {
+        CourseGenerationJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tâche de génération introuvable"));
+        if (!job.getTeacher().getId().equals(teacher.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Vous n'êtes pas autorisé à voir cette tâche");
+        }
+        return job;
+    }
+
+    // ================== Exécution ==================
+
+    private void submitItems(Long jobId, Set<CourseGenerationItemStatus> statuses) {
+        List<Long> itemIds = itemRepository.findIdsByJobIdAndStatusIn(jobId, statuses);
+        if (itemIds.isEmpty()) {
+            refreshJobStatus(jobId);
+            return;
+        }
+        Long teacherId = jobRepository.findById(jobId).map(job -> job.getTeacher().getId()).orElse(null);
+        for (Long itemId : itemIds) {
+            executor.submit(() -> runItem(jobId, teacherId, itemId));
+        }
+    }
+
+    private void runItem(Long jobId, Long teacherId, Long itemId) {
+        // Réservation atomique : un élément soumis deux fois (reprise pendant l'exécution) n'est généré qu'une fois
+        if (itemRepository.claim(itemId, LocalDateTime.now()) == 0) {
+            return;
+        }
+        try {
+            CourseGenerationJobItem item = itemRepository.findById(itemId).orElseThrow();
+            User teacher = userRepository.findById(teacherId).orElseThrow();
+
+            // Génération hors transaction, puis enregistrement de tout l'arbre dans une transaction courte
+            AiResilienceGuard.RateLimit rateLimit =
+                    new AiResilienceGuard.RateLimit("batch:teacher:" + teacherId, aiCallsPerMinute);
+            GeneratedCourseDto generated = aiCourseGeneratorService.generateCourse(item.getIdea(), item.getLevel(), rateLimit);
+            if (generated.getSource() != GeneratedCourseDto.Source.AI) {
+                log.info("Génération par lot sur templates (tâche {}, élément {}), élément laissé en échec", jobId, itemId);
+                itemRepository.markFailed(itemId, TEMPLATE_FALLBACK_ERROR, LocalDateTime.now());
+                return;
+            }
+            Course course = courseSubtreeWriter.write(teacher, generated);
+
+            itemRepository.markSucceeded(itemId, course.getId(), LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Génération par lot échouée (tâche {}, élément {}): {}", jobId, itemId, e.getMessage());
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            itemRepository.markFailed(itemId,
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                    LocalDateTime.now());
+        } finally {
+            refreshJobStatus(jobId);
+        }
+    }
+
+    private void refreshJobStatus(Long jobId) {
+        Map<CourseGenerationItemStatus, Long> counts = toCounts(itemRepository.countByStatus(jobId));
+        CourseGenerationJobStatus status;
+        if (counts.get(CourseGenerationItemStatus.PENDING) + counts.get(CourseGenerationItemStatus.RUNNING) > 0) {
+            status = CourseGenerationJobStatus.RUNNING;
+        } else if (counts.get(CourseGenerationItemStatus.FAILED) > 0) {
+            status = CourseGenerationJobStatus.COMPLETED_WITH_ERRORS;
+        } else {
+            status = CourseGenerationJobStatus.COMPLETED;
+        }
+        jobRepository.updateStatus(jobId, status, LocalDateTime.now());
+    }
+
+    // ================== Conversion ==================
+
+    private Map<CourseGenerationItemStatus, Long> toCounts(List<Object[]> rows) {
+        Map<CourseGenerationItemStatus, Long> counts = new EnumMap<>(CourseGenerationItemStatus.class);
+        for (CourseGenerationItemStatus status : CourseGenerationItemStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : rows) {
+            counts.put((CourseGenerationItemStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private CourseBatchJobDto toDto(CourseGenerationJob job, List<CourseGenerationJobItem> items) {
+        Map<CourseGenerationItemStatus, Long> counts = new EnumMap<>(CourseGenerationItemStatus.class);
+        for (CourseGenerationItemStatus status : CourseGenerationItemStatus.values()) {
+            counts.put(status, 0L);
+        }
+        List<CourseBatchItemDto> itemDtos = new ArrayList<>(items.size());
+        for (CourseGenerationJobItem item : items) {
+            counts.merge(item.getStatus(), 1L, Long::sum);
+            itemDtos.add(new CourseBatchItemDto(item.getPosition(), item.getIdea(), item.getLevel(),
+                    item.getStatus().name(), item.getCourseId(), item.getErrorMessage(), item.getAttempts()));
+        }
+        CourseBatchJobDto dto = toSummaryDto(job, counts);
+        dto.setItems(itemDtos);
+        return dto;
+    }
+
+    private CourseBatchJobDto toSummaryDto(CourseGenerationJob job, List<Object[]> countRows) {
+        return toSummaryDto(job, toCounts(countRows));
+    }
+
+    private CourseBatchJobDto toSummaryDto(CourseGenerationJob job, Map<CourseGenerationItemStatus, Long> counts) {
+        long succeeded = counts.get(CourseGenerationItemStatus.SUCCEEDED);
+        long failed = counts.get(CourseGenerationItemStatus.FAILED);
+        int progress = job.getTotalItems() > 0
+                ? (int) Math.round((succeeded + failed) * 100.0 / job.getTotalItems())
+                : 100;
+        CourseBatchJobDto dto = new CourseBatchJobDto();
+        dto.setId(job.getId());
+        dto.setStatus(job.getStatus().name());
+        dto.setTotalItems(job.getTotalItems());
+        dto.setPending(counts.get(CourseGenerationItemStatus.PENDING));
+        dto.setRunning(counts.get(CourseGenerationItemStatus.RUNNING));
+        dto.setSucceeded(succeeded);
+        dto.setFailed(failed);
+        dto.setProgress(progress);
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setUpdatedAt(job.getUpdatedAt());
+        return dto;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
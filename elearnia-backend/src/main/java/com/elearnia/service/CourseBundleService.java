@@ -0,0 +1,522 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.CourseBundleRecord;
+import com.elearnia.dto.CourseBundleRecord.LessonRecord;
+import com.elearnia.dto.CourseBundleRecord.QuestionRecord;
+import com.elearnia.dto.CourseBundleRecord.QuizRecord;
+import com.elearnia.dto.CourseImportResultDto;
+import com.elearnia.dto.GeneratedLessonDto;
+import com.elearnia.dto.GeneratedQuestionDto;
+import com.elearnia.entities.Course;
+import com.elearnia.entities.Lesson;
+import com.elearnia.entities.Question;
+import com.elearnia.entities.Quiz;
+import com.elearnia.entities.QuizLevel;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.LessonRepository;
+import com.elearnia.repository.QuestionRepository;
+import com.elearnia.repository.QuizRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Export et import de cours sous forme de paquet (bundle).
+ *
+ * Format : une archive zip contenant {@code manifest.json}, {@code courses.ndjson} (un cours par
+ * ligne, avec ses leçons, quizzes, questions et options) puis les images et vidéos uploadées
+ * référencées par ces cours sous {@code files/images/} et {@code files/videos/}. Le format
+ * {@code ndjson} seul (sans fichiers) est aussi accepté dans les deux sens.
+ *
+ * L'export parcourt les cours par tranches (curseur sur l'identifiant), charge les enfants d'une
+ * tranche en quelques requêtes groupées et écrit chaque cours avec le générateur Jackson : la
+ * mémoire utilisée ne dépend que de la taille d'une tranche, pas du nombre de cours. L'import lit
+ * les cours un par un, chacun dans sa propre transaction, et insère leçons, questions et options
+ * par lots JDBC en remplaçant les identifiants d'origine par les nouveaux.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseBundleService {
+
+    public static final String FORMAT_ZIP = "zip";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String BUNDLE_FORMAT = "elearnia-course-bundle";
+    private static final int BUNDLE_VERSION = 1;
+    private static final String MANIFEST_ENTRY = "manifest.json";
+    private static final String COURSES_ENTRY = "courses.ndjson";
+    private static final String FILES_PREFIX = "files/";
+
+    // URL d'un fichier uploadé sur la plateforme (quelle que soit la base URL d'origine)
+    private static final Pattern UPLOADED_FILE_URL =
+            Pattern.compile("^(?:https?://[^/]+)?/api/files/(images|videos)/([A-Za-z0-9._\\-]+)$");
+    private static final Pattern SAFE_FILENAME = Pattern.compile("^[A-Za-z0-9._\\-]+$");
+
+    private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
+    private final CourseSubtreeWriter courseSubtreeWriter;
+    private final QuestionSimilarityIndex questionSimilarityIndex;
+    private final CourseCatalogService courseCatalogService;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.upload.videos.dir:uploads/videos}")
+    private String videosUploadDir;
+
+    @Value("${app.server.base-url:http://localhost:8080}")
+    private String serverBaseUrl;
+
+    @Value("${course.bundle.export-chunk-size:50}")
+    private int exportChunkSize;
+
+    @Value("${course.bundle.max-file-size-mb:500}")
+    private long maxFileSizeMb;
+
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    public void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ================== Export ==================
+
+    /**
+     * Vérifie que le cours existe et appartient au professeur (avant de commencer à écrire la réponse).
+     */
+    public void checkOwnership(User teacher, Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cours introuvable"));
+        if (!course.getTeacher().getId().equals(teacher.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Ce cours ne vous appartient pas");
+        }
+    }
+
+    /**
+     * Exporte un cours du professeur (propriété vérifiée au préalable par {@link #checkOwnership}).
+     */
+    public void exportCourse(Long courseId, String format, OutputStream out) throws IOException {
+        writeBundle(format, out, (afterId, chunkSize) -> afterId == 0
+                ? courseRepository.findById(courseId).map(List::of).orElse(List.of())
+                : List.of());
+    }
+
+    /**
+     * Exporte tous les cours du professeur, par tranches de {@code course.bundle.export-chunk-size}.
+     */
+    public void exportAll(User teacher, String format, OutputStream out) throws IOException {
+        Long teacherId = teacher.getId();
+        writeBundle(format, out, (afterId, chunkSize) ->
+                courseRepository.findNextByTeacherId(teacherId, afterId, PageRequest.of(0, chunkSize)));
+    }
+
+    @FunctionalInterface
+    private interface CourseChunkLoader {
+        List<Course> load(long afterId, int chunkSize);
+    }
+
+    private void writeBundle(String format, OutputStream out, CourseChunkLoader loader) throws IOException {
+        boolean zip = !FORMAT_NDJSON.equalsIgnoreCase(format);
+        Set<String> referencedFiles = new LinkedHashSet<>();
+
+        if (!zip) {
+            writeCourses(StreamUtils.nonClosing(out), loader, referencedFiles);
+            out.flush();
+            return;
+        }
+
+        ZipOutputStream zipOut = new ZipOutputStream(out);
+        zipOut.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(zipOut))) {
+            generator.writeStartObject();
+            generator.writeStringField("format", BUNDLE_FORMAT);
+            generator.writeNumberField("version", BUNDLE_VERSION);
+            generator.writeStringField("exportedAt", LocalDateTime.now().toString());
+            generator.writeEndObject();
+        }
+        zipOut.closeEntry();
+
+        zipOut.putNextEntry(new ZipEntry(COURSES_ENTRY));
+        writeCourses(StreamUtils.nonClosing(zipOut), loader, referencedFiles);
+        zipOut.closeEntry();
+
+        for (String file : referencedFiles) {
+            Path path = resolveUploadedFile(file);
+            if (path == null || !Files.isRegularFile(path)) {
+                log.warn("Fichier référencé absent, non exporté: {}", file);
+                continue;
+            }
+            zipOut.putNextEntry(new ZipEntry(FILES_PREFIX + file));
+            Files.copy(path, zipOut);
+            zipOut.closeEntry();
+        }
+        zipOut.finish();
+        zipOut.flush();
+    }
+
+    private void writeCourses(OutputStream out, CourseChunkLoader loader, Set<String> referencedFiles) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null); // Une ligne par cours, séparées par '\n'
+            long afterId = 0;
+            while (true) {
+                long cursor = afterId;
+                List<CourseBundleRecord> chunk = readTransaction.execute(status -> loadChunk(loader, cursor));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                for (CourseBundleRecord record : chunk) {
+                    collectFiles(record, referencedFiles);
+                    objectMapper.writeValue(generator, record);
+                    generator.writeRaw('\n');
+                    afterId = record.getId();
+                }
+                generator.flush();
+            }
+        }
+    }
+
+    /**
+     * Charge une tranche de cours et leurs enfants : une requête par niveau (cours, leçons,
+     * quizzes, questions avec options), puis vide le contexte de persistance.
+     */
+    private List<CourseBundleRecord> loadChunk(CourseChunkLoader loader, long afterId) {
+        List<Course> courses = loader.load(afterId, Math.max(1, exportChunkSize));
+        if (courses.isEmpty()) {
+            return List.of();
+        }
+        List<Long> courseIds = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            courseIds.add(course.getId());
+        }
+
+        Map<Long, List<LessonRecord>> lessonsByCourse = new HashMap<>();
+        for (Lesson lesson : lessonRepository.findByCourseIdIn(courseIds)) {
+            lessonsByCourse.computeIfAbsent(lesson.getCourse().getId(), k -> new ArrayList<>())
+                    .add(new LessonRecord(lesson.getId(), lesson.getTitle(), lesson.getDescription(),
+                            lesson.getVideoUrl(), lesson.getDuration(), lesson.getOrderIndex()));
+        }
+
+        List<Quiz> quizzes = quizRepository.findAllByCourseIdIn(courseIds);
+        Map<Long, List<QuestionRecord>> questionsByQuiz = new HashMap<>();
+        if (!quizzes.isEmpty()) {
+            List<Long> quizIds = new ArrayList<>(quizzes.size());
+            for (Quiz quiz : quizzes) {
+                quizIds.add(quiz.getId());
+            }
+            for (Question question : questionRepository.findByQuizIdInWithOptions(quizIds)) {
+                questionsByQuiz.computeIfAbsent(question.getQuiz().getId(), k -> new ArrayList<>())
+                        .add(new QuestionRecord(question.getText(), question.getCorrectAnswer(),
+                                question.getPoints(),
+                                question.getOptions() != null ? new ArrayList<>(question.getOptions()) : List.of()));
+            }
+        }
+        Map<Long, List<QuizRecord>> quizzesByCourse = new HashMap<>();
+        for (Quiz quiz : quizzes) {
+            quizzesByCourse.computeIfAbsent(quiz.getCourse().getId(), k -> new ArrayList<>())
+                    .add(new QuizRecord(quiz.getId(),
+                            quiz.getLesson() != null ? quiz.getLesson().getId() : null,
+                            quiz.getTitle(), quiz.getDescription(), quiz.getPassingScore(),
+                            quiz.getMaxAttempts(), quiz.getLevel() != null ? quiz.getLevel().name() : null,
+                            questionsByQuiz.getOrDefault(quiz.getId(), List.of())));
+        }
+
+        List<CourseBundleRecord> records = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            records.add(new CourseBundleRecord(course.getId(), course.getTitle(), course.getDescription(),
+                    course.getImageUrl(), course.isPublished(),
+                    lessonsByCourse.getOrDefault(course.getId(), List.of()),
+                    quizzesByCourse.getOrDefault(course.getId(), List.of())));
+        }
+        entityManager.clear();
+        return records;
+    }
+
+    private void collectFiles(CourseBundleRecord record, Set<String> referencedFiles) {
+        addUploadedFile(record.getImageUrl(), referencedFiles);
+        for (LessonRecord lesson : record.getLessons()) {
+            addUploadedFile(lesson.getVideoUrl(), referencedFiles);
+        }
+    }
+
+    private void addUploadedFile(String url, Set<String> referencedFiles) {
+        if (url == null) {
+            return;
+        }
+        Matcher matcher = UPLOADED_FILE_URL.matcher(url.trim());
+        if (matcher.matches()) {
+            referencedFiles.add(matcher.group(1) + "/" + matcher.group(2));
+        }
+    }
+
+    // ================== Import ==================
+
+    /**
+     * Importe un paquet (zip ou NDJSON, détecté d'après son contenu) pour le professeur.
+     * Chaque cours est importé dans sa propre transaction : un cours invalide n'empêche pas les
+     * suivants et apparaît dans les erreurs du résultat.
+     */
+    public CourseImportResultDto importBundle(User teacher, InputStream input) throws IOException {
+        CourseImportResultDto result = new CourseImportResultDto();
+        BufferedInputStream in = new BufferedInputStream(input);
+        if (!isZip(in)) {
+            importCourses(teacher, in, result);
+            finishImport(result);
+            return result;
+        }
+
+        ZipInputStream zipIn = new ZipInputStream(in);
+        boolean coursesFound = false;
+        ZipEntry entry;
+        while ((entry = zipIn.getNextEntry()) != null) {
+            String name = entry.getName();
+            if (entry.isDirectory()) {
+                continue;
+            }
+            if (MANIFEST_ENTRY.equals(name)) {
+                checkManifest(objectMapper.readTree(StreamUtils.nonClosing(zipIn)));
+            } else if (COURSES_ENTRY.equals(name)) {
+                coursesFound = true;
+                importCourses(teacher, zipIn, result);
+            } else if (name.startsWith(FILES_PREFIX)) {
+                importFile(name.substring(FILES_PREFIX.length()), zipIn, result);
+            }
+            zipIn.closeEntry();
+        }
+        if (!coursesFound) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paquet invalide : " + COURSES_ENTRY + " manquant");
+        }
+        finishImport(result);
+        return result;
+    }
+
+    private boolean isZip(BufferedInputStream in) throws IOException {
+        in.mark(4);
+        byte[] header = in.readNBytes(4);
+        in.reset();
+        return header.length == 4 && header[0] == 'P' && header[1] == 'K' && header[2] == 3 && header[3] == 4;
+    }
+
+    private void checkManifest(JsonNode manifest) {
+        if (!BUNDLE_FORMAT.equals(manifest.path("format").asText())
+                || manifest.path("version").asInt(0) > BUNDLE_VERSION) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format de paquet non supporté");
+        }
+    }
+
+    private void importCourses(User teacher, InputStream in, CourseImportResultDto result) throws IOException {
+        try (MappingIterator<CourseBundleRecord> records = objectMapper.readerFor(CourseBundleRecord.class)
+                .readValues(StreamUtils.nonClosing(in))) {
+            while (records.hasNext()) {
+                CourseBundleRecord record;
+                try {
+                    record = records.next();
+                } catch (RuntimeException e) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Ligne de cours illisible: " + e.getMessage());
+                }
+                try {
+                    writeTransaction.executeWithoutResult(status -> importCourse(teacher, record, result));
+                } catch (RuntimeException e) {
+                    log.warn("Import du cours '{}' échoué: {}", record.getTitle(), e.getMessage());
+                    result.getErrors().add("Cours '" + record.getTitle() + "' : " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void importCourse(User teacher, CourseBundleRecord record, CourseImportResultDto result) {
+        if (record.getTitle() == null || record.getTitle().isBlank()) {
+            throw new IllegalArgumentException("titre manquant");
+        }
+        Course course = courseRepository.save(Course.builder()
+                .title(record.getTitle())
+                .description(record.getDescription())
+                .imageUrl(rewriteFileUrl(record.getImageUrl()))
+                .teacher(teacher)
+                .published(record.isPublished())
+                .build());
+
+        // Leçons : insérées par lot, identifiants d'origine -> nouveaux identifiants
+        Map<Long, Long> lessonIds = new HashMap<>();
+        List<LessonRecord> lessons = record.getLessons() != null ? record.getLessons() : List.of();
+        if (!lessons.isEmpty()) {
+            List<GeneratedLessonDto> rows = new ArrayList<>(lessons.size());
+            for (LessonRecord lesson : lessons) {
+                rows.add(new GeneratedLessonDto(lesson.getTitle(), lesson.getDescription(),
+                        lesson.getOrderIndex(), lesson.getDuration(), rewriteFileUrl(lesson.getVideoUrl())));
+            }
+            List<Long> newIds = courseSubtreeWriter.insertLessons(course.getId(), rows);
+            for (int i = 0; i < lessons.size(); i++) {
+                if (lessons.get(i).getId() != null) {
+                    lessonIds.put(lessons.get(i).getId(), newIds.get(i));
+                }
+            }
+        }
+
+        int questionCount = 0;
+        List<QuizRecord> quizzes = record.getQuizzes() != null ? record.getQuizzes() : List.of();
+        for (QuizRecord quizRecord : quizzes) {
+            Long lessonId = quizRecord.getLessonId() != null ? lessonIds.get(quizRecord.getLessonId()) : null;
+            Quiz quiz = quizRepository.save(Quiz.builder()
+                    .course(course)
+                    .lesson(lessonId != null ? entityManager.getReference(Lesson.class, lessonId) : null)
+                    .title(quizRecord.getTitle())
+                    .description(quizRecord.getDescription())
+                    .passingScore(quizRecord.getPassingScore())
+                    .maxAttempts(quizRecord.getMaxAttempts())
+                    .level(parseLevel(quizRecord.getLevel()))
+                    .build());
+
+            List<QuestionRecord> questions = quizRecord.getQuestions() != null ? quizRecord.getQuestions() : List.of();
+            if (!questions.isEmpty()) {
+                List<GeneratedQuestionDto> rows = new ArrayList<>(questions.size());
+                for (QuestionRecord question : questions) {
+                    rows.add(new GeneratedQuestionDto(question.getText(), question.getOptions(),
+                            question.getCorrectAnswer(), question.getPoints()));
+                }
+                Map<Long, String> texts = courseSubtreeWriter.insertQuestions(quiz.getId(), rows);
+                questionSimilarityIndex.indexQuestions(quiz.getId(), teacher.getId(), texts);
+                questionCount += questions.size();
+            }
+        }
+
+        result.setCourses(result.getCourses() + 1);
+        result.setLessons(result.getLessons() + lessons.size());
+        result.setQuizzes(result.getQuizzes() + quizzes.size());
+        result.setQuestions(result.getQuestions() + questionCount);
+        if (record.getId() != null) {
+            result.getCourseIds().put(record.getId(), course.getId());
+        }
+    }
+
+    private QuizLevel parseLevel(String level) {
+        if (level == null) {
+            return QuizLevel.BEGINNER;
+        }
+        try {
+            return QuizLevel.valueOf(level.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return QuizLevel.BEGINNER;
+        }
+    }
+
+    /**
+     * Les URLs des fichiers uploadés pointent vers la base URL de cette instance ; les autres
+     * (YouTube, Vimeo...) sont conservées telles quelles.
+     */
+    private String rewriteFileUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        Matcher matcher = UPLOADED_FILE_URL.matcher(url.trim());
+        if (!matcher.matches()) {
+            return url;
+        }
+        return String.format("%s/api/files/%s/%s", serverBaseUrl, matcher.group(1), matcher.group(2));
+    }
+
+    private void importFile(String file, InputStream in, CourseImportResultDto result) throws IOException {
+        Path target = resolveUploadedFile(file);
+        if (target == null) {
+            result.getErrors().add("Fichier ignoré (nom invalide) : " + file);
+            return;
+        }
+        if (Files.exists(target)) {
+            return; // Noms uniques (UUID) : le fichier est déjà présent
+        }
+        Files.createDirectories(target.getParent());
+
+        long maxBytes = maxFileSizeMb * 1024 * 1024;
+        Path temp = Files.createTempFile(target.getParent(), "import-", ".part");
+        try {
+            long copied;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                copied = StreamUtils.copyRange(in, out, 0, maxBytes);
+            }
+            if (copied > maxBytes) {
+                result.getErrors().add("Fichier ignoré (taille maximale dépassée) : " + file);
+                return;
+            }
+            Files.move(temp, target);
+            result.setFiles(result.getFiles() + 1);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * "images/nom" ou "videos/nom" -> chemin dans le dossier d'upload correspondant, ou null si le
+     * nom n'est pas un simple nom de fichier.
+     */
+    private Path resolveUploadedFile(String file) {
+        int slash = file.indexOf('/');
+        if (slash < 0) {
+            return null;
+        }
+        String folder = file.substring(0, slash);
+        String name = file.substring(slash + 1);
+        if (name.contains("..") || !SAFE_FILENAME.matcher(name).matches()) {
+            return null;
+        }
+        if ("images".equals(folder)) {
+            return Paths.get(uploadDir).resolve(name);
+        }
+        if ("videos".equals(folder)) {
+            return Paths.get(videosUploadDir).resolve(name);
+        }
+        return null;
+    }
+
+    private void finishImport(CourseImportResultDto result) {
+        if (result.getCourses() > 0) {
+            courseCatalogService.invalidate();
+        }
+        log.info("Import terminé: {} cours, {} leçons, {} quizzes, {} questions, {} fichiers, {} erreur(s)",
+                result.getCourses(), result.getLessons(), result.getQuizzes(), result.getQuestions(),
+                result.getFiles(), result.getErrors().size());
+    }
+}
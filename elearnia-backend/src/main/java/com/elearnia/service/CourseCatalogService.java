@@ -0,0 +1,69 @@
+package com.elearnia.service;
+
+import com.elearnia.repository.CourseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Fournit la photographie courante du catalogue de cours.
+ * La photographie est reconstruite (une seule requête) à la première lecture après une modification
+ * des cours, puis remplacée atomiquement : les lecteurs ne voient jamais un catalogue partiel.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseCatalogService {
+
+    private final CourseRepository courseRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Object rebuildLock = new Object();
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            meterRegistry.counter("cache.requests", "cache", "course-catalog", "result", "hit").increment();
+            return current;
+        }
+        synchronized (rebuildLock) {
+            // Un autre thread a peut-être déjà reconstruit le catalogue
+            if (snapshot == null) {
+                meterRegistry.counter("cache.requests", "cache", "course-catalog", "result", "miss").increment();
+                snapshot = CatalogSnapshot.of(courseRepository.findAllWithTeacher());
+                log.debug("Catalogue reconstruit: {} cours", snapshot.size());
+            } else {
+                meterRegistry.counter("cache.requests", "cache", "course-catalog", "result", "hit").increment();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * À appeler après toute création / modification / suppression de cours.
+     * Si une transaction est en cours, l'invalidation est différée après le commit
+     * pour ne jamais republier l'ancien état.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict();
+                }
+            });
+        } else {
+            evict();
+        }
+    }
+
+    private void evict() {
+        synchronized (rebuildLock) {
+            snapshot = null;
+        }
+    }
+}
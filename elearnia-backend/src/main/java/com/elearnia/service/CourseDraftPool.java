@@ -0,0 +1,280 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.GeneratedCourseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Brouillons de cours pré-générés pour les sujets les plus demandés.
+ *
+ * Chaque demande de génération est comptée par (sujet, niveau) avec un score qui décroît dans le
+ * temps. En heures creuses, la tâche planifiée (re)génère les brouillons des sujets les plus
+ * demandés dans la limite d'un budget (nombre de générations et durée). Une demande qui tombe sur
+ * un brouillon valide est servie sans appel au modèle. Les brouillons sont stockés en JSON
+ * compressé (GZIP) et expirent après un délai configurable.
+ *
+ * Seuls les cours entièrement générés par le modèle deviennent des brouillons : un résultat issu
+ * en partie des templates (IA indisponible ou budget épuisé) n'est pas conservé. La tâche a sa
+ * propre identité de limitation de débit, distincte de celle des utilisateurs.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseDraftPool {
+
+    private static final String RATE_LIMIT_KEY = "job:course-pregeneration";
+
+    private final AICourseGeneratorService aiCourseGeneratorService;
+    private final AiResilienceGuard aiResilienceGuard;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${course.pregeneration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${course.pregeneration.min-score:3}")
+    private double minScore;
+
+    @Value("${course.pregeneration.half-life-hours:72}")
+    private double halfLifeHours;
+
+    @Value("${course.pregeneration.max-tracked-topics:2000}")
+    private int maxTrackedTopics;
+
+    @Value("${course.pregeneration.max-drafts:100}")
+    private int maxDrafts;
+
+    @Value("${course.pregeneration.max-generations-per-run:10}")
+    private int maxGenerationsPerRun;
+
+    @Value("${course.pregeneration.max-run-minutes:30}")
+    private long maxRunMinutes;
+
+    @Value("${course.pregeneration.refresh-after-hours:24}")
+    private long refreshAfterHours;
+
+    @Value("${course.pregeneration.ttl-hours:48}")
+    private long ttlHours;
+
+    @Value("${course.pregeneration.ai-calls-per-minute:20}")
+    private int aiCallsPerMinute;
+
+    private final Map<TopicKey, TopicStats> topics = new ConcurrentHashMap<>();
+    private final Map<TopicKey, Draft> drafts = new ConcurrentHashMap<>();
+
+    private record TopicKey(String idea, String level) {
+    }
+
+    /**
+     * Fréquence de demande d'un sujet : score décroissant (demi-vie configurable) et dernière
+     * formulation reçue, réutilisée pour la pré-génération.
+     */
+    private static class TopicStats {
+        private double score;
+        private long updatedAt;
+        private String idea;
+
+        private synchronized void hit(String rawIdea, long now, double halfLifeMillis) {
+            score = decayedScore(now, halfLifeMillis) + 1;
+            updatedAt = now;
+            idea = rawIdea;
+        }
+
+        private synchronized double decayedScore(long now, double halfLifeMillis) {
+            return updatedAt == 0 ? 0 : score * Math.pow(0.5, (now - updatedAt) / halfLifeMillis);
+        }
+    }
+
+    private static class Draft {
+        private final byte[] compressedJson;
+        private final long createdAt;
+        private final long expiresAt;
+
+        private Draft(byte[] compressedJson, long createdAt, long expiresAt) {
+            this.compressedJson = compressedJson;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("course.draft.pool.size", drafts, Map::size)
+                .description("Brouillons de cours pré-générés en mémoire")
+                .register(meterRegistry);
+        Gauge.builder("course.draft.pool.bytes", drafts,
+                        d -> d.values().stream().mapToLong(draft -> draft.compressedJson.length).sum())
+                .description("Taille compressée des brouillons pré-générés")
+                .register(meterRegistry);
+    }
+
+    // ================== Demandes ==================
+
+    /**
+     * Génère un cours, en servant un brouillon pré-généré s'il en existe un valide pour ce sujet.
+     */
+    public GeneratedCourseDto generateCourse(String idea, String level) {
+        String normalizedLevel = aiCourseGeneratorService.normalizeLevel(level);
+        TopicKey key = new TopicKey(GenerationCoalescer.normalize(idea), normalizedLevel);
+        long now = System.currentTimeMillis();
+        recordRequest(key, idea, now);
+
+        Draft draft = drafts.get(key);
+        if (draft != null && draft.expiresAt > now) {
+            GeneratedCourseDto course = decompress(draft);
+            if (course != null) {
+                meterRegistry.counter("course.draft.requests", "result", "hit").increment();
+                log.info("Brouillon pré-généré servi pour '{}' ({})", idea, normalizedLevel);
+                return course;
+            }
+        }
+        meterRegistry.counter("course.draft.requests", "result", "miss").increment();
+        return aiCourseGeneratorService.generateCourse(idea, normalizedLevel);
+    }
+
+    private void recordRequest(TopicKey key, String idea, long now) {
+        if (topics.size() >= maxTrackedTopics && !topics.containsKey(key)) {
+            evictColdestTopic(now);
+        }
+        topics.computeIfAbsent(key, k -> new TopicStats()).hit(idea.trim(), now, halfLifeMillis());
+    }
+
+    private void evictColdestTopic(long now) {
+        double halfLife = halfLifeMillis();
+        topics.entrySet().stream()
+                .filter(e -> !drafts.containsKey(e.getKey()))
+                .min(Comparator.comparingDouble(e -> e.getValue().decayedScore(now, halfLife)))
+                .ifPresent(e -> topics.remove(e.getKey()));
+    }
+
+    // ================== Pré-génération ==================
+
+    /**
+     * Régénère les brouillons des sujets les plus demandés (heures creuses, 3h par défaut).
+     */
+    @Scheduled(cron = "${course.pregeneration.cron:0 0 3 * * *}")
+    public void pregenerate() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + TimeUnit.MINUTES.toMillis(maxRunMinutes);
+        long refreshBefore = start - TimeUnit.HOURS.toMillis(refreshAfterHours);
+
+        List<TopicKey> hottest = hottestTopics(start);
+        AiResilienceGuard.RateLimit rateLimit = new AiResilienceGuard.RateLimit(RATE_LIMIT_KEY, aiCallsPerMinute);
+        int generated = 0;
+        int discarded = 0;
+        for (TopicKey key : hottest) {
+            if (generated + discarded >= maxGenerationsPerRun || System.currentTimeMillis() >= deadline) {
+                break;
+            }
+            Draft existing = drafts.get(key);
+            if (existing != null && existing.createdAt > refreshBefore) {
+                continue; // Brouillon encore récent
+            }
+            TopicStats stats = topics.get(key);
+            if (stats == null) {
+                continue;
+            }
+            try {
+                GeneratedCourseDto course = aiCourseGeneratorService.generateCourse(stats.idea, key.level(), rateLimit);
+                if (course.getSource() != GeneratedCourseDto.Source.AI) {
+                    // Un brouillon de templates n'apporte rien : la demande en direct fera aussi bien
+                    discarded++;
+                    log.info("Pré-génération non conservée pour '{}' ({}): contenu issu des templates",
+                            stats.idea, key.level());
+                    continue;
+                }
+                long now = System.currentTimeMillis();
+                drafts.put(key, new Draft(compress(course), now, now + TimeUnit.HOURS.toMillis(ttlHours)));
+                generated++;
+            } catch (Exception e) {
+                log.warn("Pré-génération échouée pour '{}' ({}): {}", stats.idea, key.level(), e.getMessage());
+            }
+        }
+
+        // Ne garder que les brouillons des sujets les plus demandés
+        if (drafts.size() > maxDrafts) {
+            Set<TopicKey> keep = new HashSet<>(hottest.subList(0, Math.min(maxDrafts, hottest.size())));
+            drafts.keySet().removeIf(key -> !keep.contains(key));
+        }
+        log.info("Pré-génération terminée: {} brouillon(s) générés, {} écarté(s) en {} ms, {} en réserve",
+                generated, discarded, System.currentTimeMillis() - start, drafts.size());
+    }
+
+    /**
+     * Supprime les brouillons expirés.
+     */
+    @Scheduled(fixedDelayString = "${course.pregeneration.eviction-interval-ms:3600000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        drafts.values().removeIf(draft -> draft.expiresAt <= now);
+    }
+
+    private List<TopicKey> hottestTopics(long now) {
+        double halfLife = halfLifeMillis();
+        List<Map.Entry<TopicKey, Double>> scored = new ArrayList<>();
+        for (Map.Entry<TopicKey, TopicStats> entry : topics.entrySet()) {
+            double score = entry.getValue().decayedScore(now, halfLife);
+            if (score >= minScore) {
+                scored.add(Map.entry(entry.getKey(), score));
+            }
+        }
+        scored.sort(Map.Entry.<TopicKey, Double>comparingByValue().reversed());
+        List<TopicKey> keys = new ArrayList<>(scored.size());
+        for (Map.Entry<TopicKey, Double> entry : scored) {
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    private double halfLifeMillis() {
+        return Math.max(1, halfLifeHours) * 3_600_000d;
+    }
+
+    // ================== Stockage compact ==================
+
+    private byte[] compress(GeneratedCourseDto course) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, course);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Chaque lecture produit une nouvelle instance : l'appelant peut la modifier sans toucher au brouillon.
+     */
+    private GeneratedCourseDto decompress(Draft draft) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(draft.compressedJson))) {
+            return objectMapper.readValue(in, GeneratedCourseDto.class);
+        } catch (IOException e) {
+            log.warn("Brouillon pré-généré illisible: {}", e.getMessage());
+            return null;
+        }
+    }
+}
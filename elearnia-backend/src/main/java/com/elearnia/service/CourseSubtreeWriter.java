@@ -0,0 +1,152 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.GeneratedCourseDto;
+import com.elearnia.dto.GeneratedLessonDto;
+import com.elearnia.dto.GeneratedQuestionDto;
+import com.elearnia.entities.Course;
+import com.elearnia.entities.Quiz;
+import com.elearnia.entities.QuizLevel;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.QuizRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enregistre un cours généré (cours, leçons, quiz, questions et options) dans une seule
+ * transaction courte. Le cours et le quiz passent par JPA (une ligne chacun) ; les leçons,
+ * questions et options sont insérées par lots JDBC au lieu d'un INSERT par entité.
+ * À appeler une fois la génération terminée, hors de toute transaction longue.
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseSubtreeWriter {
+
+    private static final String INSERT_LESSON =
+            "INSERT INTO lessons (course_id, title, description, video_url, duration, order_index) " +
+            "VALUES (:courseId, :title, :description, :videoUrl, :duration, :orderIndex)";
+    private static final String INSERT_QUESTION =
+            "INSERT INTO questions (quiz_id, text, correct_answer, points) VALUES (:quizId, :text, :correctAnswer, :points)";
+    private static final String INSERT_OPTION =
+            "INSERT INTO question_options (question_id, option_text) VALUES (?, ?)";
+
+    private final CourseRepository courseRepository;
+    private final QuizRepository quizRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final CourseCatalogService courseCatalogService;
+    private final QuestionSimilarityIndex questionSimilarityIndex;
+
+    @Value("${course.batch.jdbc-batch-size:100}")
+    private int jdbcBatchSize;
+
+    @Transactional
+    public Course write(User teacher, GeneratedCourseDto generated) {
+        Course course = courseRepository.save(Course.builder()
+                .title(generated.getTitle())
+                .description(generated.getDescription())
+                .imageUrl(generated.getImageUrl())
+                .teacher(teacher)
+                .published(false) // Non publié par défaut, l'enseignant peut le publier après
+                .build());
+
+        if (generated.getLessons() != null && !generated.getLessons().isEmpty()) {
+            insertLessons(course.getId(), generated.getLessons());
+        }
+
+        if (generated.getQuiz() != null && generated.getQuiz().getQuestions() != null
+                && !generated.getQuiz().getQuestions().isEmpty()) {
+            Quiz quiz = quizRepository.save(Quiz.builder()
+                    .course(course)
+                    .title(generated.getQuiz().getTitle())
+                    .description(generated.getQuiz().getDescription())
+                    .passingScore(75)
+                    .maxAttempts(3)
+                    .level(QuizLevel.BEGINNER)
+                    .build());
+            Map<Long, String> questionTexts = insertQuestions(quiz.getId(), generated.getQuiz().getQuestions());
+            questionSimilarityIndex.indexQuestions(quiz.getId(), teacher.getId(), questionTexts);
+        }
+
+        courseCatalogService.invalidate();
+        return course;
+    }
+
+    /**
+     * Insère les leçons du cours par lot ; retourne leurs identifiants dans l'ordre de la liste.
+     * À appeler dans une transaction.
+     */
+    public List<Long> insertLessons(Long courseId, List<GeneratedLessonDto> lessons) {
+        SqlParameterSource[] params = new SqlParameterSource[lessons.size()];
+        for (int i = 0; i < lessons.size(); i++) {
+            GeneratedLessonDto lesson = lessons.get(i);
+            params[i] = new MapSqlParameterSource()
+                    .addValue("courseId", courseId)
+                    .addValue("title", lesson.getTitle())
+                    .addValue("description", lesson.getDescription())
+                    .addValue("videoUrl", lesson.getVideoUrl() != null ? lesson.getVideoUrl() : "")
+                    .addValue("duration", lesson.getEstimatedDuration())
+                    .addValue("orderIndex", lesson.getOrderIndex());
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        namedParameterJdbcTemplate.batchUpdate(INSERT_LESSON, params, keyHolder);
+        return generatedIds(keyHolder);
+    }
+
+    /**
+     * Insère les questions puis leurs options par lots ; retourne identifiant -> texte des
+     * questions créées. À appeler dans une transaction.
+     */
+    public Map<Long, String> insertQuestions(Long quizId, List<GeneratedQuestionDto> questions) {
+        SqlParameterSource[] params = new SqlParameterSource[questions.size()];
+        for (int i = 0; i < questions.size(); i++) {
+            GeneratedQuestionDto question = questions.get(i);
+            params[i] = new MapSqlParameterSource()
+                    .addValue("quizId", quizId)
+                    .addValue("text", question.getText())
+                    .addValue("correctAnswer", question.getCorrectAnswer())
+                    .addValue("points", question.getPoints() != null ? question.getPoints() : 1);
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        namedParameterJdbcTemplate.batchUpdate(INSERT_QUESTION, params, keyHolder);
+
+        List<Long> ids = generatedIds(keyHolder);
+        Map<Long, String> texts = new HashMap<>();
+        List<Object[]> options = new ArrayList<>();
+        for (int i = 0; i < questions.size(); i++) {
+            Long questionId = ids.get(i);
+            texts.put(questionId, questions.get(i).getText());
+            if (questions.get(i).getOptions() != null) {
+                for (String option : questions.get(i).getOptions()) {
+                    options.add(new Object[]{questionId, option});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_OPTION, options, jdbcBatchSize, (ps, option) -> {
+            ps.setLong(1, (Long) option[0]);
+            ps.setString(2, (String) option[1]);
+        });
+        return texts;
+    }
+
+    private List<Long> generatedIds(KeyHolder keyHolder) {
+        List<Long> ids = new ArrayList<>();
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+}
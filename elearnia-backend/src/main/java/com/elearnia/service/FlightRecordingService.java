@@ -0,0 +1,203 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.JfrRecordingDto;
+import com.elearnia.util.JfrEvents;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Enregistrement JDK Flight Recorder à la demande, sur le nœud qui reçoit l'appel.
+ *
+ * Un seul enregistrement à la fois, toujours borné en durée et en taille (jfr.recording.max-*) :
+ * il s'arrête seul et écrit son fichier .jfr même si personne ne l'arrête. Seul le dernier fichier
+ * est conservé sur disque ; le télécharger pendant l'enregistrement en écrit une copie instantanée.
+ * Chaque téléchargement lit sa propre copie, supprimée une fois envoyée.
+ */
+@Slf4j
+@Service
+public class FlightRecordingService {
+
+    private static final String SETTINGS_DEFAULT = "default";
+    private static final String SETTINGS_PROFILE = "profile";
+
+    @Value("${jfr.recording.dir:jfr}")
+    private String recordingDir;
+
+    @Value("${jfr.recording.default-duration-seconds:120}")
+    private long defaultDurationSeconds;
+
+    @Value("${jfr.recording.max-duration-seconds:1800}")
+    private long maxDurationSeconds;
+
+    @Value("${jfr.recording.max-size-mb:200}")
+    private long maxSizeMb;
+
+    private Recording recording;
+    private String settings;
+    private Path file;
+
+    public synchronized JfrRecordingDto start(Long durationSeconds, Long sizeMb, String requestedSettings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Un enregistrement est déjà en cours");
+        }
+        String name = requestedSettings != null ? requestedSettings : SETTINGS_DEFAULT;
+        if (!SETTINGS_DEFAULT.equals(name) && !SETTINGS_PROFILE.equals(name)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Configuration inconnue: " + name);
+        }
+        long duration = durationSeconds != null
+                ? Math.max(1, Math.min(durationSeconds, maxDurationSeconds)) : defaultDurationSeconds;
+        long maxBytes = (sizeMb != null ? Math.max(1, Math.min(sizeMb, maxSizeMb)) : maxSizeMb) * 1024 * 1024;
+
+        discardPrevious();
+        try {
+            Path dir = Paths.get(recordingDir);
+            Files.createDirectories(dir);
+            Path destination = dir.resolve("elearnia-" + System.currentTimeMillis() + ".jfr").toAbsolutePath();
+
+            Recording next = new Recording(Configuration.getConfiguration(name));
+            next.setName("elearnia-admin");
+            next.setToDisk(true);
+            next.setDuration(Duration.ofSeconds(duration));
+            next.setMaxSize(maxBytes);
+            next.setDestination(destination);
+            next.enable(JfrEvents.AiCall.class);
+            next.enable(JfrEvents.QuizGrading.class);
+            next.enable(JfrEvents.FileServe.class);
+            next.enable(JfrEvents.JwtValidation.class);
+            next.start();
+
+            recording = next;
+            settings = name;
+            file = destination;
+        } catch (IOException | ParseException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Impossible de démarrer l'enregistrement: " + e.getMessage());
+        }
+        log.info("Enregistrement JFR démarré: {} s max, {} Mo max, configuration {}", duration,
+                maxBytes / (1024 * 1024), name);
+        return status();
+    }
+
+    public synchronized JfrRecordingDto stop() {
+        if (recording == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Aucun enregistrement");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            // L'arrêt écrit le fichier de destination
+            recording.stop();
+            log.info("Enregistrement JFR arrêté: {}", file);
+        }
+        return status();
+    }
+
+    public synchronized JfrRecordingDto status() {
+        if (recording == null) {
+            return new JfrRecordingDto(null, "NONE", null, null, null, 0, 0, 0);
+        }
+        RecordingState state = recording.getState();
+        boolean running = state == RecordingState.RUNNING || state == RecordingState.DELAYED;
+        long size = 0;
+        if (!running && file != null && Files.exists(file)) {
+            try {
+                size = Files.size(file);
+            } catch (IOException e) {
+                // Taille inconnue
+            }
+        }
+        Duration duration = recording.getDuration();
+        return new JfrRecordingDto(recording.getId(), running ? "RUNNING" : "STOPPED", settings,
+                recording.getStartTime(), recording.getStopTime(),
+                duration != null ? duration.getSeconds() : 0, recording.getMaxSize(), size);
+    }
+
+    /**
+     * Écrit le dernier enregistrement (ou une copie instantanée de l'enregistrement en cours).
+     *
+     * Le fichier envoyé est une copie privée faite sous le verrou : un lien physique vers le
+     * fichier terminé (copie si le système de fichiers ne le permet pas) ou le dump de
+     * l'enregistrement en cours. Un démarrage concurrent peut alors supprimer le fichier d'origine
+     * (discardPrevious) sans interrompre le téléchargement.
+     */
+    public void writeRecording(OutputStream out) throws IOException {
+        Path source;
+        synchronized (this) {
+            if (recording == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Aucun enregistrement");
+            }
+            boolean running = recording.getState() == RecordingState.RUNNING;
+            if (!running && (file == null || !Files.exists(file))) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Aucun enregistrement");
+            }
+            source = Files.createTempFile(Paths.get(recordingDir), "download-", ".jfr");
+            try {
+                if (running) {
+                    recording.dump(source);
+                } else {
+                    linkOrCopy(file, source);
+                }
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(source);
+                throw e;
+            }
+        }
+        try {
+            Files.copy(source, out);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    private static void linkOrCopy(Path file, Path target) throws IOException {
+        Files.delete(target);
+        try {
+            Files.createLink(target, file);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(file, target);
+        }
+    }
+
+    public synchronized boolean hasRecording() {
+        if (recording == null) {
+            return false;
+        }
+        return recording.getState() == RecordingState.RUNNING || (file != null && Files.exists(file));
+    }
+
+    // Un seul fichier conservé : le précédent est supprimé au démarrage suivant
+    private void discardPrevious() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer l'ancien enregistrement {}: {}", file, e.getMessage());
+            }
+            file = null;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.elearnia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Regroupe les générations IA identiques lancées en même temps (double-clic, sujet populaire) :
+ * une seule génération est exécutée par clé (opération, idée normalisée, niveau) et tous les
+ * appelants concurrents reçoivent son résultat. Une fois terminée, la clé est libérée :
+ * les demandes suivantes déclenchent une nouvelle génération.
+ *
+ * Le résultat est partagé sous forme sérialisée : chaque appelant en attente relit sa propre
+ * instance et peut la modifier sans toucher à celles des autres. Un appelant qui attend plus de
+ * ai.generation.coalesce-wait-seconds lance sa propre génération.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GenerationCoalescer {
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ai.generation.coalesce-wait-seconds:120}")
+    private long maxWaitSeconds;
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Snapshot>> inFlight = new ConcurrentHashMap<>();
+
+    private record Key(String operation, String idea, String level) {
+    }
+
+    /**
+     * Résultat sérialisé en JSON (json null : la génération a renvoyé null).
+     */
+    private record Snapshot(byte[] json, Class<?> type) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, String idea, String level, Supplier<T> generation) {
+        Key key = new Key(operation, normalize(idea), normalize(level));
+        CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        CompletableFuture<Snapshot> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            // Une génération identique est déjà en cours : on attend son résultat
+            log.debug("Génération {} regroupée pour '{}' ({})", operation, key.idea(), key.level());
+            Snapshot snapshot = await(existing, key);
+            if (snapshot != null) {
+                Counter.builder("ai.generation.coalesced")
+                        .description("Appels de génération IA évités grâce au regroupement")
+                        .tag("operation", operation)
+                        .register(meterRegistry)
+                        .increment();
+                return (T) restore(snapshot);
+            }
+            // Attente trop longue ou résultat non partageable : génération indépendante
+            return generation.get();
+        }
+
+        try {
+            T result = generation.get();
+            mine.complete(snapshot(result));
+            return result;
+        } catch (Throwable e) {
+            // Erreurs comprises : les appelants en attente ne doivent jamais rester bloqués
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Snapshot await(CompletableFuture<Snapshot> existing, Key key) {
+        try {
+            return existing.get(maxWaitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Génération {} pour '{}' toujours en cours après {} s, génération indépendante",
+                    key.operation(), key.idea(), maxWaitSeconds);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente de la génération interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Snapshot snapshot(Object result) {
+        if (result == null) {
+            return new Snapshot(null, null);
+        }
+        try {
+            return new Snapshot(objectMapper.writeValueAsBytes(result), result.getClass());
+        } catch (IOException e) {
+            log.warn("Résultat de génération non partageable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Chaque lecture produit une nouvelle instance, comme les brouillons de {@link CourseDraftPool}.
+     */
+    private Object restore(Snapshot snapshot) {
+        if (snapshot.json() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(snapshot.json(), snapshot.type());
+        } catch (IOException e) {
+            throw new IllegalStateException("Résultat de génération illisible", e);
+        }
+    }
+
+    /**
+     * Minuscules, sans accents, espaces compactés : "  Spring  Boot " et "spring boot" partagent la même clé.
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String withoutAccents = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return withoutAccents.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,170 @@
+package com.elearnia.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Export CSV des tentatives de quiz (carnet de notes), écrit ligne par ligne au fil de la lecture.
+ *
+ * Les quizzes concernés sont lus d'abord (quelques lignes, par id croissant), puis les tentatives
+ * de chaque quiz sont lues par un curseur JDBC en streaming, un quiz après l'autre : aucune entité
+ * n'est chargée et chaque ligne est écrite dès qu'elle est lue, la mémoire utilisée ne dépend donc
+ * pas du nombre de tentatives. Pour un quiz, WHERE a.quiz_id = ? ORDER BY a.id est servi dans
+ * l'ordre par l'index de quiz_attempts.quiz_id (dont les entrées sont rangées par clé primaire) :
+ * pas de tri avant la première ligne. STRAIGHT_JOIN garde quiz_attempts en tête de la jointure,
+ * même quand la table users est assez petite pour que l'optimiseur préfère la lire d'abord.
+ * Une seule requête sur plusieurs quizzes, triée par (quiz_id, id), ne l'est pas : elle est
+ * jointe à partir de quizzes et le résultat est trié (filesort, vérifié par EXPLAIN).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GradebookExportService {
+
+    private static final String SELECT_QUIZZES =
+            "SELECT q.id, q.title, c.title, q.level " +
+            "FROM quizzes q " +
+            "LEFT JOIN courses c ON c.id = q.course_id ";
+
+    static final String SELECT_QUIZ_ATTEMPTS =
+            "SELECT a.id, u.id, u.full_name, u.email, a.attempt_number, a.score, a.passed, a.completed_at " +
+            "FROM quiz_attempts a " +
+            "STRAIGHT_JOIN users u ON u.id = a.user_id " +
+            "WHERE a.quiz_id = ? " +
+            "ORDER BY a.id";
+
+    private static final String HEADER =
+            "quiz_id,quiz_title,course_title,level,attempt_id,student_id,student_name,student_email," +
+            "attempt_number,score,passed,completed_at";
+
+    private final DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTemplate streamingJdbcTemplate;
+
+    private record QuizRow(long id, String title, String courseTitle, String level) {
+    }
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // MySQL : Integer.MIN_VALUE active le streaming ligne par ligne du ResultSet
+        streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /** Tentatives de tous les quizzes d'un cours. */
+    public void exportCourse(Long courseId, OutputStream out) throws IOException {
+        export(out, SELECT_QUIZZES + "WHERE q.course_id = ? ORDER BY q.id", courseId);
+    }
+
+    /** Tentatives d'un quiz. */
+    public void exportQuiz(Long quizId, OutputStream out) throws IOException {
+        export(out, SELECT_QUIZZES + "WHERE q.id = ?", quizId);
+    }
+
+    /** Tentatives de tous les quizzes du professeur, plus les quizzes standalone (comme la vue JSON). */
+    public void exportTeacher(Long teacherId, OutputStream out) throws IOException {
+        export(out, SELECT_QUIZZES + "WHERE q.course_id IS NULL OR c.teacher_id = ? ORDER BY q.id", teacherId);
+    }
+
+    private void export(OutputStream out, String quizzesSql, Object param) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF'); // BOM : accents corrects à l'ouverture dans Excel
+        writer.write(HEADER);
+        writer.write("\r\n");
+        writer.flush(); // Premier octet envoyé avant la lecture des tentatives
+
+        // Lus entièrement avant le streaming : une connexion MySQL en streaming n'accepte pas d'autre requête
+        List<QuizRow> quizzes = jdbcTemplate.query(quizzesSql, (rs, i) ->
+                new QuizRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)), param);
+
+        long[] rows = {0};
+        try {
+            for (QuizRow quiz : quizzes) {
+                streamingJdbcTemplate.query(SELECT_QUIZ_ATTEMPTS, rs -> {
+                    try {
+                        writeRow(writer, quiz, rs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                }, quiz.id());
+            }
+        } catch (UncheckedIOException e) {
+            // Client déconnecté : on arrête la lecture
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Carnet de notes exporté: {} tentative(s) de {} quiz en {} ms",
+                rows[0], quizzes.size(), System.currentTimeMillis() - start);
+    }
+
+    private void writeRow(Writer writer, QuizRow quiz, ResultSet rs) throws IOException, SQLException {
+        writer.write(Long.toString(quiz.id()));
+        writer.write(',');
+        writeCell(writer, quiz.title());
+        writer.write(',');
+        writeCell(writer, quiz.courseTitle() != null ? quiz.courseTitle() : "Quiz standalone");
+        writer.write(',');
+        writeCell(writer, quiz.level());
+        writer.write(',');
+        writer.write(Long.toString(rs.getLong(1)));
+        writer.write(',');
+        writer.write(Long.toString(rs.getLong(2)));
+        writer.write(',');
+        writeCell(writer, rs.getString(3));
+        writer.write(',');
+        writeCell(writer, rs.getString(4));
+        writer.write(',');
+        writer.write(Integer.toString(rs.getInt(5)));
+        writer.write(',');
+        writer.write(Double.toString(Math.round(rs.getDouble(6) * 100.0) / 100.0));
+        writer.write(',');
+        writer.write(rs.getBoolean(7) ? "true" : "false");
+        writer.write(',');
+        Timestamp completedAt = rs.getTimestamp(8);
+        if (completedAt != null) {
+            writer.write(completedAt.toLocalDateTime().toString());
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Cellule CSV : entre guillemets si nécessaire, et préfixée d'une apostrophe si elle commence
+     * par un caractère de formule (=, +, -, @) pour éviter l'injection de formules dans les tableurs.
+     */
+    private void writeCell(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.elearnia.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hugging Face Inference API : POST /models/{model}.
+ * Les lots sont envoyés en un seul appel avec un tableau d'"inputs".
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HuggingFaceAiProvider implements AiProvider {
+
+    public static final String NAME = "huggingface";
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    private final AiProviderSupport support;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ai.providers.huggingface.base-url:https://api-inference.huggingface.co}")
+    private String baseUrl;
+
+    @Value("${ai.providers.huggingface.api-key:}")
+    private String apiKey;
+
+    @Value("${ai.providers.huggingface.model:mistralai/Mistral-7B-Instruct-v0.2}")
+    private String defaultModel;
+
+    @Value("${ai.providers.huggingface.max-connections:16}")
+    private int maxConnections;
+
+    @Value("${ai.providers.huggingface.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${ai.providers.huggingface.response-timeout-seconds:30}")
+    private int responseTimeoutSeconds;
+
+    private WebClient client;
+
+    @PostConstruct
+    public void init() {
+        client = support.createClient(NAME, baseUrl, apiKey, maxConnections, connectTimeoutMs, responseTimeoutSeconds);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supportsBatching() {
+        return true;
+    }
+
+    @Override
+    public String generate(AiRequest request) {
+        return support.timed(NAME, "single", List.of(request), () -> {
+            JsonNode response = post(request, request.getPrompt(), request.getMaxTokens());
+            return extractText(response != null && response.isArray() && response.size() > 0 ? response.get(0) : response);
+        });
+    }
+
+    @Override
+    public List<String> generateBatch(List<AiRequest> requests) {
+        if (requests.size() == 1) {
+            return Collections.singletonList(generate(requests.get(0)));
+        }
+        return support.timed(NAME, "batch", requests, () -> {
+            List<String> inputs = new ArrayList<>(requests.size());
+            int maxTokens = 0;
+            for (AiRequest request : requests) {
+                inputs.add(request.getPrompt());
+                maxTokens = Math.max(maxTokens, request.getMaxTokens());
+            }
+            // Les paramètres sont communs au lot : on prend le plus grand budget de tokens
+            JsonNode response = post(requests.get(0), inputs, maxTokens);
+
+            List<String> texts = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                JsonNode item = response != null && response.isArray() && i < response.size() ? response.get(i) : null;
+                // Selon le modèle, chaque élément est {generated_text} ou [{generated_text}]
+                if (item != null && item.isArray()) {
+                    item = item.size() > 0 ? item.get(0) : null;
+                }
+                texts.add(extractText(item));
+            }
+            return texts;
+        });
+    }
+
+    @Override
+    public Flux<String> stream(AiRequest request) {
+        Map<String, Object> requestBody = buildBody(request.getPrompt(), request.getMaxTokens(), request.getTemperature());
+        requestBody.put("stream", true);
+
+        Flux<String> tokens = client.post()
+                .uri("/models/" + modelOf(request))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(SSE_TYPE)
+                .mapNotNull(ServerSentEvent::data)
+                .mapNotNull(this::parseStreamToken);
+        return support.timedStream(NAME, request, tokens);
+    }
+
+    private JsonNode post(AiRequest request, Object inputs, int maxTokens) {
+        return client.post()
+                .uri("/models/" + modelOf(request))
+                .bodyValue(buildBody(inputs, maxTokens, request.getTemperature()))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .block();
+    }
+
+    private Map<String, Object> buildBody(Object inputs, int maxTokens, double temperature) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("inputs", inputs);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("max_new_tokens", maxTokens);
+        parameters.put("temperature", temperature);
+        parameters.put("return_full_text", false);
+        parameters.put("top_p", 0.9);
+        requestBody.put("parameters", parameters);
+        return requestBody;
+    }
+
+    private String modelOf(AiRequest request) {
+        return request.getModel() != null && !request.getModel().isEmpty() ? request.getModel() : defaultModel;
+    }
+
+    private String extractText(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.asText().trim();
+        }
+        JsonNode generatedText = node.get("generated_text");
+        return generatedText != null && !generatedText.isNull() ? generatedText.asText().trim() : null;
+    }
+
+    /**
+     * Extrait le texte d'un événement du flux :
+     * {"token": {"text": "...", "special": false}, "generated_text": null}
+     */
+    private String parseStreamToken(String data) {
+        if (data.isBlank() || "[DONE]".equals(data.trim())) {
+            return null;
+        }
+        try {
+            JsonNode token = objectMapper.readTree(data).path("token");
+            if (token.path("special").asBoolean(false)) {
+                return null;
+            }
+            String text = token.path("text").asText("");
+            return text.isEmpty() ? null : text;
+        } catch (Exception e) {
+            log.debug("Événement de flux ignoré: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.ItemAnalysisDto;
+import com.elearnia.dto.ItemAnalysisDto.ItemStats;
+import com.elearnia.dto.ItemAnalysisDto.OptionStats;
+import com.elearnia.entities.Question;
+import com.elearnia.entities.Quiz;
+import com.elearnia.repository.QuestionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyse des questions d'un quiz : difficulté (indice p), discrimination (corrélation
+ * point-bisériale entre la question et le reste du score) et fréquence de chaque option.
+ *
+ * Le premier calcul parcourt toutes les réponses du quiz en un seul passage, par un curseur JDBC
+ * en streaming (les lignes ne sont jamais chargées en mémoire ensemble), et n'accumule que des
+ * compteurs et des sommes primitives. Ces accumulateurs sont gardés en cache et mis à jour à
+ * chaque nouvelle soumission ; ils sont recalculés après expiration ou modification du quiz.
+ *
+ * Une soumission ou une invalidation arrivée pendant un calcul peut être absente de sa lecture :
+ * le calcul est alors refait au lieu d'installer un résultat déjà périmé en cache.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemAnalysisService {
+
+    private static final String ANSWERS_BY_ATTEMPT =
+            "SELECT a.id, a.score, aa.question_id, aa.answer FROM quiz_attempts a " +
+            "LEFT JOIN quiz_attempt_answers aa ON aa.attempt_id = a.id " +
+            "WHERE a.quiz_id = ? ORDER BY a.id";
+
+    private static final double TOO_EASY = 0.9;
+    private static final double TOO_HARD = 0.2;
+    private static final double LOW_DISCRIMINATION = 0.2;
+    private static final int MAX_COMPUTE_ATTEMPTS = 3;
+
+    private final QuestionRepository questionRepository;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${quiz.item-analysis.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${quiz.item-analysis.cache-size:500}")
+    private int cacheSize;
+
+    @Value("${quiz.item-analysis.min-attempts:10}")
+    private int minAttemptsForFlags;
+
+    private final Map<Long, QuizItemStats> cache = new ConcurrentHashMap<>();
+    // Calcul en cours par quiz ; marqué périmé (sous le verrou de l'entrée du cache) par les mises à jour
+    private final Map<Long, Loading> loading = new ConcurrentHashMap<>();
+    private JdbcTemplate streamingJdbcTemplate;
+
+    @PostConstruct
+    public void init() {
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // MySQL : Integer.MIN_VALUE active le streaming ligne par ligne du ResultSet
+        streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    // ================== Lecture ==================
+
+    public ItemAnalysisDto analyze(Long quizId) {
+        QuizItemStats stats = cache.get(quizId);
+        boolean hit = stats != null && stats.expiresAt >= System.currentTimeMillis();
+        meterRegistry.counter("cache.requests", "cache", "item-analysis", "result", hit ? "hit" : "miss").increment();
+        if (!hit) {
+            stats = load(quizId);
+        }
+        return stats.toDto(quizId, minAttemptsForFlags);
+    }
+
+    /**
+     * Calcule les statistiques et ne les installe en cache que si aucune soumission ni
+     * invalidation n'est arrivée pendant la lecture ; sinon le calcul est refait.
+     */
+    private QuizItemStats load(Long quizId) {
+        for (int attempt = 1; ; attempt++) {
+            Loading token = new Loading();
+            loading.put(quizId, token);
+            QuizItemStats stats = compute(quizId);
+
+            boolean[] installed = {false};
+            cache.compute(quizId, (id, current) -> {
+                if (!loading.remove(id, token) || token.stale) {
+                    return current;
+                }
+                installed[0] = true;
+                return stats;
+            });
+            if (installed[0]) {
+                evictIfFull();
+                return stats;
+            }
+            if (!token.stale || attempt == MAX_COMPUTE_ATTEMPTS) {
+                // Un calcul plus récent s'installera, ou le quiz change sans arrêt : résultat non mis en cache
+                return stats;
+            }
+            log.debug("Analyse du quiz {} modifiée pendant le calcul, nouvelle lecture", quizId);
+        }
+    }
+
+    private void evictIfFull() {
+        if (cache.size() > cacheSize) {
+            cache.values().removeIf(entry -> entry.expiresAt < System.currentTimeMillis());
+            if (cache.size() > cacheSize) {
+                cache.clear();
+            }
+        }
+    }
+
+    private QuizItemStats compute(Long quizId) {
+        long start = System.currentTimeMillis();
+        List<Question> questions = questionRepository.findByQuizIdInWithOptions(List.of(quizId));
+        QuizItemStats stats = new QuizItemStats(questions, start + TimeUnit.MINUTES.toMillis(ttlMinutes));
+
+        int questionCount = questions.size();
+        int[] chosen = new int[questionCount];
+        boolean[] correct = new boolean[questionCount];
+        // Tentative en cours de lecture : identifiant et score (les lignes sont triées par tentative)
+        long[] current = {-1L};
+        double[] currentScore = {0.0};
+        Arrays.fill(chosen, QuizItemStats.UNANSWERED);
+
+        streamingJdbcTemplate.query(ANSWERS_BY_ATTEMPT, rs -> {
+            long attemptId = rs.getLong(1);
+            if (attemptId != current[0]) {
+                if (current[0] != -1L) {
+                    stats.add(currentScore[0], chosen, correct);
+                }
+                current[0] = attemptId;
+                currentScore[0] = rs.getDouble(2);
+                Arrays.fill(chosen, QuizItemStats.UNANSWERED);
+                Arrays.fill(correct, false);
+            }
+            long questionId = rs.getLong(3);
+            if (!rs.wasNull()) {
+                stats.classify(questionId, rs.getString(4), chosen, correct);
+            }
+        }, quizId);
+        if (current[0] != -1L) {
+            stats.add(currentScore[0], chosen, correct);
+        }
+
+        log.info("Analyse des questions du quiz {}: {} tentative(s) en {} ms",
+                quizId, stats.attempts, System.currentTimeMillis() - start);
+        return stats;
+    }
+
+    // ================== Mises à jour ==================
+
+    /**
+     * Ajoute une nouvelle tentative aux statistiques en cache (sans effet si le quiz n'est pas en cache).
+     */
+    public void recordAttempt(Quiz quiz, double score, Map<Long, String> answers) {
+        cache.compute(quiz.getId(), (id, stats) -> {
+            markLoadingStale(id);
+            if (stats != null) {
+                int questionCount = stats.questionIds.length;
+                int[] chosen = new int[questionCount];
+                boolean[] correct = new boolean[questionCount];
+                Arrays.fill(chosen, QuizItemStats.UNANSWERED);
+                if (answers != null) {
+                    for (Map.Entry<Long, String> answer : answers.entrySet()) {
+                        stats.classify(answer.getKey(), answer.getValue(), chosen, correct);
+                    }
+                }
+                stats.add(score, chosen, correct);
+            }
+            return stats;
+        });
+    }
+
+    /**
+     * À appeler quand les questions ou les tentatives d'un quiz changent, ou que le quiz est
+     * supprimé (après le commit si une transaction est en cours).
+     */
+    public void invalidate(Long quizId) {
+        afterCommit(() -> cache.compute(quizId, (id, stats) -> {
+            markLoadingStale(id);
+            return null;
+        }));
+    }
+
+    private void markLoadingStale(Long quizId) {
+        Loading current = loading.get(quizId);
+        if (current != null) {
+            current.stale = true;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Loading {
+        private volatile boolean stale;
+    }
+
+    // ================== Accumulateurs ==================
+
+    /**
+     * Compteurs et sommes d'un quiz. Pour chaque question i, avec x = 1 si la réponse est juste :
+     * nombre de bonnes réponses (Σx), somme des scores des tentatives justes (Σx·score) et compte
+     * de chaque option. Avec le nombre de tentatives, Σscore et Σscore², cela suffit pour la
+     * difficulté et la corrélation avec le reste du score (score - x·poids de la question).
+     */
+    private static class QuizItemStats {
+        private static final int UNANSWERED = -2;
+        private static final int OTHER = -1;
+
+        private final long expiresAt;
+        private final LocalDateTime computedAt = LocalDateTime.now();
+        private final long[] questionIds;
+        private final String[] texts;
+        private final String[] correctAnswers;
+        private final List<List<String>> options;
+        private final Map<Long, Integer> indexById = new HashMap<>();
+        private final List<Map<String, Integer>> optionIndex = new ArrayList<>();
+        private final double[] weights; // Part de la question dans le score, en points de pourcentage
+
+        private long attempts;
+        private double sumScore;
+        private double sumSquares;
+        private final long[] correctCounts;
+        private final double[] sumScoreCorrect;
+        private final long[][] optionCounts;
+        private final long[] otherCounts;
+        private final long[] unansweredCounts;
+
+        private QuizItemStats(List<Question> questions, long expiresAt) {
+            this.expiresAt = expiresAt;
+            int n = questions.size();
+            questionIds = new long[n];
+            texts = new String[n];
+            correctAnswers = new String[n];
+            options = new ArrayList<>(n);
+            weights = new double[n];
+            correctCounts = new long[n];
+            sumScoreCorrect = new double[n];
+            optionCounts = new long[n][];
+            otherCounts = new long[n];
+            unansweredCounts = new long[n];
+
+            int totalPoints = 0;
+            for (Question question : questions) {
+                totalPoints += question.getPoints();
+            }
+            for (int i = 0; i < n; i++) {
+                Question question = questions.get(i);
+                questionIds[i] = question.getId();
+                texts[i] = question.getText();
+                correctAnswers[i] = question.getCorrectAnswer();
+                weights[i] = totalPoints > 0 ? question.getPoints() * 100.0 / totalPoints : 0;
+                indexById.put(question.getId(), i);
+
+                List<String> questionOptions = question.getOptions() != null
+                        ? new ArrayList<>(question.getOptions()) : new ArrayList<>();
+                options.add(questionOptions);
+                Map<String, Integer> byText = new HashMap<>();
+                for (int o = 0; o < questionOptions.size(); o++) {
+                    byText.putIfAbsent(normalize(questionOptions.get(o)), o);
+                }
+                optionIndex.add(byText);
+                optionCounts[i] = new long[questionOptions.size()];
+            }
+        }
+
+        /** Enregistre la réponse donnée à une question dans les tableaux de la tentative courante. */
+        private void classify(long questionId, String answer, int[] chosen, boolean[] correct) {
+            Integer i = indexById.get(questionId);
+            if (i == null || answer == null || answer.isBlank()) {
+                return; // Question supprimée depuis, ou réponse vide
+            }
+            Integer option = optionIndex.get(i).get(normalize(answer));
+            chosen[i] = option != null ? option : OTHER;
+            // Même règle que la correction des soumissions
+            correct[i] = answer.equalsIgnoreCase(correctAnswers[i]);
+        }
+
+        private synchronized void add(double score, int[] chosen, boolean[] correct) {
+            attempts++;
+            sumScore += score;
+            sumSquares += score * score;
+            for (int i = 0; i < questionIds.length; i++) {
+                if (correct[i]) {
+                    correctCounts[i]++;
+                    sumScoreCorrect[i] += score;
+                }
+                if (chosen[i] == UNANSWERED) {
+                    unansweredCounts[i]++;
+                } else if (chosen[i] == OTHER) {
+                    otherCounts[i]++;
+                } else {
+                    optionCounts[i][chosen[i]]++;
+                }
+            }
+        }
+
+        private synchronized ItemAnalysisDto toDto(Long quizId, int minAttemptsForFlags) {
+            double n = attempts;
+            Double mean = attempts > 0 ? round(sumScore / n) : null;
+            Double stdDev = attempts > 0
+                    ? round(Math.sqrt(Math.max(0, sumSquares / n - (sumScore / n) * (sumScore / n))))
+                    : null;
+
+            List<ItemStats> items = new ArrayList<>(questionIds.length);
+            for (int i = 0; i < questionIds.length; i++) {
+                Double difficulty = attempts > 0 ? round(correctCounts[i] / n) : null;
+                Double discrimination = attempts > 0 ? discrimination(i) : null;
+
+                List<OptionStats> optionStats = new ArrayList<>(options.get(i).size());
+                for (int o = 0; o < options.get(i).size(); o++) {
+                    String option = options.get(i).get(o);
+                    optionStats.add(new OptionStats(option, option.equalsIgnoreCase(correctAnswers[i]),
+                            optionCounts[i][o], attempts > 0 ? round(optionCounts[i][o] / n) : null));
+                }
+
+                List<String> flags = new ArrayList<>();
+                if (attempts > 0 && attempts >= minAttemptsForFlags) {
+                    if (difficulty > TOO_EASY) flags.add("TOO_EASY");
+                    if (difficulty < TOO_HARD) flags.add("TOO_HARD");
+                    if (discrimination != null && discrimination < 0) {
+                        flags.add("NEGATIVE_DISCRIMINATION");
+                    } else if (discrimination != null && discrimination < LOW_DISCRIMINATION) {
+                        flags.add("LOW_DISCRIMINATION");
+                    }
+                }
+
+                items.add(new ItemStats(questionIds[i], texts[i], correctAnswers[i], difficulty, discrimination,
+                        optionStats, otherCounts[i], unansweredCounts[i], flags));
+            }
+            return new ItemAnalysisDto(quizId, attempts, mean, stdDev, computedAt, items);
+        }
+
+        /**
+         * Corrélation de Pearson entre x (question juste) et le reste du score, calculée à partir
+         * des sommes : Σrest = Σscore - w·Σx, Σrest² = Σscore² - 2w·Σx·score + w²·Σx, Σx·rest = Σx·score - w·Σx.
+         */
+        private Double discrimination(int i) {
+            double n = attempts;
+            double w = weights[i];
+            double c = correctCounts[i];
+            double sumRest = sumScore - w * c;
+            double sumRestSquares = sumSquares - 2 * w * sumScoreCorrect[i] + w * w * c;
+            double sumXRest = sumScoreCorrect[i] - w * c;
+
+            double p = c / n;
+            double meanRest = sumRest / n;
+            double varX = p * (1 - p);
+            double varRest = sumRestSquares / n - meanRest * meanRest;
+            if (varX <= 0 || varRest <= 1e-9) {
+                return null; // Tout le monde juste (ou faux), ou reste du score constant
+            }
+            double covariance = sumXRest / n - p * meanRest;
+            return round(Math.max(-1, Math.min(1, covariance / Math.sqrt(varX * varRest))));
+        }
+
+        private static String normalize(String value) {
+            return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 1000.0) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.CourseTimeseriesDto;
+import com.elearnia.dto.CourseTimeseriesDto.DayPoint;
+import com.elearnia.dto.CourseTimeseriesDto.QuizPoint;
+import com.elearnia.dto.CourseTimeseriesDto.QuizSeries;
+import com.elearnia.entities.Quiz;
+import com.elearnia.repository.QuizRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agrégats quotidiens des cours (inscriptions, complétions) et des quizzes (tentatives,
+ * réussites, somme des scores).
+ *
+ * Les compteurs sont incrémentés au fil de l'eau par les chemins d'inscription, de soumission de
+ * quiz et de progression (un upsert par événement). Les séries du tableau de bord ne lisent que
+ * ces agrégats : leur coût dépend du nombre de jours demandés, pas du nombre de tentatives.
+ * L'historique des tentatives antérieur aux agrégats est reconstruit par {@link #backfillAttempts}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LearningAnalyticsService {
+
+    private static final String UPSERT_COURSE_STATS =
+            "INSERT INTO course_daily_stats (course_id, stat_date, enrollments, completions) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE enrollments = enrollments + VALUES(enrollments), " +
+            "completions = completions + VALUES(completions)";
+    private static final String UPSERT_QUIZ_STATS =
+            "INSERT INTO quiz_daily_stats (quiz_id, course_id, stat_date, attempts, passed, score_sum) VALUES (?, ?, ?, 1, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE attempts = attempts + 1, passed = passed + VALUES(passed), " +
+            "score_sum = score_sum + VALUES(score_sum)";
+    // Recalcule les agrégats de tentatives d'une période à partir de quiz_attempts (remplace les valeurs)
+    private static final String BACKFILL_QUIZ_STATS =
+            "INSERT INTO quiz_daily_stats (quiz_id, course_id, stat_date, attempts, passed, score_sum) " +
+            "SELECT a.quiz_id, q.course_id, DATE(a.completed_at), COUNT(*), SUM(a.passed), SUM(a.score) " +
+            "FROM quiz_attempts a JOIN quizzes q ON q.id = a.quiz_id " +
+            "WHERE a.completed_at >= ? AND a.completed_at < ? " +
+            "GROUP BY a.quiz_id, q.course_id, DATE(a.completed_at) " +
+            "ON DUPLICATE KEY UPDATE attempts = VALUES(attempts), passed = VALUES(passed), score_sum = VALUES(score_sum)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QuizRepository quizRepository;
+
+    @Value("${analytics.timeseries.default-days:30}")
+    private int defaultDays;
+
+    @Value("${analytics.timeseries.max-days:366}")
+    private int maxDays;
+
+    @Value("${analytics.rollup.backfill-chunk-days:30}")
+    private int backfillChunkDays;
+
+    // ================== Mises à jour incrémentales ==================
+    // Un échec de mise à jour des agrégats ne doit jamais faire échouer l'action de l'étudiant.
+
+    public void recordEnrollments(Long courseId, int count) {
+        if (count <= 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(UPSERT_COURSE_STATS, courseId, Date.valueOf(LocalDate.now()), count, 0);
+        } catch (DataAccessException e) {
+            log.warn("Agrégat d'inscriptions non mis à jour (cours {}): {}", courseId, e.getMessage());
+        }
+    }
+
+    public void recordCompletion(Long courseId) {
+        try {
+            jdbcTemplate.update(UPSERT_COURSE_STATS, courseId, Date.valueOf(LocalDate.now()), 0, 1);
+        } catch (DataAccessException e) {
+            log.warn("Agrégat de complétions non mis à jour (cours {}): {}", courseId, e.getMessage());
+        }
+    }
+
+    public void recordAttempt(Quiz quiz, double score, boolean passed) {
+        Long courseId = quiz.getCourse() != null ? quiz.getCourse().getId() : null;
+        try {
+            jdbcTemplate.update(UPSERT_QUIZ_STATS, quiz.getId(), courseId, Date.valueOf(LocalDate.now()),
+                    passed ? 1 : 0, score);
+        } catch (DataAccessException e) {
+            log.warn("Agrégat de tentatives non mis à jour (quiz {}): {}", quiz.getId(), e.getMessage());
+        }
+    }
+
+    // ================== Historique ==================
+
+    /**
+     * Reconstruit les agrégats de tentatives des {@code days} derniers jours, aujourd'hui exclu
+     * (le jour courant est tenu à jour par {@link #recordAttempt}). Traite la période par tranches
+     * de {@code analytics.rollup.backfill-chunk-days} jours pour garder des requêtes courtes.
+     *
+     * Les inscriptions n'ont pas de date en base : leur historique ne peut pas être reconstruit.
+     */
+    public int backfillAttempts(int days) {
+        LocalDate end = LocalDate.now();
+        LocalDate start = end.minusDays(Math.max(1, days));
+        int chunk = Math.max(1, backfillChunkDays);
+        int rows = 0;
+        for (LocalDate from = start; from.isBefore(end); from = from.plusDays(chunk)) {
+            LocalDate to = from.plusDays(chunk).isBefore(end) ? from.plusDays(chunk) : end;
+            rows += jdbcTemplate.update(BACKFILL_QUIZ_STATS,
+                    Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay()));
+        }
+        log.info("Agrégats de tentatives reconstruits du {} au {}: {} ligne(s)", start, end.minusDays(1), rows);
+        return rows;
+    }
+
+    // ================== Lecture ==================
+
+    public CourseTimeseriesDto getCourseTimeseries(Long courseId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(defaultDays - 1L);
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La date de début doit précéder la date de fin");
+        }
+        int dayCount = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        if (dayCount > maxDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Période limitée à " + maxDays + " jours");
+        }
+
+        // Cours : inscriptions et complétions
+        int[] enrollments = new int[dayCount];
+        int[] completions = new int[dayCount];
+        jdbcTemplate.query(
+                "SELECT stat_date, enrollments, completions FROM course_daily_stats " +
+                        "WHERE course_id = ? AND stat_date BETWEEN ? AND ?",
+                rs -> {
+                    int i = dayIndex(start, rs.getDate(1));
+                    enrollments[i] = rs.getInt(2);
+                    completions[i] = rs.getInt(3);
+                },
+                courseId, Date.valueOf(start), Date.valueOf(end));
+
+        // Quizzes : un tableau par quiz, plus les totaux du cours
+        int[] courseAttempts = new int[dayCount];
+        int[] coursePassed = new int[dayCount];
+        double[] courseScores = new double[dayCount];
+        Map<Long, QuizDays> quizDays = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT quiz_id, stat_date, attempts, passed, score_sum FROM quiz_daily_stats " +
+                        "WHERE course_id = ? AND stat_date BETWEEN ? AND ?",
+                rs -> {
+                    int i = dayIndex(start, rs.getDate(2));
+                    QuizDays series = quizDays.computeIfAbsent(rs.getLong(1), k -> new QuizDays(dayCount));
+                    series.attempts[i] = rs.getInt(3);
+                    series.passed[i] = rs.getInt(4);
+                    series.scores[i] = rs.getDouble(5);
+                    courseAttempts[i] += series.attempts[i];
+                    coursePassed[i] += series.passed[i];
+                    courseScores[i] += series.scores[i];
+                },
+                courseId, Date.valueOf(start), Date.valueOf(end));
+
+        List<DayPoint> days = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            days.add(new DayPoint(start.plusDays(i), enrollments[i], completions[i], courseAttempts[i],
+                    average(courseScores[i], courseAttempts[i]), rate(coursePassed[i], courseAttempts[i])));
+        }
+
+        List<QuizSeries> quizzes = new ArrayList<>();
+        for (Quiz quiz : quizRepository.findAllByCourseId(courseId)) {
+            QuizDays series = quizDays.getOrDefault(quiz.getId(), new QuizDays(dayCount));
+            List<QuizPoint> points = new ArrayList<>(dayCount);
+            for (int i = 0; i < dayCount; i++) {
+                points.add(new QuizPoint(start.plusDays(i), series.attempts[i],
+                        average(series.scores[i], series.attempts[i]), rate(series.passed[i], series.attempts[i])));
+            }
+            quizzes.add(new QuizSeries(quiz.getId(), quiz.getTitle(), points));
+        }
+
+        return new CourseTimeseriesDto(courseId, start, end, days, quizzes);
+    }
+
+    private static class QuizDays {
+        private final int[] attempts;
+        private final int[] passed;
+        private final double[] scores;
+
+        private QuizDays(int dayCount) {
+            attempts = new int[dayCount];
+            passed = new int[dayCount];
+            scores = new double[dayCount];
+        }
+    }
+
+    private int dayIndex(LocalDate start, Date date) {
+        return (int) ChronoUnit.DAYS.between(start, date.toLocalDate());
+    }
+
+    private Double average(double sum, int count) {
+        return count > 0 ? Math.round(sum / count * 100.0) / 100.0 : null;
+    }
+
+    private Double rate(int passed, int count) {
+        return count > 0 ? Math.round(passed * 10000.0 / count) / 100.0 : null;
+    }
+}
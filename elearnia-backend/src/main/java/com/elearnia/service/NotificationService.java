@@ -32,6 +32,27 @@ public class NotificationService {
         notificationRepository.save(notification);
     }
 
+    /**
+     * Une seule notification récapitulative pour une inscription en masse.
+     */
+    @Transactional
+    public void sendBulkEnrollmentNotification(User teacher, Course course, int enrolledCount) {
+        String message = String.format(
+                "%d étudiant(s) ont été inscrits à votre cours \"%s\"",
+                enrolledCount,
+                course.getTitle()
+        );
+
+        Notification notification = Notification.builder()
+                .user(teacher)
+                .message(message)
+                .type("ENROLLMENT")
+                .read(false)
+                .build();
+
+        notificationRepository.save(notification);
+    }
+
     @Transactional
     public void sendCompletionNotification(User teacher, User student, Course course) {
         String message = String.format(
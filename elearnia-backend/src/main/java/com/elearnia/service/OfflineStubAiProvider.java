@@ -0,0 +1,55 @@
+package com.elearnia.service;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fournisseur hors ligne et déterministe : aucune connexion réseau, même prompt = même réponse.
+ * Pour le développement sans clé d'API, les démonstrations et les mesures de performance
+ * de la chaîne sans la latence du modèle.
+ */
+@Component
+public class OfflineStubAiProvider implements AiProvider {
+
+    public static final String NAME = "offline";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supportsBatching() {
+        return true;
+    }
+
+    @Override
+    public String generate(AiRequest request) {
+        String prompt = request.getPrompt() != null ? request.getPrompt().trim() : "";
+        // Reprendre la première phrase du prompt, bornée par le budget de tokens (~4 caractères par token)
+        int end = prompt.indexOf('.');
+        String firstSentence = end > 0 ? prompt.substring(0, end) : prompt;
+        int maxChars = Math.max(16, request.getMaxTokens() * 4);
+        if (firstSentence.length() > maxChars) {
+            firstSentence = firstSentence.substring(0, maxChars);
+        }
+        return String.format("Réponse hors ligne #%08x : %s.", prompt.hashCode(), firstSentence);
+    }
+
+    @Override
+    public List<String> generateBatch(List<AiRequest> requests) {
+        List<String> responses = new ArrayList<>(requests.size());
+        for (AiRequest request : requests) {
+            responses.add(generate(request));
+        }
+        return responses;
+    }
+
+    @Override
+    public Flux<String> stream(AiRequest request) {
+        return Flux.fromArray(generate(request).split("(?<=\\s)"));
+    }
+}
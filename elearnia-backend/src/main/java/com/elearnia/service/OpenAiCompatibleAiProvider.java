@@ -0,0 +1,162 @@
+package com.elearnia.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serveur compatible OpenAI (vLLM, llama.cpp, Ollama, LocalAI...) : POST {base-url}/completions.
+ * Permet d'utiliser un modèle auto-hébergé sans modifier le code. Les lots sont envoyés en un
+ * seul appel avec un tableau de "prompt".
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpenAiCompatibleAiProvider implements AiProvider {
+
+    public static final String NAME = "openai";
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    private final AiProviderSupport support;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ai.providers.openai.base-url:http://localhost:8000/v1}")
+    private String baseUrl;
+
+    @Value("${ai.providers.openai.api-key:}")
+    private String apiKey;
+
+    @Value("${ai.providers.openai.model:local-model}")
+    private String defaultModel;
+
+    @Value("${ai.providers.openai.max-connections:16}")
+    private int maxConnections;
+
+    @Value("${ai.providers.openai.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${ai.providers.openai.response-timeout-seconds:60}")
+    private int responseTimeoutSeconds;
+
+    private WebClient client;
+
+    @PostConstruct
+    public void init() {
+        client = support.createClient(NAME, baseUrl, apiKey, maxConnections, connectTimeoutMs, responseTimeoutSeconds);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supportsBatching() {
+        return true;
+    }
+
+    @Override
+    public String generate(AiRequest request) {
+        return support.timed(NAME, "single", List.of(request),
+                () -> extractTexts(post(request, request.getPrompt(), request.getMaxTokens()), 1)[0]);
+    }
+
+    @Override
+    public List<String> generateBatch(List<AiRequest> requests) {
+        return support.timed(NAME, "batch", requests, () -> {
+            List<String> prompts = new ArrayList<>(requests.size());
+            int maxTokens = 0;
+            for (AiRequest request : requests) {
+                prompts.add(request.getPrompt());
+                maxTokens = Math.max(maxTokens, request.getMaxTokens());
+            }
+            return Arrays.asList(extractTexts(post(requests.get(0), prompts, maxTokens), requests.size()));
+        });
+    }
+
+    @Override
+    public Flux<String> stream(AiRequest request) {
+        Map<String, Object> requestBody = buildBody(request, request.getPrompt(), request.getMaxTokens());
+        requestBody.put("stream", true);
+
+        Flux<String> tokens = client.post()
+                .uri("/completions")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(SSE_TYPE)
+                .mapNotNull(ServerSentEvent::data)
+                .takeUntil(data -> "[DONE]".equals(data.trim()))
+                .mapNotNull(this::parseStreamChunk);
+        return support.timedStream(NAME, request, tokens);
+    }
+
+    private JsonNode post(AiRequest request, Object prompt, int maxTokens) {
+        return client.post()
+                .uri("/completions")
+                .bodyValue(buildBody(request, prompt, maxTokens))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .block();
+    }
+
+    private Map<String, Object> buildBody(AiRequest request, Object prompt, int maxTokens) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", request.getModel() != null && !request.getModel().isEmpty()
+                ? request.getModel() : defaultModel);
+        requestBody.put("prompt", prompt);
+        requestBody.put("max_tokens", maxTokens);
+        requestBody.put("temperature", request.getTemperature());
+        requestBody.put("top_p", 0.9);
+        return requestBody;
+    }
+
+    /**
+     * Les "choices" portent un "index" qui renvoie au prompt d'origine : on ne se fie pas à leur ordre.
+     */
+    private String[] extractTexts(JsonNode response, int expected) {
+        String[] texts = new String[expected];
+        if (response == null) {
+            return texts;
+        }
+        for (JsonNode choice : response.path("choices")) {
+            int index = choice.path("index").asInt(-1);
+            if (index >= 0 && index < expected) {
+                String text = choice.path("text").asText("").trim();
+                texts[index] = text.isEmpty() ? null : text;
+            }
+        }
+        return texts;
+    }
+
+    private String parseStreamChunk(String data) {
+        if (data.isBlank() || "[DONE]".equals(data.trim())) {
+            return null;
+        }
+        try {
+            JsonNode choice = objectMapper.readTree(data).path("choices").path(0);
+            String text = choice.path("text").asText("");
+            return text.isEmpty() ? null : text;
+        } catch (Exception e) {
+            log.debug("Événement de flux ignoré: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.QueryStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compte les requêtes SQL préparées par Hibernate pendant chaque appel de contrôleur et les
+ * attribue à la méthode appelée (Contrôleur#méthode).
+ *
+ * L'appel en cours est porté par le thread (ouvert et fermé par l'intercepteur de
+ * {@link com.elearnia.config.QueryBudgetConfig}) ; les requêtes exécutées hors appel (tâches
+ * planifiées, démarrage) ne sont pas comptées. Une même requête répétée au moins
+ * {@code query-budget.repeat-threshold} fois dans un appel est signalée comme N+1 probable.
+ * Les requêtes JdbcTemplate ne passent pas par Hibernate et ne sont pas comptées.
+ */
+@Slf4j
+@Component
+public class QueryBudgetTracker implements StatementInspector {
+
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    @Value("${query-budget.enabled:true}")
+    private boolean enabled;
+
+    @Value("${query-budget.strict:false}")
+    private boolean strict;
+
+    @Value("${query-budget.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    // ================== Comptage ==================
+
+    public void begin(String endpoint, int budget) {
+        if (enabled) {
+            CURRENT.set(new RequestQueries(endpoint, budget));
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueries current = CURRENT.get();
+        if (current != null) {
+            current.count++;
+            current.bySql.merge(sql, 1, Integer::sum);
+            if (strict && current.budget > 0 && current.count > current.budget) {
+                throw new IllegalStateException("Budget de requêtes dépassé pour " + current.endpoint
+                        + " (" + current.budget + "): " + sql);
+            }
+        }
+        return sql;
+    }
+
+    public void end() {
+        RequestQueries current = CURRENT.get();
+        if (current == null) {
+            return;
+        }
+        CURRENT.remove();
+
+        String repeatedSql = null;
+        int repeatedCount = 0;
+        for (Map.Entry<String, Integer> entry : current.bySql.entrySet()) {
+            if (entry.getValue() > repeatedCount) {
+                repeatedSql = entry.getKey();
+                repeatedCount = entry.getValue();
+            }
+        }
+        boolean overBudget = current.budget > 0 && current.count > current.budget;
+        if (overBudget) {
+            log.warn("Budget de requêtes dépassé: {} a exécuté {} requête(s) (budget {})",
+                    current.endpoint, current.count, current.budget);
+        }
+        if (repeatedCount >= repeatThreshold) {
+            log.warn("N+1 probable dans {}: {} exécutions de {}", current.endpoint, repeatedCount, repeatedSql);
+        }
+        stats.computeIfAbsent(current.endpoint, EndpointStats::new)
+                .add(current.budget, current.count, overBudget, repeatedSql, repeatedCount);
+    }
+
+    /** Endpoint en cours sur ce thread (Contrôleur#méthode), ou null hors appel de contrôleur. */
+    public static String currentEndpoint() {
+        RequestQueries current = CURRENT.get();
+        return current != null ? current.endpoint : null;
+    }
+
+    // ================== Lecture ==================
+
+    /** Endpoints triés par nombre maximal de requêtes en un appel, du pire au meilleur. */
+    public List<QueryStatsDto> topOffenders(int limit) {
+        List<QueryStatsDto> result = new ArrayList<>();
+        for (EndpointStats endpoint : stats.values()) {
+            result.add(endpoint.toDto());
+        }
+        result.sort(Comparator.comparingLong(QueryStatsDto::getMaxStatements).reversed()
+                .thenComparing(Comparator.comparingDouble(QueryStatsDto::getAvgStatements).reversed()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private static class RequestQueries {
+        private final String endpoint;
+        private final int budget;
+        private final Map<String, Integer> bySql = new HashMap<>();
+        private int count;
+
+        private RequestQueries(String endpoint, int budget) {
+            this.endpoint = endpoint;
+            this.budget = budget;
+        }
+    }
+
+    private static class EndpointStats {
+        private final String endpoint;
+        private int budget;
+        private long requests;
+        private long statements;
+        private long maxStatements;
+        private long overBudget;
+        private String repeatedSql;
+        private long repeatedCount;
+
+        private EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private synchronized void add(int budget, int count, boolean over, String sql, int repeated) {
+            this.budget = budget;
+            requests++;
+            statements += count;
+            maxStatements = Math.max(maxStatements, count);
+            if (over) {
+                overBudget++;
+            }
+            if (repeated > repeatedCount) {
+                repeatedSql = sql;
+                repeatedCount = repeated;
+            }
+        }
+
+        private synchronized QueryStatsDto toDto() {
+            double avg = requests > 0 ? Math.round(statements * 100.0 / requests) / 100.0 : 0.0;
+            return new QueryStatsDto(endpoint, budget, requests, avg, maxStatements, overBudget,
+                    repeatedSql, repeatedCount);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.SimilarQuestionDto;
+import com.elearnia.entities.Question;
+import com.elearnia.entities.Quiz;
+import com.elearnia.repository.QuestionRepository;
+import com.elearnia.util.MinHashLsh;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Index en mémoire (MinHash + LSH) de toutes les questions de la plateforme, pour détecter les
+ * questions quasi identiques : doublons reformulés dans les quiz générés par IA, questions
+ * reprises d'un quiz à l'autre par les enseignants.
+ *
+ * Chargé au démarrage, puis mis à jour quiz par quiz après le commit des créations,
+ * modifications et suppressions.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuestionSimilarityIndex {
+
+    private final QuestionRepository questionRepository;
+
+    @Value("${questions.similarity.threshold:0.6}")
+    private double threshold;
+
+    @Value("${questions.similarity.shingle-size:4}")
+    private int shingleSize;
+
+    @Value("${questions.similarity.bands:32}")
+    private int bands;
+
+    @Value("${questions.similarity.rows:4}")
+    private int rows;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedQuestion> questions = new HashMap<>();
+    private final Map<Long, Set<Long>> questionIdsByQuiz = new HashMap<>();
+    private MinHashLsh index;
+
+    private static class IndexedQuestion {
+        private final Long quizId;
+        private final Long ownerId;     // Professeur du cours du quiz, null pour un quiz standalone
+        private final String text;
+
+        private IndexedQuestion(Long quizId, Long ownerId, String text) {
+            this.quizId = quizId;
+            this.ownerId = ownerId;
+            this.text = text;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        index = new MinHashLsh(shingleSize, bands, rows);
+        List<Object[]> entries = questionRepository.findAllTexts();
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : entries) {
+                add((Long) row[0], (Long) row[1], (Long) row[3], (String) row[2]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Index de similarité des questions chargé: {} questions", index.size());
+    }
+
+    // ================== Recherche ==================
+
+    /**
+     * Questions existantes proches du texte, de la plus similaire à la moins similaire.
+     * Le coût ne dépend que de la longueur du texte et du nombre de candidats, pas de la taille
+     * de la banque de questions.
+     *
+     * Le texte n'est renvoyé que pour les questions que le professeur teacherId peut déjà lire
+     * (quizzes de ses cours et quizzes standalone) : pour les autres, seuls les identifiants et
+     * la similarité sont renvoyés.
+     */
+    public List<SimilarQuestionDto> findSimilar(String text, Long excludeQuizId, Long teacherId, int limit) {
+        int[] signature = index.signature(text);
+        List<SimilarQuestionDto> results = new ArrayList<>();
+        if (signature == null) {
+            return results;
+        }
+        lock.readLock().lock();
+        try {
+            for (Long id : index.candidates(signature)) {
+                IndexedQuestion question = questions.get(id);
+                if (question == null || (excludeQuizId != null && excludeQuizId.equals(question.quizId))) {
+                    continue;
+                }
+                double similarity = MinHashLsh.similarity(signature, index.get(id));
+                if (similarity >= threshold) {
+                    boolean visible = question.ownerId == null || question.ownerId.equals(teacherId);
+                    String visibleText = visible ? question.text : null;
+                    results.add(new SimilarQuestionDto(id, question.quizId, visibleText, similarity));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        results.sort(Comparator.comparingDouble(SimilarQuestionDto::getSimilarity).reversed());
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    /**
+     * Retire d'une liste de questions à enregistrer celles qui sont quasi identiques à une question
+     * existante ou à une question déjà retenue dans la liste. Les questions actuelles du quiz
+     * excludeQuizId (celui que la liste va remplacer, null pour un nouveau quiz) ne comptent pas.
+     */
+    public <T> List<T> removeNearDuplicates(List<T> items, Function<T, String> textOf, Long excludeQuizId) {
+        List<T> kept = new ArrayList<>(items.size());
+        List<int[]> keptSignatures = new ArrayList<>(items.size());
+        for (T item : items) {
+            int[] signature = index.signature(textOf.apply(item));
+            if (signature != null && (hasIndexedDuplicate(signature, excludeQuizId) || hasDuplicate(signature, keptSignatures))) {
+                log.info("Question quasi identique écartée: '{}'", textOf.apply(item));
+                continue;
+            }
+            kept.add(item);
+            keptSignatures.add(signature);
+        }
+        return kept;
+    }
+
+    private boolean hasIndexedDuplicate(int[] signature, Long excludeQuizId) {
+        lock.readLock().lock();
+        try {
+            for (Long id : index.candidates(signature)) {
+                IndexedQuestion question = questions.get(id);
+                if (question == null || (excludeQuizId != null && excludeQuizId.equals(question.quizId))) {
+                    continue;
+                }
+                if (MinHashLsh.similarity(signature, index.get(id)) >= threshold) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean hasDuplicate(int[] signature, List<int[]> others) {
+        for (int[] other : others) {
+            if (MinHashLsh.similarity(signature, other) >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ================== Mises à jour ==================
+
+    /**
+     * Remplace les questions indexées du quiz par ses questions actuelles (après le commit si une
+     * transaction est en cours : les identifiants des nouvelles questions sont alors connus).
+     */
+    public void indexQuiz(Quiz quiz) {
+        // Lu dans la transaction : le cours et son professeur ne sont plus chargeables après le commit
+        Long ownerId = quiz.getCourse() != null ? quiz.getCourse().getTeacher().getId() : null;
+        afterCommit(() -> {
+            Map<Long, String> texts = new HashMap<>();
+            if (quiz.getQuestions() != null) {
+                for (Question question : quiz.getQuestions()) {
+                    texts.put(question.getId(), question.getText());
+                }
+            }
+            replaceQuizEntries(quiz.getId(), ownerId, texts);
+        });
+    }
+
+    /**
+     * Variante pour les questions insérées sans entité (JDBC) : identifiant -> texte. ownerId est
+     * le professeur du cours du quiz (null pour un quiz standalone).
+     */
+    public void indexQuestions(Long quizId, Long ownerId, Map<Long, String> textsById) {
+        afterCommit(() -> replaceQuizEntries(quizId, ownerId, textsById));
+    }
+
+    /**
+     * Retire toutes les questions du quiz (après le commit si une transaction est en cours).
+     */
+    public void removeQuiz(Long quizId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeQuizEntries(quizId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void replaceQuizEntries(Long quizId, Long ownerId, Map<Long, String> textsById) {
+        lock.writeLock().lock();
+        try {
+            removeQuizEntries(quizId);
+            for (Map.Entry<Long, String> entry : textsById.entrySet()) {
+                add(entry.getKey(), quizId, ownerId, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Long questionId, Long quizId, Long ownerId, String text) {
+        if (questionId == null || text == null) {
+            return;
+        }
+        index.put(questionId, index.signature(text));
+        questions.put(questionId, new IndexedQuestion(quizId, ownerId, text));
+        questionIdsByQuiz.computeIfAbsent(quizId, k -> new HashSet<>()).add(questionId);
+    }
+
+    private void removeQuizEntries(Long quizId) {
+        Set<Long> ids = questionIdsByQuiz.remove(quizId);
+        if (ids == null) {
+            return;
+        }
+        for (Long id : ids) {
+            index.remove(id);
+            questions.remove(id);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
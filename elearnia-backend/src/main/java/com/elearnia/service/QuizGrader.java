@@ -0,0 +1,52 @@
+package com.elearnia.service;
+
+import com.elearnia.entities.Question;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Correction d'une soumission de quiz, commune aux quizzes de cours et standalone : conversion des
+ * réponses reçues (identifiants de question en texte) puis score en pourcentage des points.
+ * Sans état ni accès à la base (mesuré par le module benchmarks).
+ */
+public final class QuizGrader {
+
+    private QuizGrader() {
+    }
+
+    /**
+     * Réponses indexées par identifiant de question ; les clés non numériques sont ignorées.
+     */
+    public static Map<Long, String> parseAnswers(Map<String, String> answers) {
+        Map<Long, String> answersMap = new HashMap<>();
+        if (answers == null) {
+            return answersMap;
+        }
+        for (Map.Entry<String, String> entry : answers.entrySet()) {
+            try {
+                answersMap.put(Long.parseLong(entry.getKey()), entry.getValue());
+            } catch (NumberFormatException e) {
+                // Ignorer les clés invalides
+            }
+        }
+        return answersMap;
+    }
+
+    /**
+     * Score en pourcentage (0 si le quiz n'a aucun point) ; comparaison des réponses sans casse.
+     */
+    public static double score(List<Question> questions, Map<Long, String> answers) {
+        int totalPoints = 0;
+        int earnedPoints = 0;
+        for (Question question : questions) {
+            totalPoints += question.getPoints();
+            String studentAnswer = answers.get(question.getId());
+            if (studentAnswer != null && studentAnswer.equalsIgnoreCase(question.getCorrectAnswer())) {
+                earnedPoints += question.getPoints();
+            }
+        }
+        return totalPoints > 0 ? (earnedPoints * 100.0 / totalPoints) : 0;
+    }
+}
@@ -0,0 +1,321 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.GeneratedLessonDto;
+import com.elearnia.dto.GeneratedQuestionDto;
+import com.elearnia.util.TolerantJsonRepair;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Lecture des sorties JSON des modèles (questions de quiz, plans de leçons).
+ *
+ * Le JSON est extrait du texte puis réparé s'il est tronqué ({@link TolerantJsonRepair}), et les
+ * éléments du tableau sont lus un par un avec le parser en flux de Jackson : une erreur de syntaxe
+ * au milieu de la réponse n'invalide que la suite, pas les éléments déjà lus. Chaque élément est
+ * validé contre la forme de {@link GeneratedQuestionDto} / {@link GeneratedLessonDto} et les
+ * champs rejetés sont rapportés individuellement.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StructuredOutputParser {
+
+    private static final int MIN_QUESTION_LENGTH = 15;
+    private static final int OPTIONS_PER_QUESTION = 4;
+    private static final int MIN_LESSON_TITLE_LENGTH = 6;
+    private static final int DEFAULT_LESSON_DURATION = 20;
+    private static final int MIN_LESSON_DURATION = 15;
+    private static final int MAX_LESSON_DURATION = 45;
+
+    private static final Pattern QUESTION_NUMBERING = Pattern.compile("^\\d+[.)]\\s*");
+    private static final Pattern OPTION_LETTER = Pattern.compile("^[a-dA-D][.)]\\s+");
+    private static final Pattern LESSON_PREFIX = Pattern.compile("^Leçon\\s+\\d+[:\\s]*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NON_DIGITS = Pattern.compile("[^0-9]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Les modèles produisent souvent des retours à la ligne bruts dans les chaînes (markdown),
+     * des virgules finales ou des commentaires : on les accepte.
+     */
+    private static final ObjectMapper LENIENT_MAPPER = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER)
+            .build();
+
+    private final MeterRegistry meterRegistry;
+
+    // ================== Résultat ==================
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class FieldError {
+        private final int index;
+        private final String field;
+        private final String message;
+
+        @Override
+        public String toString() {
+            return "#" + index + "." + field + ": " + message;
+        }
+    }
+
+    @Getter
+    public static class Result<T> {
+        private final List<T> items = new ArrayList<>();
+        private final List<FieldError> errors = new ArrayList<>();
+        private boolean jsonFound;
+        private boolean repaired;
+        private boolean truncated;
+
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+    }
+
+    // ================== Questions ==================
+
+    /**
+     * Format attendu : {"questions": [{"question": "...", "options": ["...", x4], "answer": 0}]}
+     * (ou directement le tableau). "answer" peut être l'indice, la lettre (A-D) ou le texte de l'option.
+     */
+    public Result<GeneratedQuestionDto> parseQuestions(String response) {
+        Result<GeneratedQuestionDto> result = new Result<>();
+        parse(response, "questions", result, (index, node) -> toQuestion(index, node, result.errors));
+        report("questions", result);
+        return result;
+    }
+
+    private GeneratedQuestionDto toQuestion(int index, JsonNode node, List<FieldError> errors) {
+        String text = QUESTION_NUMBERING.matcher(firstText(node, "question", "text")).replaceFirst("").trim();
+        if (text.length() < MIN_QUESTION_LENGTH) {
+            errors.add(new FieldError(index, "question", "absente ou trop courte"));
+            return null;
+        }
+
+        JsonNode optionsNode = node.path("options");
+        if (!optionsNode.isArray()) {
+            errors.add(new FieldError(index, "options", "tableau attendu"));
+            return null;
+        }
+        List<String> options = new ArrayList<>(OPTIONS_PER_QUESTION);
+        Map<String, String> byNormalized = new HashMap<>();
+        for (JsonNode optionNode : optionsNode) {
+            String option = OPTION_LETTER.matcher(optionNode.asText("").trim()).replaceFirst("").trim();
+            if (!option.isEmpty() && byNormalized.putIfAbsent(normalize(option), option) == null) {
+                options.add(option);
+            }
+        }
+        if (options.size() != OPTIONS_PER_QUESTION) {
+            errors.add(new FieldError(index, "options",
+                    OPTIONS_PER_QUESTION + " options distinctes attendues, " + options.size() + " reçues"));
+            return null;
+        }
+
+        String correctAnswer = resolveAnswer(firstNode(node, "answer", "correctAnswer"), options, byNormalized);
+        if (correctAnswer == null) {
+            errors.add(new FieldError(index, "answer", "ne correspond à aucune option"));
+            return null;
+        }
+        return new GeneratedQuestionDto(text, options, correctAnswer, 1);
+    }
+
+    private String resolveAnswer(JsonNode answer, List<String> options, Map<String, String> byNormalized) {
+        if (answer == null || answer.isNull() || answer.isMissingNode()) {
+            return null;
+        }
+        if (answer.isInt()) {
+            int i = answer.asInt();
+            return i >= 0 && i < options.size() ? options.get(i) : null;
+        }
+        String value = answer.asText("").trim();
+        String match = byNormalized.get(normalize(value));
+        if (match != null) {
+            return match;
+        }
+        // "B", "b)", "2" : lettre ou indice sous forme de texte
+        if (!value.isEmpty() && value.length() <= 2) {
+            char c = Character.toUpperCase(value.charAt(0));
+            if (c >= 'A' && c < 'A' + options.size()) {
+                return options.get(c - 'A');
+            }
+            if (Character.isDigit(c) && c - '0' < options.size()) {
+                return options.get(c - '0');
+            }
+        }
+        return byNormalized.get(normalize(OPTION_LETTER.matcher(value).replaceFirst("")));
+    }
+
+    // ================== Leçons ==================
+
+    /**
+     * Format attendu : {"lessons": [{"title": "...", "description": "markdown", "duration": 20}]}
+     * (ou directement le tableau). Les champs orderIndex et videoUrl sont laissés à l'appelant.
+     */
+    public Result<GeneratedLessonDto> parseLessons(String response) {
+        Result<GeneratedLessonDto> result = new Result<>();
+        parse(response, "lessons", result, (index, node) -> toLesson(index, node, result.errors));
+        report("lessons", result);
+        return result;
+    }
+
+    private GeneratedLessonDto toLesson(int index, JsonNode node, List<FieldError> errors) {
+        String title = LESSON_PREFIX.matcher(firstText(node, "title", "titre")).replaceFirst("").trim();
+        if (title.length() < MIN_LESSON_TITLE_LENGTH) {
+            errors.add(new FieldError(index, "title", "absent ou trop court"));
+            return null;
+        }
+
+        String description = firstText(node, "description", "content");
+        if (description.isEmpty()) {
+            // L'appelant remplace une description vide par un contenu générique
+            errors.add(new FieldError(index, "description", "absente"));
+        }
+
+        int duration = DEFAULT_LESSON_DURATION;
+        JsonNode durationNode = firstNode(node, "duration", "estimatedDuration");
+        if (durationNode != null && durationNode.isNumber()) {
+            duration = durationNode.asInt();
+        } else if (durationNode != null && durationNode.isTextual()) {
+            String digits = NON_DIGITS.matcher(durationNode.asText()).replaceAll("");
+            if (!digits.isEmpty() && digits.length() < 4) {
+                duration = Integer.parseInt(digits);
+            } else {
+                errors.add(new FieldError(index, "duration", "non numérique"));
+            }
+        }
+        duration = Math.max(MIN_LESSON_DURATION, Math.min(MAX_LESSON_DURATION, duration));
+
+        return new GeneratedLessonDto(title, description, index + 1, duration, null);
+    }
+
+    // ================== Lecture ==================
+
+    private interface ItemMapper<T> {
+        T map(int index, JsonNode node);
+    }
+
+    private <T> void parse(String response, String arrayField, Result<T> result, ItemMapper<T> mapper) {
+        TolerantJsonRepair.Extracted extracted = TolerantJsonRepair.extract(response);
+        if (extracted == null) {
+            return;
+        }
+        result.jsonFound = true;
+        result.repaired = extracted.isRepaired();
+
+        readItems(extracted.getJson(), arrayField, result, mapper);
+        if (result.items.isEmpty() && result.truncated && extracted.getFallbackJson() != null) {
+            // La réparation complète reste invalide : repartir du dernier élément complet
+            result.errors.clear();
+            result.truncated = false;
+            readItems(extracted.getFallbackJson(), arrayField, result, mapper);
+        }
+    }
+
+    private <T> void readItems(String json, String arrayField, Result<T> result, ItemMapper<T> mapper) {
+        int index = 0;
+        try (JsonParser parser = LENIENT_MAPPER.createParser(json)) {
+            if (!moveToArray(parser, arrayField)) {
+                return;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    result.errors.add(new FieldError(index++, "*", "objet attendu"));
+                    continue;
+                }
+                JsonNode node = parser.readValueAsTree();
+                T item = mapper.map(index++, node);
+                if (item != null) {
+                    result.items.add(item);
+                }
+            }
+        } catch (IOException e) {
+            result.truncated = true;
+            log.debug("JSON IA invalide après {} élément(s): {}", index, e.getMessage());
+        }
+    }
+
+    /**
+     * Positionne le parser sur le START_ARRAY des éléments : le tableau racine, le champ attendu,
+     * ou à défaut le premier tableau d'objets rencontré dans l'objet racine.
+     */
+    private boolean moveToArray(JsonParser parser, String arrayField) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return true;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_ARRAY && (arrayField.equalsIgnoreCase(name) || !isScalarArrayField(name))) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private boolean isScalarArrayField(String name) {
+        // Un tableau "options" dans un objet racine est une question seule, pas la liste attendue
+        return "options".equalsIgnoreCase(name);
+    }
+
+    private void report(String kind, Result<?> result) {
+        String outcome = !result.jsonFound ? "no_json"
+                : result.items.isEmpty() ? "invalid"
+                : result.repaired || result.truncated ? "repaired"
+                : "ok";
+        meterRegistry.counter("ai.output.parse", "kind", kind, "outcome", outcome).increment();
+        for (FieldError error : result.errors) {
+            meterRegistry.counter("ai.output.field.errors", "kind", kind, "field", error.getField()).increment();
+        }
+        if (!result.errors.isEmpty()) {
+            log.warn("Sortie IA ({}) : {} élément(s) valides, champs rejetés {}", kind, result.items.size(), result.errors);
+        }
+    }
+
+    // ================== Utilitaires ==================
+
+    private static JsonNode firstNode(JsonNode node, String... names) {
+        for (String name : names) {
+            JsonNode value = node.get(name);
+            if (value != null && !value.isNull()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String firstText(JsonNode node, String... names) {
+        JsonNode value = firstNode(node, names);
+        return value != null && value.isValueNode() ? value.asText("").trim() : "";
+    }
+
+    private static String normalize(String value) {
+        return WHITESPACE.matcher(value.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+}
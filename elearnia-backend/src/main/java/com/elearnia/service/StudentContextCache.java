@@ -0,0 +1,171 @@
+package com.elearnia.service;
+
+import com.elearnia.entities.Enrollment;
+import com.elearnia.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache court (TTL) du contexte d'un étudiant : ses inscriptions et sa progression.
+ * Invalidé explicitement lors d'une inscription ou d'une mise à jour de progression, et borné à
+ * chatbot.context.max-entries (les entrées les plus anciennes sont évincées en premier).
+ */
+@Service
+@RequiredArgsConstructor
+public class StudentContextCache {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chatbot.context.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${chatbot.context.max-entries:10000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<Long, StudentContext> cache = new ConcurrentHashMap<>();
+
+    public StudentContext get(Long studentId) {
+        long now = System.nanoTime();
+        StudentContext context = cache.get(studentId);
+        if (context != null && context.expiresAt - now > 0) {
+            meterRegistry.counter("cache.requests", "cache", "student-context", "result", "hit").increment();
+            return context;
+        }
+        meterRegistry.counter("cache.requests", "cache", "student-context", "result", "miss").increment();
+
+        List<Enrollment> enrollments = enrollmentRepository.findByStudentIdWithCourse(studentId);
+        context = StudentContext.of(enrollments, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+
+        if (cache.size() >= maxEntries) {
+            evict(now);
+        }
+        cache.put(studentId, context);
+        return context;
+    }
+
+    /**
+     * Borne la taille du cache : purge les entrées expirées puis, si le cache reste plein, retire
+     * les plus anciennes (même TTL pour toutes : plus ancienne = expire le plus tôt) jusqu'à 90 %
+     * de chatbot.context.max-entries, pour ne pas trier à chaque insertion.
+     */
+    private synchronized void evict(long now) {
+        if (cache.size() < maxEntries) {
+            return;
+        }
+        cache.values().removeIf(entry -> entry.expiresAt - now <= 0);
+        int excess = cache.size() - (maxEntries - maxEntries / 10);
+        if (excess > 0) {
+            cache.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt - now))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(cache::remove);
+        }
+    }
+
+    /**
+     * Invalide le contexte d'un étudiant (après le commit si une transaction est en cours).
+     */
+    public void invalidate(Long studentId) {
+        afterCommit(() -> cache.remove(studentId));
+    }
+
+    /**
+     * Invalide les contextes de plusieurs étudiants (ex: inscription en masse), en une seule
+     * synchronisation de transaction.
+     */
+    public void invalidate(Collection<Long> studentIds) {
+        List<Long> ids = new ArrayList<>(studentIds);
+        afterCommit(() -> ids.forEach(cache::remove));
+    }
+
+    /**
+     * Invalide tous les contextes (ex: un cours a été renommé ou supprimé).
+     */
+    public void invalidateAll() {
+        afterCommit(cache::clear);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @Getter
+    public static final class StudentContext {
+        private final List<EnrollmentEntry> enrollments;
+        private final Set<Long> enrolledCourseIds;
+        private final long completedCount;
+        private final long expiresAt;
+
+        private StudentContext(List<EnrollmentEntry> enrollments, long expiresAt) {
+            this.enrollments = Collections.unmodifiableList(enrollments);
+            Set<Long> courseIds = new HashSet<>();
+            long completed = 0;
+            for (EnrollmentEntry entry : enrollments) {
+                courseIds.add(entry.getCourseId());
+                if (entry.isCompleted()) completed++;
+            }
+            this.enrolledCourseIds = Collections.unmodifiableSet(courseIds);
+            this.completedCount = completed;
+            this.expiresAt = expiresAt;
+        }
+
+        static StudentContext of(List<Enrollment> enrollments, long expiresAt) {
+            List<EnrollmentEntry> entries = new ArrayList<>(enrollments.size());
+            for (Enrollment enrollment : enrollments) {
+                entries.add(new EnrollmentEntry(
+                        enrollment.getCourse().getId(),
+                        enrollment.getCourse().getTitle(),
+                        enrollment.getProgress(),
+                        enrollment.isCompleted()
+                ));
+            }
+            return new StudentContext(entries, expiresAt);
+        }
+
+        public boolean isEmpty() {
+            return enrollments.isEmpty();
+        }
+
+        public int size() {
+            return enrollments.size();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class EnrollmentEntry {
+        private final Long courseId;
+        private final String courseTitle;
+        private final double progress;
+        private final boolean completed;
+    }
+}
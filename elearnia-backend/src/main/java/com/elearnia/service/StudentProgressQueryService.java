@@ -0,0 +1,142 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.StudentProgressDto;
+import com.elearnia.dto.StudentProgressPageDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Progression des étudiants d'un cours, page par page.
+ *
+ * Une seule requête de projection (inscriptions jointes aux utilisateurs) par page, paginée par
+ * curseur (keyset) : la page suivante reprend après la dernière ligne (valeur de tri, identifiant
+ * d'inscription) au lieu d'un OFFSET, son coût ne dépend donc pas de la position dans la liste.
+ * Le tri par progression est servi par les index (course_id, progress) et
+ * (course_id, completed, progress) de create_enrollments_progress_indexes.sql.
+ */
+@Service
+@RequiredArgsConstructor
+public class StudentProgressQueryService {
+
+    public static final String SORT_PROGRESS = "progress";
+    public static final String SORT_NAME = "name";
+    public static final String STATUS_ALL = "all";
+    public static final String STATUS_COMPLETED = "completed";
+    public static final String STATUS_IN_PROGRESS = "in-progress";
+
+    private final EntityManager entityManager;
+
+    @Value("${students.progress.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${students.progress.max-page-size:200}")
+    private int maxPageSize;
+
+    @Transactional(readOnly = true)
+    public StudentProgressPageDto findPage(Long courseId, String sort, String direction, String status,
+                                           Integer limit, String cursor) {
+        boolean byName = SORT_NAME.equalsIgnoreCase(sort);
+        if (!byName && sort != null && !SORT_PROGRESS.equalsIgnoreCase(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tri inconnu: " + sort);
+        }
+        // Par défaut : nom croissant, progression décroissante
+        boolean descending = direction != null ? "desc".equalsIgnoreCase(direction) : !byName;
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, maxPageSize)) : defaultPageSize;
+        String sortKey = byName ? "COALESCE(u.fullName, '')" : "e.progress";
+
+        StringBuilder jpql = new StringBuilder(
+                "SELECT e.id, u.id, u.fullName, u.email, e.progress, e.completed, e.rating " +
+                "FROM Enrollment e JOIN e.student u WHERE e.course.id = :courseId");
+        if (STATUS_COMPLETED.equalsIgnoreCase(status)) {
+            jpql.append(" AND e.completed = true");
+        } else if (STATUS_IN_PROGRESS.equalsIgnoreCase(status)) {
+            jpql.append(" AND e.completed = false");
+        } else if (status != null && !STATUS_ALL.equalsIgnoreCase(status)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filtre inconnu: " + status);
+        }
+
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor, byName) : null;
+        String comparison = descending ? "<" : ">";
+        if (after != null) {
+            jpql.append(" AND (").append(sortKey).append(' ').append(comparison).append(" :sortValue OR (")
+                    .append(sortKey).append(" = :sortValue AND e.id ").append(comparison).append(" :afterId))");
+        }
+        String order = descending ? " DESC" : " ASC";
+        jpql.append(" ORDER BY ").append(sortKey).append(order).append(", e.id").append(order);
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("courseId", courseId)
+                .setMaxResults(pageSize + 1);
+        if (after != null) {
+            query.setParameter("sortValue", byName ? after.value : Double.valueOf(after.value));
+            query.setParameter("afterId", after.enrollmentId);
+        }
+
+        List<Object[]> rows = query.getResultList();
+        boolean hasMore = rows.size() > pageSize;
+        List<StudentProgressDto> items = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (int i = 0; i < rows.size() && i < pageSize; i++) {
+            Object[] row = rows.get(i);
+            items.add(new StudentProgressDto((Long) row[1], (String) row[2], (String) row[3],
+                    (Double) row[4], (Boolean) row[5], (Double) row[6]));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = rows.get(pageSize - 1);
+            String value = byName ? (last[2] != null ? (String) last[2] : "") : String.valueOf(last[4]);
+            nextCursor = new Cursor((Long) last[0], value).encode(byName);
+        }
+        return new StudentProgressPageDto(items, nextCursor, pageSize);
+    }
+
+    /**
+     * Position dans la liste : identifiant de la dernière inscription renvoyée et sa valeur de tri.
+     * Encodé en base64 (URL) sous la forme "tri:identifiant:valeur".
+     */
+    private static class Cursor {
+        private final long enrollmentId;
+        private final String value;
+
+        private Cursor(long enrollmentId, String value) {
+            this.enrollmentId = enrollmentId;
+            this.value = value;
+        }
+
+        private String encode(boolean byName) {
+            String raw = (byName ? SORT_NAME : SORT_PROGRESS) + ":" + enrollmentId + ":" + value;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Cursor decode(String cursor, boolean byName) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int first = raw.indexOf(':');
+                int second = raw.indexOf(':', first + 1);
+                String sort = raw.substring(0, first);
+                if (!sort.equals(byName ? SORT_NAME : SORT_PROGRESS)) {
+                    throw new IllegalArgumentException("tri différent");
+                }
+                long id = Long.parseLong(raw.substring(first + 1, second));
+                String value = raw.substring(second + 1);
+                if (!byName) {
+                    Double.parseDouble(value);
+                }
+                return new Cursor(id, value);
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur invalide");
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.elearnia.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événements JDK Flight Recorder de l'application (catégorie "Elearnia" dans JDK Mission Control).
+ *
+ * Un événement ne coûte presque rien quand aucun enregistrement n'est actif : les champs ne sont
+ * renseignés qu'après {@code shouldCommit()} là où leur calcul a un coût. La durée de chaque
+ * événement va de {@code begin()} à {@code commit()}. Pas de pile d'appels : ces événements
+ * servent à corréler des pics de latence, pas à profiler.
+ */
+public final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    @Name("com.elearnia.AiCall")
+    @Label("Appel IA")
+    @Description("Appel à un fournisseur IA, de l'envoi à la réponse complète (ou fin du flux)")
+    @Category({"Elearnia", "IA"})
+    @StackTrace(false)
+    public static class AiCall extends Event {
+        @Label("Fournisseur")
+        public String provider;
+
+        @Label("Mode")
+        @Description("single, batch ou stream")
+        public String mode;
+
+        @Label("Prompts")
+        public int prompts;
+
+        @Label("Taille des prompts")
+        @Description("Nombre total de caractères envoyés")
+        public long promptChars;
+
+        @Label("Issue")
+        public String outcome;
+    }
+
+    @Name("com.elearnia.QuizGrading")
+    @Label("Correction de quiz")
+    @Description("Calcul du score d'une soumission et enregistrement de la tentative")
+    @Category({"Elearnia", "Quiz"})
+    @StackTrace(false)
+    public static class QuizGrading extends Event {
+        @Label("Quiz")
+        public long quizId;
+
+        @Label("Type")
+        @Description("course ou standalone")
+        public String kind;
+
+        @Label("Réponses")
+        public int answers;
+
+        @Label("Score")
+        public double score;
+
+        @Label("Réussi")
+        public boolean passed;
+    }
+
+    @Name("com.elearnia.FileServe")
+    @Label("Envoi de fichier")
+    @Description("Lecture et envoi d'une image ou d'une vidéo uploadée")
+    @Category({"Elearnia", "Fichiers"})
+    @StackTrace(false)
+    public static class FileServe extends Event {
+        @Label("Catégorie")
+        public String type;
+
+        @Label("Type MIME")
+        public String contentType;
+
+        @Label("Octets")
+        @DataAmount
+        public long bytes;
+
+        @Label("En-tête Range")
+        @Description("Plage demandée par le client, absente pour un fichier complet")
+        public String range;
+
+        @Label("Zéro copie")
+        @Description("Vrai si le contenu est transféré sans passer par un tableau en mémoire")
+        public boolean zeroCopy;
+    }
+
+    @Name("com.elearnia.JwtValidation")
+    @Label("Validation JWT")
+    @Description("Vérification de signature et lecture des claims d'un jeton")
+    @Category({"Elearnia", "Sécurité"})
+    @StackTrace(false)
+    public static class JwtValidation extends Event {
+        @Label("Issue")
+        @Description("valid, expired ou invalid")
+        public String outcome;
+    }
+}
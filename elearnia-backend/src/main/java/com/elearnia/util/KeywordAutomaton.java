@@ -0,0 +1,149 @@
+package com.elearnia.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Automate d'Aho-Corasick immuable : recherche de tous les mots-clés d'un dictionnaire
+ * en un seul passage sur le texte, sans copie en minuscules.
+ * La comparaison est insensible à la casse et les apostrophes typographiques (’) sont
+ * traitées comme des apostrophes simples (').
+ */
+public final class KeywordAutomaton {
+
+    private final int keywordCount;
+    private final char[][] transitionChars; // Caractères sortants de chaque état (triés)
+    private final int[][] transitionTargets; // État cible pour chaque caractère sortant
+    private final int[] fail;
+    private final int[][] outputs; // Mots-clés reconnus en arrivant dans chaque état
+
+    private KeywordAutomaton(int keywordCount, char[][] transitionChars, int[][] transitionTargets,
+                             int[] fail, int[][] outputs) {
+        this.keywordCount = keywordCount;
+        this.transitionChars = transitionChars;
+        this.transitionTargets = transitionTargets;
+        this.fail = fail;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Compile l'automate. L'indice de chaque mot-clé dans la liste est son identifiant
+     * dans le résultat de {@link #scan(CharSequence)}.
+     */
+    public static KeywordAutomaton compile(List<String> keywords) {
+        List<Map<Character, Integer>> gotoTable = new ArrayList<>();
+        List<List<Integer>> outputTable = new ArrayList<>();
+        gotoTable.add(new TreeMap<>());
+        outputTable.add(new ArrayList<>());
+
+        // 1. Construire le trie
+        for (int id = 0; id < keywords.size(); id++) {
+            String keyword = keywords.get(id);
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("Mot-clé vide à l'indice " + id);
+            }
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = fold(keyword.charAt(i));
+                Integer next = gotoTable.get(state).get(c);
+                if (next == null) {
+                    next = gotoTable.size();
+                    gotoTable.add(new TreeMap<>());
+                    outputTable.add(new ArrayList<>());
+                    gotoTable.get(state).put(c, next);
+                }
+                state = next;
+            }
+            outputTable.get(state).add(id);
+        }
+
+        // 2. Calculer les liens d'échec (parcours en largeur) et fusionner les sorties
+        int stateCount = gotoTable.size();
+        int[] fail = new int[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : gotoTable.get(0).values()) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : gotoTable.get(state).entrySet()) {
+                char c = edge.getKey();
+                int child = edge.getValue();
+                int f = fail[state];
+                while (f != 0 && !gotoTable.get(f).containsKey(c)) {
+                    f = fail[f];
+                }
+                Integer target = gotoTable.get(f).get(c);
+                fail[child] = (target != null && target != child) ? target : 0;
+                outputTable.get(child).addAll(outputTable.get(fail[child]));
+                queue.add(child);
+            }
+        }
+
+        // 3. Aplatir en tableaux pour la recherche
+        char[][] transitionChars = new char[stateCount][];
+        int[][] transitionTargets = new int[stateCount][];
+        int[][] outputs = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            Map<Character, Integer> edges = gotoTable.get(state);
+            char[] chars = new char[edges.size()];
+            int[] targets = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                chars[i] = edge.getKey();
+                targets[i] = edge.getValue();
+                i++;
+            }
+            transitionChars[state] = chars;
+            transitionTargets[state] = targets;
+            outputs[state] = outputTable.get(state).stream().mapToInt(Integer::intValue).distinct().toArray();
+        }
+        return new KeywordAutomaton(keywords.size(), transitionChars, transitionTargets, fail, outputs);
+    }
+
+    /**
+     * Parcourt le texte une seule fois et retourne l'ensemble des mots-clés trouvés.
+     */
+    public BitSet scan(CharSequence text) {
+        BitSet found = new BitSet(keywordCount);
+        if (text == null) {
+            return found;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            int next;
+            while ((next = step(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(next, 0);
+            for (int id : outputs[state]) {
+                found.set(id);
+            }
+        }
+        return found;
+    }
+
+    public int getKeywordCount() {
+        return keywordCount;
+    }
+
+    private int step(int state, char c) {
+        int index = Arrays.binarySearch(transitionChars[state], c);
+        return index >= 0 ? transitionTargets[state][index] : -1;
+    }
+
+    private static char fold(char c) {
+        if (c == '’' || c == '‘') {
+            return '\'';
+        }
+        return Character.toLowerCase(c);
+    }
+}
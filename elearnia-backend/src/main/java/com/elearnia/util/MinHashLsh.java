@@ -0,0 +1,189 @@
+package com.elearnia.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Index MinHash + LSH (locality-sensitive hashing) pour retrouver les textes quasi identiques.
+ *
+ * Chaque texte est normalisé (minuscules, sans accents ni ponctuation) et découpé en n-grammes de
+ * caractères ; sa signature est le minimum de {@code bands × rows} fonctions de hachage sur ces
+ * n-grammes. La proportion de minima égaux entre deux signatures estime la similarité de Jaccard.
+ * Les signatures sont découpées en {@code bands} bandes de {@code rows} lignes : deux textes
+ * partageant au moins une bande complète sont candidats. Une recherche ne parcourt donc que les
+ * seaux de ses bandes, quel que soit le nombre de textes indexés.
+ *
+ * Non thread-safe : la synchronisation est à la charge de l'appelant.
+ */
+public final class MinHashLsh {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final int shingleSize;
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+
+    private final Map<Long, int[]> signatures = new HashMap<>();
+    private final List<Map<Long, Set<Long>>> buckets;
+
+    public MinHashLsh(int shingleSize, int bands, int rows) {
+        if (shingleSize < 1 || bands < 1 || rows < 1) {
+            throw new IllegalArgumentException("Paramètres MinHash invalides");
+        }
+        this.shingleSize = shingleSize;
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        // Graines fixes : les signatures restent comparables d'un démarrage à l'autre
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < seeds.length; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            seeds[i] = seed;
+        }
+        this.buckets = new ArrayList<>(bands);
+        for (int b = 0; b < bands; b++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    // ================== Signatures ==================
+
+    /**
+     * Signature MinHash d'un texte, ou null s'il ne contient rien d'exploitable.
+     */
+    public int[] signature(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        int count = Math.max(1, normalized.length() - shingleSize + 1);
+        for (int start = 0; start < count; start++) {
+            int end = Math.min(normalized.length(), start + shingleSize);
+            long shingle = 1125899906842597L;
+            for (int i = start; i < end; i++) {
+                shingle = 31 * shingle + normalized.charAt(i);
+            }
+            for (int h = 0; h < seeds.length; h++) {
+                int value = (int) (mix(shingle ^ seeds[h]) >>> 33);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Similarité de Jaccard estimée entre deux signatures (0 à 1).
+     */
+    public static double similarity(int[] a, int[] b) {
+        if (a == null || b == null || a.length != b.length) {
+            return 0.0;
+        }
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) equal++;
+        }
+        return (double) equal / a.length;
+    }
+
+    // ================== Index ==================
+
+    public void put(long id, int[] signature) {
+        remove(id);
+        if (signature == null) {
+            return;
+        }
+        signatures.put(id, signature);
+        for (int b = 0; b < bands; b++) {
+            buckets.get(b).computeIfAbsent(bandKey(signature, b), k -> new HashSet<>()).add(id);
+        }
+    }
+
+    public void remove(long id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) {
+            return;
+        }
+        for (int b = 0; b < bands; b++) {
+            Map<Long, Set<Long>> band = buckets.get(b);
+            long key = bandKey(signature, b);
+            Set<Long> ids = band.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) band.remove(key);
+            }
+        }
+    }
+
+    public int[] get(long id) {
+        return signatures.get(id);
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    public void clear() {
+        signatures.clear();
+        for (Map<Long, Set<Long>> band : buckets) {
+            band.clear();
+        }
+    }
+
+    /**
+     * Identifiants partageant au moins une bande avec la signature (candidats à vérifier).
+     */
+    public Set<Long> candidates(int[] signature) {
+        Set<Long> candidates = new HashSet<>();
+        if (signature == null) {
+            return candidates;
+        }
+        for (int b = 0; b < bands; b++) {
+            Set<Long> ids = buckets.get(b).get(bandKey(signature, b));
+            if (ids != null) {
+                candidates.addAll(ids);
+            }
+        }
+        return candidates;
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        int offset = band * rows;
+        for (int r = 0; r < rows; r++) {
+            key = mix(key * 31 + signature[offset + r]);
+        }
+        return key;
+    }
+
+    // ================== Utilitaires ==================
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** Finaliseur de SplitMix64. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
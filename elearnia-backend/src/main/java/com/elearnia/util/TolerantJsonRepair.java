@@ -0,0 +1,155 @@
+package com.elearnia.util;
+
+/**
+ * Extraction et réparation du JSON produit par un modèle de langage, en un seul passage :
+ * ignore le texte autour du JSON (explications, blocs ```json), referme une chaîne ou des
+ * objets/tableaux tronqués (réponse coupée par max_new_tokens) et complète une clé sans valeur.
+ */
+public final class TolerantJsonRepair {
+
+    private TolerantJsonRepair() {
+    }
+
+    /**
+     * Résultat de l'extraction : le JSON (complet ou réparé) et, si possible, une version plus
+     * courte coupée au dernier élément complet (utile si la première réparation reste invalide).
+     */
+    public static final class Extracted {
+        private final String json;
+        private final String fallbackJson;
+        private final boolean repaired;
+
+        private Extracted(String json, String fallbackJson, boolean repaired) {
+            this.json = json;
+            this.fallbackJson = fallbackJson;
+            this.repaired = repaired;
+        }
+
+        public String getJson() {
+            return json;
+        }
+
+        public String getFallbackJson() {
+            return fallbackJson;
+        }
+
+        public boolean isRepaired() {
+            return repaired;
+        }
+    }
+
+    /**
+     * Retourne null si le texte ne contient aucun objet ou tableau JSON.
+     */
+    public static Extracted extract(String text) {
+        if (text == null) {
+            return null;
+        }
+        int start = -1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{' || c == '[') {
+                start = i;
+                break;
+            }
+        }
+        if (start < 0) {
+            return null;
+        }
+
+        StringBuilder stack = new StringBuilder(); // '{' ou '[' ouverts
+        boolean inString = false;
+        boolean escape = false;
+        boolean expectingKey = false;   // Dans un objet, avant le ':' de la paire courante
+        boolean keyPending = false;     // Clé lue mais ':' pas encore rencontré
+        boolean valueStarted = false;   // Quelque chose a été lu après le dernier ':' / ',' / ouverture
+        int lastComma = -1;
+        String stackAtLastComma = null;
+
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (escape) {
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (expectingKey) keyPending = true;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"':
+                    inString = true;
+                    valueStarted = true;
+                    break;
+                case '{':
+                case '[':
+                    stack.append(c);
+                    expectingKey = c == '{';
+                    keyPending = false;
+                    valueStarted = false;
+                    break;
+                case '}':
+                case ']':
+                    if (stack.length() == 0) {
+                        return null;
+                    }
+                    stack.setLength(stack.length() - 1);
+                    if (stack.length() == 0) {
+                        // JSON complet : le texte qui suit est ignoré
+                        return new Extracted(text.substring(start, i + 1), null, false);
+                    }
+                    expectingKey = false;
+                    keyPending = false;
+                    valueStarted = true;
+                    break;
+                case ':':
+                    expectingKey = false;
+                    keyPending = false;
+                    valueStarted = false;
+                    break;
+                case ',':
+                    lastComma = i;
+                    stackAtLastComma = stack.toString();
+                    expectingKey = stack.charAt(stack.length() - 1) == '{';
+                    keyPending = false;
+                    valueStarted = false;
+                    break;
+                default:
+                    if (!Character.isWhitespace(c)) valueStarted = true;
+            }
+        }
+
+        // Réponse tronquée : refermer ce qui est ouvert
+        StringBuilder repaired = new StringBuilder(text.substring(start).stripTrailing());
+        if (inString) {
+            if (escape) repaired.setLength(repaired.length() - 1);
+            repaired.append('"');
+            if (expectingKey) keyPending = true;
+        }
+        if (keyPending) {
+            repaired.append(":null");
+        } else if (!expectingKey && !valueStarted && stack.length() > 0 && stack.charAt(stack.length() - 1) == '{') {
+            repaired.append("null"); // Clé suivie de ':' sans valeur
+        } else if (repaired.charAt(repaired.length() - 1) == ',') {
+            repaired.setLength(repaired.length() - 1);
+        }
+        closeAll(repaired, stack);
+
+        String fallback = null;
+        if (lastComma > start) {
+            StringBuilder cut = new StringBuilder(text.substring(start, lastComma));
+            closeAll(cut, new StringBuilder(stackAtLastComma));
+            fallback = cut.toString();
+        }
+        return new Extracted(repaired.toString(), fallback, true);
+    }
+
+    private static void closeAll(StringBuilder json, StringBuilder stack) {
+        for (int i = stack.length() - 1; i >= 0; i--) {
+            json.append(stack.charAt(i) == '{' ? '}' : ']');
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.elearnia.config;
+
+import com.elearnia.support.EmbeddedMariaDb;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Collecte Prometheus servie sur le port de gestion uniquement : rien sans authentification sur
+ * le port public. Les exports de métriques, désactivés par défaut dans les tests, sont réactivés.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@ActiveProfiles("test")
+@AutoConfigureObservability(tracing = false)
+class ActuatorExposureTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedMariaDb::jdbcUrl);
+    }
+
+    @Test
+    void prometheusIsOnlyOpenOnTheManagementPort() throws Exception {
+        assertThat(managementPort).isNotEqualTo(serverPort);
+
+        HttpResponse<String> management = get(managementPort, "/actuator/prometheus");
+        assertThat(management.statusCode()).isEqualTo(200);
+        assertThat(management.body()).contains("jvm_memory_used_bytes");
+
+        assertThat(get(serverPort, "/actuator/prometheus").statusCode()).isIn(401, 403);
+        assertThat(get(managementPort, "/actuator/health").statusCode()).isEqualTo(200);
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
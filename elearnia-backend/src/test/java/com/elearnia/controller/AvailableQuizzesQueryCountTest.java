@@ -0,0 +1,134 @@
+package com.elearnia.controller;
+
+import com.elearnia.entities.Question;
+import com.elearnia.entities.Quiz;
+import com.elearnia.entities.QuizAttempt;
+import com.elearnia.entities.QuizLevel;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.QuizAttemptRepository;
+import com.elearnia.repository.QuizRepository;
+import com.elearnia.support.IntegrationTestSupport;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /student/quizzes/available : le nombre de requêtes ne dépend pas du nombre de quizzes
+ * autonomes ni des tentatives de l'étudiant (plus de N+1 sur les questions ou les tentatives).
+ * Le profil de test active query-budget.strict : un dépassement du @QueryBudget échoue aussi.
+ */
+class AvailableQuizzesQueryCountTest extends IntegrationTestSupport {
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Test
+    void statementCountStaysConstantAsQuizzesGrow() throws Exception {
+        User student = createUser(Role.LEARNER);
+        String bearer = bearer(student);
+        String prefix = "Quiz N+1 " + UUID.randomUUID().toString().substring(0, 8);
+
+        seedQuizzes(student, prefix, 0, 3);
+        long smallCount = countStatements(bearer);
+        JsonNode small = available(bearer, prefix);
+        assertThat(small).hasSize(3);
+
+        seedQuizzes(student, prefix, 3, 40);
+        long largeCount = countStatements(bearer);
+        JsonNode large = available(bearer, prefix);
+        assertThat(large).hasSize(40);
+
+        assertThat(largeCount).as("requêtes pour 40 quizzes contre 3").isEqualTo(smallCount);
+
+        // Les statistiques regroupées restent exactes
+        Map<String, JsonNode> byTitle = new HashMap<>();
+        large.forEach(quiz -> byTitle.put(quiz.path("title").asText(), quiz));
+        JsonNode attempted = byTitle.get(prefix + " 7");
+        assertThat(attempted.path("questionCount").asInt()).isEqualTo(2);
+        assertThat(attempted.path("remainingAttempts").asInt()).isEqualTo(1);
+        assertThat(attempted.path("bestScore").asDouble()).isEqualTo(80.0);
+        assertThat(attempted.path("passed").asBoolean()).isTrue();
+        JsonNode untouched = byTitle.get(prefix + " 8");
+        assertThat(untouched.path("remainingAttempts").asInt()).isEqualTo(3);
+        assertThat(untouched.path("bestScore").isNull()).isTrue();
+        assertThat(untouched.path("passed").asBoolean()).isFalse();
+    }
+
+    /**
+     * Quizzes autonomes [from, to) de deux questions ; un quiz sur deux a deux tentatives de
+     * l'étudiant (40 % puis 80 %, seuil 75 %).
+     */
+    private void seedQuizzes(User student, String prefix, int from, int to) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (int i = from; i < to; i++) {
+                Quiz quiz = Quiz.builder()
+                        .title(prefix + " " + i)
+                        .description("Quiz autonome")
+                        .level(QuizLevel.values()[i % QuizLevel.values().length])
+                        .build();
+                List<Question> questions = new ArrayList<>();
+                for (int q = 0; q < 2; q++) {
+                    questions.add(Question.builder()
+                            .quiz(quiz)
+                            .text(prefix + " " + i + " question " + q)
+                            .correctAnswer("A")
+                            .options(new ArrayList<>(List.of("A", "B")))
+                            .build());
+                }
+                quiz.setQuestions(questions);
+                quizRepository.save(quiz);
+                if (i % 2 == 1) {
+                    quizAttemptRepository.save(attempt(student, quiz, 1, 40));
+                    quizAttemptRepository.save(attempt(student, quiz, 2, 80));
+                }
+            }
+        });
+    }
+
+    private static QuizAttempt attempt(User student, Quiz quiz, int number, double score) {
+        return QuizAttempt.builder()
+                .user(student)
+                .quiz(quiz)
+                .attemptNumber(number)
+                .score(score)
+                .passed(score >= quiz.getPassingScore())
+                .answers(Map.of())
+                .completedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private long countStatements(String bearer) throws Exception {
+        long before = responseWriteProbe.statementCount();
+        mockMvc.perform(get("/student/quizzes/available").header("Authorization", bearer))
+                .andExpect(status().isOk());
+        return responseWriteProbe.statementCount() - before;
+    }
+
+    private JsonNode available(String bearer, String prefix) throws Exception {
+        String body = mockMvc.perform(get("/student/quizzes/available").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> ours = new ArrayList<>();
+        objectMapper.readTree(body).forEach(quiz -> {
+            if (quiz.path("title").asText().startsWith(prefix + " ")) {
+                ours.add(quiz);
+            }
+        });
+        return objectMapper.valueToTree(ours);
+    }
+}
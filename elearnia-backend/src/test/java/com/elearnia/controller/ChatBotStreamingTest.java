@@ -0,0 +1,246 @@
+package com.elearnia.controller;
+
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.support.IntegrationTestSupport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /student/chatbot/stream avec le fournisseur Hugging Face pointé sur un serveur SSE local :
+ * tokens du modèle relayés en événements "token" puis "done", réponse locale si le premier token
+ * n'arrive pas à temps, arrêt propre si le modèle se tait en cours de réponse, et métriques
+ * chatbot.stream.ttft / chatbot.stream.duration.
+ */
+class ChatBotStreamingTest extends IntegrationTestSupport {
+
+    private static final String[] MODEL_TOKENS = {"Commencez", " par", " la", " première", " leçon."};
+    private static final String MODEL_ANSWER = String.join("", MODEL_TOKENS);
+    // Intention HELP : réponse locale connue (generateHelpResponse)
+    private static final String HELP_MESSAGE = "J'ai besoin d'aide";
+    private static final String HELP_FALLBACK_START = "Je suis là pour vous aider !";
+
+    private static final long FIRST_TOKEN_TIMEOUT_MS = 1500;
+    private static final long IDLE_TIMEOUT_MS = 500;
+    private static final long STALL_MS = 5000;
+
+    private enum Behaviour { TOKENS, STALL_BEFORE_FIRST_TOKEN, STALL_AFTER_FIRST_TOKEN }
+
+    private static volatile Behaviour behaviour = Behaviour.TOKENS;
+    private static HttpServer modelServer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User student;
+
+    @DynamicPropertySource
+    static void model(DynamicPropertyRegistry registry) throws IOException {
+        startModelServer();
+        registry.add("chatbot.ai.enabled", () -> "true");
+        registry.add("ai.provider.chatbot", () -> "huggingface");
+        registry.add("ai.providers.huggingface.base-url",
+                () -> "http://127.0.0.1:" + modelServer.getAddress().getPort());
+        registry.add("chatbot.stream.first-token-timeout-ms", () -> FIRST_TOKEN_TIMEOUT_MS);
+        registry.add("chatbot.stream.idle-timeout-ms", () -> IDLE_TIMEOUT_MS);
+    }
+
+    @AfterAll
+    static void stopModelServer() {
+        if (modelServer != null) {
+            modelServer.stop(0);
+            modelServer = null;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        behaviour = Behaviour.TOKENS;
+        student = createUser(Role.LEARNER);
+    }
+
+    @Test
+    void modelTokensAreRelayedAsTokenEventsThenDone() throws Exception {
+        long ttftBefore = count(timer("chatbot.stream.ttft", "source", "model"));
+        long durationBefore = count(timer("chatbot.stream.duration", "source", "model", "outcome", "on_complete"));
+
+        List<Map.Entry<String, String>> events = stream(HELP_MESSAGE);
+
+        assertThat(tokens(events)).containsExactly(MODEL_TOKENS);
+        assertThat(events.get(events.size() - 1).getKey()).isEqualTo("done");
+        awaitCount("chatbot.stream.ttft", ttftBefore + 1, "source", "model");
+        awaitCount("chatbot.stream.duration", durationBefore + 1, "source", "model", "outcome", "on_complete");
+    }
+
+    @Test
+    void firstTokenTimeoutFallsBackToTheLocalAnswer() throws Exception {
+        behaviour = Behaviour.STALL_BEFORE_FIRST_TOKEN;
+        long ttftBefore = count(timer("chatbot.stream.ttft", "source", "fallback"));
+        long durationBefore = count(timer("chatbot.stream.duration", "source", "fallback", "outcome", "on_complete"));
+
+        long start = System.nanoTime();
+        List<Map.Entry<String, String>> events = stream(HELP_MESSAGE);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        String answer = String.join("", tokens(events));
+        assertThat(answer).startsWith(HELP_FALLBACK_START).doesNotContain(MODEL_ANSWER);
+        assertThat(events.get(events.size() - 1).getKey()).isEqualTo("done");
+        // Le modèle bloqué n'est pas attendu au-delà du délai du premier token
+        assertThat(elapsedMs).isLessThan(STALL_MS);
+        awaitCount("chatbot.stream.ttft", ttftBefore + 1, "source", "fallback");
+        awaitCount("chatbot.stream.duration", durationBefore + 1, "source", "fallback", "outcome", "on_complete");
+    }
+
+    @Test
+    void idleTimeoutAfterTheFirstTokenEndsTheAnswerCleanly() throws Exception {
+        behaviour = Behaviour.STALL_AFTER_FIRST_TOKEN;
+        long durationBefore = count(timer("chatbot.stream.duration", "source", "model", "outcome", "on_complete"));
+
+        long start = System.nanoTime();
+        List<Map.Entry<String, String>> events = stream(HELP_MESSAGE);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Réponse déjà commencée : pas de réponse locale ajoutée derrière les tokens du modèle
+        assertThat(tokens(events)).containsExactly(MODEL_TOKENS[0]);
+        assertThat(events.get(events.size() - 1).getKey()).isEqualTo("done");
+        assertThat(elapsedMs).isLessThan(STALL_MS);
+        awaitCount("chatbot.stream.duration", durationBefore + 1, "source", "model", "outcome", "on_complete");
+    }
+
+    // ====== Appel SSE ======
+
+    private List<Map.Entry<String, String>> stream(String message) throws Exception {
+        MvcResult started = mockMvc.perform(post("/student/chatbot/stream")
+                        .header("Authorization", bearer(student))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(json(Map.of("message", message))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(10_000);
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+        return parseEvents(body);
+    }
+
+    /**
+     * Découpe le corps text/event-stream en (événement, données) ; une donnée multi-lignes est
+     * écrite sur plusieurs lignes "data:".
+     */
+    private static List<Map.Entry<String, String>> parseEvents(String body) {
+        List<Map.Entry<String, String>> events = new ArrayList<>();
+        String event = null;
+        List<String> data = new ArrayList<>();
+        for (String line : body.split("\n", -1)) {
+            if (line.isEmpty()) {
+                if (event != null || !data.isEmpty()) {
+                    events.add(Map.entry(event == null ? "message" : event, String.join("\n", data)));
+                }
+                event = null;
+                data = new ArrayList<>();
+            } else if (line.startsWith("event:")) {
+                event = line.substring("event:".length());
+            } else if (line.startsWith("data:")) {
+                data.add(line.substring("data:".length()));
+            }
+        }
+        return events;
+    }
+
+    private static List<String> tokens(List<Map.Entry<String, String>> events) {
+        return events.stream()
+                .filter(e -> "token".equals(e.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    // ====== Métriques ======
+
+    private Timer timer(String name, String... tags) {
+        return meterRegistry.find(name).tags(tags).timer();
+    }
+
+    private static long count(Timer timer) {
+        return timer == null ? 0 : timer.count();
+    }
+
+    /**
+     * La durée est enregistrée en fin de flux (doFinally), éventuellement juste après l'écriture
+     * du dernier événement : on laisse un court délai.
+     */
+    private void awaitCount(String name, long expected, String... tags) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count(timer(name, tags)) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(count(timer(name, tags))).as(name).isEqualTo(expected);
+    }
+
+    // ====== Serveur Hugging Face simulé ======
+
+    private static synchronized void startModelServer() throws IOException {
+        if (modelServer != null) {
+            return;
+        }
+        modelServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        modelServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        modelServer.createContext("/models/", ChatBotStreamingTest::handle);
+        modelServer.start();
+    }
+
+    /**
+     * Format du flux de text-generation-inference : un événement "data:" par token.
+     */
+    private static void handle(HttpExchange exchange) {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            Behaviour current = behaviour;
+            for (int i = 0; i < MODEL_TOKENS.length; i++) {
+                if ((current == Behaviour.STALL_BEFORE_FIRST_TOKEN && i == 0)
+                        || (current == Behaviour.STALL_AFTER_FIRST_TOKEN && i == 1)) {
+                    Thread.sleep(STALL_MS);
+                }
+                String generated = i == MODEL_TOKENS.length - 1 ? "\"" + MODEL_ANSWER + "\"" : "null";
+                String event = "{\"token\":{\"text\":\"" + MODEL_TOKENS[i] + "\",\"special\":false},"
+                        + "\"generated_text\":" + generated + "}";
+                out.write(("data:" + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Client parti après son délai : rien à répondre
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
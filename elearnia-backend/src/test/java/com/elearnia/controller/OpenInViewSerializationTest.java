@@ -0,0 +1,288 @@
+package com.elearnia.controller;
+
+import com.elearnia.dto.CreateCourseRequest;
+import com.elearnia.dto.CreateQuestionRequest;
+import com.elearnia.dto.CreateQuizRequest;
+import com.elearnia.dto.GenerateCourseRequest;
+import com.elearnia.dto.GenerateQuizRequest;
+import com.elearnia.dto.UpdateCourseRequest;
+import com.elearnia.entities.Course;
+import com.elearnia.entities.Enrollment;
+import com.elearnia.entities.Lesson;
+import com.elearnia.entities.Question;
+import com.elearnia.entities.Quiz;
+import com.elearnia.entities.QuizAttempt;
+import com.elearnia.entities.QuizLevel;
+import com.elearnia.entities.Review;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.EnrollmentRepository;
+import com.elearnia.repository.LessonRepository;
+import com.elearnia.repository.QuizAttemptRepository;
+import com.elearnia.repository.QuizRepository;
+import com.elearnia.repository.ReviewRepository;
+import com.elearnia.support.IntegrationTestSupport;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints convertis en DTO pour fonctionner sans open-in-view : chaque réponse est sérialisée
+ * par la vraie chaîne Spring MVC, sans session liée au thread, sans LazyInitializationException
+ * et sans aucune requête SQL une fois le contrôleur revenu.
+ */
+class OpenInViewSerializationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Value("${spring.jpa.open-in-view}")
+    private boolean openInView;
+
+    private String teacherBearer;
+    private String studentBearer;
+    private Long courseId;
+    private Long lessonId;
+    private Long standaloneQuizId;
+
+    @BeforeEach
+    void seed() {
+        User teacher = createUser(Role.TEACHER);
+        User student = createUser(Role.LEARNER);
+        teacherBearer = bearer(teacher);
+        studentBearer = bearer(student);
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            Course course = courseRepository.save(Course.builder()
+                    .title("Cours sérialisé")
+                    .description("Description")
+                    .teacher(teacher)
+                    .published(true)
+                    .build());
+            Lesson lesson = lessonRepository.save(Lesson.builder()
+                    .title("Leçon 1")
+                    .description("Contenu")
+                    .duration(10)
+                    .orderIndex(1)
+                    .course(course)
+                    .build());
+            Quiz courseQuiz = quizRepository.save(quiz("Quiz du cours", course, null));
+            // Rattaché à la leçon seulement : findByCourseId attend un seul quiz par cours
+            quizRepository.save(quiz("Quiz de la leçon", null, lesson));
+            Quiz standalone = quizRepository.save(quiz("Quiz autonome", null, null));
+
+            enrollmentRepository.save(Enrollment.builder().student(student).course(course).build());
+            quizAttemptRepository.save(QuizAttempt.builder()
+                    .user(student)
+                    .quiz(courseQuiz)
+                    .attemptNumber(1)
+                    .score(50)
+                    .passed(false)
+                    .answers(Map.of(courseQuiz.getQuestions().get(0).getId(), "A"))
+                    .completedAt(LocalDateTime.now())
+                    .build());
+            reviewRepository.save(Review.builder()
+                    .student(student)
+                    .course(course)
+                    .rating(5)
+                    .comment("Très bien")
+                    .status(Review.ReviewStatus.APPROVED)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+
+            courseId = course.getId();
+            lessonId = lesson.getId();
+            standaloneQuizId = standalone.getId();
+        });
+    }
+
+    @Test
+    void openInViewIsDisabled() {
+        assertThat(openInView).isFalse();
+    }
+
+    @Test
+    void teacherCourseEndpoints() throws Exception {
+        CreateCourseRequest create = new CreateCourseRequest();
+        create.setTitle("Nouveau cours");
+        create.setDescription("Créé par l'API");
+        JsonNode created = readJson(assertNoSqlAfterController(post("/teacher/courses")
+                .header("Authorization", teacherBearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(create))));
+        assertThat(created.path("teacher").path("id").isNumber()).isTrue();
+
+        UpdateCourseRequest update = new UpdateCourseRequest();
+        update.setTitle("Cours renommé");
+        update.setPublished(true);
+        assertNoSqlAfterController(put("/teacher/courses/" + created.path("id").asLong())
+                .header("Authorization", teacherBearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(update)));
+
+        assertNoSqlAfterController(get("/teacher/courses/my").header("Authorization", teacherBearer));
+        assertNoSqlAfterController(get("/teacher/courses/" + courseId).header("Authorization", teacherBearer));
+        assertNoSqlAfterController(get("/teacher/courses/" + courseId + "/reviews").header("Authorization", teacherBearer));
+
+        GenerateCourseRequest generate = new GenerateCourseRequest();
+        generate.setIdea("Spring Boot");
+        generate.setLevel("débutant");
+        assertNoSqlAfterController(post("/teacher/courses/generate-and-create")
+                .header("Authorization", teacherBearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(generate)));
+    }
+
+    @Test
+    void teacherQuizEndpoints() throws Exception {
+        CreateCourseRequest create = new CreateCourseRequest();
+        create.setTitle("Cours avec quiz");
+        long newCourseId = readJson(assertNoSqlAfterController(post("/teacher/courses")
+                .header("Authorization", teacherBearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(create)))).path("id").asLong();
+
+        assertNoSqlAfterController(post("/teacher/courses/" + newCourseId + "/quiz")
+                .header("Authorization", teacherBearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(quizRequest("Quiz créé", null))));
+        assertNoSqlAfterController(get("/teacher/courses/" + newCourseId + "/quiz").header("Authorization", teacherBearer));
+        assertNoSqlAfterController(put("/teacher/courses/" + newCourseId + "/quiz")
+                .header("Authorization", teacherBearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(quizRequest("Quiz modifié", null))));
+
+        assertNoSqlAfterController(post("/teacher/courses/quiz")
+                .header("Authorization", teacherBearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(quizRequest("Quiz autonome créé", null))));
+        assertNoSqlAfterController(get("/teacher/courses/quiz/" + standaloneQuizId).header("Authorization", teacherBearer));
+        assertNoSqlAfterController(put("/teacher/courses/quiz/" + standaloneQuizId)
+                .header("Authorization", teacherBearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(quizRequest("Quiz autonome modifié", null))));
+
+        GenerateQuizRequest generate = new GenerateQuizRequest();
+        generate.setTopic("Java");
+        generate.setDifficulty(QuizLevel.BEGINNER);
+        assertNoSqlAfterController(post("/teacher/courses/quiz/generate")
+                .header("Authorization", teacherBearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(generate)));
+    }
+
+    @Test
+    void teacherLessonEndpoints() throws Exception {
+        assertNoSqlAfterController(get("/teacher/courses/" + courseId + "/lessons").header("Authorization", teacherBearer));
+        JsonNode lessonQuiz = readJson(assertNoSqlAfterController(
+                get("/teacher/courses/" + courseId + "/lessons/" + lessonId + "/quiz").header("Authorization", teacherBearer)));
+        assertThat(lessonQuiz.path("lessonId").asLong()).isEqualTo(lessonId);
+    }
+
+    @Test
+    void studentEndpoints() throws Exception {
+        JsonNode course = readJson(assertNoSqlAfterController(
+                get("/student/courses/" + courseId).header("Authorization", studentBearer)));
+        assertThat(course.path("teacher").path("fullName").asText()).isNotEmpty();
+
+        assertNoSqlAfterController(get("/student/courses/my").header("Authorization", studentBearer));
+        assertNoSqlAfterController(get("/student/courses/" + courseId + "/reviews").header("Authorization", studentBearer));
+        assertNoSqlAfterController(get("/student/courses/" + courseId + "/lessons").header("Authorization", studentBearer));
+        assertNoSqlAfterController(get("/student/courses/" + courseId + "/lessons/" + lessonId + "/quiz")
+                .header("Authorization", studentBearer));
+
+        JsonNode quiz = readJson(assertNoSqlAfterController(
+                get("/student/quizzes/course/" + courseId).header("Authorization", studentBearer)));
+        assertThat(quiz.path("questions").get(0).has("correctAnswer")).isFalse();
+        JsonNode attempts = readJson(assertNoSqlAfterController(
+                get("/student/quizzes/course/" + courseId + "/attempts").header("Authorization", studentBearer)));
+        assertThat(attempts).hasSize(1);
+        assertNoSqlAfterController(get("/student/quizzes/" + standaloneQuizId).header("Authorization", studentBearer));
+    }
+
+    // ================== Outils ==================
+
+    private MvcResult assertNoSqlAfterController(MockHttpServletRequestBuilder request) throws Exception {
+        responseWriteProbe.reset();
+        MvcResult result = mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+        String endpoint = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+
+        assertThat(responseWriteProbe.statementsAtWrite()).as("corps de réponse écrit pour %s", endpoint).isNotNull();
+        assertThat(responseWriteProbe.sessionBoundAtWrite()).as("session liée pendant la sérialisation de %s", endpoint).isFalse();
+        assertThat(responseWriteProbe.statementCount())
+                .as("requêtes SQL après le retour du contrôleur pour %s", endpoint)
+                .isEqualTo(responseWriteProbe.statementsAtWrite());
+        return result;
+    }
+
+    private JsonNode readJson(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static Quiz quiz(String title, Course course, Lesson lesson) {
+        Quiz quiz = Quiz.builder()
+                .title(title)
+                .description("Description")
+                .course(course)
+                .lesson(lesson)
+                .level(QuizLevel.BEGINNER)
+                .build();
+        List<Question> questions = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            questions.add(Question.builder()
+                    .quiz(quiz)
+                    .text("Question " + i + " de " + title)
+                    .correctAnswer("A")
+                    .options(new ArrayList<>(List.of("A", "B", "C", "D")))
+                    .build());
+        }
+        quiz.setQuestions(questions);
+        return quiz;
+    }
+
+    private static CreateQuizRequest quizRequest(String title, Long courseId) {
+        CreateQuestionRequest question = new CreateQuestionRequest();
+        question.setText(title + " : question");
+        question.setCorrectAnswer("Oui");
+        question.setOptions(List.of("Oui", "Non"));
+        CreateQuizRequest request = new CreateQuizRequest();
+        request.setTitle(title);
+        request.setDescription("Description");
+        request.setLevel(QuizLevel.BEGINNER);
+        request.setCourseId(courseId);
+        request.setQuestions(List.of(question));
+        return request;
+    }
+}
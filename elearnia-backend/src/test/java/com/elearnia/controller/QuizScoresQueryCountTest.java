@@ -0,0 +1,146 @@
+package com.elearnia.controller;
+
+import com.elearnia.entities.Course;
+import com.elearnia.entities.Quiz;
+import com.elearnia.entities.QuizAttempt;
+import com.elearnia.entities.QuizLevel;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.QuizAttemptRepository;
+import com.elearnia.repository.QuizRepository;
+import com.elearnia.support.IntegrationTestSupport;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /teacher/courses/quizzes/scores : le nombre de requêtes ne dépend ni du nombre de quizzes
+ * du professeur, ni du nombre de tentatives ou d'étudiants (plus de N+1 sur le cours, les
+ * tentatives ou l'étudiant de chaque tentative).
+ * Le profil de test active query-budget.strict : un dépassement du @QueryBudget échoue aussi.
+ */
+class QuizScoresQueryCountTest extends IntegrationTestSupport {
+
+    private static final int STUDENTS = 4;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Test
+    void statementCountStaysConstantAsQuizzesGrow() throws Exception {
+        User teacher = createUser(Role.TEACHER);
+        String bearer = bearer(teacher);
+        List<User> students = new ArrayList<>();
+        for (int s = 0; s < STUDENTS; s++) {
+            students.add(createUser(Role.LEARNER));
+        }
+        String prefix = "Scores N+1 " + UUID.randomUUID().toString().substring(0, 8);
+
+        seedQuizzes(teacher, students, prefix, 0, 3);
+        long smallCount = countStatements(bearer);
+        JsonNode small = scores(bearer, prefix);
+        assertThat(small).hasSize(3);
+
+        seedQuizzes(teacher, students, prefix, 3, 40);
+        long largeCount = countStatements(bearer);
+        JsonNode large = scores(bearer, prefix);
+        assertThat(large).hasSize(40);
+
+        assertThat(largeCount).as("requêtes pour 40 quizzes contre 3").isEqualTo(smallCount);
+
+        // Tentatives regroupées par quiz, avec l'étudiant de chacune
+        Map<String, JsonNode> byTitle = new HashMap<>();
+        large.forEach(quiz -> byTitle.put(quiz.path("quizTitle").asText(), quiz));
+        JsonNode attempted = byTitle.get(prefix + " 7");
+        assertThat(attempted.path("courseTitle").asText()).isEqualTo(prefix + " cours 7");
+        assertThat(attempted.path("scores")).hasSize(2);
+        Map<Integer, JsonNode> byAttempt = new HashMap<>();
+        attempted.path("scores").forEach(score -> byAttempt.put(score.path("attemptNumber").asInt(), score));
+        assertThat(byAttempt.get(1).path("score").asDouble()).isEqualTo(40.0);
+        assertThat(byAttempt.get(1).path("passed").asBoolean()).isFalse();
+        assertThat(byAttempt.get(2).path("score").asDouble()).isEqualTo(80.0);
+        assertThat(byAttempt.get(2).path("passed").asBoolean()).isTrue();
+        assertThat(byAttempt.get(2).path("studentEmail").asText())
+                .isEqualTo(students.get(7 % STUDENTS).getEmail());
+        assertThat(byTitle.get(prefix + " 8").path("scores")).isEmpty();
+    }
+
+    /**
+     * Cours du professeur [from, to) avec un quiz chacun ; un quiz sur deux a deux tentatives
+     * (40 % puis 80 %, seuil 75 %) d'un étudiant différent selon le rang.
+     */
+    private void seedQuizzes(User teacher, List<User> students, String prefix, int from, int to) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (int i = from; i < to; i++) {
+                Course course = courseRepository.save(Course.builder()
+                        .title(prefix + " cours " + i)
+                        .description("Cours de test")
+                        .teacher(teacher)
+                        .published(true)
+                        .build());
+                Quiz quiz = quizRepository.save(Quiz.builder()
+                        .course(course)
+                        .title(prefix + " " + i)
+                        .description("Quiz du cours")
+                        .level(QuizLevel.values()[i % QuizLevel.values().length])
+                        .questions(new ArrayList<>())
+                        .build());
+                if (i % 2 == 1) {
+                    User student = students.get(i % STUDENTS);
+                    quizAttemptRepository.save(attempt(student, quiz, 1, 40));
+                    quizAttemptRepository.save(attempt(student, quiz, 2, 80));
+                }
+            }
+        });
+    }
+
+    private static QuizAttempt attempt(User student, Quiz quiz, int number, double score) {
+        return QuizAttempt.builder()
+                .user(student)
+                .quiz(quiz)
+                .attemptNumber(number)
+                .score(score)
+                .passed(score >= quiz.getPassingScore())
+                .answers(Map.of())
+                .completedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private long countStatements(String bearer) throws Exception {
+        long before = responseWriteProbe.statementCount();
+        mockMvc.perform(get("/teacher/courses/quizzes/scores").header("Authorization", bearer))
+                .andExpect(status().isOk());
+        return responseWriteProbe.statementCount() - before;
+    }
+
+    private JsonNode scores(String bearer, String prefix) throws Exception {
+        String body = mockMvc.perform(get("/teacher/courses/quizzes/scores").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> ours = new ArrayList<>();
+        objectMapper.readTree(body).forEach(quiz -> {
+            if (quiz.path("quizTitle").asText().startsWith(prefix + " ")) {
+                ours.add(quiz);
+            }
+        });
+        return objectMapper.valueToTree(ours);
+    }
+}
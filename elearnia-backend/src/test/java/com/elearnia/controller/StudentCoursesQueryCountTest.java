@@ -0,0 +1,116 @@
+package com.elearnia.controller;
+
+import com.elearnia.entities.Course;
+import com.elearnia.entities.Enrollment;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.EnrollmentRepository;
+import com.elearnia.support.IntegrationTestSupport;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /student/courses : le nombre de requêtes ne dépend ni du nombre de cours, ni du nombre de
+ * professeurs, ni des inscriptions de l'étudiant (plus de N+1 sur le professeur ou l'inscription).
+ * Le profil de test active query-budget.strict : un dépassement du @QueryBudget échoue aussi.
+ */
+class StudentCoursesQueryCountTest extends IntegrationTestSupport {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Test
+    void statementCountStaysConstantAsCoursesGrow() throws Exception {
+        User student = createUser(Role.LEARNER);
+        String bearer = bearer(student);
+        String prefix = "Cours N+1 " + UUID.randomUUID().toString().substring(0, 8);
+
+        seedCourses(student, prefix, 0, 3);
+        long smallCount = countStatements(bearer);
+        JsonNode small = courses(bearer, prefix);
+        assertThat(small).hasSize(3);
+
+        seedCourses(student, prefix, 3, 40);
+        long largeCount = countStatements(bearer);
+        JsonNode large = courses(bearer, prefix);
+        assertThat(large).hasSize(40);
+
+        assertThat(largeCount).as("requêtes pour 40 cours contre 3").isEqualTo(smallCount);
+
+        // Progression et professeur restent exacts
+        Map<String, JsonNode> byTitle = new HashMap<>();
+        large.forEach(course -> byTitle.put(course.path("title").asText(), course));
+        JsonNode enrolled = byTitle.get(prefix + " 7");
+        assertThat(enrolled.path("progress").asDouble()).isEqualTo(70.0);
+        assertThat(enrolled.path("completed").asBoolean()).isFalse();
+        assertThat(enrolled.path("teacherName").asText()).startsWith("teacher ");
+        JsonNode notEnrolled = byTitle.get(prefix + " 8");
+        assertThat(notEnrolled.path("progress").asDouble()).isEqualTo(0.0);
+        assertThat(notEnrolled.path("completed").asBoolean()).isFalse();
+    }
+
+    /**
+     * Cours [from, to), chacun avec son propre professeur ; l'étudiant est inscrit à un cours sur
+     * deux, avec une progression de 10 % par rang (bornée à 100 %).
+     */
+    private void seedCourses(User student, String prefix, int from, int to) {
+        List<User> teachers = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            teachers.add(createUser(Role.TEACHER));
+        }
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (int i = from; i < to; i++) {
+                Course course = courseRepository.save(Course.builder()
+                        .title(prefix + " " + i)
+                        .description("Cours de test")
+                        .teacher(teachers.get(i - from))
+                        .published(true)
+                        .build());
+                if (i % 2 == 1) {
+                    double progress = Math.min(100.0, i * 10.0);
+                    enrollmentRepository.save(Enrollment.builder()
+                            .student(student)
+                            .course(course)
+                            .progress(progress)
+                            .completed(progress >= 100.0)
+                            .build());
+                }
+            }
+        });
+    }
+
+    private long countStatements(String bearer) throws Exception {
+        long before = responseWriteProbe.statementCount();
+        mockMvc.perform(get("/student/courses").header("Authorization", bearer))
+                .andExpect(status().isOk());
+        return responseWriteProbe.statementCount() - before;
+    }
+
+    private JsonNode courses(String bearer, String prefix) throws Exception {
+        String body = mockMvc.perform(get("/student/courses").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> ours = new ArrayList<>();
+        objectMapper.readTree(body).forEach(course -> {
+            if (course.path("title").asText().startsWith(prefix + " ")) {
+                ours.add(course);
+            }
+        });
+        return objectMapper.valueToTree(ours);
+    }
+}
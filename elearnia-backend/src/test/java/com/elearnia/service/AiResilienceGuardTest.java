@@ -0,0 +1,236 @@
+package com.elearnia.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Disjoncteur, cloison et limitation de débit face à un serveur IA simulé (HTTP local) :
+ * les appels réels passent par le réseau, les refus ne doivent jamais l'atteindre.
+ */
+class AiResilienceGuardTest {
+
+    private static final String FALLBACK = "fallback";
+
+    private HttpServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<CountDownLatch> hold = new AtomicReference<>();
+    private final CountDownLatch held = new CountDownLatch(2);
+
+    private SimpleMeterRegistry meterRegistry;
+    private AiResilienceGuard guard;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/generate", exchange -> {
+            hits.incrementAndGet();
+            CountDownLatch latch = hold.get();
+            if (latch != null) {
+                held.countDown();
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = "généré".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new AiResilienceGuard(meterRegistry);
+        ReflectionTestUtils.setField(guard, "windowSize", 10);
+        ReflectionTestUtils.setField(guard, "minimumCalls", 4);
+        ReflectionTestUtils.setField(guard, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(guard, "slowCallMs", 10_000L);
+        ReflectionTestUtils.setField(guard, "openSeconds", 1L);
+        ReflectionTestUtils.setField(guard, "halfOpenCalls", 2);
+        ReflectionTestUtils.setField(guard, "maxConcurrent", 2);
+        ReflectionTestUtils.setField(guard, "maxWaitMs", 50L);
+        ReflectionTestUtils.setField(guard, "globalPerMinute", 1000);
+        ReflectionTestUtils.setField(guard, "userPerMinute", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        CountDownLatch latch = hold.get();
+        if (latch != null) {
+            latch.countDown();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void circuitOpensOnFailuresAndClosesAfterHalfOpenSuccesses() throws Exception {
+        guard.init();
+        status.set(503);
+        for (int i = 0; i < 4; i++) {
+            assertThat(callStub(guard.currentUser())).isEqualTo(FALLBACK);
+        }
+        assertThat(guard.getState()).isEqualTo(AiResilienceGuard.State.OPEN);
+
+        // Circuit ouvert : le serveur n'est plus sollicité
+        int hitsWhenOpened = hits.get();
+        assertThat(callStub(guard.currentUser())).isEqualTo(FALLBACK);
+        assertThat(hits.get()).isEqualTo(hitsWhenOpened);
+        assertThat(rejected("circuit_open")).isEqualTo(1);
+
+        status.set(200);
+        Thread.sleep(1100);
+        assertThat(callStub(guard.currentUser())).isEqualTo("généré");
+        assertThat(guard.getState()).isEqualTo(AiResilienceGuard.State.HALF_OPEN);
+        assertThat(callStub(guard.currentUser())).isEqualTo("généré");
+        assertThat(guard.getState()).isEqualTo(AiResilienceGuard.State.CLOSED);
+    }
+
+    @Test
+    void slowCallsCountAsFailures() {
+        ReflectionTestUtils.setField(guard, "slowCallMs", 1L);
+        ReflectionTestUtils.setField(guard, "minimumCalls", 2);
+        guard.init();
+
+        // Les réponses arrivent, mais au-delà du seuil de lenteur
+        assertThat(guard.call("test", "stub", () -> {
+            sleep(20);
+            return get();
+        }, () -> FALLBACK)).isEqualTo("généré");
+        guard.call("test", "stub", () -> {
+            sleep(20);
+            return get();
+        }, () -> FALLBACK);
+
+        assertThat(guard.getState()).isEqualTo(AiResilienceGuard.State.OPEN);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondMaxConcurrent() throws Exception {
+        guard.init();
+        CountDownLatch release = new CountDownLatch(1);
+        hold.set(release);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> callStub(guard.currentUser()));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> callStub(guard.currentUser()));
+        assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(callStub(guard.currentUser())).isEqualTo(FALLBACK);
+        assertThat(rejected("bulkhead")).isEqualTo(1);
+        assertThat(hits.get()).isEqualTo(2);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("généré");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("généré");
+        assertThat(callStub(guard.currentUser())).isEqualTo("généré");
+    }
+
+    @Test
+    void eachCallerHasItsOwnBudget() {
+        guard.init();
+        AiResilienceGuard.RateLimit job = new AiResilienceGuard.RateLimit("job:pregeneration", 3);
+        for (int i = 0; i < 3; i++) {
+            assertThat(callStub(job)).isEqualTo("généré");
+        }
+        assertThat(callStub(job)).isEqualTo(FALLBACK);
+        assertThat(rejected("rate_limit_user")).isEqualTo(1);
+
+        // Un autre appelant sans contexte de sécurité n'est pas affecté
+        assertThat(callStub(new AiResilienceGuard.RateLimit("batch:teacher:42", 3))).isEqualTo("généré");
+        assertThat(hits.get()).isEqualTo(4);
+    }
+
+    @Test
+    void globalLimitAppliesAcrossCallers() {
+        ReflectionTestUtils.setField(guard, "globalPerMinute", 2);
+        guard.init();
+        assertThat(callStub(new AiResilienceGuard.RateLimit("a", 10))).isEqualTo("généré");
+        assertThat(callStub(new AiResilienceGuard.RateLimit("b", 10))).isEqualTo("généré");
+        assertThat(callStub(new AiResilienceGuard.RateLimit("c", 10))).isEqualTo(FALLBACK);
+        assertThat(rejected("rate_limit_global")).isEqualTo(1);
+        assertThat(hits.get()).isEqualTo(2);
+    }
+
+    @Test
+    void callsRejectedByTheCircuitDoNotConsumeTokens() throws Exception {
+        guard.init();
+        AiResilienceGuard.RateLimit scarce = new AiResilienceGuard.RateLimit("job:scarce", 1);
+
+        status.set(503);
+        for (int i = 0; i < 4; i++) {
+            callStub(guard.currentUser());
+        }
+        assertThat(guard.getState()).isEqualTo(AiResilienceGuard.State.OPEN);
+        for (int i = 0; i < 3; i++) {
+            assertThat(callStub(scarce)).isEqualTo(FALLBACK);
+        }
+        assertThat(rejected("circuit_open")).isEqualTo(3);
+
+        // Le seul jeton de cet appelant est toujours disponible pour l'appel d'essai
+        status.set(200);
+        Thread.sleep(1100);
+        assertThat(callStub(scarce)).isEqualTo("généré");
+        assertThat(rejected("rate_limit_user")).isZero();
+    }
+
+    private String callStub(AiResilienceGuard.RateLimit rateLimit) {
+        return guard.call("test", "stub", rateLimit, this::get, () -> FALLBACK);
+    }
+
+    private String get() {
+        try {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/generate")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("HTTP " + response.statusCode());
+            }
+            return response.body();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double rejected(String reason) {
+        Counter counter = meterRegistry.find("ai.resilience.rejected").tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
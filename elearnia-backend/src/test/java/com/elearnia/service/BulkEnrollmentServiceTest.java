@@ -0,0 +1,108 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.BulkEnrollmentResultDto;
+import com.elearnia.entities.Course;
+import com.elearnia.entities.Enrollment;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.EnrollmentRepository;
+import com.elearnia.support.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Inscription en masse : une seule inscription par étudiant et par cours (contrainte unique),
+ * et des compteurs exacts même quand deux inscriptions en masse se croisent.
+ */
+class BulkEnrollmentServiceTest extends IntegrationTestSupport {
+
+    private static final int LEARNERS = 120;
+
+    @Autowired
+    private BulkEnrollmentService bulkEnrollmentService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void alreadyEnrolledStudentsAreCountedNotDuplicated() {
+        User teacher = createUser(Role.TEACHER);
+        Course course = course(teacher);
+        User enrolled = createUser(Role.LEARNER);
+        User fresh = createUser(Role.LEARNER);
+        enrollmentRepository.save(Enrollment.builder().student(enrolled).course(course).build());
+
+        BulkEnrollmentResultDto result = bulkEnrollmentService.enroll(teacher, course.getId(),
+                List.of(enrolled.getEmail(), fresh.getEmail().toUpperCase(), teacher.getEmail(), "absent@test.elearnia.local"));
+
+        assertThat(result.getEnrolled()).isEqualTo(1);
+        assertThat(result.getAlreadyEnrolled()).isEqualTo(1);
+        assertThat(result.getNotLearners()).containsExactly(teacher.getEmail());
+        assertThat(result.getNotFound()).containsExactly("absent@test.elearnia.local");
+        assertThat(enrollmentCount(course)).isEqualTo(2);
+
+        // La contrainte unique refuse un doublon créé hors du service
+        assertThatThrownBy(() -> enrollmentRepository.save(Enrollment.builder().student(fresh).course(course).build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void concurrentBulkEnrollmentsInsertEachStudentOnce() throws Exception {
+        User teacher = createUser(Role.TEACHER);
+        Course course = course(teacher);
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < LEARNERS; i++) {
+            emails.add(createUser(Role.LEARNER).getEmail());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<BulkEnrollmentResultDto> enroll = () -> bulkEnrollmentService.enroll(teacher, course.getId(), emails);
+            Future<BulkEnrollmentResultDto> first = executor.submit(enroll);
+            Future<BulkEnrollmentResultDto> second = executor.submit(enroll);
+            BulkEnrollmentResultDto a = first.get(60, TimeUnit.SECONDS);
+            BulkEnrollmentResultDto b = second.get(60, TimeUnit.SECONDS);
+
+            assertThat(a.getEnrolled() + b.getEnrolled()).isEqualTo(LEARNERS);
+            assertThat(a.getEnrolled() + a.getAlreadyEnrolled()).isEqualTo(LEARNERS);
+            assertThat(b.getEnrolled() + b.getAlreadyEnrolled()).isEqualTo(LEARNERS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(enrollmentCount(course)).isEqualTo(LEARNERS);
+    }
+
+    private Course course(User teacher) {
+        return courseRepository.save(Course.builder()
+                .title("Cours inscription en masse")
+                .description("Description")
+                .teacher(teacher)
+                .published(true)
+                .build());
+    }
+
+    private long enrollmentCount(Course course) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM enrollments WHERE course_id = ?", Long.class,
+                course.getId());
+    }
+}
@@ -0,0 +1,61 @@
+package com.elearnia.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Table d'intentions de production (chatbot/intents.properties) sur le corpus de formulations
+ * d'étudiants : une règle modifiée qui change l'intention d'une ligne fait échouer le test.
+ */
+class ChatIntentRouterTest {
+
+    private static final String CORPUS = "corpus/chat-messages.txt";
+
+    private static ChatIntentRouter router;
+
+    @BeforeAll
+    static void setUp() {
+        router = new ChatIntentRouter(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(router, "intentsLocation", "classpath:chatbot/intents.properties");
+        ReflectionTestUtils.setField(router, "minConfidence", 1.0);
+        router.init();
+    }
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @MethodSource("corpus")
+    void routesCorpusMessageToExpectedIntent(String message, String expectedIntent) {
+        assertThat(router.route(message).getIntent()).isEqualTo(expectedIntent);
+    }
+
+    static List<Arguments> corpus() throws IOException {
+        List<Arguments> entries = new ArrayList<>();
+        try (InputStream in = ChatIntentRouterTest.class.getClassLoader().getResourceAsStream(CORPUS)) {
+            assertThat(in).as(CORPUS).isNotNull();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int separator = line.lastIndexOf('|');
+                entries.add(Arguments.of(line.substring(0, separator), line.substring(separator + 1).trim()));
+            }
+        }
+        assertThat(entries).isNotEmpty();
+        return entries;
+    }
+}
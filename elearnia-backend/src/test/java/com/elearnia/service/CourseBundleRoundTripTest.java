@@ -0,0 +1,217 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.CourseBundleRecord;
+import com.elearnia.dto.CourseBundleRecord.LessonRecord;
+import com.elearnia.dto.CourseBundleRecord.QuestionRecord;
+import com.elearnia.dto.CourseBundleRecord.QuizRecord;
+import com.elearnia.dto.CourseImportResultDto;
+import com.elearnia.entities.Course;
+import com.elearnia.entities.Lesson;
+import com.elearnia.entities.Question;
+import com.elearnia.entities.Quiz;
+import com.elearnia.entities.QuizLevel;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.LessonRepository;
+import com.elearnia.repository.QuizRepository;
+import com.elearnia.support.IntegrationTestSupport;
+import com.fasterxml.jackson.databind.MappingIterator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Export -> import -> export d'un cours : le second export décrit le même cours (leçons,
+ * quizzes, questions et options), avec de nouveaux identifiants et des quizzes rattachés aux
+ * nouvelles leçons.
+ */
+class CourseBundleRoundTripTest extends IntegrationTestSupport {
+
+    @Autowired
+    private CourseBundleService courseBundleService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @ParameterizedTest
+    @ValueSource(strings = {CourseBundleService.FORMAT_ZIP, CourseBundleService.FORMAT_NDJSON})
+    void exportImportExportPreservesTheCourseTree(String format) throws Exception {
+        User author = createUser(Role.TEACHER);
+        User importer = createUser(Role.TEACHER);
+        Long courseId = seedCourse(author);
+
+        byte[] firstBundle = export(courseId, format);
+        CourseBundleRecord original = single(firstBundle, format);
+
+        CourseImportResultDto result = courseBundleService.importBundle(importer, new ByteArrayInputStream(firstBundle));
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(result.getCourses()).isEqualTo(1);
+        assertThat(result.getLessons()).isEqualTo(3);
+        assertThat(result.getQuizzes()).isEqualTo(2);
+        assertThat(result.getQuestions()).isEqualTo(5);
+        Long importedId = result.getCourseIds().get(courseId);
+        assertThat(importedId).isNotNull().isNotEqualTo(courseId);
+        assertThat(courseRepository.findById(importedId).orElseThrow().getTeacher().getId()).isEqualTo(importer.getId());
+
+        CourseBundleRecord copy = single(export(importedId, format), format);
+
+        // Même contenu, identifiants exceptés
+        assertThat(copy.getId()).isEqualTo(importedId);
+        assertThat(normalize(copy)).isEqualTo(normalize(original));
+
+        // Identifiants de leçon remplacés, et rattachement des quizzes suivant les nouvelles leçons
+        Map<Integer, Long> originalLessons = lessonIdsByOrder(original);
+        Map<Integer, Long> copiedLessons = lessonIdsByOrder(copy);
+        assertThat(copiedLessons.values()).doesNotContainAnyElementsOf(originalLessons.values());
+        QuizRecord linked = quizByTitle(copy, "Quiz de la leçon 2");
+        assertThat(linked.getLessonId()).isEqualTo(copiedLessons.get(2));
+        assertThat(quizByTitle(copy, "Quiz final").getLessonId()).isNull();
+    }
+
+    private Long seedCourse(User teacher) {
+        return transactionTemplate.execute(tx -> {
+            Course course = courseRepository.save(Course.builder()
+                    .title("Cours exporté")
+                    .description("Description **markdown**")
+                    .imageUrl("https://picsum.photos/seed/1/400/300")
+                    .teacher(teacher)
+                    .published(true)
+                    .build());
+            List<Lesson> lessons = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                lessons.add(lessonRepository.save(Lesson.builder()
+                        .title("Leçon " + i)
+                        .description("Contenu " + i)
+                        .videoUrl("https://www.youtube.com/watch?v=video" + i)
+                        .duration(10 * i)
+                        .orderIndex(i)
+                        .course(course)
+                        .build()));
+            }
+            quizRepository.save(quiz(course, null, "Quiz final", QuizLevel.ADVANCED, 80, 2, 3));
+            quizRepository.save(quiz(course, lessons.get(1), "Quiz de la leçon 2", QuizLevel.BEGINNER, 60, 5, 2));
+            return course.getId();
+        });
+    }
+
+    private static Quiz quiz(Course course, Lesson lesson, String title, QuizLevel level,
+                             int passingScore, int maxAttempts, int questionCount) {
+        Quiz quiz = Quiz.builder()
+                .course(course)
+                .lesson(lesson)
+                .title(title)
+                .description("Description de " + title)
+                .level(level)
+                .passingScore(passingScore)
+                .maxAttempts(maxAttempts)
+                .build();
+        List<Question> questions = new ArrayList<>();
+        for (int i = 1; i <= questionCount; i++) {
+            questions.add(Question.builder()
+                    .quiz(quiz)
+                    .text(title + " - question " + i)
+                    .correctAnswer("Réponse " + i)
+                    .options(new ArrayList<>(List.of("Réponse " + i, "Autre " + i, "Encore " + i)))
+                    .points(i)
+                    .build());
+        }
+        quiz.setQuestions(questions);
+        return quiz;
+    }
+
+    private byte[] export(Long courseId, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        courseBundleService.exportCourse(courseId, format, out);
+        return out.toByteArray();
+    }
+
+    private CourseBundleRecord single(byte[] bundle, String format) throws IOException {
+        InputStream courses = new ByteArrayInputStream(bundle);
+        if (CourseBundleService.FORMAT_ZIP.equals(format)) {
+            ZipInputStream zip = new ZipInputStream(courses);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null && !"courses.ndjson".equals(entry.getName())) {
+                zip.closeEntry();
+            }
+            assertThat(entry).as("courses.ndjson dans le zip").isNotNull();
+            courses = zip;
+        }
+        try (MappingIterator<CourseBundleRecord> records = objectMapper.readerFor(CourseBundleRecord.class).readValues(courses)) {
+            List<CourseBundleRecord> all = records.readAll();
+            assertThat(all).hasSize(1);
+            return all.get(0);
+        }
+    }
+
+    /**
+     * Copie sans identifiants, enfants triés : leçons par ordre, quizzes par titre, questions par
+     * texte ; le rattachement d'un quiz est exprimé par l'ordre de sa leçon. Les options sont
+     * comparées triées : question_options n'a pas de colonne d'ordre.
+     */
+    private static CourseBundleRecord normalize(CourseBundleRecord record) {
+        Map<Long, Integer> lessonOrder = new HashMap<>();
+        List<LessonRecord> lessons = new ArrayList<>();
+        for (LessonRecord lesson : record.getLessons()) {
+            lessonOrder.put(lesson.getId(), lesson.getOrderIndex());
+            lessons.add(new LessonRecord(null, lesson.getTitle(), lesson.getDescription(), lesson.getVideoUrl(),
+                    lesson.getDuration(), lesson.getOrderIndex()));
+        }
+        lessons.sort(Comparator.comparing(LessonRecord::getOrderIndex));
+
+        List<QuizRecord> quizzes = new ArrayList<>();
+        for (QuizRecord quiz : record.getQuizzes()) {
+            List<QuestionRecord> questions = new ArrayList<>();
+            for (QuestionRecord question : quiz.getQuestions()) {
+                List<String> options = new ArrayList<>(question.getOptions());
+                Collections.sort(options);
+                questions.add(new QuestionRecord(question.getText(), question.getCorrectAnswer(),
+                        question.getPoints(), options));
+            }
+            questions.sort(Comparator.comparing(QuestionRecord::getText));
+            Integer lesson = quiz.getLessonId() != null ? lessonOrder.get(quiz.getLessonId()) : null;
+            quizzes.add(new QuizRecord(null, lesson != null ? lesson.longValue() : null, quiz.getTitle(),
+                    quiz.getDescription(), quiz.getPassingScore(), quiz.getMaxAttempts(), quiz.getLevel(), questions));
+        }
+        quizzes.sort(Comparator.comparing(QuizRecord::getTitle));
+
+        return new CourseBundleRecord(null, record.getTitle(), record.getDescription(), record.getImageUrl(),
+                record.isPublished(), lessons, quizzes);
+    }
+
+    private static Map<Integer, Long> lessonIdsByOrder(CourseBundleRecord record) {
+        Map<Integer, Long> ids = new HashMap<>();
+        for (LessonRecord lesson : record.getLessons()) {
+            ids.put(lesson.getOrderIndex(), lesson.getId());
+        }
+        return ids;
+    }
+
+    private static QuizRecord quizByTitle(CourseBundleRecord record, String title) {
+        return record.getQuizzes().stream()
+                .filter(quiz -> title.equals(quiz.getTitle()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
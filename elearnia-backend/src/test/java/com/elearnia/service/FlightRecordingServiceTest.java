@@ -0,0 +1,104 @@
+package com.elearnia.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Téléchargement d'un enregistrement terminé pendant qu'un nouvel enregistrement démarre : le
+ * démarrage supprime l'ancien fichier, le téléchargement en cours doit quand même aller au bout.
+ */
+class FlightRecordingServiceTest {
+
+    @TempDir
+    Path recordingDir;
+
+    private FlightRecordingService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FlightRecordingService();
+        ReflectionTestUtils.setField(service, "recordingDir", recordingDir.toString());
+        ReflectionTestUtils.setField(service, "defaultDurationSeconds", 60L);
+        ReflectionTestUtils.setField(service, "maxDurationSeconds", 60L);
+        ReflectionTestUtils.setField(service, "maxSizeMb", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void downloadSurvivesAConcurrentStart() throws Exception {
+        service.start(null, null, null);
+        service.stop();
+        Path finished = onlyRecording();
+        byte[] expected = Files.readAllBytes(finished);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch restarted = new CountDownLatch(1);
+        ByteArrayOutputStream received = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                writing.countDown();
+                try {
+                    if (!restarted.await(5, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("Redémarrage non effectué");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(b, off, len);
+            }
+        };
+        CompletableFuture<Void> download = CompletableFuture.runAsync(() -> {
+            try {
+                service.writeRecording(received);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // Lecture d'une copie privée, pas du fichier que le démarrage suivant supprime
+        assertThat(downloadCopies()).isEqualTo(1);
+
+        // Téléchargement en cours, hors verrou : le démarrage supprime l'ancien fichier
+        service.start(null, null, null);
+        assertThat(finished).doesNotExist();
+        restarted.countDown();
+
+        download.get(5, TimeUnit.SECONDS);
+        assertThat(received.toByteArray()).isEqualTo(expected);
+        // Copie de téléchargement supprimée une fois envoyée
+        assertThat(downloadCopies()).isZero();
+    }
+
+    private long downloadCopies() throws IOException {
+        try (Stream<Path> files = Files.list(recordingDir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("download-")).count();
+        }
+    }
+
+    private Path onlyRecording() throws IOException {
+        try (Stream<Path> files = Files.list(recordingDir)) {
+            return files.reduce((a, b) -> {
+                        throw new IllegalStateException("Plusieurs fichiers: " + a + ", " + b);
+                    })
+                    .orElseThrow();
+        }
+    }
+}
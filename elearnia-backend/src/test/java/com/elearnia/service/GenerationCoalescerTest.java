@@ -0,0 +1,182 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.GeneratedQuestionDto;
+import com.elearnia.dto.GeneratedQuizDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Regroupement des générations identiques : copie indépendante par appelant en attente, attente
+ * bornée, et appelants débloqués quelle que soit l'erreur de la génération.
+ */
+class GenerationCoalescerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GenerationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new GenerationCoalescer(meterRegistry, new ObjectMapper());
+        ReflectionTestUtils.setField(coalescer, "maxWaitSeconds", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void eachWaiterGetsItsOwnCopy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        GeneratedQuizDto generated = quiz("Quiz Java");
+        Future<GeneratedQuizDto> owner = executor.submit(() -> coalescer.execute("quiz", "Java", "débutant", () -> {
+            await(release);
+            return generated;
+        }));
+        awaitInFlight();
+
+        List<Thread> waiterThreads = new ArrayList<>();
+        List<Future<GeneratedQuizDto>> waiters = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            waiters.add(executor.submit(() -> {
+                synchronized (waiterThreads) {
+                    waiterThreads.add(Thread.currentThread());
+                }
+                return coalescer.execute("quiz", " java ", "Débutant", () -> {
+                    throw new AssertionError("génération regroupée attendue");
+                });
+            }));
+        }
+        awaitBlocked(waiterThreads, 2);
+        release.countDown();
+
+        GeneratedQuizDto first = waiters.get(0).get(5, TimeUnit.SECONDS);
+        GeneratedQuizDto second = waiters.get(1).get(5, TimeUnit.SECONDS);
+        assertThat(owner.get(5, TimeUnit.SECONDS)).isSameAs(generated);
+        assertThat(first).isEqualTo(generated).isNotSameAs(generated).isNotSameAs(second);
+
+        // Mélange des options chez un appelant : sans effet sur les autres
+        first.getQuestions().get(0).getOptions().clear();
+        assertThat(second.getQuestions().get(0).getOptions()).hasSize(4);
+        assertThat(generated.getQuestions().get(0).getOptions()).hasSize(4);
+        assertThat(meterRegistry.counter("ai.generation.coalesced", "operation", "quiz").count()).isEqualTo(2);
+    }
+
+    @Test
+    void errorInGenerationReleasesWaiters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> owner = executor.submit(() -> coalescer.execute("course", "Python", "avancé", () -> {
+            await(release);
+            throw new StackOverflowError("profondeur");
+        }));
+        awaitInFlight();
+
+        AtomicReference<Thread> waiterThread = new AtomicReference<>();
+        Future<Object> waiter = executor.submit(() -> {
+            waiterThread.set(Thread.currentThread());
+            return coalescer.execute("course", "Python", "avancé", () -> "génération regroupée attendue");
+        });
+        awaitBlocked(waiterThread);
+        release.countDown();
+
+        assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> owner.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+
+        // La clé est libérée : la demande suivante génère normalement
+        assertThat(coalescer.execute("course", "Python", "avancé", () -> "nouvelle")).isEqualTo("nouvelle");
+    }
+
+    @Test
+    void waiterGeneratesOnItsOwnAfterMaxWait() throws Exception {
+        ReflectionTestUtils.setField(coalescer, "maxWaitSeconds", 1L);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> owner = executor.submit(() -> coalescer.execute("quiz", "React", "intermédiaire", () -> {
+            await(release);
+            return "lente";
+        }));
+        awaitInFlight();
+
+        long start = System.nanoTime();
+        String result = coalescer.execute("quiz", "React", "intermédiaire", () -> "indépendante");
+
+        assertThat(result).isEqualTo("indépendante");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isBetween(900L, 5000L);
+        assertThat(meterRegistry.find("ai.generation.coalesced").counter()).isNull();
+        release.countDown();
+        assertThat(owner.get(5, TimeUnit.SECONDS)).isEqualTo("lente");
+    }
+
+    // ====== Utilitaires ======
+
+    private static GeneratedQuizDto quiz(String title) {
+        List<GeneratedQuestionDto> questions = new ArrayList<>();
+        questions.add(new GeneratedQuestionDto("Quel mot-clé déclare une constante en Java ?",
+                new ArrayList<>(List.of("final", "const", "static", "var")), "final", 1));
+        return new GeneratedQuizDto(title, "Description", questions);
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        Supplier<Integer> inFlight = () -> ((Map<?, ?>) ReflectionTestUtils.getField(coalescer, "inFlight")).size();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (inFlight.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(inFlight.get()).isEqualTo(1);
+    }
+
+    private static void awaitBlocked(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((thread.get() == null || !isWaiting(thread.get())) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(isWaiting(thread.get())).isTrue();
+    }
+
+    private static void awaitBlocked(List<Thread> threads, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            synchronized (threads) {
+                if (threads.size() == expected && threads.stream().allMatch(GenerationCoalescerTest::isWaiting)) {
+                    return;
+                }
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("appelants non bloqués sur la génération en cours");
+    }
+
+    private static boolean isWaiting(Thread thread) {
+        return thread != null && (thread.getState() == Thread.State.WAITING
+                || thread.getState() == Thread.State.TIMED_WAITING);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.elearnia.service;
+
+import com.elearnia.entities.Course;
+import com.elearnia.entities.Quiz;
+import com.elearnia.entities.QuizLevel;
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.CourseRepository;
+import com.elearnia.repository.QuizRepository;
+import com.elearnia.support.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carnet de notes d'un cours : lignes groupées par quiz (id croissant) puis par tentative, et
+ * requête de streaming par quiz servie par l'index de quiz_attempts.quiz_id, sans tri (EXPLAIN).
+ */
+class GradebookExportServiceTest extends IntegrationTestSupport {
+
+    private static final int STUDENTS = 50;
+    private static final int OTHER_QUIZZES = 18;
+    private static final int ATTEMPTS_PER_QUIZ = 100;
+
+    @Autowired
+    private GradebookExportService gradebookExportService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void courseExportIsOrderedByQuizThenAttemptWithoutFilesort() throws Exception {
+        User teacher = createUser(Role.TEACHER);
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(createUser(Role.LEARNER));
+        }
+        // Cours exporté (2 quizzes) et autres quizzes : un quiz ne représente qu'une petite part
+        // des tentatives, comme en production
+        Long courseId = createCourse(teacher, "Cours du carnet de notes", 2);
+        createCourse(teacher, "Autre cours", OTHER_QUIZZES);
+        List<Long> exportedQuizIds = quizIds(courseId);
+        List<Long> allQuizIds = new ArrayList<>(exportedQuizIds);
+        jdbcTemplate.queryForList("SELECT q.id FROM quizzes q JOIN courses c ON c.id = q.course_id "
+                + "WHERE c.teacher_id = ? AND c.id <> ?", Long.class, teacher.getId(), courseId).forEach(allQuizIds::add);
+
+        // Tentatives entrelacées : les quizzes se succèdent ligne après ligne dans la table
+        List<Object[]> attempts = new ArrayList<>();
+        for (int n = 0; n < ATTEMPTS_PER_QUIZ; n++) {
+            for (int q = allQuizIds.size() - 1; q >= 0; q--) {
+                attempts.add(new Object[]{students.get((n + q) % STUDENTS).getId(), allQuizIds.get(q), n + 1, 75.0, true,
+                        Timestamp.valueOf(LocalDateTime.now())});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO quiz_attempts (user_id, quiz_id, attempt_number, score, passed, completed_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", attempts);
+        jdbcTemplate.execute("ANALYZE TABLE quiz_attempts, users, quizzes");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        gradebookExportService.exportCourse(courseId, out);
+        List<String> lines = Arrays.asList(out.toString(StandardCharsets.UTF_8).split("\r\n"));
+
+        assertThat(lines.get(0)).startsWith("\uFEFFquiz_id,quiz_title,course_title");
+        List<String> rows = lines.subList(1, lines.size());
+        assertThat(rows).hasSize(exportedQuizIds.size() * ATTEMPTS_PER_QUIZ);
+        long previousQuiz = 0;
+        long previousAttempt = 0;
+        for (String row : rows) {
+            String[] cells = row.split(",");
+            long quizId = Long.parseLong(cells[0]);
+            long attemptId = Long.parseLong(cells[4]);
+            assertThat(quizId).isGreaterThanOrEqualTo(previousQuiz);
+            if (quizId == previousQuiz) {
+                assertThat(attemptId).isGreaterThan(previousAttempt);
+            }
+            assertThat(cells[2]).isEqualTo("Cours du carnet de notes");
+            previousQuiz = quizId;
+            previousAttempt = attemptId;
+        }
+        assertThat(rows.get(0)).startsWith(exportedQuizIds.get(0) + ",");
+        assertThat(rows.get(rows.size() - 1)).startsWith(exportedQuizIds.get(1) + ",");
+
+        // Tentatives d'un quiz lues dans l'ordre de l'index, sans tri
+        for (Map<String, Object> step : jdbcTemplate.queryForList(
+                "EXPLAIN " + GradebookExportService.SELECT_QUIZ_ATTEMPTS, exportedQuizIds.get(0))) {
+            assertThat(String.valueOf(step.get("Extra"))).as("EXPLAIN %s", step).doesNotContain("filesort");
+        }
+    }
+
+    private Long createCourse(User teacher, String title, int quizCount) {
+        return transactionTemplate.execute(tx -> {
+            Course course = courseRepository.save(Course.builder()
+                    .title(title)
+                    .description("Description")
+                    .teacher(teacher)
+                    .published(true)
+                    .build());
+            for (int i = 1; i <= quizCount; i++) {
+                quizRepository.save(Quiz.builder()
+                        .course(course)
+                        .title(title + " - quiz " + i)
+                        .description("Description")
+                        .level(QuizLevel.BEGINNER)
+                        .passingScore(60)
+                        .maxAttempts(ATTEMPTS_PER_QUIZ)
+                        .build());
+            }
+            return course.getId();
+        });
+    }
+
+    private List<Long> quizIds(Long courseId) {
+        return jdbcTemplate.queryForList("SELECT id FROM quizzes WHERE course_id = ? ORDER BY id", Long.class, courseId);
+    }
+}
@@ -0,0 +1,71 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.SimilarQuestionDto;
+import com.elearnia.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Questions similaires : texte renvoyé seulement pour les quizzes que l'appelant peut lire
+ * (ses cours, quizzes standalone), identifiants et similarité seuls pour les autres.
+ */
+class QuestionSimilarityIndexTest {
+
+    private static final long TEACHER_A = 1L;
+    private static final long TEACHER_B = 2L;
+    private static final String TEXT = "Quelle annotation Spring Boot active la configuration automatique de l'application ?";
+
+    private final QuestionRepository questionRepository = mock(QuestionRepository.class);
+    private QuestionSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(questionRepository.findAllTexts()).thenReturn(List.of(
+                new Object[]{10L, 100L, TEXT, TEACHER_A},
+                new Object[]{20L, 200L, TEXT + " ", TEACHER_B},
+                new Object[]{30L, 300L, " " + TEXT, null}));
+        index = new QuestionSimilarityIndex(questionRepository);
+        ReflectionTestUtils.setField(index, "threshold", 0.6);
+        ReflectionTestUtils.setField(index, "shingleSize", 4);
+        ReflectionTestUtils.setField(index, "bands", 32);
+        ReflectionTestUtils.setField(index, "rows", 4);
+        index.init();
+    }
+
+    @Test
+    void otherTeachersQuestionsComeWithoutText() {
+        Map<Long, SimilarQuestionDto> asA = byQuestion(index.findSimilar(TEXT, null, TEACHER_A, 10));
+        assertThat(asA).containsOnlyKeys(10L, 20L, 30L);
+        assertThat(asA.get(10L).getText()).isEqualTo(TEXT);
+        assertThat(asA.get(30L).getText()).isNotNull();
+        assertThat(asA.get(20L).getText()).isNull();
+        assertThat(asA.get(20L).getQuizId()).isEqualTo(200L);
+        assertThat(asA.get(20L).getSimilarity()).isGreaterThanOrEqualTo(0.6);
+
+        Map<Long, SimilarQuestionDto> asB = byQuestion(index.findSimilar(TEXT, 200L, TEACHER_B, 10));
+        assertThat(asB).containsOnlyKeys(10L, 30L);
+        assertThat(asB.get(10L).getText()).isNull();
+    }
+
+    @Test
+    void reindexedQuizTakesItsNewOwner() {
+        index.indexQuestions(300L, TEACHER_B, Map.of(30L, TEXT));
+
+        assertThat(byQuestion(index.findSimilar(TEXT, null, TEACHER_A, 10)).get(30L).getText()).isNull();
+        assertThat(byQuestion(index.findSimilar(TEXT, null, TEACHER_B, 10)).get(30L).getText()).isEqualTo(TEXT);
+    }
+
+    private static Map<Long, SimilarQuestionDto> byQuestion(List<SimilarQuestionDto> results) {
+        return results.stream().collect(Collectors.toMap(SimilarQuestionDto::getQuestionId, Function.identity()));
+    }
+}
@@ -0,0 +1,247 @@
+package com.elearnia.service;
+
+import com.elearnia.dto.GeneratedLessonDto;
+import com.elearnia.dto.GeneratedQuestionDto;
+import com.elearnia.service.StructuredOutputParser.FieldError;
+import com.elearnia.service.StructuredOutputParser.Result;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+/**
+ * Corpus de sorties de modèles (corpus/ai-outputs.txt) : nombre d'éléments récupérés par cas,
+ * champs des éléments relus, et aucune exception sur une sortie irrécupérable (résultat vide,
+ * l'appelant passe au contenu de secours).
+ */
+class StructuredOutputParserTest {
+
+    private static final String CORPUS = "corpus/ai-outputs.txt";
+    private static final String CASE_HEADER = "=== ";
+
+    private record Case(String name, boolean questions, int expectedItems, String response) {
+    }
+
+    private static Map<String, Case> cases;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StructuredOutputParser parser;
+
+    @BeforeAll
+    static void loadCorpus() throws IOException {
+        cases = readCases();
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        parser = new StructuredOutputParser(meterRegistry);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("caseNames")
+    void recoversExpectedItemCountWithoutThrowing(String name) {
+        Case c = cases.get(name);
+
+        Result<?> result = assertDoesNotThrow(() -> parse(c));
+
+        assertThat(result.getItems()).hasSize(c.expectedItems());
+        assertThat(result.isEmpty()).isEqualTo(c.expectedItems() == 0);
+    }
+
+    // ====== Questions ======
+
+    @Test
+    void validQuestionsResolveIndexLetterAndTextAnswers() {
+        List<GeneratedQuestionDto> questions = parseQuestions("questions-valides").getItems();
+
+        assertThat(questions).extracting(GeneratedQuestionDto::getText, GeneratedQuestionDto::getCorrectAnswer)
+                .containsExactly(
+                        tuple("Quel mot-clé déclare une constante en Java ?", "final"),
+                        tuple("Quelle collection Java garantit l'unicité des éléments ?", "Set"),
+                        tuple("Quelle annotation marque un contrôleur REST dans Spring ?", "@RestController"));
+        assertThat(questions.get(0).getOptions()).containsExactly("final", "const", "static", "var");
+        assertThat(questions).allSatisfy(q -> assertThat(q.getPoints()).isEqualTo(1));
+    }
+
+    @Test
+    void markdownWrappedQuestionsLoseNumberingAndOptionLetters() {
+        Result<GeneratedQuestionDto> result = parseQuestions("questions-markdown");
+
+        assertThat(result.isJsonFound()).isTrue();
+        GeneratedQuestionDto first = result.getItems().get(0);
+        assertThat(first.getText()).isEqualTo("Quel widget Flutter n'a pas d'état interne ?");
+        assertThat(first.getOptions()).containsExactly("StatelessWidget", "StatefulWidget", "InheritedWidget", "State");
+        assertThat(first.getCorrectAnswer()).isEqualTo("StatelessWidget");
+        assertThat(result.getItems().get(1).getCorrectAnswer()).isEqualTo("setState()");
+    }
+
+    @Test
+    void truncatedQuestionsKeepTheCompleteOnes() {
+        Result<GeneratedQuestionDto> result = parseQuestions("questions-tronquees");
+
+        assertThat(result.isRepaired()).isTrue();
+        assertThat(result.getItems()).extracting(GeneratedQuestionDto::getCorrectAnswer)
+                .containsExactly("==", "tuple");
+    }
+
+    @Test
+    void rootArrayWithAlternateFieldNames() {
+        GeneratedQuestionDto question = parseQuestions("questions-tableau-racine").getItems().get(0);
+
+        assertThat(question.getText()).isEqualTo("Quelle clause SQL filtre les lignes d'un résultat ?");
+        assertThat(question.getCorrectAnswer()).isEqualTo("WHERE");
+    }
+
+    @Test
+    void invalidQuestionFieldsAreReportedIndividually() {
+        Result<GeneratedQuestionDto> result = parseQuestions("questions-champs-invalides");
+
+        assertThat(result.getItems()).extracting(GeneratedQuestionDto::getText)
+                .containsExactly("Quelle balise HTML crée un lien hypertexte ?");
+        assertThat(result.getErrors()).extracting(FieldError::getIndex, FieldError::getField)
+                .containsExactly(tuple(0, "question"), tuple(2, "options"), tuple(3, "answer"), tuple(4, "*"));
+    }
+
+    // ====== Leçons ======
+
+    @Test
+    void validLessonsNormalizeTitleAndDuration() {
+        List<GeneratedLessonDto> lessons = parseLessons("lessons-valides").getItems();
+
+        assertThat(lessons).extracting(GeneratedLessonDto::getTitle, GeneratedLessonDto::getOrderIndex,
+                        GeneratedLessonDto::getEstimatedDuration)
+                .containsExactly(
+                        tuple("Introduction à Spring Boot", 1, 20),
+                        tuple("Les contrôleurs REST", 2, 30),
+                        tuple("Accès aux données avec JPA", 3, 45));
+        assertThat(lessons.get(0).getDescription()).startsWith("## Objectifs\n- Créer un projet");
+        assertThat(lessons).allSatisfy(l -> assertThat(l.getVideoUrl()).isNull());
+    }
+
+    @Test
+    void rawMarkdownInDescriptionIsKept() {
+        GeneratedLessonDto lesson = parseLessons("lessons-markdown-brut").getItems().get(0);
+
+        assertThat(lesson.getTitle()).isEqualTo("Les bases de Python");
+        assertThat(lesson.getDescription()).contains("## Variables\n").contains("```python\nx = 42\n```");
+        assertThat(lesson.getEstimatedDuration()).isEqualTo(25);
+    }
+
+    @Test
+    void truncatedLessonIsClosedWithItsPartialDescription() {
+        Result<GeneratedLessonDto> result = parseLessons("lessons-tronquees");
+
+        assertThat(result.isRepaired()).isTrue();
+        assertThat(result.getItems()).extracting(GeneratedLessonDto::getTitle, GeneratedLessonDto::getDescription)
+                .containsExactly(
+                        tuple("Premiers pas avec React", "Composants et props."),
+                        tuple("Le hook useState", "Gérer l'état local d'un compo"));
+    }
+
+    @Test
+    void commentedJsonWithAlternateFieldNames() {
+        List<GeneratedLessonDto> lessons = parseLessons("lessons-commentaires").getItems();
+
+        assertThat(lessons).extracting(GeneratedLessonDto::getTitle, GeneratedLessonDto::getDescription,
+                        GeneratedLessonDto::getEstimatedDuration)
+                .containsExactly(
+                        tuple("Installer l'environnement", "JDK, Maven et IDE.", 15),
+                        tuple("Structure d'un projet Maven", "pom.xml et répertoires standards.", 20));
+    }
+
+    @Test
+    void lessonsWithoutUsableTitleAreDropped() {
+        Result<GeneratedLessonDto> result = parseLessons("lessons-titres-invalides");
+
+        assertThat(result.getItems()).extracting(GeneratedLessonDto::getTitle)
+                .containsExactly("Conclusion et projet final");
+        assertThat(result.getErrors()).extracting(FieldError::getIndex, FieldError::getField)
+                .containsExactly(tuple(0, "title"), tuple(1, "description"), tuple(2, "title"));
+    }
+
+    // ====== Sorties irrécupérables ======
+
+    @Test
+    void unrecoverableOutputsYieldEmptyResults() {
+        Result<GeneratedQuestionDto> noJson = parseQuestions("questions-sans-json");
+        Result<GeneratedQuestionDto> empty = parseQuestions("questions-vide");
+        Result<GeneratedQuestionDto> broken = parseQuestions("questions-json-casse");
+
+        assertThat(noJson.isJsonFound()).isFalse();
+        assertThat(empty.isJsonFound()).isFalse();
+        assertThat(List.of(noJson, empty, broken)).allSatisfy(r -> assertThat(r.isEmpty()).isTrue());
+        assertThat(meterRegistry.counter("ai.output.parse", "kind", "questions", "outcome", "no_json").count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.counter("ai.output.parse", "kind", "questions", "outcome", "invalid").count())
+                .isEqualTo(1);
+        assertThatCode(() -> parser.parseQuestions(null)).doesNotThrowAnyException();
+        assertThatCode(() -> parser.parseLessons(null)).doesNotThrowAnyException();
+    }
+
+    // ====== Corpus ======
+
+    private Result<?> parse(Case c) {
+        return c.questions() ? parser.parseQuestions(c.response()) : parser.parseLessons(c.response());
+    }
+
+    private Result<GeneratedQuestionDto> parseQuestions(String name) {
+        return parser.parseQuestions(cases.get(name).response());
+    }
+
+    private Result<GeneratedLessonDto> parseLessons(String name) {
+        return parser.parseLessons(cases.get(name).response());
+    }
+
+    static List<Arguments> caseNames() throws IOException {
+        return readCases().keySet().stream().map(Arguments::of).toList();
+    }
+
+    private static Map<String, Case> readCases() throws IOException {
+        String content;
+        try (InputStream in = StructuredOutputParserTest.class.getClassLoader().getResourceAsStream(CORPUS)) {
+            assertThat(in).as(CORPUS).isNotNull();
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Map<String, Case> result = new LinkedHashMap<>();
+        String[] header = null;
+        StringBuilder body = new StringBuilder();
+        for (String line : content.split("\n", -1)) {
+            if (line.startsWith(CASE_HEADER)) {
+                if (header != null) {
+                    addCase(result, header, body);
+                }
+                header = line.substring(CASE_HEADER.length()).trim().split("\\s+");
+                body.setLength(0);
+            } else if (header != null) {
+                body.append(line).append('\n');
+            }
+        }
+        if (header != null) {
+            addCase(result, header, body);
+        }
+        assertThat(result).isNotEmpty();
+        return result;
+    }
+
+    private static void addCase(Map<String, Case> cases, String[] header, StringBuilder body) {
+        assertThat(header).as("en-tête de cas").hasSize(3);
+        cases.put(header[0], new Case(header[0], "questions".equals(header[1]), Integer.parseInt(header[2]),
+                body.toString().strip()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.elearnia.service;
+
+import com.elearnia.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Taille du cache bornée même sans entrée expirée : les contextes les plus anciens sont évincés.
+ */
+class StudentContextCacheTest {
+
+    private static final int MAX_ENTRIES = 100;
+
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private StudentContextCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(enrollmentRepository.findByStudentIdWithCourse(anyLong())).thenReturn(List.of());
+        cache = new StudentContextCache(enrollmentRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(cache, "maxEntries", MAX_ENTRIES);
+    }
+
+    @Test
+    void evictsOldestEntriesWhenFull() {
+        for (long studentId = 1; studentId <= 5 * MAX_ENTRIES; studentId++) {
+            cache.get(studentId);
+            assertThat(size()).isLessThanOrEqualTo(MAX_ENTRIES);
+        }
+        clearInvocations(enrollmentRepository);
+
+        // Le plus récent est encore en cache, le premier a été évincé
+        cache.get(5L * MAX_ENTRIES);
+        verify(enrollmentRepository, never()).findByStudentIdWithCourse(5L * MAX_ENTRIES);
+        cache.get(1L);
+        verify(enrollmentRepository, times(1)).findByStudentIdWithCourse(1L);
+    }
+
+    private int size() {
+        return ((Map<?, ?>) ReflectionTestUtils.getField(cache, "cache")).size();
+    }
+}
@@ -0,0 +1,47 @@
+package com.elearnia.support;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * Serveur MariaDB embarqué partagé par tous les tests d'intégration d'une même JVM, démarré au
+ * premier accès (répertoire de données temporaire, supprimé à l'arrêt).
+ *
+ * MariaDB plutôt qu'une base en mémoire : l'application utilise des requêtes propres à MySQL
+ * (INSERT ... ON DUPLICATE KEY UPDATE, information_schema, ALTER TABLE ... MODIFY).
+ */
+public final class EmbeddedMariaDb {
+
+    private static final String DATABASE = "elearnia_test";
+
+    private static DB db;
+
+    private EmbeddedMariaDb() {
+    }
+
+    public static synchronized String jdbcUrl() {
+        if (db == null) {
+            start();
+        }
+        return "jdbc:mysql://localhost:" + db.getConfiguration().getPort() + "/" + DATABASE
+                + "?createDatabaseIfNotExist=true&useSSL=false&serverTimezone=UTC"
+                + "&rewriteBatchedStatements=true&allowPublicKeyRetrieval=true";
+    }
+
+    private static void start() {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        if ("root".equals(System.getProperty("user.name"))) {
+            // mariadbd refuse de démarrer en root sans l'indiquer explicitement (conteneurs CI)
+            config.addArg("--user=root");
+        }
+        try {
+            DB started = DB.newEmbeddedDB(config.build());
+            started.start();
+            db = started;
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Démarrage de MariaDB embarquée impossible", e);
+        }
+    }
+}
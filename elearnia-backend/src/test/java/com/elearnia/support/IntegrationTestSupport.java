@@ -0,0 +1,72 @@
+package com.elearnia.support;
+
+import com.elearnia.model.Role;
+import com.elearnia.model.User;
+import com.elearnia.repository.UserRepository;
+import com.elearnia.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+/**
+ * Base des tests d'intégration : application complète (sécurité, filtres, Jackson) sur MariaDB
+ * embarquée, avec la configuration de production (open-in-view désactivé) et le profil test.
+ * Tous les tests partagent le même contexte et la même base ; chaque test crée ses propres
+ * utilisateurs et ne dépend pas des données des autres.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ResponseWriteProbe.class)
+public abstract class IntegrationTestSupport {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedMariaDb::jdbcUrl);
+    }
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected JwtService jwtService;
+
+    @Autowired
+    protected ResponseWriteProbe responseWriteProbe;
+
+    protected User createUser(Role role) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .fullName(role.name().toLowerCase() + " " + suffix)
+                .email(role.name().toLowerCase() + "-" + suffix + "@test.elearnia.local")
+                .password("{noop}test")
+                .role(role)
+                .build());
+    }
+
+    protected String bearer(User user) {
+        return "Bearer " + jwtService.generateToken(user);
+    }
+
+    protected String json(Object body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+}
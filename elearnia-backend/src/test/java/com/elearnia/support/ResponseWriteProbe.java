@@ -0,0 +1,68 @@
+package com.elearnia.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Relevé pris juste avant la sérialisation d'une réponse, une fois le contrôleur revenu :
+ * nombre de requêtes préparées par Hibernate et présence d'une session liée au thread
+ * (open-in-view). Comparé au nombre de requêtes après la réponse, il montre si la
+ * sérialisation a déclenché du SQL.
+ */
+@TestComponent
+@ControllerAdvice
+public class ResponseWriteProbe implements ResponseBodyAdvice<Object> {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Statistics statistics;
+
+    private final ThreadLocal<Long> statementsAtWrite = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> sessionBoundAtWrite = new ThreadLocal<>();
+
+    public ResponseWriteProbe(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        statementsAtWrite.set(statistics.getPrepareStatementCount());
+        sessionBoundAtWrite.set(TransactionSynchronizationManager.hasResource(entityManagerFactory));
+        return body;
+    }
+
+    public void reset() {
+        statementsAtWrite.remove();
+        sessionBoundAtWrite.remove();
+    }
+
+    /** Requêtes préparées au moment de la sérialisation, ou null si aucune réponse n'a été écrite. */
+    public Long statementsAtWrite() {
+        return statementsAtWrite.get();
+    }
+
+    public boolean sessionBoundAtWrite() {
+        return Boolean.TRUE.equals(sessionBoundAtWrite.get());
+    }
+
+    public long statementCount() {
+        return statistics.getPrepareStatementCount();
+    }
+}